@@ -5,6 +5,7 @@ import java.io.IOException;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
@@ -12,6 +13,7 @@ import org.springframework.web.client.HttpServerErrorException;
 
 @Aspect // This annotation specifies that the class is an aspect for dealing with cross-cutting concerns
 @Component // This annotation registers the class as a Spring bean, making it eligible for dependency injection
+@Order(1) // Outside the RetryAspect, so an error is handled once after the retries give up rather than on every attempt
 public class ErrorHandlingAspect {
 
     private final CustomResponseErrorHandler
@@ -23,22 +25,20 @@ public class ErrorHandlingAspect {
     }
 
     /**
-     * This method is executed after an exception is thrown from any method in the service package.
+     * This method is executed after an exception is thrown from any upstream call, i.e. any method annotated with
+     * UpstreamRetry.
      *
      * The pointcut expression below defines the conditions under which this advice will be applied.
      *
-     * - "execution(public * com.reliaquest.api.service..*(..))":
-     *    - "execution": This is a pointcut designator that matches method execution join points.
-     *    - "public": This indicates that we are interested in methods that are public.
-     *    - "*": This is a wildcard that matches any return type.
-     *    - "com.reliaquest.api.service..*": This specifies the package where the methods are located.
-     *      The ".." means that we are also matching all sub-packages within the service package.
-     *    - "(..)": This indicates that we are matching any method with any number and type of parameters.
+     * - "@annotation(com.reliaquest.api.retry.UpstreamRetry)":
+     *    - "@annotation": This is a pointcut designator that matches the execution of methods carrying the annotation.
+     *    - "com.reliaquest.api.retry.UpstreamRetry": The annotation EmployeeClient and AsyncEmployeeClient put on each
+     *      method that calls the mock server, so exceptions from the services' own in-memory work are not handled here.
      *
      * The "throwing = 'ex'" part specifies that the thrown exception will be accessible in the advice method
      * as the variable 'ex'.
      */
-    @AfterThrowing(pointcut = "execution(public * com.reliaquest.api.service..*(..))", throwing = "ex")
+    @AfterThrowing(pointcut = "@annotation(com.reliaquest.api.retry.UpstreamRetry)", throwing = "ex")
     public void handleError(Exception ex) {
         try {
             if (ex instanceof HttpClientErrorException) { // Check if the exception is a client error
@@ -1,83 +1,88 @@
 package com.reliaquest.api.aspect;
 
 import com.reliaquest.api.config.RetryTemplateConfig;
-import java.util.concurrent.TimeUnit;
+import com.reliaquest.api.retry.AsyncRetryExecutor;
+import com.reliaquest.api.retry.StatusAwareRetryPolicy;
+import com.reliaquest.api.retry.UpstreamAttemptCap;
+import com.reliaquest.api.retry.UpstreamRetry;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
 
 // This annotation indicates that the class is an Aspect in Aspect-Oriented Programming (AOP) in Spring.
 @Aspect
 // This annotation indicates that this class is a Spring component, making it eligible for component scanning and
 // dependency injection.
 @Component
+// Inside the ErrorHandlingAspect, so every attempt is made before the error of the last one is handled.
+@Order(2)
 public class RetryAspect {
-    // This instance will be used to manage retry logic.
-    private final RetryTemplate retryTemplate;
-    // This configuration object contains settings related to the retry logic.
-    private final RetryTemplateConfig retryTemplateConfig;
+    // Source of the shared retry budget and backoff policy every operation's retries use.
+    private final RetryTemplateConfig retryConfig;
+    // This instance retries methods that return a CompletableFuture without holding a thread between attempts.
+    private final AsyncRetryExecutor asyncRetryExecutor;
+    // One retry policy per distinct UpstreamRetry declaration, and a RetryTemplate for each of them.
+    private final Map<UpstreamRetry, StatusAwareRetryPolicy> policies = new ConcurrentHashMap<>();
+    private final Map<UpstreamRetry, RetryTemplate> retryTemplates = new ConcurrentHashMap<>();
 
-    // Constructor that initializes the RetryTemplate and RetryTemplateConfig.
-    public RetryAspect(RetryTemplate retryTemplate, RetryTemplateConfig retryTemplateConfig) {
-        this.retryTemplate = retryTemplate;
-        this.retryTemplateConfig = retryTemplateConfig;
+    // Constructor that initializes the RetryTemplateConfig and AsyncRetryExecutor.
+    public RetryAspect(RetryTemplateConfig retryConfig, AsyncRetryExecutor asyncRetryExecutor) {
+        this.retryConfig = retryConfig;
+        this.asyncRetryExecutor = asyncRetryExecutor;
     }
 
     // The @Around annotation indicates that this method will run "around" the method matched by the pointcut.
     // The pointcut expression below specifies which methods to intercept.
-    // Specifically, it targets any public method within any class located in the com.reliaquest.api.service package or
-    // any of its sub-packages.
-    @Around("execution(public * com.reliaquest.api.service..*(..))")
-    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
-        // Use the retryTemplate to execute the code with retry logic.
-        return retryTemplate.execute(context -> {
-            try {
-                // Proceed with the original method call.
-                return joinPoint.proceed();
-            } catch (Throwable throwable) {
-                // Handle exceptions that occur during the method execution.
-                if (throwable instanceof HttpClientErrorException) {
-                    // Cast the throwable to HttpClientErrorException for specific handling.
-                    HttpClientErrorException clientError = (HttpClientErrorException) throwable;
-                    // Check if the error status code is 429 (Too Many Requests), indicating rate limiting.
-                    if (clientError.getStatusCode().value() == 429) {
-                        // Attempt to retrieve the "Retry-After" header value from the response.
-                        String retryAfterHeader =
-                                clientError.getResponseHeaders().getFirst("Retry-After");
-                        if (retryAfterHeader != null) {
-                            // Parse the "Retry-After" header value to determine how long to wait.
-                            try {
-                                long waitTime =
-                                        Long.parseLong(retryAfterHeader) * 1000; // Convert seconds to milliseconds
-                                // Wait for the specified time before retrying.
-                                TimeUnit.MILLISECONDS.sleep(waitTime);
-                            } catch (NumberFormatException ex) {
-                                // If parsing fails, we will not wait since the duration is unknown.
-                            }
-                        } else {
-                            // Commenting here as a note for improvement: We could have added a default wait time here.
-                        }
+    // Specifically, it targets only methods annotated with @UpstreamRetry, each of which makes a single call to the
+    // mock server (see EmployeeClient and AsyncEmployeeClient). The services' in-memory work around those calls is
+    // therefore never repeated, and each call is retried by the policy its annotation declares.
+    @Around("@annotation(upstreamRetry)")
+    public Object retry(ProceedingJoinPoint joinPoint, UpstreamRetry upstreamRetry) throws Throwable {
+        StatusAwareRetryPolicy policy =
+                policies.computeIfAbsent(upstreamRetry, retryConfig.getRetryPolicy()::forOperation);
+        String operation = joinPoint.getSignature().getName();
 
-                        // If this is the last retry attempt, throw the original exception.
-                        if (context.getRetryCount() >= retryTemplateConfig.getMaxAttempts() - 1) {
-                            throw throwable;
-                        }
-                        // If not the last attempt, rethrow the exception wrapped in a RuntimeException to trigger retry
-                        // logic.
-                        throw new RuntimeException(throwable);
-                    }
-                }
+        // A method returning a CompletableFuture fails by completing the future exceptionally, which the RetryTemplate
+        // never sees. Those are retried by the AsyncRetryExecutor instead: it parks the call on a scheduler during the
+        // backoff rather than sleeping, so the thread is free between attempts. Each attempt calls the method again.
+        if (CompletableFuture.class.isAssignableFrom(((MethodSignature) joinPoint.getSignature()).getReturnType())) {
+            return asyncRetryExecutor.execute(operation, policy, () -> proceedAsync(joinPoint));
+        }
 
-                // For other exceptions, check if maximum retry attempts have been reached.
-                if (context.getRetryCount() >= retryTemplateConfig.getMaxAttempts() - 1) {
-                    throw throwable; // Propagate the original exception after reaching max attempts.
-                }
-                // Rethrow the exception for retry logic in case of non-HTTP errors.
-                throw new RuntimeException(throwable);
+        // Use a RetryTemplate with the operation's policy to execute the call with retry logic. Whether a failure is
+        // retried, and how long to wait first (including honouring the Retry-After of a 429), is decided by the
+        // StatusAwareRetryPolicy and StatusAwareBackOffPolicy, so the original exception is simply passed on. Once no
+        // more retries are allowed the RetryTemplate rethrows it to the caller unchanged. Every attempt counts against
+        // the api request's UpstreamAttemptCap.
+        RetryTemplate retryTemplate = retryTemplates.computeIfAbsent(upstreamRetry, ignored -> {
+            RetryTemplate template = new RetryTemplate();
+            template.setRetryPolicy(policy);
+            template.setBackOffPolicy(retryConfig.getBackOffPolicy());
+            return template;
+        });
+        return retryTemplate.execute(context -> {
+            UpstreamAttemptCap cap = UpstreamAttemptCap.current();
+            if (cap != null) {
+                cap.recordAttempt();
             }
+            return joinPoint.proceed();
         });
     }
+
+    // One attempt of an asynchronous method, with anything it throws turned into a failed future
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<Object> proceedAsync(ProceedingJoinPoint joinPoint) {
+        try {
+            return (CompletableFuture<Object>) joinPoint.proceed();
+        } catch (Throwable throwable) {
+            return CompletableFuture.failedFuture(throwable);
+        }
+    }
 }
@@ -0,0 +1,198 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.model.Employee;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Column oriented copy of the roster rows, kept alongside the Employee objects for the aggregation reads.
+ *
+ * Every field an aggregate touches lives in its own primitive array indexed by row: salaries and ages as ints, and
+ * titles as int codes into a dictionary of the distinct titles. Ids and names are only ever read from the Employee
+ * rows, so they are not copied here. A scan over salaries per title therefore walks two dense int arrays instead of
+ * chasing an Employee, a boxed Integer and a String per row. Rows are append-only and share their numbering with the
+ * snapshot; a deleted row is cleared from the live set and skipped by every scan. The columns are only read through
+ * the aggregates.
+ *
+ * Not thread safe; the owning snapshot guards access.
+ */
+public class EmployeeColumns {
+
+    // Marks a missing salary or age; the mock server never hands out negative values
+    public static final int MISSING = Integer.MIN_VALUE;
+    // Title code of an employee without a title
+    public static final int NO_TITLE = -1;
+
+    private int rowCount;
+    private final BitSet live = new BitSet();
+
+    private int[] salaries;
+    private int[] ages;
+    private int[] titleCodes;
+
+    // Dictionary of distinct titles, in the order they were first seen
+    private String[] titles = new String[16];
+    private int titleCount;
+    private final Map<String, Integer> titleLookup = new HashMap<>();
+
+    public EmployeeColumns(int expectedRows) {
+        int capacity = Math.max(16, expectedRows);
+        salaries = new int[capacity];
+        ages = new int[capacity];
+        titleCodes = new int[capacity];
+    }
+
+    // Appends an employee as the next row and returns that row
+    public int append(Employee employee) {
+        if (rowCount == salaries.length) {
+            grow(rowCount * 2);
+        }
+        int row = rowCount++;
+        salaries[row] = employee.getSalary() == null ? MISSING : employee.getSalary();
+        ages[row] = employee.getAge() == null ? MISSING : employee.getAge();
+        titleCodes[row] = encodeTitle(employee.getTitle());
+        live.set(row);
+        return row;
+    }
+
+    public void remove(int row) {
+        live.clear(row);
+    }
+
+    /**
+     * Aggregates the salaries and ages of every live row.
+     */
+    public SalaryAggregate aggregate() {
+        SalaryAggregate.Builder total = new SalaryAggregate.Builder();
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            total.add(salaries[row], ages[row]);
+        }
+        return total.build();
+    }
+
+    /**
+     * Aggregates the salaries and ages of every live row per title, in title order. Employees without a title are left
+     * out.
+     */
+    public Map<String, SalaryAggregate> aggregateByTitle() {
+        // One accumulator per dictionary code, so the scan itself only ever indexes arrays
+        SalaryAggregate.Builder[] perTitle = new SalaryAggregate.Builder[titleCount];
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            int code = titleCodes[row];
+            if (code == NO_TITLE) {
+                continue;
+            }
+            if (perTitle[code] == null) {
+                perTitle[code] = new SalaryAggregate.Builder();
+            }
+            perTitle[code].add(salaries[row], ages[row]);
+        }
+
+        Map<String, SalaryAggregate> byTitle = new TreeMap<>();
+        for (int code = 0; code < titleCount; code++) {
+            if (perTitle[code] != null) {
+                byTitle.put(titles[code], perTitle[code].build());
+            }
+        }
+        return byTitle;
+    }
+
+    private int encodeTitle(String title) {
+        if (title == null) {
+            return NO_TITLE;
+        }
+        Integer code = titleLookup.get(title);
+        if (code != null) {
+            return code;
+        }
+        if (titleCount == titles.length) {
+            titles = Arrays.copyOf(titles, titleCount * 2);
+        }
+        titles[titleCount] = title;
+        titleLookup.put(title, titleCount);
+        return titleCount++;
+    }
+
+    private void grow(int capacity) {
+        salaries = Arrays.copyOf(salaries, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        titleCodes = Arrays.copyOf(titleCodes, capacity);
+    }
+
+    /**
+     * Count, min, max and total of the salaries of a group of employees, plus their average age. Employees with no
+     * salary or age on record are left out of the corresponding figures.
+     */
+    public static class SalaryAggregate {
+
+        private final int count;
+        private final int minSalary;
+        private final int maxSalary;
+        private final long totalSalary;
+        private final long totalAge;
+        private final int agedCount;
+
+        private SalaryAggregate(Builder builder) {
+            this.count = builder.count;
+            this.minSalary = builder.minSalary;
+            this.maxSalary = builder.maxSalary;
+            this.totalSalary = builder.totalSalary;
+            this.totalAge = builder.totalAge;
+            this.agedCount = builder.agedCount;
+        }
+
+        // Number of employees with a salary on record
+        public int getCount() {
+            return count;
+        }
+
+        public int getMinSalary() {
+            return count == 0 ? 0 : minSalary;
+        }
+
+        public int getMaxSalary() {
+            return count == 0 ? 0 : maxSalary;
+        }
+
+        public long getTotalSalary() {
+            return totalSalary;
+        }
+
+        public double getAverageSalary() {
+            return count == 0 ? 0 : (double) totalSalary / count;
+        }
+
+        public double getAverageAge() {
+            return agedCount == 0 ? 0 : (double) totalAge / agedCount;
+        }
+
+        private static class Builder {
+            private int count;
+            private int minSalary = Integer.MAX_VALUE;
+            private int maxSalary = Integer.MIN_VALUE;
+            private long totalSalary;
+            private long totalAge;
+            private int agedCount;
+
+            private void add(int salary, int age) {
+                if (salary != MISSING) {
+                    count++;
+                    minSalary = Math.min(minSalary, salary);
+                    maxSalary = Math.max(maxSalary, salary);
+                    totalSalary += salary;
+                }
+                if (age != MISSING) {
+                    agedCount++;
+                    totalAge += age;
+                }
+            }
+
+            private SalaryAggregate build() {
+                return new SalaryAggregate(this);
+            }
+        }
+    }
+}
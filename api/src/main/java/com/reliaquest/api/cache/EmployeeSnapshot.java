@@ -0,0 +1,461 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.index.EmployeeIdIndex;
+import com.reliaquest.api.index.NameTrigramIndex;
+import com.reliaquest.api.index.SalaryDistributionIndex;
+import com.reliaquest.api.index.SalaryHistogram;
+import com.reliaquest.api.index.SalaryIndex;
+import com.reliaquest.api.model.Employee;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The employee roster as last fetched from the mock server, together with the indexes every read is answered from.
+ *
+ * The roster is held as append-only rows: an employee created through this api is appended as a new row, a deleted
+ * one leaves an empty row behind, and the indexes are patched in place rather than rebuilt. Rows are compacted the next
+ * time the roster is fetched in full. Reads take a shared lock and patches an exclusive one, so readers always see the
+ * rows and the indexes in agreement.
+ *
+ * Every patch moves the snapshot on to the version it is given, so a version names one state of the roster whether it
+ * was reached by a fetch or by patching an earlier one.
+ *
+ * A snapshot made with unindexed is not kept to answer later reads, so it builds each index only the first time a read
+ * needs it.
+ */
+public class EmployeeSnapshot {
+
+    private volatile long version;
+    private final Instant loadedAt;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Employee per row, null once the employee was deleted
+    private final ArrayList<Employee> rows;
+    // Built with the rows, or left null until first needed in an unindexed snapshot
+    private volatile EmployeeIdIndex idIndex;
+    private volatile NameTrigramIndex nameIndex;
+    private volatile SalaryIndex salaryIndex;
+    private volatile SalaryDistributionIndex salaryDistribution;
+    // Primitive columns over the same rows, scanned by the aggregation reads
+    private volatile EmployeeColumns columns;
+    private int liveCount;
+
+    // Unmodifiable list of the live rows, built lazily on first use and after a patch
+    private volatile List<Employee> employees;
+
+    public EmployeeSnapshot(List<Employee> employees, long version, Instant loadedAt) {
+        this(employees, version, loadedAt, true);
+    }
+
+    private EmployeeSnapshot(List<Employee> employees, long version, Instant loadedAt, boolean indexed) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.rows = new ArrayList<>(employees.size());
+        if (indexed) {
+            this.idIndex = new EmployeeIdIndex(employees.size());
+            this.nameIndex = new NameTrigramIndex(employees.size());
+            this.salaryIndex = new SalaryIndex(employees.size());
+            this.salaryDistribution = new SalaryDistributionIndex();
+            this.columns = new EmployeeColumns(employees.size());
+        }
+        for (Employee employee : employees) {
+            if (employee == null) {
+                continue;
+            }
+            if (indexed) {
+                addRow(employee);
+            } else {
+                rows.add(employee);
+                liveCount++;
+            }
+        }
+        // The list view is built on first use, so the roster is not held twice while the indexes are built
+    }
+
+    /**
+     * A snapshot to answer a single read from, such as when snapshots are not cached: the rows are held as given and
+     * each index is built the first time a read needs it, so a lookup by id does not pay for the name and salary
+     * indexes.
+     */
+    public static EmployeeSnapshot unindexed(List<Employee> employees, long version, Instant loadedAt) {
+        return new EmployeeSnapshot(employees, version, loadedAt, false);
+    }
+
+    public List<Employee> getEmployees() {
+        List<Employee> current = employees;
+        if (current != null) {
+            return current;
+        }
+        lock.readLock().lock();
+        try {
+            List<Employee> live = new ArrayList<>(liveCount);
+            for (Employee employee : rows) {
+                if (employee != null) {
+                    live.add(employee);
+                }
+            }
+            current = Collections.unmodifiableList(live);
+            employees = current;
+            return current;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Looks up an employee by the string form of its id, returning null if absent or not a valid id
+    public Employee findById(String id) {
+        lock.readLock().lock();
+        try {
+            return rowToEmployee(idIndex().get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Employee findById(UUID id) {
+        lock.readLock().lock();
+        try {
+            return rowToEmployee(idIndex().get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Employees whose name contains the search string ignoring case, in roster order
+    public List<Employee> searchByName(String searchString) {
+        lock.readLock().lock();
+        try {
+            int[] matches = nameIndex().search(searchString);
+            List<Employee> found = new ArrayList<>(matches.length);
+            for (int row : matches) {
+                found.add(rows.get(row));
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Highest salary in the roster, or the given default when the roster is empty
+    public int highestSalary(int defaultValue) {
+        lock.readLock().lock();
+        try {
+            return salaryIndex().highest(defaultValue);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Names of the n highest earners, highest first; equal salaries keep roster order
+    public List<String> topEarnerNames(int n) {
+        lock.readLock().lock();
+        try {
+            int[] top = salaryIndex().topRows(n);
+            List<String> names = new ArrayList<>(top.length);
+            for (int row : top) {
+                names.add(rows.get(row).getName());
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Where an employee's salary ranks among the employees with a salary, or null if the employee is not found or has
+    // no salary. The employee, its rank and the total are read under one lock so they come from the same roster
+    public SalaryRank salaryRank(String id) {
+        lock.readLock().lock();
+        try {
+            Employee employee = rowToEmployee(idIndex().get(id));
+            if (employee == null || employee.getSalary() == null) {
+                return null;
+            }
+            SalaryIndex salaries = salaryIndex();
+            return new SalaryRank(employee, salaries.rank(employee.getSalary()), salaries.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Salary and age aggregates over the whole roster, computed from the primitive columns
+    public EmployeeColumns.SalaryAggregate salaryAggregate() {
+        lock.readLock().lock();
+        try {
+            return columns().aggregate();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Salary and age aggregates per title, in title order, computed from the primitive columns
+    public Map<String, EmployeeColumns.SalaryAggregate> salaryAggregateByTitle() {
+        lock.readLock().lock();
+        try {
+            return columns().aggregateByTitle();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Copy of the salary histogram of the given titles merged together, or of the whole roster when none are given
+    public SalaryHistogram salaryHistogram(Collection<String> titles) {
+        lock.readLock().lock();
+        try {
+            return salaryDistribution().histogram(titles);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Copies of the salary histogram of every title, in title order
+    public Map<String, SalaryHistogram> salaryHistogramsByTitle() {
+        lock.readLock().lock();
+        try {
+            return salaryDistribution().histogramsByTitle();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an employee created through this api and moves the snapshot on to the given version. An employee whose id is
+     * already present replaces the existing row.
+     *
+     * @return false if an employee with the same id was already present
+     */
+    public boolean applyCreated(Employee employee, long version) {
+        lock.writeLock().lock();
+        try {
+            buildIndexes();
+            boolean added = true;
+            if (employee.getId() != null) {
+                int existing = idIndex.get(employee.getId());
+                added = existing == EmployeeIdIndex.NOT_FOUND;
+                removeRow(existing);
+            }
+            addRow(employee);
+            employees = null;
+            this.version = version;
+            return added;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted employee and moves the snapshot on to the given version, returning false (and leaving the
+     * snapshot as it was) if the id was not in the snapshot.
+     */
+    public boolean applyDeleted(UUID id, long version) {
+        lock.writeLock().lock();
+        try {
+            buildIndexes();
+            int row = idIndex.get(id);
+            if (row == EmployeeIdIndex.NOT_FOUND) {
+                return false;
+            }
+            removeRow(row);
+            employees = null;
+            this.version = version;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    // How long ago this snapshot was fetched from the mock server
+    public Duration age(Clock clock) {
+        return Duration.between(loadedAt, clock.instant());
+    }
+
+    private void addRow(Employee employee) {
+        int row = rows.size();
+        rows.add(employee);
+        columns.append(employee);
+        if (employee.getId() != null) {
+            idIndex.put(employee.getId(), row);
+        }
+        nameIndex.add(row, employee.getName());
+        if (employee.getSalary() != null) {
+            salaryIndex.add(row, employee.getSalary());
+            salaryDistribution.add(employee.getTitle(), employee.getSalary());
+        }
+        liveCount++;
+    }
+
+    private void removeRow(int row) {
+        if (row == EmployeeIdIndex.NOT_FOUND || rows.get(row) == null) {
+            return;
+        }
+        Employee employee = rows.set(row, null);
+        if (employee.getId() != null) {
+            idIndex.remove(employee.getId());
+        }
+        nameIndex.remove(row);
+        columns.remove(row);
+        if (employee.getSalary() != null) {
+            salaryIndex.remove(row, employee.getSalary());
+            salaryDistribution.remove(employee.getTitle(), employee.getSalary());
+        }
+        liveCount--;
+    }
+
+    // Builds whatever indexes an unindexed snapshot has not built yet, so a patch can keep all of them in step
+    private void buildIndexes() {
+        idIndex();
+        nameIndex();
+        salaryIndex();
+        salaryDistribution();
+        columns();
+    }
+
+    // Each index is built at most once, whichever reader needs it first. Patches build every index before changing the
+    // rows, so an index built here is only ever built from rows with no gaps
+    private EmployeeIdIndex idIndex() {
+        EmployeeIdIndex index = idIndex;
+        return index != null ? index : buildIdIndex();
+    }
+
+    private synchronized EmployeeIdIndex buildIdIndex() {
+        if (idIndex == null) {
+            EmployeeIdIndex index = new EmployeeIdIndex(rows.size());
+            forEachRow((employee, row) -> {
+                if (employee.getId() != null) {
+                    index.put(employee.getId(), row);
+                }
+            });
+            idIndex = index;
+        }
+        return idIndex;
+    }
+
+    private NameTrigramIndex nameIndex() {
+        NameTrigramIndex index = nameIndex;
+        return index != null ? index : buildNameIndex();
+    }
+
+    private synchronized NameTrigramIndex buildNameIndex() {
+        if (nameIndex == null) {
+            NameTrigramIndex index = new NameTrigramIndex(rows.size());
+            forEachRow((employee, row) -> index.add(row, employee.getName()));
+            nameIndex = index;
+        }
+        return nameIndex;
+    }
+
+    private SalaryIndex salaryIndex() {
+        SalaryIndex index = salaryIndex;
+        return index != null ? index : buildSalaryIndex();
+    }
+
+    private synchronized SalaryIndex buildSalaryIndex() {
+        if (salaryIndex == null) {
+            SalaryIndex index = new SalaryIndex(rows.size());
+            forEachRow((employee, row) -> {
+                if (employee.getSalary() != null) {
+                    index.add(row, employee.getSalary());
+                }
+            });
+            salaryIndex = index;
+        }
+        return salaryIndex;
+    }
+
+    private SalaryDistributionIndex salaryDistribution() {
+        SalaryDistributionIndex index = salaryDistribution;
+        return index != null ? index : buildSalaryDistribution();
+    }
+
+    private synchronized SalaryDistributionIndex buildSalaryDistribution() {
+        if (salaryDistribution == null) {
+            SalaryDistributionIndex index = new SalaryDistributionIndex();
+            forEachRow((employee, row) -> {
+                if (employee.getSalary() != null) {
+                    index.add(employee.getTitle(), employee.getSalary());
+                }
+            });
+            salaryDistribution = index;
+        }
+        return salaryDistribution;
+    }
+
+    private EmployeeColumns columns() {
+        EmployeeColumns current = columns;
+        return current != null ? current : buildColumns();
+    }
+
+    private synchronized EmployeeColumns buildColumns() {
+        if (columns == null) {
+            EmployeeColumns built = new EmployeeColumns(rows.size());
+            forEachRow((employee, row) -> built.append(employee));
+            columns = built;
+        }
+        return columns;
+    }
+
+    private void forEachRow(ObjIntConsumer<Employee> action) {
+        for (int row = 0; row < rows.size(); row++) {
+            Employee employee = rows.get(row);
+            if (employee != null) {
+                action.accept(employee, row);
+            }
+        }
+    }
+
+    private Employee rowToEmployee(int row) {
+        return row == EmployeeIdIndex.NOT_FOUND ? null : rows.get(row);
+    }
+
+    // An employee's 1 based salary rank, one more than the number of employees earning strictly more, out of the
+    // number of employees with a salary
+    public static class SalaryRank {
+
+        private final Employee employee;
+        private final int rank;
+        private final int outOf;
+
+        private SalaryRank(Employee employee, int rank, int outOf) {
+            this.employee = employee;
+            this.rank = rank;
+            this.outOf = outOf;
+        }
+
+        public Employee getEmployee() {
+            return employee;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public int getOutOf() {
+            return outOf;
+        }
+    }
+}
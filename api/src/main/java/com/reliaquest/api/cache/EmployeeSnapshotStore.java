@@ -0,0 +1,409 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.client.UpstreamBulkhead;
+import com.reliaquest.api.client.UpstreamCircuitOpenException;
+import com.reliaquest.api.config.AppLoggerProperties;
+import com.reliaquest.api.config.EmployeeCacheProperties;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.deadline.RequestDeadline;
+import com.reliaquest.api.logger.AppLogger;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.retry.UpstreamAttemptCap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the in-process snapshot of the employee roster that EmployeeService (or AsyncEmployeeService in the async
+ * client mode) serves its reads from.
+ *
+ * A read is answered from the current snapshot while it is younger than the configured ttl. Once it passes the
+ * refresh-ahead age a single background refresh is started so the snapshot is replaced before it expires. With
+ * stale-while-revalidate enabled an expired snapshot is still served for up to max-stale while the refresh runs; past
+ * that (or with no snapshot at all) the caller loads the roster itself.
+ *
+ * Loads, blocking or asynchronous, and the background refresh go through a single flight, so however many readers find
+ * the snapshot missing or expired at the same moment only one roster fetch is sent to the mock server.
+ *
+ * While the UpstreamCircuitBreaker is open a load fails fast with an UpstreamCircuitOpenException. Reads are then
+ * answered from the last snapshot that was loaded, however old, instead of failing, and every such read starts a
+ * background refresh so the breaker's half-open probe goes out as soon as it is due. staleAge tells the controllers
+ * whether the snapshot a response was answered from (see ServedSnapshot) is past its ttl.
+ *
+ * Writes made through this api never throw the snapshot away: the created employee, or the deleted id, is patched into
+ * the snapshot and its indexes in place and the snapshot moves on to a new version. Patching does not change the age of
+ * the snapshot, so the full roster is still fetched again on the refresh-ahead schedule. A patch that does not fit the
+ * snapshot, a create of an id it already holds or a delete of one it does not, shows the snapshot has diverged from the
+ * mock server; it is still served, but the next read starts a background refresh however fresh it is.
+ *
+ * With the cache disabled every read loads the roster itself, into an unindexed snapshot that builds only the index
+ * that read needs.
+ *
+ * The RetryAspect only wraps the @UpstreamRetry client methods, so a failed load is retried inside the loader's call to
+ * the client and never by reloading the snapshot; the loader passed in by EmployeeService is responsible for its own
+ * error handling.
+ */
+@Component
+public class EmployeeSnapshotStore {
+
+    private final EmployeeCacheProperties properties;
+    private final Clock clock;
+    private final AppLogger logger;
+    private final ExecutorService refreshExecutor;
+    // Keyed by the generation a load started in so that a load begun before a write is never shared with a reader
+    // arriving after it
+    private final SingleFlight<Long, EmployeeSnapshot> rosterFlight = new SingleFlight<>();
+
+    // Guards against starting more than one background refresh at a time
+    private final AtomicBoolean refreshInFlight = new AtomicBoolean();
+    // Source of monotonically increasing snapshot versions
+    private final AtomicLong versions = new AtomicLong();
+    // Bumped on every invalidation so that loads which started before a write cannot publish pre-write data
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile EmployeeSnapshot snapshot;
+    // The last snapshot published, kept through invalidations as the fallback while the circuit is open
+    private volatile EmployeeSnapshot lastGood;
+    // Set when a load was refused by the open circuit, cleared when a load succeeds again
+    private volatile boolean circuitOpen;
+    // Set when a patch did not fit the snapshot, cleared when a fetched roster is published
+    private volatile boolean diverged;
+
+    private Counter divergences;
+
+    @Autowired
+    public EmployeeSnapshotStore(
+            EmployeeCacheProperties properties,
+            AppLoggerProperties loggerProperties,
+            MeterRegistry meterRegistry,
+            VirtualThreadSupport virtualThreads) {
+        this(properties, Clock.systemUTC(), virtualThreads.threadFactory("employee-snapshot-refresh"));
+        this.logger.setLogLevel(
+                AppLogger.LogLevel.valueOf(loggerProperties.getLogLevel().toUpperCase()));
+        rosterFlight.bindTo(meterRegistry, "employee.upstream.singleflight", "roster");
+        this.divergences = Counter.builder("employee.snapshot.divergence")
+                .description("Writes whose patch showed the employee snapshot had diverged from the mock server")
+                .register(meterRegistry);
+    }
+
+    // Constructor to be used by tests so that the passage of time can be controlled
+    public EmployeeSnapshotStore(EmployeeCacheProperties properties, Clock clock) {
+        this(properties, clock, new VirtualThreadSupport(false).threadFactory("employee-snapshot-refresh"));
+    }
+
+    private EmployeeSnapshotStore(EmployeeCacheProperties properties, Clock clock, ThreadFactory refreshThreads) {
+        this.properties = properties;
+        this.clock = clock;
+        this.logger = new AppLogger(EmployeeSnapshotStore.class);
+        // Virtual in virtual thread mode (see VirtualThreadSupport), a daemon platform thread otherwise
+        this.refreshExecutor = Executors.newSingleThreadExecutor(refreshThreads);
+    }
+
+    /**
+     * Returns a snapshot suitable for answering a read, loading or refreshing it with the given loader as needed.
+     *
+     * @param loader fetches the full roster from the mock server; exceptions it throws propagate to the caller when the
+     *     load is synchronous
+     * @return the snapshot to serve the read from
+     */
+    public EmployeeSnapshot getSnapshot(Supplier<List<Employee>> loader) {
+        if (!properties.isEnabled()) {
+            return rosterFlight.execute(
+                    generation.get(),
+                    () -> EmployeeSnapshot.unindexed(loader.get(), versions.incrementAndGet(), clock.instant()));
+        }
+
+        EmployeeSnapshot current = snapshot;
+        Freshness freshness = freshnessOf(current);
+        if (freshness == Freshness.REFRESH_DUE || freshness == Freshness.STALE) {
+            refreshInBackground(() -> CompletableFuture.runAsync(() -> loadInBackground(loader), refreshExecutor));
+        }
+        return freshness == Freshness.EXPIRED ? loadOrFallback(loader) : current;
+    }
+
+    /**
+     * Asynchronous form of getSnapshot for the async client mode: the same freshness rules apply, but a load needed to
+     * answer the read is chained onto the returned future instead of blocking the calling thread.
+     *
+     * @param loader starts a fetch of the full roster from the mock server
+     */
+    public CompletableFuture<EmployeeSnapshot> getSnapshotAsync(Supplier<CompletableFuture<List<Employee>>> loader) {
+        if (!properties.isEnabled()) {
+            return rosterFlight.executeAsync(generation.get(), () -> loader.get()
+                    .thenApply(employees ->
+                            EmployeeSnapshot.unindexed(employees, versions.incrementAndGet(), clock.instant())));
+        }
+
+        EmployeeSnapshot current = snapshot;
+        Freshness freshness = freshnessOf(current);
+        if (freshness == Freshness.REFRESH_DUE || freshness == Freshness.STALE) {
+            refreshInBackground(() -> loadAsync(loader));
+        }
+        if (freshness != Freshness.EXPIRED) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return loadAsync(loader).exceptionallyCompose(failure -> {
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            EmployeeSnapshot fallback = fallbackFor(cause);
+            return fallback != null
+                    ? CompletableFuture.completedFuture(fallback)
+                    : CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    /**
+     * Like getSnapshot but never loads synchronously: returns null when there is no snapshot or it is too old to be
+     * served, so the caller can fall back to a cheaper targeted upstream call. A due refresh is still started in the
+     * background. While the circuit is open the last good snapshot is returned instead of null, so the caller does not
+     * go to the mock server only to be refused.
+     */
+    public EmployeeSnapshot getSnapshotIfPresent(Supplier<List<Employee>> loader) {
+        EmployeeSnapshot current = snapshot;
+        if (!properties.isEnabled() || (current == null && !circuitOpen)) {
+            return null;
+        }
+
+        Freshness freshness = freshnessOf(current);
+        // While the circuit is open the refresh doubles as the probe that finds out whether it can close
+        boolean fallback = freshness == Freshness.EXPIRED && circuitOpen;
+        if (freshness == Freshness.REFRESH_DUE || freshness == Freshness.STALE || fallback) {
+            refreshInBackground(() -> CompletableFuture.runAsync(() -> loadInBackground(loader), refreshExecutor));
+        }
+        if (freshness != Freshness.EXPIRED) {
+            return current;
+        }
+        return fallback ? lastGood : null;
+    }
+
+    // Asynchronous form of getSnapshotIfPresent; a due refresh is started with the asynchronous loader
+    public EmployeeSnapshot getSnapshotIfPresentAsync(Supplier<CompletableFuture<List<Employee>>> loader) {
+        EmployeeSnapshot current = snapshot;
+        if (!properties.isEnabled() || (current == null && !circuitOpen)) {
+            return null;
+        }
+
+        Freshness freshness = freshnessOf(current);
+        // While the circuit is open the refresh doubles as the probe that finds out whether it can close
+        boolean fallback = freshness == Freshness.EXPIRED && circuitOpen;
+        if (freshness == Freshness.REFRESH_DUE || freshness == Freshness.STALE || fallback) {
+            refreshInBackground(() -> loadAsync(loader));
+        }
+        if (freshness != Freshness.EXPIRED) {
+            return current;
+        }
+        return fallback ? lastGood : null;
+    }
+
+    // Returns the current snapshot without triggering any loading, or null if none has been loaded yet
+    public EmployeeSnapshot peek() {
+        return snapshot;
+    }
+
+    /**
+     * Age of the snapshot a read was answered from if it is past its ttl, that is when it was served stale or as the
+     * fallback while the circuit is open; null when it was fresh.
+     */
+    public Duration staleAge(EmployeeSnapshot served) {
+        if (!properties.isEnabled() || served == null) {
+            return null;
+        }
+        Duration age = served.age(clock);
+        return age.compareTo(properties.getTtl()) >= 0 ? age : null;
+    }
+
+    // Exposes the roster single flight so its issued and coalesced counts can be inspected
+    public SingleFlight<Long, EmployeeSnapshot> getRosterFlight() {
+        return rosterFlight;
+    }
+
+    /**
+     * Patches an employee created through this api into the current snapshot and its indexes, bumping its version.
+     */
+    public void applyCreated(Employee employee) {
+        generation.incrementAndGet(); // Loads already in flight predate this write
+        EmployeeSnapshot current = snapshot != null ? snapshot : lastGood;
+        if (current == null) {
+            return;
+        }
+        if (!current.applyCreated(employee, versions.incrementAndGet())) {
+            diverge("created employee " + employee.getId() + " was already in the snapshot");
+        }
+        logger.debug(
+                "Patched created employee " + employee.getId() + " into snapshot, now version " + current.getVersion());
+    }
+
+    /**
+     * Patches an employee deleted through this api out of the current snapshot and its indexes, bumping its version.
+     */
+    public void applyDeleted(UUID id) {
+        generation.incrementAndGet(); // Loads already in flight predate this write
+        EmployeeSnapshot current = snapshot != null ? snapshot : lastGood;
+        if (current == null) {
+            return;
+        }
+        if (current.applyDeleted(id, versions.incrementAndGet())) {
+            logger.debug("Patched deleted employee " + id + " out of snapshot, now version " + current.getVersion());
+        } else {
+            diverge("deleted employee " + id + " was not in the snapshot");
+        }
+    }
+
+    // Whether a patch has shown the snapshot to differ from the mock server since the roster was last fetched
+    public boolean isDiverged() {
+        return diverged;
+    }
+
+    // Drops the current snapshot so the next read goes back to the mock server; it is still kept as the fallback
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+        logger.debug("Employee snapshot invalidated");
+    }
+
+    // How a read should treat the current snapshot
+    private enum Freshness {
+        FRESH, // Serve it
+        REFRESH_DUE, // Serve it and refresh ahead of expiry
+        STALE, // Expired but within max-stale: serve it while refreshing
+        EXPIRED // Missing or too old to serve: load before answering
+    }
+
+    private Freshness freshnessOf(EmployeeSnapshot current) {
+        if (current == null) {
+            logger.debug("No employee snapshot present, loading");
+            return Freshness.EXPIRED;
+        }
+        Duration age = current.age(clock);
+        if (age.compareTo(properties.getRefreshAhead()) < 0) {
+            // Fresh and not yet due for a refresh, unless a patch showed it no longer matches the mock server
+            return diverged ? Freshness.REFRESH_DUE : Freshness.FRESH;
+        }
+        if (age.compareTo(properties.getTtl()) < 0) {
+            return Freshness.REFRESH_DUE; // Still fresh, refresh ahead of expiry
+        }
+        if (properties.isStaleWhileRevalidate()
+                && age.compareTo(properties.getTtl().plus(properties.getMaxStale())) < 0) {
+            logger.debug("Serving stale employee snapshot version " + current.getVersion() + " aged " + age);
+            return Freshness.STALE;
+        }
+        logger.debug("Employee snapshot version " + current.getVersion() + " expired, loading");
+        return Freshness.EXPIRED;
+    }
+
+    private EmployeeSnapshot load(Supplier<List<Employee>> loader) {
+        long startedGeneration = generation.get();
+        return rosterFlight.execute(startedGeneration, () -> publish(loader.get(), startedGeneration));
+    }
+
+    // Loads the roster, answering from the last good snapshot instead when the open circuit refuses the load
+    private EmployeeSnapshot loadOrFallback(Supplier<List<Employee>> loader) {
+        try {
+            return load(loader);
+        } catch (UpstreamCircuitOpenException e) {
+            EmployeeSnapshot fallback = fallbackFor(e);
+            if (fallback == null) {
+                throw e;
+            }
+            return fallback;
+        }
+    }
+
+    // The snapshot to answer from when a load failed with the given exception, or null if the failure should propagate
+    private EmployeeSnapshot fallbackFor(Throwable failure) {
+        if (!(failure instanceof UpstreamCircuitOpenException)) {
+            return null;
+        }
+        circuitOpen = true;
+        EmployeeSnapshot fallback = lastGood;
+        if (fallback != null) {
+            logger.warn("Circuit to the mock server is open, serving employee snapshot version " + fallback.getVersion()
+                    + " aged " + fallback.age(clock));
+        }
+        return fallback;
+    }
+
+    // Blocking load made on the refresh thread for a background refresh
+    private void loadInBackground(Supplier<List<Employee>> loader) {
+        try (UpstreamBulkhead.Binding refreshing = UpstreamBulkhead.bindRefresh()) {
+            load(loader);
+        }
+    }
+
+    private CompletableFuture<EmployeeSnapshot> loadAsync(Supplier<CompletableFuture<List<Employee>>> loader) {
+        long startedGeneration = generation.get();
+        return rosterFlight.executeAsync(
+                startedGeneration, () -> loader.get().thenApply(employees -> publish(employees, startedGeneration)));
+    }
+
+    private EmployeeSnapshot publish(List<Employee> employees, long startedGeneration) {
+        EmployeeSnapshot loaded = new EmployeeSnapshot(employees, versions.incrementAndGet(), clock.instant());
+        circuitOpen = false; // The mock server answered, so the circuit is no longer open
+        if (generation.get() == startedGeneration) {
+            diverged = false; // The fetched roster is the mock server's own
+            snapshot = loaded;
+            lastGood = loaded;
+            logger.debug("Published employee snapshot version " + loaded.getVersion() + " with "
+                    + loaded.getEmployees().size() + " employees");
+        } else {
+            // A write happened while we were loading, so this data may already be out of date; hand it to the caller
+            // that asked for it but do not cache it
+            logger.debug("Discarding employee snapshot version " + loaded.getVersion() + " loaded across a write");
+        }
+        return loaded;
+    }
+
+    // Marks the snapshot for a full refresh on the next read
+    private void diverge(String reason) {
+        diverged = true;
+        if (divergences != null) {
+            divergences.increment();
+        }
+        logger.warn("Employee snapshot diverged from the mock server, refreshing: " + reason);
+    }
+
+    // Starts the given refresh unless one is already running. The refresh serves every reader rather than the api
+    // request that happened to start it, so it runs without that request's RequestDeadline and UpstreamAttemptCap, and
+    // in the refresh UpstreamBulkhead compartment rather than the read one
+    private void refreshInBackground(Supplier<CompletableFuture<?>> refresh) {
+        if (!refreshInFlight.compareAndSet(false, true)) {
+            return; // A refresh is already running
+        }
+        try (RequestDeadline.Binding noDeadline = RequestDeadline.bind(null);
+                UpstreamAttemptCap.Binding noCap = UpstreamAttemptCap.bind(null);
+                UpstreamBulkhead.Binding refreshing = UpstreamBulkhead.bindRefresh()) {
+            refresh.get().whenComplete((ignored, failure) -> {
+                if (failure != null) {
+                    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    if (cause instanceof UpstreamCircuitOpenException) {
+                        circuitOpen = true;
+                    }
+                    // Keep serving the current snapshot; the next read past refresh-ahead will try again
+                    logger.warn("Background refresh of employee snapshot failed: " + cause.getMessage());
+                }
+                refreshInFlight.set(false);
+            });
+        } catch (RuntimeException e) {
+            refreshInFlight.set(false);
+            logger.warn("Background refresh of employee snapshot could not be started: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
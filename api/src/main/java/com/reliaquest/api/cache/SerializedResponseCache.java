@@ -0,0 +1,156 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.stereotype.Component;
+
+/**
+ * The serialized bytes of responses answered from the roster snapshot, kept for the snapshot version they were
+ * serialized from so that repeated reads of an unchanged roster are neither recomputed into JSON nor compressed again.
+ * Responses of at least gzipMinBytes are kept gzip compressed as well. Each compression is recorded as
+ * employee.response.compression.ratio, the response's size over its compressed size, and
+ * employee.response.compression.deflate, the CPU time spent compressing it; as a response is compressed once per
+ * snapshot version rather than once per read, the two show what serving it compressed costs.
+ *
+ * Only the newest version's responses are held: the first response cached for a newer version drops all the older
+ * ones, and a response for an older version is handed back without being kept.
+ *
+ * Each version has a strong ETag of its own, per encoding. Snapshot versions start again whenever the api restarts, so
+ * the tags also carry the time this cache was created to keep a restarted api from matching tags it never issued.
+ */
+@Component
+public class SerializedResponseCache {
+
+    private final ResponseCacheProperties properties;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final DistributionSummary ratio;
+    private final Timer deflateTime;
+
+    private volatile Generation generation = new Generation(-1);
+
+    public SerializedResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.ratio = DistributionSummary.builder("employee.response.compression.ratio")
+                .description("Size over gzip compressed size of roster read responses")
+                .register(meterRegistry);
+        this.deflateTime = Timer.builder("employee.response.compression.deflate")
+                .description("Time spent gzip compressing roster read responses")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // The cached response for the key at the given snapshot version, or null
+    public Entry get(String key, long version) {
+        Generation current = generation;
+        return current.version == version ? current.entries.get(key) : null;
+    }
+
+    /**
+     * Keeps the serialized response for the key at the given snapshot version, compressing it if it is large enough.
+     *
+     * @return the entry, which is handed back even when it was not kept
+     */
+    public Entry put(String key, long version, byte[] json) {
+        Entry entry = new Entry(
+                json,
+                json.length >= properties.getGzipMinBytes() ? gzip(json) : null,
+                etag(version, false),
+                etag(version, true));
+        Generation current = generationFor(version);
+        if (current != null && current.entries.size() < properties.getMaxEntries()) {
+            current.entries.putIfAbsent(key, entry);
+        }
+        return entry;
+    }
+
+    // The generation for the version, started if the version is newer than the current one, or null if it is older
+    private Generation generationFor(long version) {
+        Generation current = generation;
+        if (current.version == version) {
+            return current;
+        }
+        if (current.version > version) {
+            return null;
+        }
+        synchronized (this) {
+            if (generation.version < version) {
+                generation = new Generation(version);
+            }
+            return generation.version == version ? generation : null;
+        }
+    }
+
+    // The strong ETag of a response served from the given snapshot version, in its identity or gzip encoding
+    public String etag(long version, boolean gzip) {
+        return "\"" + epoch + "-" + version + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    private byte[] gzip(byte[] bytes) {
+        long start = System.nanoTime();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        deflateTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        ratio.record((double) bytes.length / compressed.size());
+        return compressed.toByteArray();
+    }
+
+    // The responses cached for one snapshot version
+    private static final class Generation {
+
+        private final long version;
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+        Generation(long version) {
+            this.version = version;
+        }
+    }
+
+    // One response's serialized forms and their ETags
+    public static final class Entry {
+
+        private final byte[] json;
+        private final byte[] gzip; // Null when the response is too small to be worth compressing
+        private final String etag;
+        private final String gzipEtag;
+
+        Entry(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+            this.gzipEtag = gzipEtag;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getGzipEtag() {
+            return gzipEtag;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.reliaquest.api.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.function.UnaryOperator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Notes on an api request which roster snapshot its response was answered from, so StaleSnapshotHeaderAdvice only
+ * marks responses that really came from a snapshot past its ttl. A read that went to the mock server instead, such as
+ * a lookup by id of an employee newer than the snapshot, is left unmarked.
+ */
+public final class ServedSnapshot {
+
+    private static final String ATTRIBUTE = ServedSnapshot.class.getName();
+
+    private ServedSnapshot() {}
+
+    // Notes that the current request is answered from the snapshot and returns it; does nothing outside a request
+    public static EmployeeSnapshot mark(EmployeeSnapshot snapshot) {
+        return marker().apply(snapshot);
+    }
+
+    // Like mark, but the request is looked up now so the marker can be applied on whichever thread the snapshot
+    // arrives on in the async client mode
+    public static UnaryOperator<EmployeeSnapshot> marker() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return snapshot -> snapshot;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        return snapshot -> {
+            if (snapshot != null) {
+                request.setAttribute(ATTRIBUTE, snapshot);
+            }
+            return snapshot;
+        };
+    }
+
+    // The snapshot the request was answered from, or null if it was not answered from one
+    public static EmployeeSnapshot of(HttpServletRequest request) {
+        return (EmployeeSnapshot) request.getAttribute(ATTRIBUTE);
+    }
+}
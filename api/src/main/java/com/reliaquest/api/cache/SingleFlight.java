@@ -0,0 +1,141 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.deadline.DeadlineExceededException;
+import com.reliaquest.api.deadline.RequestDeadline;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution.
+ *
+ * The first caller for a key runs the supplier on its own thread; every caller that arrives while that call is in
+ * flight waits for it and receives the same result, or the same exception. Once the call completes the key is released
+ * so the next caller issues a fresh call. Blocking (execute) and asynchronous (executeAsync) callers of the same key
+ * share one call. A blocking waiter stops waiting at its own RequestDeadline, leaving the call to the others.
+ *
+ * @param <K> key identifying the upstream resource being fetched
+ * @param <V> result of the fetch
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong issued = new AtomicLong(); // Calls that actually ran the supplier
+    private final AtomicLong coalesced = new AtomicLong(); // Calls that attached to one already in flight
+
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        issued.incrementAndGet();
+        try {
+            V value = supplier.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Asynchronous form of execute: the first caller for a key starts the call the supplier returns, and every caller
+     * arriving before it completes is handed the same future. Nobody waits on a thread.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+
+        issued.incrementAndGet();
+        CompletableFuture<V> started;
+        try {
+            started = supplier.get();
+        } catch (RuntimeException | Error e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        started.whenComplete((value, failure) -> {
+            inFlight.remove(key, call);
+            if (failure != null) {
+                call.completeExceptionally(unwrap(failure));
+            } else {
+                call.complete(value);
+            }
+        });
+        return call;
+    }
+
+    public long getIssuedCount() {
+        return issued.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    // Publishes the issued and coalesced counts as <name>{outcome=issued|coalesced} tagged with the resource name
+    public SingleFlight<K, V> bindTo(MeterRegistry registry, String name, String resource) {
+        FunctionCounter.builder(name, issued, AtomicLong::get)
+                .description("Upstream calls issued versus coalesced onto a call already in flight")
+                .tag("resource", resource)
+                .tag("outcome", "issued")
+                .register(registry);
+        FunctionCounter.builder(name, coalesced, AtomicLong::get)
+                .description("Upstream calls issued versus coalesced onto a call already in flight")
+                .tag("resource", resource)
+                .tag("outcome", "coalesced")
+                .register(registry);
+        return this;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private V await(CompletableFuture<V> call) {
+        RequestDeadline deadline = RequestDeadline.current();
+        try {
+            if (deadline == null) {
+                return call.join();
+            }
+            return call.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause(), e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause(), new CompletionException(e.getCause()));
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Deadline of "
+                    + deadline.getTimeout().toMillis() + " ms reached waiting for a call already in flight");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    // Hand the waiter the same exception the issuing caller saw so error handling and retries behave the same
+    private static RuntimeException rethrow(Throwable cause, RuntimeException otherwise) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return otherwise;
+    }
+}
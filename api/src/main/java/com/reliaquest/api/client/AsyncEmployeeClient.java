@@ -0,0 +1,272 @@
+package com.reliaquest.api.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.config.AppLoggerProperties;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.deadline.RequestDeadline;
+import com.reliaquest.api.dto.CreateEmployeeResponse;
+import com.reliaquest.api.dto.DeleteEmployeeResponse;
+import com.reliaquest.api.dto.DeleteMockEmployeeInput;
+import com.reliaquest.api.dto.EmployeeDTO;
+import com.reliaquest.api.dto.GetEmployeeResponse;
+import com.reliaquest.api.logger.AppLogger;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.retry.UpstreamRetry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Non-blocking client for the mock employee server, used in the async client mode (app.rest.client.mode=async).
+ *
+ * Calls are sent with the JDK HttpClient's sendAsync, so no thread is held while a request is in flight. Failures are
+ * classified the same way CustomResponseErrorHandler does for the RestTemplate (408, 429 and 5xx become an
+ * HttpClientErrorException). Each method makes a single attempt and declares its retries with @UpstreamRetry, like
+ * EmployeeClient's; the RetryAspect hands the returned futures to the AsyncRetryExecutor. Every call checks the
+ * UpstreamCircuitBreaker and then asks the UpstreamRateLimiter for a permit first, after taking a place in its
+ * UpstreamBulkhead compartment without waiting for one. Roster and by-id reads may be hedged by the UpstreamHedger.
+ * Responses are asked for gzip compressed and decompressed as they arrive by the UpstreamCompression, and in the
+ * encoding the UpstreamEncoding negotiates, JSON or Smile.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.rest.client", name = "mode", havingValue = "async")
+public class AsyncEmployeeClient {
+
+    private final AppLogger logger;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI baseUri;
+    private final Duration readTimeout;
+    private final Executor callbackExecutor; // Null outside virtual thread mode
+    private final UpstreamRateLimiter rateLimiter;
+    private final UpstreamCircuitBreaker circuitBreaker;
+    private final UpstreamHedger hedger;
+    private final UpstreamBulkhead bulkhead;
+    private final UpstreamCompression compression;
+    private final UpstreamEncoding encoding;
+
+    @Autowired
+    public AsyncEmployeeClient(
+            ObjectMapper objectMapper,
+            AppLoggerProperties loggerProperties,
+            VirtualThreadSupport virtualThreads,
+            UpstreamRateLimiter rateLimiter,
+            UpstreamCircuitBreaker circuitBreaker,
+            UpstreamHedger hedger,
+            UpstreamBulkhead bulkhead,
+            UpstreamCompression compression,
+            UpstreamEncoding encoding,
+            @Value("${app.rest.base-url:http://localhost:8112/api/v1/employee}") String baseUrl,
+            @Value("${app.rest.timeout.connect:10}") long connectTimeout,
+            @Value("${app.rest.timeout.read:120}") long readTimeout) {
+        this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.hedger = hedger;
+        this.bulkhead = bulkhead;
+        this.compression = compression;
+        this.encoding = encoding;
+        this.baseUri = URI.create(baseUrl);
+        this.readTimeout = Duration.ofSeconds(readTimeout);
+        HttpClient.Builder httpClientBuilder =
+                HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(connectTimeout));
+        // In virtual thread mode run response callbacks on virtual threads too
+        this.callbackExecutor = virtualThreads.virtualExecutorOrNull("employee-client");
+        if (callbackExecutor != null) {
+            httpClientBuilder.executor(callbackExecutor);
+        }
+        this.httpClient = httpClientBuilder.build();
+        this.logger = new AppLogger(AsyncEmployeeClient.class);
+        this.logger.setLogLevel(
+                AppLogger.LogLevel.valueOf(loggerProperties.getLogLevel().toUpperCase()));
+    }
+
+    // Fetches the full roster; an unexpected response yields an empty list like the blocking fetch does. A 200's body
+    // is parsed by a StreamingRosterParser as it arrives instead of being buffered whole first
+    @UpstreamRetry
+    public CompletableFuture<List<Employee>> getAllEmployees() {
+        HttpResponse.BodyHandler<List<Employee>> roster = info -> info.statusCode() == HttpStatus.OK.value()
+                ? StreamingRosterParser.bodySubscriber(encoding.mapperFor(contentType(info.headers())))
+                : HttpResponse.BodySubscribers.replacing(null);
+        return hedger.hedgeAsync(
+                        RequestPriority.BULK, () -> send(request(baseUri).GET(), RequestPriority.BULK, roster))
+                .thenApply(response -> {
+                    if (response.statusCode() != HttpStatus.OK.value() || response.body() == null) {
+                        logger.info("Unexpected response status " + response.statusCode() + " for " + response.uri());
+                        return List.<Employee>of();
+                    }
+                    return response.body();
+                });
+    }
+
+    // Fetches one employee, completing with null when the mock server does not know the id
+    @UpstreamRetry
+    public CompletableFuture<Employee> getEmployeeById(String id) {
+        URI uri = baseUri.resolve(baseUri.getPath() + "/" + id);
+        return hedger.hedgeAsync(RequestPriority.BY_ID, () -> send(request(uri).GET(), RequestPriority.BY_ID))
+                .thenApply(response -> {
+                    GetEmployeeResponse body = parseIfOk(response, GetEmployeeResponse.class);
+                    return body == null ? null : body.getData();
+                });
+    }
+
+    // Creates an employee; the idempotency key identifies this create across retries, as in EmployeeClient
+    @UpstreamRetry
+    public CompletableFuture<Employee> createEmployee(EmployeeDTO employeeDTO, String idempotencyKey) {
+        return send(
+                        request(baseUri)
+                                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                                .header(EmployeeClient.IDEMPOTENCY_KEY, idempotencyKey)
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(employeeDTO))),
+                        RequestPriority.WRITE)
+                .thenApply(response -> {
+                    CreateEmployeeResponse body = parseIfOk(response, CreateEmployeeResponse.class);
+                    if (body == null) {
+                        throw new HttpClientErrorException(HttpStatusCode.valueOf(response.statusCode()));
+                    }
+                    return body.getData();
+                });
+    }
+
+    // Deletes the employee with the given name, which is how the mock server identifies the employee to delete
+    @UpstreamRetry
+    public CompletableFuture<Boolean> deleteEmployeeByName(String name, String idempotencyKey) {
+        DeleteMockEmployeeInput input = new DeleteMockEmployeeInput();
+        input.setName(name);
+        return send(
+                        request(baseUri)
+                                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                                .header(EmployeeClient.IDEMPOTENCY_KEY, idempotencyKey)
+                                .method("DELETE", HttpRequest.BodyPublishers.ofByteArray(toJson(input))),
+                        RequestPriority.WRITE)
+                .thenApply(response -> {
+                    DeleteEmployeeResponse body = parseIfOk(response, DeleteEmployeeResponse.class);
+                    if (body == null || !body.isSuccess()) {
+                        throw new HttpClientErrorException(HttpStatusCode.valueOf(response.statusCode()));
+                    }
+                    return true;
+                });
+    }
+
+    // The request times out at the read timeout, or sooner when the api request's deadline is closer
+    private HttpRequest.Builder request(URI uri) {
+        Duration timeout = RequestDeadline.clampCurrent(readTimeout);
+        return HttpRequest.newBuilder(uri)
+                .timeout(timeout.isZero() ? Duration.ofMillis(1) : timeout)
+                .header(HttpHeaders.ACCEPT, encoding.accept());
+    }
+
+    // Sends once the circuit breaker and the rate limiter let the call through. An open circuit fails the attempt with
+    // an UpstreamCircuitOpenException, which is not retried; without a rate limiter permit it fails with a client side
+    // 429 whose Retry-After the retry waits out, so no thread queues for the permit. A call the api request's deadline
+    // leaves no time for fails with a DeadlineExceededException without being sent
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest.Builder builder, RequestPriority priority) {
+        return send(builder, priority, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(
+            HttpRequest.Builder builder, RequestPriority priority, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (compression.isEnabled()) {
+            builder.setHeader(HttpHeaders.ACCEPT_ENCODING, UpstreamCompression.GZIP);
+        }
+        HttpRequest request = builder.build();
+        try {
+            RequestDeadline.checkCurrent(request.method() + " " + request.uri());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        UpstreamBulkhead.Permit permit;
+        try {
+            permit = bulkhead.tryAcquire(UpstreamBulkhead.compartmentOf(request.method()));
+        } catch (BulkheadFullException e) {
+            logger.debug(e.getMessage() + ": " + request.method() + " " + request.uri());
+            return CompletableFuture.failedFuture(e);
+        }
+        long openFor = circuitBreaker.tryAcquire();
+        if (openFor > 0) {
+            logger.debug("Circuit open, failing " + request.method() + " " + request.uri() + " fast");
+            permit.close();
+            return CompletableFuture.failedFuture(UpstreamCircuitBreaker.rejection(openFor));
+        }
+        long delay = rateLimiter.tryAcquire(priority);
+        if (delay > 0) {
+            logger.debug("Rate limiter held back " + request.method() + " " + request.uri() + " for " + delay + " ms");
+            circuitBreaker.release(); // The mock server never saw the call
+            permit.close();
+            return CompletableFuture.failedFuture(UpstreamRateLimiter.rejection(delay));
+        }
+        logger.debug("Sending request " + request.method() + " " + request.uri());
+        return httpClient
+                .sendAsync(request, compression.isEnabled() ? compression.decoding(bodyHandler) : bodyHandler)
+                .whenComplete((response, failure) -> {
+                    permit.close();
+                    if (failure == null) {
+                        rateLimiter.onResponse(response.statusCode());
+                        circuitBreaker.onResponse(response.statusCode());
+                    } else {
+                        rateLimiter.onFailure();
+                        circuitBreaker.onFailure();
+                    }
+                })
+                .thenApply(this::checkStatus);
+    }
+
+    // Same classification as CustomResponseErrorHandler: these statuses are worth retrying, anything else is handed
+    // back to the caller. The exception carries the body when it was read as bytes
+    private <T> HttpResponse<T> checkStatus(HttpResponse<T> response) {
+        int status = response.statusCode();
+        logger.debug("Received response " + status + " for " + response.uri());
+        if (status == 408 || status == 429 || status >= 500) {
+            HttpHeaders headers = new HttpHeaders();
+            response.headers().map().forEach(headers::addAll);
+            HttpStatus known = HttpStatus.resolve(status);
+            throw new HttpClientErrorException(
+                    HttpStatusCode.valueOf(status),
+                    known == null ? "" : known.getReasonPhrase(),
+                    headers,
+                    response.body() instanceof byte[] body ? body : null,
+                    StandardCharsets.UTF_8);
+        }
+        return response;
+    }
+
+    private <T> T parseIfOk(HttpResponse<byte[]> response, Class<T> type) {
+        if (response.statusCode() != HttpStatus.OK.value() || response.body() == null) {
+            logger.info("Unexpected response status " + response.statusCode() + " for " + response.uri());
+            return null;
+        }
+        try {
+            return encoding.mapperFor(contentType(response.headers())).readValue(response.body(), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String contentType(java.net.http.HttpHeaders headers) {
+        return headers.firstValue(HttpHeaders.CONTENT_TYPE).orElse(null);
+    }
+
+    private byte[] toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
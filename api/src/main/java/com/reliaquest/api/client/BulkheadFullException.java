@@ -0,0 +1,27 @@
+package com.reliaquest.api.client;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown instead of calling the mock server when the UpstreamBulkhead compartment for the call is full and its queue
+ * has no room or the call waited as long as it may. The api request is answered 503 rather than left to pile up
+ * behind the calls already in flight.
+ *
+ * It is not an HTTP status error, so the retries classify it as permanent and give up straight away.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+
+    private final UpstreamBulkhead.Compartment compartment;
+
+    public BulkheadFullException(UpstreamBulkhead.Compartment compartment, String message) {
+        super(message);
+        this.compartment = compartment;
+    }
+
+    // The kind of call that was rejected
+    public UpstreamBulkhead.Compartment getCompartment() {
+        return compartment;
+    }
+}
@@ -0,0 +1,54 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.deadline.RequestDeadline;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Request factory for the pooled HttpClient that shortens each call's timeouts to the RequestDeadline of the api
+ * request it is made for: the response (socket read) timeout becomes the smaller of the read timeout and the time left,
+ * and so does the wait for a pooled connection. Calls made without a deadline keep the client's configuration
+ * unchanged.
+ */
+public class DeadlineAwareRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final Duration readTimeout;
+
+    public DeadlineAwareRequestFactory(HttpClient httpClient, Duration readTimeout) {
+        super(httpClient);
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            return super.createHttpContext(httpMethod, uri);
+        }
+        // A config in the context replaces the client's default one entirely, so start from that
+        RequestConfig defaults = createRequestConfig(getHttpClient());
+        RequestConfig.Builder config = defaults != null ? RequestConfig.copy(defaults) : RequestConfig.custom();
+        config.setResponseTimeout(toTimeout(deadline.clamp(readTimeout)));
+        Timeout poolWait = defaults != null ? defaults.getConnectionRequestTimeout() : null;
+        config.setConnectionRequestTimeout(toTimeout(
+                poolWait == null || poolWait.isDisabled()
+                        ? deadline.remaining()
+                        : deadline.clamp(Duration.ofMillis(poolWait.toMilliseconds()))));
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(config.build());
+        return context;
+    }
+
+    // A zero timeout would mean no timeout at all, so the shortest one is a millisecond
+    private static Timeout toTimeout(Duration duration) {
+        return Timeout.of(Math.max(1, duration.toMillis()), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,192 @@
+package com.reliaquest.api.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a gzip encoded response body as its compressed chunks arrive, so neither the compressed nor the
+ * decompressed body is ever held whole. Unlike GZIPInputStream it is pushed to rather than pulled from, which lets the
+ * async client decode on the HttpClient's callback thread without blocking it.
+ *
+ * Only the time spent inflating is counted as the decoder's cost, not the time spent waiting for the body to arrive.
+ * A decoder reads one body and is not thread safe. Bodies of several concatenated gzip members are not supported: the
+ * mock server, like any servlet container, sends one.
+ */
+public final class GzipDecoder {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int TRAILER_LENGTH = 8;
+
+    private enum State {
+        HEADER,
+        BODY,
+        TRAILER,
+        DONE
+    }
+
+    private final Inflater inflater = new Inflater(true); // Raw deflate: the gzip framing is read here
+    private final CRC32 crc = new CRC32();
+    private final ByteArrayOutputStream header = new ByteArrayOutputStream(16);
+    private final byte[] trailer = new byte[TRAILER_LENGTH];
+    private final byte[] out = new byte[16 * 1024];
+    private State state = State.HEADER;
+    private int trailerLength;
+
+    private long compressedBytes;
+    private long decompressedBytes;
+    private long inflateNanos;
+
+    // Receives the body as it is decompressed; the chunk is only valid until the call returns
+    @FunctionalInterface
+    public interface Sink {
+        void accept(ByteBuffer chunk) throws IOException;
+    }
+
+    /**
+     * Decompresses the next chunk of the body, handing whatever it decompresses to to the sink.
+     *
+     * @throws ZipException when the chunk is not valid gzip
+     */
+    public void decode(ByteBuffer compressed, Sink sink) throws IOException {
+        compressedBytes += compressed.remaining();
+        while (compressed.hasRemaining()) {
+            switch (state) {
+                case HEADER -> readHeader(compressed);
+                case BODY -> inflate(compressed, sink);
+                case TRAILER -> readTrailer(compressed);
+                case DONE -> compressed.position(compressed.limit()); // Nothing may follow the trailer
+            }
+        }
+    }
+
+    // Checks that the whole body has been decoded and releases the inflater. A body with no bytes at all, such as the
+    // answer to a HEAD, is taken to be empty
+    public void finish() throws IOException {
+        inflater.end();
+        if (state != State.DONE && compressedBytes > 0) {
+            throw new EOFException("Gzip body ended before its trailer");
+        }
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public long getDecompressedBytes() {
+        return decompressedBytes;
+    }
+
+    public long getInflateNanos() {
+        return inflateNanos;
+    }
+
+    // The header is a few bytes, so it is collected a byte at a time until its optional fields are complete
+    private void readHeader(ByteBuffer compressed) throws ZipException {
+        header.write(compressed.get());
+        int length = headerLength(header.toByteArray());
+        if (length == header.size()) {
+            state = State.BODY;
+        }
+    }
+
+    // The length of the gzip header at the start of the bytes, or -1 while it is incomplete
+    private static int headerLength(byte[] bytes) throws ZipException {
+        if (bytes.length < 10) {
+            if ((bytes.length > 0 && (bytes[0] & 0xff) != 0x1f) || (bytes.length > 1 && (bytes[1] & 0xff) != 0x8b)) {
+                throw new ZipException("Not in gzip format");
+            }
+            return -1;
+        }
+        if (bytes[2] != 8) {
+            throw new ZipException("Unsupported gzip compression method " + bytes[2]);
+        }
+        int flags = bytes[3];
+        int position = 10;
+        if ((flags & FEXTRA) != 0) {
+            if (bytes.length < position + 2) {
+                return -1;
+            }
+            position += 2 + ((bytes[position] & 0xff) | (bytes[position + 1] & 0xff) << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            position = afterZero(bytes, position);
+        }
+        if ((flags & FCOMMENT) != 0 && position >= 0) {
+            position = afterZero(bytes, position);
+        }
+        if ((flags & FHCRC) != 0 && position >= 0) {
+            position += 2;
+        }
+        return position >= 0 && position <= bytes.length ? position : -1;
+    }
+
+    // The position after the zero byte ending the string that starts at the given position, or -1 if not yet seen
+    private static int afterZero(byte[] bytes, int position) {
+        for (int i = position; i < bytes.length; i++) {
+            if (bytes[i] == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private void inflate(ByteBuffer compressed, Sink sink) throws IOException {
+        inflater.setInput(compressed); // The inflater advances the buffer's position as it reads it
+        while (true) {
+            int inflated;
+            long start = System.nanoTime();
+            try {
+                inflated = inflater.inflate(out);
+            } catch (DataFormatException e) {
+                throw new ZipException("Invalid gzip body: " + e.getMessage());
+            } finally {
+                inflateNanos += System.nanoTime() - start;
+            }
+            if (inflated > 0) {
+                crc.update(out, 0, inflated);
+                decompressedBytes += inflated;
+                sink.accept(ByteBuffer.wrap(out, 0, inflated));
+            }
+            if (inflater.finished()) {
+                state = State.TRAILER;
+                return;
+            }
+            if (inflater.needsDictionary()) {
+                throw new ZipException("Invalid gzip body: a preset dictionary is not allowed");
+            }
+            if (inflated == 0 && inflater.needsInput()) {
+                return;
+            }
+        }
+    }
+
+    private void readTrailer(ByteBuffer compressed) throws ZipException {
+        trailer[trailerLength++] = compressed.get();
+        if (trailerLength < TRAILER_LENGTH) {
+            return;
+        }
+        if (littleEndianInt(0) != (int) crc.getValue()) {
+            throw new ZipException("Corrupt gzip body: CRC mismatch");
+        }
+        if (littleEndianInt(4) != (int) decompressedBytes) {
+            throw new ZipException("Corrupt gzip body: size mismatch");
+        }
+        state = State.DONE;
+    }
+
+    private int littleEndianInt(int offset) {
+        return (trailer[offset] & 0xff)
+                | (trailer[offset + 1] & 0xff) << 8
+                | (trailer[offset + 2] & 0xff) << 16
+                | (trailer[offset + 3] & 0xff) << 24;
+    }
+}
@@ -0,0 +1,28 @@
+package com.reliaquest.api.client;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * How urgently an upstream call needs a share of the mock server's request budget, highest first. Queued callers are
+ * let through in this order and bulk roster loads may not use the last requests of a budget.
+ */
+public enum RequestPriority {
+    // Creates and deletes, which have a caller waiting on them and cannot be answered from the snapshot
+    WRITE,
+    // Single employee lookups that missed the snapshot
+    BY_ID,
+    // Whole roster loads, whose callers can usually be served from the current snapshot in the meantime
+    BULK;
+
+    // Classifies a call to the employee resource at basePath from its method and path
+    public static RequestPriority of(HttpMethod method, String path, String basePath) {
+        if (!HttpMethod.GET.equals(method)) {
+            return WRITE;
+        }
+        return path == null || stripTrailingSlash(path).equals(stripTrailingSlash(basePath)) ? BULK : BY_ID;
+    }
+
+    private static String stripTrailingSlash(String path) {
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+}
@@ -0,0 +1,193 @@
+package com.reliaquest.api.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.reliaquest.api.model.Employee;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Parses the mock server's roster response, {"data": [...]}, as its bytes arrive rather than once the whole body has
+ * been buffered. The data array is read token by token with Jackson's non-blocking parser; only the tokens of the
+ * employee being read are held, and each one is bound and appended to the roster as soon as its closing brace is seen.
+ * Everything outside the data array is skipped without being kept.
+ *
+ * The body is read in the encoding of the ObjectMapper the parser is created with, JSON or Smile. Smile's non-blocking
+ * parser only reads byte arrays, so chunks that are not backed by one are copied out first.
+ *
+ * A parser reads one response and is not thread safe; chunks must be fed in order.
+ */
+public final class StreamingRosterParser {
+
+    private static final String DATA = "data";
+
+    private final ObjectReader employeeReader;
+    private final JsonParser parser;
+    private final ByteBufferFeeder bufferFeeder; // Null unless the encoding is JSON
+    private final ByteArrayFeeder arrayFeeder; // Null when the encoding is JSON
+
+    private List<Employee> employees; // Null until the data array starts
+    private int depth; // Objects and arrays open around the parser, not counting the employee being read
+    private int dataDepth = -1; // Depth inside the data array, or -1 outside it
+    private boolean dataField; // The last token was the top level data field name
+    private TokenBuffer employee; // Tokens of the employee being read, or null between employees
+    private int employeeDepth;
+
+    public StreamingRosterParser(ObjectMapper objectMapper) {
+        this.employeeReader = objectMapper.readerFor(Employee.class);
+        JsonFactory factory = objectMapper.getFactory();
+        try {
+            this.parser = factory.getFormatName().equals(JsonFactory.FORMAT_NAME_JSON)
+                    ? factory.createNonBlockingByteBufferParser()
+                    : factory.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.bufferFeeder = parser.getNonBlockingInputFeeder() instanceof ByteBufferFeeder feeder ? feeder : null;
+        this.arrayFeeder = bufferFeeder == null ? (ByteArrayFeeder) parser.getNonBlockingInputFeeder() : null;
+    }
+
+    // A body subscriber completing with the roster, or null when the body has no data array
+    public static HttpResponse.BodySubscriber<List<Employee>> bodySubscriber(ObjectMapper objectMapper) {
+        return new RosterSubscriber(new StreamingRosterParser(objectMapper));
+    }
+
+    // Parses the next chunk of the body; the buffer must not be changed afterwards
+    public void feed(ByteBuffer chunk) throws IOException {
+        if (!chunk.hasRemaining()) {
+            return;
+        }
+        if (bufferFeeder != null) {
+            bufferFeeder.feedInput(chunk);
+        } else if (chunk.hasArray()) {
+            int start = chunk.arrayOffset() + chunk.position();
+            arrayFeeder.feedInput(chunk.array(), start, start + chunk.remaining());
+        } else {
+            byte[] copy = new byte[chunk.remaining()];
+            chunk.get(copy);
+            arrayFeeder.feedInput(copy, 0, copy.length);
+        }
+        drain();
+    }
+
+    /**
+     * Parses whatever is left once the whole body has been fed.
+     *
+     * @return the employees of the data array in order, or null when the body has no data array
+     * @throws IOException when the body is not complete, well formed JSON
+     */
+    public List<Employee> finish() throws IOException {
+        if (bufferFeeder != null) {
+            bufferFeeder.endOfInput();
+        } else {
+            arrayFeeder.endOfInput();
+        }
+        drain();
+        return employees;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            onToken(token);
+        }
+    }
+
+    private void onToken(JsonToken token) throws IOException {
+        if (employee != null) {
+            employee.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                employeeDepth++;
+            } else if (token.isStructEnd() && --employeeDepth == 0) {
+                employees.add(employeeReader.readValue(employee.asParser()));
+                employee = null;
+            }
+            return;
+        }
+        boolean dataValue = dataField;
+        dataField = false;
+        if (token == JsonToken.FIELD_NAME) {
+            dataField = depth == 1 && DATA.equals(parser.currentName());
+        } else if (token == JsonToken.START_OBJECT && depth == dataDepth) {
+            employee = new TokenBuffer(parser);
+            employee.copyCurrentEvent(parser);
+            employeeDepth = 1;
+        } else if (token.isStructStart()) {
+            depth++;
+            if (dataValue && token == JsonToken.START_ARRAY) {
+                employees = new ArrayList<>();
+                dataDepth = depth;
+            }
+        } else if (token.isStructEnd()) {
+            if (depth == dataDepth) {
+                dataDepth = -1;
+            }
+            depth--;
+        }
+        // Scalars are only of interest inside an employee, and nulls in the data array are skipped
+    }
+
+    // Feeds the body to the parser chunk by chunk as the HttpClient receives it
+    private static final class RosterSubscriber implements HttpResponse.BodySubscriber<List<Employee>> {
+
+        private final StreamingRosterParser rosterParser;
+        private final CompletableFuture<List<Employee>> roster = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        RosterSubscriber(StreamingRosterParser rosterParser) {
+            this.rosterParser = rosterParser;
+        }
+
+        @Override
+        public CompletionStage<List<Employee>> getBody() {
+            return roster;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> chunks) {
+            try {
+                for (ByteBuffer chunk : chunks) {
+                    rosterParser.feed(chunk);
+                }
+            } catch (IOException | RuntimeException e) {
+                subscription.cancel();
+                roster.completeExceptionally(e);
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            roster.completeExceptionally(failure);
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                roster.complete(rosterParser.finish());
+            } catch (IOException | RuntimeException e) {
+                roster.completeExceptionally(e);
+            }
+        }
+    }
+}
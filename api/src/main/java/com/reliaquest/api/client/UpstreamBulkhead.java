@@ -0,0 +1,219 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.config.UpstreamBulkheadProperties;
+import com.reliaquest.api.deadline.RequestDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulkheads between the kinds of call made to the mock server, so a burst of one kind cannot take the connections,
+ * threads and rate limiter queue places the others need. A burst of roster reads during a lockout, for example, fills
+ * only the read compartment while creates and deletes keep their own.
+ *
+ * Each compartment has its own limit on calls in flight and on calls waiting for one of those to finish; a call that
+ * finds the queue full, or waits longer than maxWait or its api request's RequestDeadline allows, fails with a
+ * BulkheadFullException. The compartment limits together should stay within the connection pool's max-per-route so
+ * that no compartment ever waits on a connection another one is holding.
+ *
+ * A call is classified by its method, writes being anything but a GET, and reads made by a background refresh of the
+ * roster snapshot (marked with bindRefresh) go to a compartment of their own. In the async client mode calls never wait
+ * for a permit, since that would block the thread sending them; a call that does not fit is rejected at once.
+ */
+@Component
+public class UpstreamBulkhead {
+
+    public enum Compartment {
+        READ,
+        WRITE,
+        REFRESH
+    }
+
+    private static final ThreadLocal<Boolean> REFRESHING = new ThreadLocal<>();
+
+    private final UpstreamBulkheadProperties properties;
+    private final Map<Compartment, Pool> pools = new EnumMap<>(Compartment.class);
+
+    @Autowired
+    public UpstreamBulkhead(UpstreamBulkheadProperties properties, MeterRegistry meterRegistry) {
+        this(properties);
+        for (Compartment compartment : Compartment.values()) {
+            Pool pool = pools.get(compartment);
+            String name = compartment.name().toLowerCase();
+            Gauge.builder(
+                            "employee.upstream.bulkhead.active",
+                            pool.permits,
+                            permits -> pool.limits.getMaxConcurrent() - permits.availablePermits())
+                    .description("Upstream calls in flight per bulkhead compartment")
+                    .tag("compartment", name)
+                    .register(meterRegistry);
+            Gauge.builder("employee.upstream.bulkhead.waiting", pool.waiting, AtomicInteger::get)
+                    .description("Upstream calls waiting for room in their bulkhead compartment")
+                    .tag("compartment", name)
+                    .register(meterRegistry);
+            pool.rejected = Counter.builder("employee.upstream.bulkhead.rejected")
+                    .description("Upstream calls rejected because their bulkhead compartment was full")
+                    .tag("compartment", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    // Constructor to be used by tests
+    public UpstreamBulkhead(UpstreamBulkheadProperties properties) {
+        this.properties = properties;
+        pools.put(Compartment.READ, new Pool(properties.getRead()));
+        pools.put(Compartment.WRITE, new Pool(properties.getWrite()));
+        pools.put(Compartment.REFRESH, new Pool(properties.getRefresh()));
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Marks the calls made on this thread as a background refresh until the returned binding is closed
+    public static Binding bindRefresh() {
+        Boolean previous = REFRESHING.get();
+        REFRESHING.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                REFRESHING.remove();
+            } else {
+                REFRESHING.set(previous);
+            }
+        };
+    }
+
+    // Wraps the call so it is still classified as a background refresh on whichever thread it is later called on
+    public static <T> Supplier<T> propagate(Supplier<T> call) {
+        if (REFRESHING.get() == null) {
+            return call;
+        }
+        return () -> {
+            try (Binding ignored = bindRefresh()) {
+                return call.get();
+            }
+        };
+    }
+
+    // The compartment a call with the given method made on this thread belongs to
+    public static Compartment compartmentOf(String method) {
+        if (!"GET".equalsIgnoreCase(method)) {
+            return Compartment.WRITE;
+        }
+        return REFRESHING.get() != null ? Compartment.REFRESH : Compartment.READ;
+    }
+
+    /**
+     * Takes a place in the compartment for a blocking call, waiting for one if the compartment's queue has room.
+     *
+     * @return the permit, to be closed once the call's response has been read
+     * @throws BulkheadFullException when there was no place in time
+     */
+    public Permit acquire(Compartment compartment) throws InterruptedException {
+        if (!properties.isEnabled()) {
+            return Permit.NONE;
+        }
+        Pool pool = pools.get(compartment);
+        if (pool.permits.tryAcquire()) {
+            return pool.permit();
+        }
+        if (pool.waiting.incrementAndGet() > pool.limits.getMaxWaiting()) {
+            pool.waiting.decrementAndGet();
+            throw pool.reject(compartment, "no room in its queue");
+        }
+        try {
+            Duration maxWait = RequestDeadline.clampCurrent(pool.limits.getMaxWait());
+            if (!pool.permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw pool.reject(compartment, "waited " + maxWait.toMillis() + " ms");
+            }
+        } finally {
+            pool.waiting.decrementAndGet();
+        }
+        return pool.permit();
+    }
+
+    /**
+     * Takes a place in the compartment for a non-blocking call without waiting for one.
+     *
+     * @return the permit, to be closed once the call has completed
+     * @throws BulkheadFullException when the compartment is full
+     */
+    public Permit tryAcquire(Compartment compartment) {
+        if (!properties.isEnabled()) {
+            return Permit.NONE;
+        }
+        Pool pool = pools.get(compartment);
+        if (!pool.permits.tryAcquire()) {
+            throw pool.reject(compartment, "it is full");
+        }
+        return pool.permit();
+    }
+
+    // Calls of the compartment in flight
+    public int getActive(Compartment compartment) {
+        Pool pool = pools.get(compartment);
+        return pool.limits.getMaxConcurrent() - pool.permits.availablePermits();
+    }
+
+    // Calls waiting for room in the compartment
+    public int getWaiting(Compartment compartment) {
+        return pools.get(compartment).waiting.get();
+    }
+
+    // One compartment's permits and queue
+    private static final class Pool {
+
+        private final UpstreamBulkheadProperties.Compartment limits;
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private Counter rejected;
+
+        Pool(UpstreamBulkheadProperties.Compartment limits) {
+            this.limits = limits;
+            this.permits = new Semaphore(limits.getMaxConcurrent(), true); // Waiting calls are let in first come first
+        }
+
+        Permit permit() {
+            AtomicBoolean released = new AtomicBoolean();
+            return () -> {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            };
+        }
+
+        BulkheadFullException reject(Compartment compartment, String reason) {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            return new BulkheadFullException(
+                    compartment,
+                    "Upstream " + compartment.name().toLowerCase() + " bulkhead rejected the call: " + reason);
+        }
+    }
+
+    // A place in a compartment, given back when closed; closing it more than once gives it back once
+    public interface Permit extends AutoCloseable {
+
+        Permit NONE = () -> {};
+
+        @Override
+        void close();
+    }
+
+    // Restores the thread's previous classification when closed
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,90 @@
+package com.reliaquest.api.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts every RestTemplate call to the mock server in its UpstreamBulkhead compartment. It is added ahead of the circuit
+ * breaker and rate limiter so a call queued for a rate limit permit holds its own compartment's place and no other's.
+ * The place is held until the response is closed, which is when its pooled connection is given back.
+ */
+@Component
+public class UpstreamBulkheadInterceptor implements ClientHttpRequestInterceptor {
+
+    private final UpstreamBulkhead bulkhead;
+
+    public UpstreamBulkheadInterceptor(UpstreamBulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!bulkhead.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        UpstreamBulkhead.Permit permit;
+        try {
+            permit = bulkhead.acquire(
+                    UpstreamBulkhead.compartmentOf(request.getMethod().name()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for room in the upstream bulkhead");
+        }
+        try {
+            return new PermitReleasingResponse(execution.execute(request, body), permit);
+        } catch (IOException | RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    // Gives the bulkhead permit back when the response is closed
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final UpstreamBulkhead.Permit permit;
+
+        PermitReleasingResponse(ClientHttpResponse response, UpstreamBulkhead.Permit permit) {
+            this.response = response;
+            this.permit = permit;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                permit.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.config.UpstreamCircuitBreakerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breaker around every call to the mock server, so that a lockout is noticed once instead of by every caller
+ * retrying into it.
+ *
+ * - CLOSED: calls go through; failureThreshold consecutive 429, 5xx or I/O failures open the circuit
+ * - OPEN: calls fail immediately with an UpstreamCircuitOpenException (reads are then answered from the last good
+ *   roster snapshot by EmployeeSnapshotStore) until openDuration has passed
+ * - HALF_OPEN: a single probe call is let through; a response that is not a failure closes the circuit, a failure opens
+ *   it for another openDuration
+ *
+ * Calls ask for permission with tryAcquire and report how they ended through onResponse, onFailure or release.
+ */
+@Component
+public class UpstreamCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final UpstreamCircuitBreakerProperties properties;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean probeInFlight; // Only one call is let through while half-open
+
+    private Counter opened;
+    private Counter rejected;
+
+    @Autowired
+    public UpstreamCircuitBreaker(UpstreamCircuitBreakerProperties properties, MeterRegistry meterRegistry) {
+        this(properties, Clock.systemUTC());
+        this.opened = Counter.builder("employee.upstream.circuit.opened")
+                .description("Times the circuit to the mock server opened")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("employee.upstream.circuit.rejected")
+                .description("Upstream calls failed fast because the circuit to the mock server was open")
+                .register(meterRegistry);
+        Gauge.builder("employee.upstream.circuit.state", this, breaker -> breaker.getState()
+                        .ordinal())
+                .description("State of the circuit to the mock server: 0 closed, 1 open, 2 half open")
+                .register(meterRegistry);
+    }
+
+    // Constructor to be used by tests
+    public UpstreamCircuitBreaker(UpstreamCircuitBreakerProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Asks whether a call may be sent.
+     *
+     * @return 0 when the call may go ahead, otherwise the number of milliseconds until the next probe is due
+     */
+    public synchronized long tryAcquire() {
+        if (!properties.isEnabled() || state == State.CLOSED) {
+            return 0;
+        }
+        Instant probeAt = openedAt.plus(properties.getOpenDuration());
+        Instant now = clock.instant();
+        if (state == State.OPEN && !now.isBefore(probeAt)) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN && !probeInFlight) {
+            probeInFlight = true;
+            return 0;
+        }
+        if (rejected != null) {
+            rejected.increment();
+        }
+        // While a probe is out the next one is at least one open duration away
+        return now.isBefore(probeAt)
+                ? Math.max(1, Duration.between(now, probeAt).toMillis())
+                : properties.getOpenDuration().toMillis();
+    }
+
+    // Reports the status the mock server answered a permitted call with; 429 and 5xx count as failures
+    public void onResponse(int status) {
+        if (status == 429 || status >= 500) {
+            onFailure();
+        } else {
+            onSuccess();
+        }
+    }
+
+    // Reports that a permitted call never got a response (connection failure, timeout)
+    public synchronized void onFailure() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        probeInFlight = false;
+        if (state == State.OPEN) {
+            return; // A call sent before the circuit opened; it does not extend the open period
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= properties.getFailureThreshold()) {
+            open();
+        }
+    }
+
+    // Reports that a permitted call ended without telling anything about the mock server's health, for example because
+    // the client side rate limiter shed it
+    public synchronized void release() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * The exception a call fails with while the circuit is open.
+     */
+    public static UpstreamCircuitOpenException rejection(long delayMillis) {
+        return new UpstreamCircuitOpenException(delayMillis);
+    }
+
+    private synchronized void onSuccess() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        probeInFlight = false;
+        if (state == State.OPEN) {
+            return; // A call sent before the circuit opened says nothing about the lockout that opened it
+        }
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    private void open() {
+        if (state != State.OPEN && opened != null) {
+            opened.increment();
+        }
+        state = State.OPEN;
+        openedAt = clock.instant();
+    }
+}
@@ -0,0 +1,48 @@
+package com.reliaquest.api.client;
+
+import java.io.IOException;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts every RestTemplate call to the mock server behind the UpstreamCircuitBreaker. It is added ahead of the
+ * UpstreamRateLimitInterceptor so that while the circuit is open a call fails at once instead of queueing for a permit.
+ */
+@Component
+public class UpstreamCircuitBreakerInterceptor implements ClientHttpRequestInterceptor {
+
+    private final UpstreamCircuitBreaker circuitBreaker;
+
+    public UpstreamCircuitBreakerInterceptor(UpstreamCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!circuitBreaker.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        long delay = circuitBreaker.tryAcquire();
+        if (delay > 0) {
+            throw UpstreamCircuitBreaker.rejection(delay);
+        }
+
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        } catch (RuntimeException e) {
+            // Such as the rate limiter's client side 429: the mock server never saw the call
+            circuitBreaker.release();
+            throw e;
+        }
+        circuitBreaker.onResponse(response.getStatusCode().value());
+        return response;
+    }
+}
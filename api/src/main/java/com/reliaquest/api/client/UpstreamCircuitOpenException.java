@@ -0,0 +1,26 @@
+package com.reliaquest.api.client;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown instead of calling the mock server while the UpstreamCircuitBreaker is open. Reads fall back to the last good
+ * roster snapshot when there is one; anything that cannot is answered 503 rather than waiting out the lockout.
+ *
+ * It is not an HTTP status error, so the retries classify it as permanent and give up straight away.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UpstreamCircuitOpenException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public UpstreamCircuitOpenException(long retryAfterMillis) {
+        super("Circuit to the mock server is open, next probe in " + retryAfterMillis + " ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    // Milliseconds until the circuit lets a probe through
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,240 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.config.UpstreamCompressionProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Negotiates gzip with the mock server and decompresses its gzip responses with a GzipDecoder as they are read, for
+ * both the RestTemplate (through the UpstreamCompressionInterceptor) and the async client's HttpClient. Neither client
+ * decompresses on its own: the RestTemplate's HttpClient has its content compression disabled so that every
+ * compressed body passes through here and is measured.
+ *
+ * Each decompressed body is recorded as employee.upstream.compression.ratio, its decompressed size over its size on
+ * the wire, and employee.upstream.compression.inflate, the CPU time spent inflating it.
+ */
+@Component
+public class UpstreamCompression {
+
+    public static final String GZIP = "gzip";
+
+    private final UpstreamCompressionProperties properties;
+    private final DistributionSummary ratio;
+    private final Timer inflateTime;
+
+    @Autowired
+    public UpstreamCompression(UpstreamCompressionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.ratio = DistributionSummary.builder("employee.upstream.compression.ratio")
+                .description("Decompressed over compressed size of gzip responses from the mock server")
+                .register(meterRegistry);
+        this.inflateTime = Timer.builder("employee.upstream.compression.inflate")
+                .description("Time spent decompressing gzip responses from the mock server")
+                .register(meterRegistry);
+    }
+
+    // Constructor to be used by tests
+    public UpstreamCompression(UpstreamCompressionProperties properties) {
+        this(properties, new SimpleMeterRegistry());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Whether a response with the given Content-Encoding is one to decompress here
+    public static boolean isGzip(String contentEncoding) {
+        return contentEncoding != null && GZIP.equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    // Decompresses a gzip body as it is read from the stream; closing the stream reads whatever is left of it
+    public InputStream inflating(InputStream compressed) {
+        return new InflatingInputStream(compressed);
+    }
+
+    // Hands the async client's body handler gzip responses decompressed, and any other response unchanged
+    public <T> HttpResponse.BodyHandler<T> decoding(HttpResponse.BodyHandler<T> bodyHandler) {
+        return info -> isGzip(info.headers().firstValue("Content-Encoding").orElse(null))
+                ? new DecodingSubscriber<>(bodyHandler.apply(info))
+                : bodyHandler.apply(info);
+    }
+
+    private void record(GzipDecoder decoder) {
+        if (decoder.getCompressedBytes() > 0) {
+            ratio.record((double) decoder.getDecompressedBytes() / decoder.getCompressedBytes());
+            inflateTime.record(decoder.getInflateNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Reads the compressed stream a buffer at a time and holds only what one buffer decompresses to
+    private final class InflatingInputStream extends InputStream {
+
+        private final InputStream compressed;
+        private final GzipDecoder decoder = new GzipDecoder();
+        private final byte[] in = new byte[8 * 1024];
+        private byte[] pending = new byte[16 * 1024];
+        private int pendingStart;
+        private int pendingEnd;
+        private boolean finished;
+
+        InflatingInputStream(InputStream compressed) {
+            this.compressed = compressed;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (pendingStart == pendingEnd) {
+                if (!fill()) {
+                    return -1;
+                }
+            }
+            int read = Math.min(len, pendingEnd - pendingStart);
+            System.arraycopy(pending, pendingStart, b, off, read);
+            pendingStart += read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return pendingEnd - pendingStart;
+        }
+
+        // Decompresses the next buffer of the body, returning false once the body has been read to its end
+        private boolean fill() throws IOException {
+            if (finished) {
+                return false;
+            }
+            pendingStart = 0;
+            pendingEnd = 0;
+            int read = compressed.read(in);
+            if (read < 0) {
+                finished = true;
+                decoder.finish();
+                record(decoder);
+                return false;
+            }
+            decoder.decode(ByteBuffer.wrap(in, 0, read), this::append);
+            return true;
+        }
+
+        private void append(ByteBuffer chunk) {
+            if (pending.length - pendingEnd < chunk.remaining()) {
+                byte[] grown = new byte[Math.max(pending.length * 2, pendingEnd + chunk.remaining())];
+                System.arraycopy(pending, 0, grown, 0, pendingEnd);
+                pending = grown;
+            }
+            int length = chunk.remaining();
+            chunk.get(pending, pendingEnd, length);
+            pendingEnd += length;
+        }
+
+        // Parsers stop at the end of the JSON, ahead of the gzip trailer, so the rest is read here to check the body
+        // and record it. It is a few bytes when the body was read, and the connection is only reused once it is read
+        @Override
+        public void close() throws IOException {
+            try {
+                while (fill()) {
+                    pendingStart = pendingEnd;
+                }
+            } finally {
+                compressed.close();
+            }
+        }
+    }
+
+    // Decompresses the chunks the HttpClient hands over before passing them on. The decompressed chunks are copied
+    // out of the decoder, as body subscribers such as ofByteArray keep the chunks they are given
+    private final class DecodingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+
+        private final HttpResponse.BodySubscriber<T> downstream;
+        private final GzipDecoder decoder = new GzipDecoder();
+        private Flow.Subscription subscription;
+        private boolean failed;
+
+        DecodingSubscriber(HttpResponse.BodySubscriber<T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return downstream.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            downstream.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> chunks) {
+            if (failed) {
+                return;
+            }
+            List<ByteBuffer> decoded = new ArrayList<>();
+            try {
+                for (ByteBuffer chunk : chunks) {
+                    decoder.decode(chunk, out -> {
+                        ByteBuffer copy = ByteBuffer.allocate(out.remaining());
+                        copy.put(out).flip();
+                        decoded.add(copy);
+                    });
+                }
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                subscription.cancel();
+                downstream.onError(e);
+                return;
+            }
+            if (decoded.isEmpty()) {
+                subscription.request(1); // Nothing to hand on yet, so the downstream's demand is still unmet
+            } else {
+                downstream.onNext(decoded);
+            }
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            if (!failed) {
+                downstream.onError(failure);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (failed) {
+                return;
+            }
+            try {
+                decoder.finish();
+            } catch (IOException e) {
+                downstream.onError(e);
+                return;
+            }
+            record(decoder);
+            downstream.onComplete();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.reliaquest.api.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asks the mock server for gzip on every RestTemplate call and hands gzip responses on decompressed by the
+ * UpstreamCompression as they are read, so the interceptors around it and the message converters only ever see JSON.
+ */
+@Component
+public class UpstreamCompressionInterceptor implements ClientHttpRequestInterceptor {
+
+    private final UpstreamCompression compression;
+
+    public UpstreamCompressionInterceptor(UpstreamCompression compression) {
+        this.compression = compression;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!compression.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, UpstreamCompression.GZIP);
+        ClientHttpResponse response = execution.execute(request, body);
+        return UpstreamCompression.isGzip(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+                ? new InflatedResponse(response)
+                : response;
+    }
+
+    // The response with its body decompressed; the headers no longer describe the compressed body
+    private final class InflatedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final HttpHeaders headers;
+        private InputStream body;
+
+        InflatedResponse(ClientHttpResponse response) {
+            this.response = response;
+            this.headers = new HttpHeaders();
+            this.headers.putAll(response.getHeaders());
+            this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+            this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = compression.inflating(response.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (body != null) {
+                    body.close(); // Reads the gzip trailer the parser left behind
+                }
+            } catch (IOException e) {
+                // The body was already handed on, so a corrupt or truncated remainder is only left unmeasured
+            } finally {
+                response.close();
+            }
+        }
+    }
+}
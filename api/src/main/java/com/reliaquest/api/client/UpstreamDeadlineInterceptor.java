@@ -0,0 +1,24 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.deadline.RequestDeadline;
+import java.io.IOException;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fails a RestTemplate call with a DeadlineExceededException, before it takes a circuit breaker or rate limiter permit,
+ * when the RequestDeadline of the api request it is made for leaves no time for it to finish.
+ */
+@Component
+public class UpstreamDeadlineInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        RequestDeadline.checkCurrent(request.getMethod() + " " + request.getURI());
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,57 @@
+package com.reliaquest.api.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.config.UpstreamEncodingProperties;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Negotiates the encoding of the mock server's responses: JSON, or with app.rest.encoding.format=smile the more compact
+ * Smile binary encoding with JSON as the fallback. The Accept header is set on every call, by the
+ * UpstreamEncodingInterceptor for the RestTemplate (whose message converters read either encoding by Content-Type)
+ * and by the AsyncEmployeeClient, which picks the ObjectMapper to parse each response with from its Content-Type.
+ *
+ * Request bodies are always sent as JSON: they are single employees, and the mock server reads either encoding.
+ */
+@Component
+public class UpstreamEncoding {
+
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    private static final MediaType SMILE = MediaType.parseMediaType(SMILE_VALUE);
+    private static final String SMILE_ACCEPT = SMILE_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+
+    private final UpstreamEncodingProperties properties;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+
+    public UpstreamEncoding(
+            UpstreamEncodingProperties properties,
+            ObjectMapper objectMapper,
+            MappingJackson2SmileHttpMessageConverter smileConverter) {
+        this.properties = properties;
+        this.jsonMapper = objectMapper;
+        this.smileMapper = smileConverter.getObjectMapper();
+    }
+
+    // The Accept header for a call to the mock server
+    public String accept() {
+        return properties.getFormat() == UpstreamEncodingProperties.Format.SMILE
+                ? SMILE_ACCEPT
+                : MediaType.APPLICATION_JSON_VALUE;
+    }
+
+    // The ObjectMapper that reads a response with the given Content-Type; anything but Smile is read as JSON
+    public ObjectMapper mapperFor(String contentType) {
+        return isSmile(contentType) ? smileMapper : jsonMapper;
+    }
+
+    private static boolean isSmile(String contentType) {
+        try {
+            return contentType != null && SMILE.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
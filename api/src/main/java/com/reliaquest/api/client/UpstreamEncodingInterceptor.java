@@ -0,0 +1,30 @@
+package com.reliaquest.api.client;
+
+import java.io.IOException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asks the mock server for the encoding the UpstreamEncoding is configured with. It replaces the Accept header the
+ * RestTemplate derives from its message converters, which would list every encoding they can read.
+ */
+@Component
+public class UpstreamEncodingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final UpstreamEncoding encoding;
+
+    public UpstreamEncodingInterceptor(UpstreamEncoding encoding) {
+        this.encoding = encoding;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        request.getHeaders().set(HttpHeaders.ACCEPT, encoding.accept());
+        return execution.execute(request, body);
+    }
+}
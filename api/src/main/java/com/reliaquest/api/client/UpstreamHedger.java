@@ -0,0 +1,280 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.config.UpstreamHedgeProperties;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.deadline.RequestDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hedges roster and by-id reads so one slow response from the mock server does not set the tail latency.
+ *
+ * A read that has not completed after the hedge delay is sent a second time and whichever of the two succeeds first
+ * answers the caller; if one fails the other is still waited for. The delay is either fixed (app.rest.hedge.delay) or
+ * the observed percentile of recent successful reads of the same kind, which is only trusted once minSamples reads have
+ * been seen. A hedge is an extra request against the mock server's budget, so it is only sent while the
+ * UpstreamRateLimiter reports spare capacity, and it then takes its permit (and passes the UpstreamCircuitBreaker) like
+ * any other call. A hedge never spends the request that would end the window or trip a lockout. Both reads are made
+ * under the RequestDeadline of the api request they are made for, and in the same UpstreamBulkhead compartment.
+ *
+ * The losing call is not cancelled: neither the RestTemplate nor the JDK HttpClient on Java 17 can abort a request in
+ * flight, and its response still has to be reported to the rate limiter and circuit breaker.
+ */
+@Component
+public class UpstreamHedger {
+
+    private final UpstreamHedgeProperties properties;
+    private final UpstreamRateLimiter rateLimiter;
+    private final ScheduledThreadPoolExecutor scheduler; // Only fires hedge timers
+    private final ExecutorService blockingExecutor; // Runs blocking reads while they may be hedged
+    private final Map<RequestPriority, LatencyWindow> latencies = new EnumMap<>(RequestPriority.class);
+
+    private Counter sent;
+    private Counter won;
+    private Counter skipped;
+
+    @Autowired
+    public UpstreamHedger(
+            UpstreamHedgeProperties properties,
+            UpstreamRateLimiter rateLimiter,
+            VirtualThreadSupport virtualThreads,
+            MeterRegistry meterRegistry) {
+        this(properties, rateLimiter, virtualThreads);
+        this.sent = counter(meterRegistry, "sent");
+        this.won = counter(meterRegistry, "won");
+        this.skipped = counter(meterRegistry, "skipped");
+    }
+
+    // Constructor to be used by tests
+    public UpstreamHedger(
+            UpstreamHedgeProperties properties, UpstreamRateLimiter rateLimiter, VirtualThreadSupport virtualThreads) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, virtualThreads.threadFactory("hedge-scheduler"));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.blockingExecutor = Executors.newCachedThreadPool(virtualThreads.threadFactory("hedge-read"));
+        for (RequestPriority priority : RequestPriority.values()) {
+            latencies.put(priority, new LatencyWindow(properties.getSamples()));
+        }
+    }
+
+    /**
+     * Runs a blocking read, hedging it when it is slow. While a read may be hedged it runs on a pool thread and the
+     * calling thread waits for the winner.
+     *
+     * @param priority the kind of read, whose recent latencies set the hedge delay
+     * @param call makes one read; it may be called a second time concurrently
+     * @return the result of the first read to succeed, or the first read's failure when neither does
+     */
+    public <T> T hedge(RequestPriority priority, Supplier<T> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        long delay = getHedgeDelayMillis(priority);
+        if (delay < 0) {
+            long start = System.nanoTime();
+            T result = call.get();
+            latencies.get(priority).record(System.nanoTime() - start);
+            return result;
+        }
+        Supplier<T> read = UpstreamBulkhead.propagate(RequestDeadline.propagate(call)); // The reads run on pool threads
+        try {
+            return hedge(priority, () -> CompletableFuture.supplyAsync(read, blockingExecutor), delay)
+                    .join();
+        } catch (CompletionException e) {
+            // Hand back what the read threw, as if it had run on the calling thread
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a non-blocking read, hedging it when it is slow.
+     *
+     * @param priority the kind of read, whose recent latencies set the hedge delay
+     * @param call starts one read; it may be called a second time while the first is outstanding
+     * @return completes with the result of the first read to succeed, or the first read's failure when neither does
+     */
+    public <T> CompletableFuture<T> hedgeAsync(RequestPriority priority, Supplier<CompletableFuture<T>> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        // The hedge is started from the scheduler's thread
+        return hedge(
+                priority, UpstreamBulkhead.propagate(RequestDeadline.propagate(call)), getHedgeDelayMillis(priority));
+    }
+
+    /**
+     * How long a read of the given kind is waited for before it is hedged.
+     *
+     * @return the delay in milliseconds, or -1 when such reads are not hedged (hedging disabled, or not enough reads
+     *     seen yet to know the percentile)
+     */
+    public long getHedgeDelayMillis(RequestPriority priority) {
+        if (!properties.isEnabled()) {
+            return -1;
+        }
+        if (properties.getDelay() != null) {
+            return properties.getDelay().toMillis();
+        }
+        long observed =
+                latencies.get(priority).percentileMillis(properties.getPercentile(), properties.getMinSamples());
+        return observed < 0 ? -1 : Math.max(observed, properties.getMinDelay().toMillis());
+    }
+
+    private <T> CompletableFuture<T> hedge(RequestPriority priority, Supplier<CompletableFuture<T>> call, long delay) {
+        CompletableFuture<T> primary = timed(priority, call);
+        if (delay < 0) {
+            return primary;
+        }
+        CompletableFuture<T> hedged = new CompletableFuture<>(); // Cancelled when the hedge is never sent
+        AtomicBoolean decided = new AtomicBoolean(); // Set by whichever comes first, the timer or the first read
+        ScheduledFuture<?> timer;
+        try {
+            timer = scheduler.schedule(
+                    () -> {
+                        if (decided.compareAndSet(false, true)) {
+                            sendHedge(priority, call, hedged);
+                        }
+                    },
+                    delay,
+                    TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return primary; // Shutting down
+        }
+        primary.whenComplete((value, failure) -> {
+            if (decided.compareAndSet(false, true)) {
+                timer.cancel(false);
+                hedged.cancel(false); // Done before the delay, so nothing to hedge
+            }
+        });
+        return firstSuccess(primary, hedged);
+    }
+
+    // Sends the hedge, once the first read has been outstanding for the delay, if the upstream budget has room for it
+    private <T> void sendHedge(
+            RequestPriority priority, Supplier<CompletableFuture<T>> call, CompletableFuture<T> hedged) {
+        if (!rateLimiter.hasSpareCapacity()) {
+            increment(skipped);
+            hedged.cancel(false);
+            return;
+        }
+        increment(sent);
+        timed(priority, call).whenComplete((value, failure) -> {
+            if (failure == null) {
+                hedged.complete(value);
+            } else {
+                hedged.completeExceptionally(failure);
+            }
+        });
+    }
+
+    // Completes with the first of the two to succeed, or with the primary's failure once both have failed
+    private <T> CompletableFuture<T> firstSuccess(CompletableFuture<T> primary, CompletableFuture<T> hedged) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        primary.whenComplete((value, failure) -> {
+            if (failure == null) {
+                result.complete(value);
+            } else if (failed.incrementAndGet() == 2) {
+                result.completeExceptionally(failure);
+            }
+        });
+        hedged.whenComplete((value, failure) -> {
+            if (failure == null) {
+                if (result.complete(value)) {
+                    increment(won);
+                }
+            } else if (failed.incrementAndGet() == 2) {
+                primary.whenComplete((primaryValue, primaryFailure) -> result.completeExceptionally(primaryFailure));
+            }
+        });
+        return result;
+    }
+
+    // Starts a read and records how long it took when it succeeds
+    private <T> CompletableFuture<T> timed(RequestPriority priority, Supplier<CompletableFuture<T>> call) {
+        long start = System.nanoTime();
+        CompletableFuture<T> read;
+        try {
+            read = call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return read.whenComplete((value, failure) -> {
+            if (failure == null) {
+                latencies.get(priority).record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        blockingExecutor.shutdownNow();
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("employee.upstream.hedge")
+                .description("Hedged reads sent, won by the hedge, or skipped for lack of upstream budget")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Ring buffer of the latencies of the most recent successful reads of one kind
+    private static final class LatencyWindow {
+
+        private final long[] nanos;
+        private int next;
+        private int count;
+
+        LatencyWindow(int size) {
+            this.nanos = new long[Math.max(1, size)];
+        }
+
+        synchronized void record(long latencyNanos) {
+            nanos[next] = latencyNanos;
+            next = (next + 1) % nanos.length;
+            count = Math.min(count + 1, nanos.length);
+        }
+
+        // The given percentile of the recorded latencies in milliseconds, or -1 with fewer than minSamples recorded
+        synchronized long percentileMillis(double percentile, int minSamples) {
+            if (count == 0 || count < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(index, count - 1))]);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.reliaquest.api.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts every RestTemplate call to the mock server behind the UpstreamRateLimiter: the call queues for a permit (or is
+ * shed with a client side 429) and its response status is reported back so the limiter can learn the budget.
+ */
+@Component
+public class UpstreamRateLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final UpstreamRateLimiter rateLimiter;
+    private final String basePath; // Path of the employee resource; GETs of it are bulk roster loads
+
+    public UpstreamRateLimitInterceptor(
+            UpstreamRateLimiter rateLimiter,
+            @Value("${app.rest.base-url:http://localhost:8112/api/v1/employee}") String baseUrl) {
+        this.rateLimiter = rateLimiter;
+        this.basePath = URI.create(baseUrl).getPath();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!rateLimiter.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        RequestPriority priority =
+                RequestPriority.of(request.getMethod(), request.getURI().getPath(), basePath);
+        long delay;
+        try {
+            delay = rateLimiter.acquire(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an upstream request permit");
+        }
+        if (delay > 0) {
+            throw UpstreamRateLimiter.rejection(delay);
+        }
+
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            rateLimiter.onFailure();
+            throw e;
+        }
+        rateLimiter.onResponse(response.getStatusCode().value());
+        return response;
+    }
+}
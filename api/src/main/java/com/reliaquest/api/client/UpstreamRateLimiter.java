@@ -0,0 +1,352 @@
+package com.reliaquest.api.client;
+
+import com.reliaquest.api.config.UpstreamRateLimitProperties;
+import com.reliaquest.api.deadline.RequestDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Client side limiter in front of every call to the mock server that learns the server's request budget from the 429s
+ * it sends and spends the budget deliberately instead of losing it to lockouts.
+ *
+ * The mock server's RandomRequestLimitInterceptor lets a fixed but unknown number of requests through and then answers
+ * 429 to everything until an unknown lockout (measured from the last request it let through) has passed. The limiter
+ * models exactly that:
+ * - the budget is the number of requests that got through before a 429 ended the window; until the first 429 it is
+ *   unknown and calls are not held back
+ * - the lockout is the time from the last request that got through to the first one that did again; until it is known
+ *   one probe request is let through every probe interval to find the end
+ * - once the budget of the current window is used up the limiter knows the next call would be refused, so it holds
+ *   calls until the learned lockout has passed rather than sending them to collect a 429
+ *
+ * Callers ask for a permit with their RequestPriority. Waiting callers are let through highest priority first, and bulk
+ * roster loads may not use the last bulkReserve requests of a budget (unless the upstream has been idle for
+ * reserveHold) so a create, delete or by-id lookup can still get through. A call that cannot get a permit is shed with
+ * a client side 429 whose Retry-After says when to try again, which the retries honour.
+ *
+ * Requests in flight count against the budget until their response is reported through onResponse or onFailure.
+ */
+@Component
+public class UpstreamRateLimiter {
+
+    private static final int UNKNOWN = -1;
+
+    private final UpstreamRateLimitProperties properties;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition(); // Signalled whenever a permit may have become available
+    private final int[] waiting = new int[RequestPriority.values().length]; // Queued callers per priority
+
+    private int budget = UNKNOWN; // Requests the server lets through per window, once learned
+    private int used; // Requests that got through in the current window
+    private int inFlight; // Permits handed out whose response has not been reported yet
+    private Instant lastAccepted; // When the server last let a request through
+    private Instant lastPermitted; // When a permit was last handed out
+    private boolean lockedOut;
+    private Instant lockoutStartedAt;
+    private Duration lockout; // Learned lockout length, null until the end of one has been observed
+    private Instant nextProbeAt;
+
+    private final Map<RequestPriority, Counter> permitted = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Counter> shed = new EnumMap<>(RequestPriority.class);
+    private Counter throttled;
+
+    @Autowired
+    public UpstreamRateLimiter(UpstreamRateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, Clock.systemUTC());
+        for (RequestPriority priority : RequestPriority.values()) {
+            permitted.put(priority, counter(meterRegistry, priority, "permitted"));
+            shed.put(priority, counter(meterRegistry, priority, "shed"));
+        }
+        this.throttled = Counter.builder("employee.upstream.ratelimit.throttled")
+                .description("429 responses received from the mock server")
+                .register(meterRegistry);
+        Gauge.builder("employee.upstream.ratelimit.budget", this, limiter -> limiter.getBudget())
+                .description("Learned number of requests the mock server lets through per window, -1 until learned")
+                .register(meterRegistry);
+        Gauge.builder("employee.upstream.ratelimit.lockout", this, limiter -> {
+                    Duration learned = limiter.getLockout();
+                    return learned == null ? -1 : learned.toMillis() / 1000.0;
+                })
+                .description("Learned length of the mock server's lockout in seconds, -1 until learned")
+                .register(meterRegistry);
+    }
+
+    // Constructor to be used by tests
+    public UpstreamRateLimiter(UpstreamRateLimitProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Takes a permit if one is available right now.
+     *
+     * @return 0 when the call may go ahead, otherwise the number of milliseconds until it is worth asking again
+     */
+    public long tryAcquire(RequestPriority priority) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            long delay = delayFor(priority, clock.instant());
+            if (delay == 0) {
+                grant(priority);
+            } else {
+                increment(shed, priority);
+            }
+            return delay;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a permit, queueing for up to maxQueueWait behind callers of higher priority and for the budget to reopen,
+     * and never past the RequestDeadline of the api request the call is made for.
+     *
+     * @return 0 when the call may go ahead, otherwise the number of milliseconds until it is worth asking again
+     */
+    public long acquire(RequestPriority priority) throws InterruptedException {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        long deadline = System.nanoTime()
+                + RequestDeadline.clampCurrent(properties.getMaxQueueWait()).toNanos();
+        lock.lock();
+        waiting[priority.ordinal()]++;
+        try {
+            while (true) {
+                long delay = higherPriorityWaiting(priority)
+                        ? properties.getProbeInterval().toMillis()
+                        : delayFor(priority, clock.instant());
+                if (delay == 0) {
+                    grant(priority);
+                    return 0;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    increment(shed, priority);
+                    return delay;
+                }
+                changed.awaitNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(delay)));
+            }
+        } finally {
+            waiting[priority.ordinal()]--;
+            changed.signalAll(); // A lower priority caller may have been waiting on this one
+            lock.unlock();
+        }
+    }
+
+    // Reports the status the mock server answered a permitted call with
+    public void onResponse(int status) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            inFlight = Math.max(0, inFlight - 1);
+            Instant now = clock.instant();
+            if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                if (throttled != null) {
+                    throttled.increment();
+                }
+                if (!lockedOut) {
+                    // Hit the wall: whatever got through in this window was the budget. A window with nothing in it
+                    // means the lockout started before we were watching, which says nothing about the budget
+                    if (used > 0) {
+                        budget = used;
+                    }
+                    startLockout(lastAccepted != null ? lastAccepted : now);
+                }
+                nextProbeAt = now.plus(properties.getProbeInterval());
+            } else if (lockedOut) {
+                // The first request through after a lockout bounds its length from above; it also opens a new window
+                lockout = Duration.between(lockoutStartedAt, now);
+                lockedOut = false;
+                used = 1;
+                lastAccepted = now;
+            } else {
+                used++;
+                lastAccepted = now;
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Reports that a permitted call never got a response (connection failure, timeout), which teaches nothing
+    public void onFailure() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            inFlight = Math.max(0, inFlight - 1);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Milliseconds until a call of the given priority could be let through, 0 if it could go now. Does not take a
+     * permit, so a caller with many calls to make can pace them to the budget instead of having them shed.
+     */
+    public long getDelay(RequestPriority priority) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            return higherPriorityWaiting(priority)
+                    ? properties.getProbeInterval().toMillis()
+                    : delayFor(priority, clock.instant());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether a call no caller is waiting on, such as a hedged read, can be sent without risking a lockout: the budget
+     * has been learned, the window is not spent, and more than bulkReserve of its requests are left after those in
+     * flight. Always false while the limiter is disabled, as nothing is then known about the budget. Does not take a
+     * permit; the call still asks for one like any other.
+     */
+    public boolean hasSpareCapacity() {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        lock.lock();
+        try {
+            return !lockedOut && budget != UNKNOWN && budget - used - inFlight > properties.getBulkReserve();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getBudget() {
+        lock.lock();
+        try {
+            return budget;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Duration getLockout() {
+        lock.lock();
+        try {
+            return lockout;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The client side 429 a shed call fails with, shaped like the mock server's own so the retries treat it the same
+     * way, with a Retry-After of the given delay rounded up to whole seconds.
+     */
+    public static HttpClientErrorException rejection(long delayMillis) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (delayMillis + 999) / 1000)));
+        return new HttpClientErrorException(
+                HttpStatus.TOO_MANY_REQUESTS,
+                "Too Many Requests (client side rate limit)",
+                headers,
+                new byte[0],
+                StandardCharsets.UTF_8);
+    }
+
+    // Milliseconds until a call of the given priority may go ahead, 0 if it may go now. Called with the lock held
+    private long delayFor(RequestPriority priority, Instant now) {
+        if (!lockedOut && budget != UNKNOWN && used >= budget) {
+            // The budget is spent, so the server is locking us out from the last request it let through
+            startLockout(lastAccepted != null ? lastAccepted : now);
+        }
+        if (lockedOut) {
+            Instant reopensAt = lockout != null ? lockoutStartedAt.plus(lockout) : nextProbeAt;
+            if (lockout != null && nextProbeAt.isAfter(reopensAt)) {
+                reopensAt = nextProbeAt; // The learned lockout was too short; probe at the probe interval instead
+            }
+            if (now.isBefore(reopensAt)) {
+                return Math.max(1, Duration.between(now, reopensAt).toMillis());
+            }
+            // One probe at a time finds out whether the lockout is over
+            return inFlight == 0 ? 0 : properties.getProbeInterval().toMillis();
+        }
+        if (budget == UNKNOWN) {
+            return 0;
+        }
+        int remaining = budget - used - inFlight;
+        if (remaining <= 0) {
+            // Everything left is in flight; the responses will tell whether the window is spent
+            return properties.getProbeInterval().toMillis();
+        }
+        if (priority == RequestPriority.BULK && remaining <= properties.getBulkReserve()) {
+            // The end of the budget is held for writes and by-id lookups until the upstream has been idle a while
+            Instant releasedAt = (lastPermitted != null ? lastPermitted : now).plus(properties.getReserveHold());
+            if (now.isBefore(releasedAt)) {
+                return Math.max(1, Duration.between(now, releasedAt).toMillis());
+            }
+        }
+        return 0;
+    }
+
+    private void startLockout(Instant startedAt) {
+        lockedOut = true;
+        lockoutStartedAt = startedAt;
+        nextProbeAt = startedAt.plus(properties.getProbeInterval());
+    }
+
+    private void grant(RequestPriority priority) {
+        inFlight++;
+        lastPermitted = clock.instant();
+        increment(permitted, priority);
+    }
+
+    private boolean higherPriorityWaiting(RequestPriority priority) {
+        for (int p = 0; p < priority.ordinal(); p++) {
+            if (waiting[p] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void increment(Map<RequestPriority, Counter> counters, RequestPriority priority) {
+        Counter counter = counters.get(priority);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, RequestPriority priority, String outcome) {
+        return Counter.builder("employee.upstream.ratelimit")
+                .description("Upstream calls let through or shed by the client side rate limiter")
+                .tag("priority", priority.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.reliaquest.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Configuration properties for the bulk create and delete endpoints (BulkWriter).
+// Properties starting with 'app.rest.bulk' in application.yml are mapped to this class.
+@Configuration
+@ConfigurationProperties(prefix = "app.rest.bulk")
+public class BulkWriteProperties {
+
+    // Largest batch one bulk request may carry; larger ones are answered 400
+    private int maxItems = 500;
+
+    // Writes of one batch in flight at once; one below the write bulkhead compartment's limit, so a single create or
+    // delete still finds a place while a batch is running
+    private int concurrency = 4;
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public void setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+}
@@ -0,0 +1,68 @@
+package com.reliaquest.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Configuration properties for the in-process employee roster snapshot held by EmployeeSnapshotStore.
+// Properties starting with 'app.cache.employees' in application.yml are mapped to this class.
+@Configuration
+@ConfigurationProperties(prefix = "app.cache.employees")
+public class EmployeeCacheProperties {
+
+    // When disabled every read goes straight to the mock server, which is the original behaviour
+    private boolean enabled = true;
+
+    // How long a snapshot is considered fresh
+    private Duration ttl = Duration.ofSeconds(30);
+
+    // Once a snapshot is older than this, a read kicks off a background refresh while still being served from the
+    // current snapshot so that callers never wait on the refresh
+    private Duration refreshAhead = Duration.ofSeconds(20);
+
+    // When enabled an expired snapshot is still served (and refreshed in the background) for up to maxStale past its
+    // ttl instead of blocking the caller on an upstream round trip
+    private boolean staleWhileRevalidate = true;
+
+    private Duration maxStale = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public void setRefreshAhead(Duration refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+
+    public boolean isStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(boolean staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public Duration getMaxStale() {
+        return maxStale;
+    }
+
+    public void setMaxStale(Duration maxStale) {
+        this.maxStale = maxStale;
+    }
+}
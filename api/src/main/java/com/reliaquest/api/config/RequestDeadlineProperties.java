@@ -0,0 +1,70 @@
+package com.reliaquest.api.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Configuration properties for per request deadlines (RequestDeadline, RequestDeadlineFilter).
+// Properties starting with 'app.rest.deadline' in application.yml are mapped to this class.
+@Configuration
+@ConfigurationProperties(prefix = "app.rest.deadline")
+public class RequestDeadlineProperties {
+
+    // When disabled no request has a deadline and only the global timeouts and retry limits apply
+    private boolean enabled = true;
+
+    // Request header a caller sets to the time it is prepared to wait, e.g. 2000 (milliseconds), 1500ms or 2s
+    private String header = "X-Request-Timeout";
+
+    // Deadline of requests that neither send the header nor match one of the endpoints; none when not set
+    private Duration defaultTimeout;
+
+    // Deadline of requests without the header by path pattern (Ant style, e.g. /api/v1/employee/*); the first match
+    // wins
+    private Map<String, Duration> endpoints = new LinkedHashMap<>();
+
+    // An upstream call is not started with less than this left before the deadline, as it could not finish in time
+    private Duration minUpstreamTime = Duration.ofMillis(50);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Map<String, Duration> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Duration> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public Duration getMinUpstreamTime() {
+        return minUpstreamTime;
+    }
+
+    public void setMinUpstreamTime(Duration minUpstreamTime) {
+        this.minUpstreamTime = minUpstreamTime;
+    }
+}
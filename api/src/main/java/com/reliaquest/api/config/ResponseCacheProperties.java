@@ -0,0 +1,45 @@
+package com.reliaquest.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Configuration properties for the serialized response cache (SerializedResponseCache and SerializedResponseAdvice).
+// Properties starting with 'app.cache.responses' in application.yml are mapped to this class.
+@Configuration
+@ConfigurationProperties(prefix = "app.cache.responses")
+public class ResponseCacheProperties {
+
+    // When disabled roster reads are serialized on every request and carry no ETag
+    private boolean enabled = true;
+
+    // Distinct responses (path and query) kept for the current snapshot version; further ones are serialized per
+    // request until the version moves on
+    private int maxEntries = 64;
+
+    // Responses at least this large are also kept gzip compressed, for clients that accept gzip
+    private int gzipMinBytes = 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getGzipMinBytes() {
+        return gzipMinBytes;
+    }
+
+    public void setGzipMinBytes(int gzipMinBytes) {
+        this.gzipMinBytes = gzipMinBytes;
+    }
+}
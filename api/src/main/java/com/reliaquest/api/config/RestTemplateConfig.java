@@ -1,19 +1,39 @@
 package com.reliaquest.api.config;
 
+import com.reliaquest.api.client.DeadlineAwareRequestFactory;
+import com.reliaquest.api.client.UpstreamBulkheadInterceptor;
+import com.reliaquest.api.client.UpstreamCircuitBreakerInterceptor;
+import com.reliaquest.api.client.UpstreamCompressionInterceptor;
+import com.reliaquest.api.client.UpstreamDeadlineInterceptor;
+import com.reliaquest.api.client.UpstreamEncodingInterceptor;
+import com.reliaquest.api.client.UpstreamRateLimitInterceptor;
 import com.reliaquest.api.error.CustomResponseErrorHandler;
 import com.reliaquest.api.logger.AppLogger;
 import com.reliaquest.api.logger.LoggingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * Configuration class for setting up a RestTemplate with custom error handling,
- * logging, and retry capabilities.
+ * logging, and retry capabilities, backed by a pool of keep-alive connections to the mock server.
  */
 @Configuration
 @EnableRetry // Enables the retry functionality for methods annotated with @Retryable
@@ -30,27 +50,129 @@ public class RestTemplateConfig {
     // 90 seconds so this will cover that successfully
     private long readTimeout;
 
+    /**
+     * Bean definition for the pool of connections to the mock server.
+     *
+     * The pool's usage is published through Micrometer as the httpcomponents.httpclient.pool.* metrics tagged with
+     * httpclient=employee-upstream: total.max, total.connections (leased and available), total.pending (callers waiting
+     * for a connection) and route.max.default.
+     *
+     * @param poolProperties UpstreamPoolProperties with the pool limits and connection lifetimes.
+     * @param meterRegistry MeterRegistry the pool metrics are registered with.
+     * @return Configured PoolingHttpClientConnectionManager instance.
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager upstreamConnectionManager(
+            UpstreamPoolProperties poolProperties, MeterRegistry meterRegistry) {
+        logger.debug("Configuring upstream connection pool with max total " + poolProperties.getMaxTotal()
+                + " and max per route " + poolProperties.getMaxPerRoute());
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(poolProperties.getMaxTotal())
+                .setMaxConnPerRoute(poolProperties.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofSeconds(connectTimeout))
+                        .setSocketTimeout(Timeout.ofSeconds(readTimeout))
+                        .setValidateAfterInactivity(toTimeValue(poolProperties.getValidateAfterInactivity()))
+                        .setTimeToLive(toTimeValue(poolProperties.getTimeToLive()))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "employee-upstream")
+                .bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    /**
+     * Bean definition for the Apache HttpClient the RestTemplate sends requests with. Its own content compression is
+     * disabled: the UpstreamCompressionInterceptor negotiates gzip and decompresses the responses instead, so that the
+     * compression is measured.
+     *
+     * @param connectionManager The pooled connection manager the client leases connections from.
+     * @param poolProperties UpstreamPoolProperties with the pool wait, keep-alive and idle eviction settings.
+     * @return Configured CloseableHttpClient instance, closed with the application context.
+     */
+    @Bean
+    public CloseableHttpClient upstreamHttpClient(
+            PoolingHttpClientConnectionManager connectionManager, UpstreamPoolProperties poolProperties) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        // How long to wait for a pooled connection before failing the request
+                        .setConnectionRequestTimeout(toTimeout(poolProperties.getConnectionRequestTimeout()))
+                        // Used when the server does not say how long it keeps a connection open
+                        .setConnectionKeepAlive(toTimeValue(poolProperties.getKeepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(toTimeValue(poolProperties.getIdleEviction()))
+                .disableContentCompression()
+                .build();
+    }
+
     /**
      * Bean definition for RestTemplate.
      *
      * @param builder RestTemplateBuilder used to create the RestTemplate instance.
      * @param errorHandler CustomResponseErrorHandler bean for handling errors.
      * @param loggingInterceptor LoggingInterceptor bean for logging requests and responses.
+     * @param upstreamHttpClient Pooled HttpClient the RestTemplate's requests are sent with.
+     * @param deadlineInterceptor UpstreamDeadlineInterceptor that skips calls the api request's deadline leaves no
+     *     time for.
+     * @param bulkheadInterceptor UpstreamBulkheadInterceptor that keeps reads, writes and refreshes in their own
+     *     compartments.
+     * @param circuitBreakerInterceptor UpstreamCircuitBreakerInterceptor that fails calls fast during a lockout.
+     * @param rateLimitInterceptor UpstreamRateLimitInterceptor that spends the mock server's request budget.
+     * @param encodingInterceptor UpstreamEncodingInterceptor that asks for JSON or Smile.
+     * @param compressionInterceptor UpstreamCompressionInterceptor that asks for gzip and decompresses responses.
      * @return Configured RestTemplate instance.
      */
     @Bean
     public RestTemplate restTemplate(
             RestTemplateBuilder builder,
             CustomResponseErrorHandler errorHandler,
-            LoggingInterceptor loggingInterceptor) {
+            LoggingInterceptor loggingInterceptor,
+            CloseableHttpClient upstreamHttpClient,
+            UpstreamDeadlineInterceptor deadlineInterceptor,
+            UpstreamBulkheadInterceptor bulkheadInterceptor,
+            UpstreamCircuitBreakerInterceptor circuitBreakerInterceptor,
+            UpstreamRateLimitInterceptor rateLimitInterceptor,
+            UpstreamEncodingInterceptor encodingInterceptor,
+            UpstreamCompressionInterceptor compressionInterceptor) {
         // Log the configuration process
         logger.debug("Configuring RestTemplate with timeouts");
 
         // Build and return a RestTemplate with custom settings
-        return builder.setConnectTimeout(Duration.ofSeconds(connectTimeout)) // Set connection timeout
+        return builder.requestFactory(settings -> pooledRequestFactory(upstreamHttpClient, readTimeout, settings))
+                .setConnectTimeout(Duration.ofSeconds(connectTimeout)) // Set connection timeout
                 .setReadTimeout(Duration.ofSeconds(readTimeout)) // Set read timeout
                 .additionalInterceptors(loggingInterceptor) // Add logging interceptor
+                .additionalInterceptors(deadlineInterceptor) // Skip calls the request's deadline leaves no time for
+                .additionalInterceptors(bulkheadInterceptor) // Keep reads, writes and refreshes apart
+                .additionalInterceptors(circuitBreakerInterceptor) // Fail fast while the circuit is open
+                .additionalInterceptors(rateLimitInterceptor) // Add client side rate limiting
+                .additionalInterceptors(encodingInterceptor) // Ask for the configured encoding, JSON or Smile
+                .additionalInterceptors(compressionInterceptor) // Ask for gzip and decompress it as it is read
                 .errorHandler(errorHandler) // Use the injected custom error handler
                 .build(); // Build the RestTemplate instance
     }
+
+    // The read timeout is already the socket timeout of every pooled connection (see upstreamConnectionManager), and
+    // HttpComponentsClientHttpRequestFactory has no setter for it, so only the connect timeout is applied here. The
+    // factory shortens the read timeout of calls made for an api request with a RequestDeadline
+    private static ClientHttpRequestFactory pooledRequestFactory(
+            CloseableHttpClient upstreamHttpClient, long readTimeout, ClientHttpRequestFactorySettings settings) {
+        DeadlineAwareRequestFactory requestFactory =
+                new DeadlineAwareRequestFactory(upstreamHttpClient, Duration.ofSeconds(readTimeout));
+        if (settings.connectTimeout() != null) {
+            requestFactory.setConnectTimeout(settings.connectTimeout());
+        }
+        return requestFactory;
+    }
+
+    private static TimeValue toTimeValue(Duration duration) {
+        return TimeValue.of(duration.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static Timeout toTimeout(Duration duration) {
+        return Timeout.of(duration.toMillis(), TimeUnit.MILLISECONDS);
+    }
 }
@@ -1,11 +1,16 @@
 package com.reliaquest.api.config;
 
+import com.reliaquest.api.retry.RetryBudget;
+import com.reliaquest.api.retry.StatusAwareBackOffPolicy;
+import com.reliaquest.api.retry.StatusAwareRetryPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
 import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.retry.backoff.FixedBackOffPolicy;
-import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
 
 /**
@@ -15,42 +20,71 @@ import org.springframework.retry.support.RetryTemplate;
 @Data
 public class RetryTemplateConfig {
 
-    // I went with the FixedBackOffPolicy as I didn't have time to create my own BackOffPolicy that would have allowed
-    // for an initial one or two quicker retries to handle non-rate limiting
-    //  errors while providing for intervals that were around 10ish seconds to avoid burdening the server when rate
-    // limiting is in effecct but still occuring often enough to get done asap
-    //  based on how long the rate limiting random interval was set to
+    // The retry and backoff policies classify each failure (see FailureClass): 5xx, 408 and timeouts get a few quick
+    // jittered retries, a 429 waits out the lockout, and any other 4xx is not retried at all. All retries together are
+    // capped by a retry budget so they cannot multiply the load on a struggling server
     @Value("${app.rest.retry.maxattempts:20}") // Default to 20 if not set
     private int maxAttempts;
 
+    // How long to wait after a 429 that carries no Retry-After
     @Value("${app.rest.retry.backoff.fixedinterval:5000}") // Fixed backoff interval of 5 seconds
     private long fixedInterval;
 
-    private SimpleRetryPolicy retryPolicy;
-    private FixedBackOffPolicy backOffPolicy;
+    // First (randomised) wait after a transient failure, doubled with each retry up to the max
+    @Value("${app.rest.retry.backoff.transient-initial-interval:100}")
+    private long transientInitialInterval = 100;
 
-    @Bean
-    public RetryTemplate retryTemplate() {
-        RetryTemplate retryTemplate = new RetryTemplate();
+    @Value("${app.rest.retry.backoff.transient-max-interval:2000}")
+    private long transientMaxInterval = 2000;
+
+    // Retries may add at most this percentage to the upstream calls made within the budget window...
+    @Value("${app.rest.retry.budget.percent:20}")
+    private int budgetPercent = 20;
+
+    // ...on top of this many retries per second, so that a service handling few calls can still retry
+    @Value("${app.rest.retry.budget.min-retries-per-second:10}")
+    private int budgetMinRetriesPerSecond = 10;
+
+    @Value("${app.rest.retry.budget.window:10s}")
+    private Duration budgetWindow = Duration.ofSeconds(10);
 
-        // Initialize and configure the retry policy
-        retryPolicy = new SimpleRetryPolicy();
-        retryPolicy.setMaxAttempts(maxAttempts);
-        retryTemplate.setRetryPolicy(retryPolicy);
+    // Upstream attempts, first attempts and retries of all calls together, that serving one api request may make
+    // (see UpstreamAttemptCap)
+    @Value("${app.rest.retry.max-attempts-per-request:30}")
+    private int maxAttemptsPerRequest = 30;
 
-        // Initialize and configure the fixed backoff policy
-        backOffPolicy = new FixedBackOffPolicy();
-        backOffPolicy.setBackOffPeriod(fixedInterval); // Set the fixed interval
-        retryTemplate.setBackOffPolicy(backOffPolicy);
+    private StatusAwareRetryPolicy retryPolicy;
+    private StatusAwareBackOffPolicy backOffPolicy;
 
+    // Publishes the retries refused by the retry budget
+    @Autowired
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        getRetryPolicy().getRetryBudget().bindTo(meterRegistry);
+    }
+
+    @Bean
+    public RetryTemplate retryTemplate() {
+        RetryTemplate retryTemplate = new RetryTemplate();
+        retryTemplate.setRetryPolicy(getRetryPolicy());
+        retryTemplate.setBackOffPolicy(getBackOffPolicy());
         return retryTemplate;
     }
 
-    public SimpleRetryPolicy getRetryPolicy() {
+    // The policies are created on first use so the AsyncEmployeeClient can share them whether or not the
+    // RetryTemplate bean has been built yet
+    public StatusAwareRetryPolicy getRetryPolicy() {
+        if (retryPolicy == null) {
+            RetryBudget retryBudget =
+                    new RetryBudget(budgetPercent, budgetMinRetriesPerSecond, budgetWindow, Clock.systemUTC());
+            retryPolicy = new StatusAwareRetryPolicy(maxAttempts, retryBudget);
+        }
         return retryPolicy;
     }
 
-    public FixedBackOffPolicy getBackOffPolicy() {
+    public StatusAwareBackOffPolicy getBackOffPolicy() {
+        if (backOffPolicy == null) {
+            backOffPolicy = new StatusAwareBackOffPolicy(transientInitialInterval, transientMaxInterval, fixedInterval);
+        }
         return backOffPolicy;
     }
 }
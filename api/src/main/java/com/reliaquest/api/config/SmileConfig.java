@@ -0,0 +1,35 @@
+package com.reliaquest.api.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuration for Smile, Jackson's binary encoding of the JSON data model, as an alternative to JSON for calls to the
+ * mock server (see UpstreamEncoding) and for clients of the api that ask for application/x-jackson-smile. JSON stays
+ * the encoding used whenever a request does not ask for Smile.
+ */
+@Configuration
+public class SmileConfig {
+
+    /**
+     * Bean definition for the Smile message converter. It takes the place of the one Spring MVC adds by default, which
+     * the RestTemplateBuilder's converters are taken from too.
+     *
+     * @param builder Jackson2ObjectMapperBuilder configured like the application's JSON ObjectMapper.
+     * @return Converter that reads and writes application/x-jackson-smile.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // Field names are written once per roster and referred back to after that by default; titles repeat across
+        // the roster just as much, so values are shared the same way
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(
+                builder.factory(smileFactory).build());
+    }
+}
@@ -0,0 +1,103 @@
+package com.reliaquest.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Configuration properties for the bulkheads (UpstreamBulkhead) that keep reads, writes and background refreshes of the
+// roster snapshot from taking each other's share of the calls to the mock server.
+// Properties starting with 'app.rest.bulkhead' in application.yml are mapped to this class.
+@Configuration
+@ConfigurationProperties(prefix = "app.rest.bulkhead")
+public class UpstreamBulkheadProperties {
+
+    // When disabled every kind of call shares the connection pool and rate limiter queue unbounded
+    private boolean enabled = true;
+
+    // Roster and by-id reads made to answer an api request
+    private Compartment read = new Compartment(10, 20, Duration.ofSeconds(1));
+
+    // Creates and deletes
+    private Compartment write = new Compartment(5, 20, Duration.ofSeconds(2));
+
+    // Background refreshes of the roster snapshot, which never wait: a refresh that does not fit is skipped and the
+    // current snapshot served a little longer
+    private Compartment refresh = new Compartment(2, 0, Duration.ZERO);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Compartment getRead() {
+        return read;
+    }
+
+    public void setRead(Compartment read) {
+        this.read = read;
+    }
+
+    public Compartment getWrite() {
+        return write;
+    }
+
+    public void setWrite(Compartment write) {
+        this.write = write;
+    }
+
+    public Compartment getRefresh() {
+        return refresh;
+    }
+
+    public void setRefresh(Compartment refresh) {
+        this.refresh = refresh;
+    }
+
+    // Limits of one kind of call
+    public static class Compartment {
+
+        // Calls of this kind that may be in flight (or queued at the rate limiter) at once
+        private int maxConcurrent;
+
+        // Calls that may wait for one of those to finish; any more are rejected straight away
+        private int maxWaiting;
+
+        // How long a call waits before it is rejected; never longer than its api request's deadline
+        private Duration maxWait;
+
+        public Compartment() {}
+
+        public Compartment(int maxConcurrent, int maxWaiting, Duration maxWait) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxWaiting = maxWaiting;
+            this.maxWait = maxWait;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxWaiting() {
+            return maxWaiting;
+        }
+
+        public void setMaxWaiting(int maxWaiting) {
+            this.maxWaiting = maxWaiting;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.reliaquest.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Configuration properties for the circuit breaker (UpstreamCircuitBreaker) around every call to the mock server.
+// Properties starting with 'app.rest.circuit-breaker' in application.yml are mapped to this class.
+@Configuration
+@ConfigurationProperties(prefix = "app.rest.circuit-breaker")
+public class UpstreamCircuitBreakerProperties {
+
+    // When disabled every call goes to the mock server however many of the previous ones failed
+    private boolean enabled = true;
+
+    // Number of consecutive 429, 5xx or I/O failures that opens the circuit
+    private int failureThreshold = 5;
+
+    // How long the circuit stays open before a single half-open probe is let through
+    private Duration openDuration = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+}
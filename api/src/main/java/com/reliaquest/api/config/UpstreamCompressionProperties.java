@@ -0,0 +1,23 @@
+package com.reliaquest.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Configuration properties for compressed responses from the mock server (UpstreamCompression).
+// Properties starting with 'app.rest.compression' in application.yml are mapped to this class.
+@Configuration
+@ConfigurationProperties(prefix = "app.rest.compression")
+public class UpstreamCompressionProperties {
+
+    // When enabled calls to the mock server accept gzip and compressed responses are decompressed as they are read;
+    // when disabled they ask for, and are sent, uncompressed bodies
+    private boolean enabled = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -0,0 +1,28 @@
+package com.reliaquest.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Configuration properties for the encoding asked of the mock server (UpstreamEncoding).
+// Properties starting with 'app.rest.encoding' in application.yml are mapped to this class.
+@Configuration
+@ConfigurationProperties(prefix = "app.rest.encoding")
+public class UpstreamEncodingProperties {
+
+    public enum Format {
+        JSON,
+        SMILE
+    }
+
+    // The encoding responses are asked for in. With SMILE JSON is still accepted, so a mock server without Smile
+    // support keeps answering in JSON
+    private Format format = Format.JSON;
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+}
@@ -0,0 +1,79 @@
+package com.reliaquest.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Configuration properties for hedged roster and by-id reads (UpstreamHedger).
+// Properties starting with 'app.rest.hedge' in application.yml are mapped to this class.
+@Configuration
+@ConfigurationProperties(prefix = "app.rest.hedge")
+public class UpstreamHedgeProperties {
+
+    // When disabled every read is a single call however long it takes. Hedges are only sent while the rate limiter
+    // has learned the budget and has room left in it, so they also need app.rest.rate-limit.enabled
+    private boolean enabled = false;
+
+    // Fixed time to wait for a read before hedging it; when not set the observed percentile of recent reads is used
+    private Duration delay;
+
+    // Percentile of recent read latencies to hedge after when no fixed delay is set
+    private double percentile = 95;
+
+    // Lower bound on the observed hedge delay, so a quick upstream is not sent every read twice
+    private Duration minDelay = Duration.ofMillis(20);
+
+    // Number of recent read latencies kept per kind of read (roster and by-id)
+    private int samples = 100;
+
+    // Reads are not hedged on the observed percentile until this many latencies have been seen
+    private int minSamples = 20;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getDelay() {
+        return delay;
+    }
+
+    public void setDelay(Duration delay) {
+        this.delay = delay;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public void setSamples(int samples) {
+        this.samples = samples;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+}
@@ -0,0 +1,89 @@
+package com.reliaquest.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Configuration properties for the pooled HTTP connections the RestTemplate uses to reach the mock server.
+// Properties starting with 'app.rest.pool' in application.yml are mapped to this class.
+@Configuration
+@ConfigurationProperties(prefix = "app.rest.pool")
+public class UpstreamPoolProperties {
+
+    // Upper bound on open connections across all routes
+    private int maxTotal = 50;
+
+    // Upper bound on open connections to a single host; everything goes to the mock server, so this is the real limit
+    private int maxPerRoute = 20;
+
+    // How long a caller waits for a free pooled connection before the request fails
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+
+    // How long an idle connection is kept alive when the server does not send a Keep-Alive header
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    // Idle connections older than this are closed by a background evictor
+    private Duration idleEviction = Duration.ofSeconds(30);
+
+    // A connection that has been idle this long is checked for a server side close before it is reused
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    // Connections are retired after this long however busy they are, so DNS and load balancer changes are picked up
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public Duration getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public Duration getIdleEviction() {
+        return idleEviction;
+    }
+
+    public void setIdleEviction(Duration idleEviction) {
+        this.idleEviction = idleEviction;
+    }
+
+    public Duration getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(Duration validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+}
@@ -0,0 +1,68 @@
+package com.reliaquest.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Configuration properties for the client side limiter (UpstreamRateLimiter) in front of every call to the mock server.
+// Properties starting with 'app.rest.rate-limit' in application.yml are mapped to this class.
+@Configuration
+@ConfigurationProperties(prefix = "app.rest.rate-limit")
+public class UpstreamRateLimitProperties {
+
+    // When disabled every call goes straight to the mock server and 429s are only handled by the retries
+    private boolean enabled = true;
+
+    // How long a blocking caller queues for a permit before the call is shed with a client side 429
+    private Duration maxQueueWait = Duration.ofSeconds(2);
+
+    // While the length of a lockout is still unknown, how often a single probe request is let through to find its end
+    private Duration probeInterval = Duration.ofSeconds(5);
+
+    // Number of requests at the end of each learned budget that bulk roster loads may not use, so writes and by-id
+    // reads can still get through
+    private int bulkReserve = 2;
+
+    // The reserve is handed to bulk loads once no upstream call has been made for this long
+    private Duration reserveHold = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getMaxQueueWait() {
+        return maxQueueWait;
+    }
+
+    public void setMaxQueueWait(Duration maxQueueWait) {
+        this.maxQueueWait = maxQueueWait;
+    }
+
+    public Duration getProbeInterval() {
+        return probeInterval;
+    }
+
+    public void setProbeInterval(Duration probeInterval) {
+        this.probeInterval = probeInterval;
+    }
+
+    public int getBulkReserve() {
+        return bulkReserve;
+    }
+
+    public void setBulkReserve(int bulkReserve) {
+        this.bulkReserve = bulkReserve;
+    }
+
+    public Duration getReserveHold() {
+        return reserveHold;
+    }
+
+    public void setReserveHold(Duration reserveHold) {
+        this.reserveHold = reserveHold;
+    }
+}
@@ -0,0 +1,59 @@
+package com.reliaquest.api.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out the threads our own background work runs on, following spring.threads.virtual.enabled.
+ *
+ * With the property set and a Java 21+ runtime, Spring Boot already runs Tomcat request handling (and so every blocking
+ * upstream call and RetryAspect wait made on the request thread) on virtual threads. This class extends the same mode
+ * to the threads we create ourselves: the snapshot refresh and the async client's callbacks. Otherwise, including on
+ * the Java 17 toolchain this project builds with, plain daemon platform threads are used. VirtualThreadTaskExecutor
+ * lets this compile against Java 17 and only create virtual threads when running on 21+.
+ */
+@Component
+public class VirtualThreadSupport {
+
+    private final boolean virtual;
+
+    @Autowired
+    public VirtualThreadSupport(Environment environment) {
+        this(Threading.VIRTUAL.isActive(environment));
+    }
+
+    // Constructor to be used by tests
+    public VirtualThreadSupport(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    // True when spring.threads.virtual.enabled is set and the runtime supports virtual threads
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    // Factory for threads named name-N: virtual threads in virtual thread mode, daemon platform threads otherwise
+    public ThreadFactory threadFactory(String name) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+        }
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Executor running each task on a new virtual thread, or null outside virtual thread mode so callers keep their
+    // own default executor
+    public Executor virtualExecutorOrNull(String name) {
+        return virtual ? new VirtualThreadTaskExecutor(name + "-") : null;
+    }
+}
@@ -1,11 +1,26 @@
 package com.reliaquest.api.config;
 
+import com.reliaquest.api.controller.SerializedResponseAdvice;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    private final SerializedResponseAdvice serializedResponseAdvice;
+
+    public WebConfig(SerializedResponseAdvice serializedResponseAdvice) {
+        this.serializedResponseAdvice = serializedResponseAdvice;
+    }
+
+    // Notes the snapshot version each @SnapshotRead starts from, so its response can be cached and tagged by version
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(serializedResponseAdvice);
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**") // Allow all endpoints
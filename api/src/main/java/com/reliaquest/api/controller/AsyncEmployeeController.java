@@ -0,0 +1,167 @@
+package com.reliaquest.api.controller;
+
+import com.reliaquest.api.config.BulkWriteProperties;
+import com.reliaquest.api.dto.BulkWriteResponse;
+import com.reliaquest.api.dto.EmployeeDTO;
+import com.reliaquest.api.dto.SalaryHistogramResponse;
+import com.reliaquest.api.dto.SalaryPercentilesResponse;
+import com.reliaquest.api.dto.SalaryRankResponse;
+import com.reliaquest.api.dto.SalaryStatsResponse;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.service.AsyncEmployeeService;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Serves the same endpoints as EmployeeController in the async client mode (app.rest.client.mode=async). Handlers
+ * return a CompletableFuture, so Spring MVC completes the response through servlet async processing and the Tomcat
+ * worker is released while the upstream call is outstanding. IEmployeeController fixes synchronous return types, so
+ * this controller cannot implement it; it maps the same paths instead.
+ */
+@RestController
+@RequestMapping("/api/v1/employee")
+@ConditionalOnProperty(prefix = "app.rest.client", name = "mode", havingValue = "async")
+public class AsyncEmployeeController {
+
+    private final AsyncEmployeeService employeeService;
+    private final BulkWriteProperties bulkProperties;
+
+    @Autowired
+    public AsyncEmployeeController(AsyncEmployeeService employeeService, BulkWriteProperties bulkProperties) {
+        this.employeeService = employeeService;
+        this.bulkProperties = bulkProperties;
+    }
+
+    @GetMapping()
+    @SnapshotRead
+    public CompletableFuture<ResponseEntity<List<Employee>>> getAllEmployees() {
+        return employeeService.getAllEmployees().thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search/{searchString}")
+    @SnapshotRead
+    public CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(
+            @PathVariable String searchString) {
+        return employeeService.getEmployeesByNameSearch(searchString).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable String id) {
+        return employeeService.getEmployeeById(id).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/highestSalary")
+    @SnapshotRead
+    public CompletableFuture<ResponseEntity<Integer>> getHighestSalaryOfEmployees() {
+        return employeeService.getHighestSalaryOfEmployees().thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/topTenHighestEarningEmployeeNames")
+    @SnapshotRead
+    public CompletableFuture<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames() {
+        return employeeService.getTopTenHighestEarningEmployeeNames().thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/topN")
+    @SnapshotRead
+    public CompletableFuture<ResponseEntity<List<String>>> getTopHighestEarningEmployeeNames(
+            @RequestParam(name = "n", defaultValue = "10") int n) {
+        if (n < 1) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return employeeService.getTopHighestEarningEmployeeNames(n).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/salaryRank/{id}")
+    @SnapshotRead
+    public CompletableFuture<ResponseEntity<SalaryRankResponse>> getSalaryRank(@PathVariable String id) {
+        return employeeService
+                .getSalaryRank(id)
+                .thenApply(salaryRank ->
+                        salaryRank == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(salaryRank));
+    }
+
+    @GetMapping("/salaryStats")
+    @SnapshotRead
+    public CompletableFuture<ResponseEntity<SalaryStatsResponse>> getSalaryStats() {
+        return employeeService.getSalaryStats().thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/salaryStats/byTitle")
+    @SnapshotRead
+    public CompletableFuture<ResponseEntity<List<SalaryStatsResponse>>> getSalaryStatsByTitle() {
+        return employeeService.getSalaryStatsByTitle().thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/salaryPercentiles")
+    @SnapshotRead
+    public CompletableFuture<ResponseEntity<SalaryPercentilesResponse>> getSalaryPercentiles(
+            @RequestParam(name = "title", required = false) List<String> titles,
+            @RequestParam(name = "percentiles", defaultValue = "50,90,99") List<Double> percentiles) {
+        if (!EmployeeController.validPercentiles(percentiles)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return employeeService.getSalaryPercentiles(titles, percentiles).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/salaryPercentiles/byTitle")
+    @SnapshotRead
+    public CompletableFuture<ResponseEntity<List<SalaryPercentilesResponse>>> getSalaryPercentilesByTitle(
+            @RequestParam(name = "percentiles", defaultValue = "50,90,99") List<Double> percentiles) {
+        if (!EmployeeController.validPercentiles(percentiles)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return employeeService.getSalaryPercentilesByTitle(percentiles).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/salaryHistogram")
+    @SnapshotRead
+    public CompletableFuture<ResponseEntity<SalaryHistogramResponse>> getSalaryHistogram(
+            @RequestParam(name = "title", required = false) List<String> titles,
+            @RequestParam(name = "bins", defaultValue = "10") int bins) {
+        if (bins < 1 || bins > EmployeeController.MAX_HISTOGRAM_BINS) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return employeeService.getSalaryHistogram(titles, bins).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping()
+    public CompletableFuture<ResponseEntity<Employee>> createEmployee(@RequestBody EmployeeDTO employeeDTO) {
+        return employeeService.createEmployee(employeeDTO).thenApply(createdEmployee -> ResponseEntity.status(201)
+                .body(createdEmployee));
+    }
+
+    @PostMapping("/bulk")
+    public CompletableFuture<ResponseEntity<BulkWriteResponse<Employee>>> createEmployees(
+            @RequestBody List<EmployeeDTO> employeeDTOs) {
+        if (!EmployeeController.validBatch(employeeDTOs, bulkProperties.getMaxItems())) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return employeeService
+                .createEmployees(employeeDTOs)
+                .thenApply(response -> EmployeeController.bulkResponse(response, HttpStatus.CREATED));
+    }
+
+    @DeleteMapping("/{id}")
+    public CompletableFuture<ResponseEntity<String>> deleteEmployeeById(@PathVariable String id) {
+        return employeeService
+                .deleteEmployeeById(id)
+                .thenApply(deleted -> ResponseEntity.ok("Employee deleted successfully"));
+    }
+
+    @DeleteMapping("/bulk")
+    public CompletableFuture<ResponseEntity<BulkWriteResponse<Employee>>> deleteEmployeesById(
+            @RequestBody List<String> ids) {
+        if (!EmployeeController.validBatch(ids, bulkProperties.getMaxItems())) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return employeeService
+                .deleteEmployeesById(ids)
+                .thenApply(response -> EmployeeController.bulkResponse(response, HttpStatus.OK));
+    }
+}
@@ -1,26 +1,41 @@
 package com.reliaquest.api.controller;
 
+import com.reliaquest.api.config.BulkWriteProperties;
+import com.reliaquest.api.dto.BulkWriteResponse;
 import com.reliaquest.api.dto.EmployeeDTO;
+import com.reliaquest.api.dto.SalaryHistogramResponse;
+import com.reliaquest.api.dto.SalaryPercentilesResponse;
+import com.reliaquest.api.dto.SalaryRankResponse;
+import com.reliaquest.api.dto.SalaryStatsResponse;
 import com.reliaquest.api.model.Employee;
 import com.reliaquest.api.service.EmployeeService;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/v1/employee")
+// Replaced by AsyncEmployeeController in the async client mode
+@ConditionalOnProperty(prefix = "app.rest.client", name = "mode", havingValue = "blocking", matchIfMissing = true)
 public class EmployeeController implements IEmployeeController<Employee, EmployeeDTO> {
 
+    static final int MAX_HISTOGRAM_BINS = 1000;
+
     private final EmployeeService employeeService;
+    private final BulkWriteProperties bulkProperties;
 
     @Autowired
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, BulkWriteProperties bulkProperties) {
         this.employeeService = employeeService;
+        this.bulkProperties = bulkProperties;
     }
 
     @Override
     @GetMapping()
+    @SnapshotRead
     public ResponseEntity<List<Employee>> getAllEmployees() {
         List<Employee> employees = employeeService.getAllEmployees();
         return ResponseEntity.ok(employees);
@@ -28,6 +43,7 @@ public class EmployeeController implements IEmployeeController<Employee, Employe
 
     @Override
     @GetMapping("/search/{searchString}")
+    @SnapshotRead
     public ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString) {
         List<Employee> employees = employeeService.getEmployeesByNameSearch(searchString);
         return ResponseEntity.ok(employees);
@@ -42,6 +58,7 @@ public class EmployeeController implements IEmployeeController<Employee, Employe
 
     @Override
     @GetMapping("/highestSalary")
+    @SnapshotRead
     public ResponseEntity<Integer> getHighestSalaryOfEmployees() {
         Integer highestSalary = employeeService.getHighestSalaryOfEmployees();
         return ResponseEntity.ok(highestSalary);
@@ -49,11 +66,89 @@ public class EmployeeController implements IEmployeeController<Employee, Employe
 
     @Override
     @GetMapping("/topTenHighestEarningEmployeeNames")
+    @SnapshotRead
     public ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames() {
         List<String> topTenNames = employeeService.getTopTenHighestEarningEmployeeNames();
         return ResponseEntity.ok(topTenNames);
     }
 
+    // Not part of IEmployeeController: the top n version of getTopTenHighestEarningEmployeeNames
+    @GetMapping("/topN")
+    @SnapshotRead
+    public ResponseEntity<List<String>> getTopHighestEarningEmployeeNames(
+            @RequestParam(name = "n", defaultValue = "10") int n) {
+        if (n < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> topNames = employeeService.getTopHighestEarningEmployeeNames(n);
+        return ResponseEntity.ok(topNames);
+    }
+
+    // Not part of IEmployeeController: where an employee's salary ranks among all employees
+    @GetMapping("/salaryRank/{id}")
+    @SnapshotRead
+    public ResponseEntity<SalaryRankResponse> getSalaryRank(@PathVariable String id) {
+        SalaryRankResponse salaryRank = employeeService.getSalaryRank(id);
+        if (salaryRank == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(salaryRank);
+    }
+
+    // Not part of IEmployeeController: salary and age statistics over all employees
+    @GetMapping("/salaryStats")
+    @SnapshotRead
+    public ResponseEntity<SalaryStatsResponse> getSalaryStats() {
+        SalaryStatsResponse stats = employeeService.getSalaryStats();
+        return ResponseEntity.ok(stats);
+    }
+
+    // Not part of IEmployeeController: salary and age statistics per title
+    @GetMapping("/salaryStats/byTitle")
+    @SnapshotRead
+    public ResponseEntity<List<SalaryStatsResponse>> getSalaryStatsByTitle() {
+        List<SalaryStatsResponse> stats = employeeService.getSalaryStatsByTitle();
+        return ResponseEntity.ok(stats);
+    }
+
+    // Not part of IEmployeeController: salary percentiles of the given titles, or of all employees when none are given
+    @GetMapping("/salaryPercentiles")
+    @SnapshotRead
+    public ResponseEntity<SalaryPercentilesResponse> getSalaryPercentiles(
+            @RequestParam(name = "title", required = false) List<String> titles,
+            @RequestParam(name = "percentiles", defaultValue = "50,90,99") List<Double> percentiles) {
+        if (!validPercentiles(percentiles)) {
+            return ResponseEntity.badRequest().build();
+        }
+        SalaryPercentilesResponse salaryPercentiles = employeeService.getSalaryPercentiles(titles, percentiles);
+        return ResponseEntity.ok(salaryPercentiles);
+    }
+
+    // Not part of IEmployeeController: salary percentiles per title
+    @GetMapping("/salaryPercentiles/byTitle")
+    @SnapshotRead
+    public ResponseEntity<List<SalaryPercentilesResponse>> getSalaryPercentilesByTitle(
+            @RequestParam(name = "percentiles", defaultValue = "50,90,99") List<Double> percentiles) {
+        if (!validPercentiles(percentiles)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<SalaryPercentilesResponse> salaryPercentiles = employeeService.getSalaryPercentilesByTitle(percentiles);
+        return ResponseEntity.ok(salaryPercentiles);
+    }
+
+    // Not part of IEmployeeController: equal width salary histogram of the given titles, or of all employees
+    @GetMapping("/salaryHistogram")
+    @SnapshotRead
+    public ResponseEntity<SalaryHistogramResponse> getSalaryHistogram(
+            @RequestParam(name = "title", required = false) List<String> titles,
+            @RequestParam(name = "bins", defaultValue = "10") int bins) {
+        if (bins < 1 || bins > MAX_HISTOGRAM_BINS) {
+            return ResponseEntity.badRequest().build();
+        }
+        SalaryHistogramResponse salaryHistogram = employeeService.getSalaryHistogram(titles, bins);
+        return ResponseEntity.ok(salaryHistogram);
+    }
+
     @Override
     @PostMapping()
     public ResponseEntity<Employee> createEmployee(@RequestBody EmployeeDTO employeeDTO) { // Updated parameter type
@@ -61,10 +156,44 @@ public class EmployeeController implements IEmployeeController<Employee, Employe
         return ResponseEntity.status(201).body(createdEmployee);
     }
 
+    // Not part of IEmployeeController: creates a batch of employees, answering with the outcome of each create
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkWriteResponse<Employee>> createEmployees(@RequestBody List<EmployeeDTO> employeeDTOs) {
+        if (!validBatch(employeeDTOs, bulkProperties.getMaxItems())) {
+            return ResponseEntity.badRequest().build();
+        }
+        BulkWriteResponse<Employee> response = employeeService.createEmployees(employeeDTOs);
+        return bulkResponse(response, HttpStatus.CREATED);
+    }
+
     @Override
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteEmployeeById(@PathVariable String id) {
         employeeService.deleteEmployeeById(id);
         return ResponseEntity.ok("Employee deleted successfully");
     }
+
+    // Not part of IEmployeeController: deletes a batch of employees by id, answering with the outcome of each delete
+    @DeleteMapping("/bulk")
+    public ResponseEntity<BulkWriteResponse<Employee>> deleteEmployeesById(@RequestBody List<String> ids) {
+        if (!validBatch(ids, bulkProperties.getMaxItems())) {
+            return ResponseEntity.badRequest().build();
+        }
+        BulkWriteResponse<Employee> response = employeeService.deleteEmployeesById(ids);
+        return bulkResponse(response, HttpStatus.OK);
+    }
+
+    static boolean validBatch(List<?> items, int maxItems) {
+        return items != null && !items.isEmpty() && items.size() <= maxItems && !items.contains(null);
+    }
+
+    // The given status when every item of the batch succeeded, otherwise 207 Multi-Status with the per item outcomes
+    static <T> ResponseEntity<BulkWriteResponse<T>> bulkResponse(BulkWriteResponse<T> response, HttpStatus succeeded) {
+        return ResponseEntity.status(response.getFailed() == 0 ? succeeded : HttpStatus.MULTI_STATUS)
+                .body(response);
+    }
+
+    static boolean validPercentiles(List<Double> percentiles) {
+        return !percentiles.isEmpty() && percentiles.stream().allMatch(p -> p != null && p >= 0 && p <= 100);
+    }
 }
@@ -0,0 +1,176 @@
+package com.reliaquest.api.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.cache.EmployeeSnapshot;
+import com.reliaquest.api.cache.EmployeeSnapshotStore;
+import com.reliaquest.api.cache.SerializedResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Serves the JSON of @SnapshotRead responses from the SerializedResponseCache rather than serializing it again, and
+ * answers conditional GETs for them.
+ *
+ * As an interceptor it notes the snapshot version before the controller runs; as response body advice it checks that
+ * the version is unchanged once the body is ready, so the body is known to come from that version, and then:
+ * - gives the response a strong ETag for the version and answers a matching If-None-Match with a 304 and no body
+ * - otherwise writes the cached bytes, gzip compressed when the client accepts gzip and the response was worth
+ *   compressing, straight to the response instead of handing the body to the message converter
+ * A body whose version cannot be vouched for (no snapshot, or a load or write while the request ran) is written the
+ * usual way and carries no ETag.
+ *
+ * Like StaleSnapshotHeaderAdvice it applies to both controllers, the async one on its async dispatch, and it runs last
+ * so the headers other advice sets are in place before it writes the body.
+ */
+@ControllerAdvice
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class SerializedResponseAdvice implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+
+    private static final String VERSION_ATTRIBUTE = SerializedResponseAdvice.class.getName() + ".version";
+
+    private final SerializedResponseCache cache;
+    private final EmployeeSnapshotStore snapshotStore;
+    private final ObjectMapper objectMapper;
+
+    public SerializedResponseAdvice(
+            SerializedResponseCache cache, EmployeeSnapshotStore snapshotStore, ObjectMapper objectMapper) {
+        this.cache = cache;
+        this.snapshotStore = snapshotStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Noted on the first dispatch only, so an async request keeps the version it started with
+        if (cache.isEnabled()
+                && handler instanceof HandlerMethod method
+                && method.hasMethodAnnotation(SnapshotRead.class)
+                && request.getAttribute(VERSION_ATTRIBUTE) == null) {
+            EmployeeSnapshot snapshot = snapshotStore.peek();
+            request.setAttribute(VERSION_ATTRIBUTE, snapshot == null ? -1L : snapshot.getVersion());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(SnapshotRead.class)
+                && AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (body == null
+                || !cache.isEnabled()
+                || !MediaType.APPLICATION_JSON.isCompatibleWith(selectedContentType)
+                || !(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)
+                || servletResponse.getServletResponse().getStatus() != HttpStatus.OK.value()) {
+            return body;
+        }
+        Long version = (Long) servletRequest.getServletRequest().getAttribute(VERSION_ATTRIBUTE);
+        EmployeeSnapshot snapshot = snapshotStore.peek();
+        if (version == null || snapshot == null || snapshot.getVersion() != version) {
+            return body; // Not known to come from one snapshot version
+        }
+
+        boolean gzip = acceptsGzip(request.getHeaders());
+        HttpHeaders headers = response.getHeaders();
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (notModified(request.getHeaders(), version)) {
+            headers.setETag(cache.etag(version, gzip));
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return null; // Nothing left for the converter to write
+        }
+
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        String key = httpRequest.getQueryString() == null
+                ? httpRequest.getRequestURI()
+                : httpRequest.getRequestURI() + "?" + httpRequest.getQueryString();
+        SerializedResponseCache.Entry entry = cache.get(key, version);
+        if (entry == null) {
+            entry = cache.put(key, version, serialize(body));
+        }
+        boolean compressed = gzip && entry.getGzip() != null;
+        byte[] bytes = compressed ? entry.getGzip() : entry.getJson();
+        headers.setETag(compressed ? entry.getGzipEtag() : entry.getEtag());
+        if (compressed) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        headers.setContentType(selectedContentType);
+        headers.setContentLength(bytes.length);
+        try {
+            response.getBody().write(bytes);
+        } catch (IOException e) {
+            throw new HttpMessageNotWritableException("Could not write cached response: " + e.getMessage(), e);
+        }
+        return null; // Already written
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not serialize response: " + e.getMessage(), e);
+        }
+    }
+
+    // Whether the request's If-None-Match names the response at this version, in either encoding. The tags are
+    // compared weakly, as RFC 9110 requires for If-None-Match
+    private boolean notModified(HttpHeaders requestHeaders, long version) {
+        List<String> tags;
+        try {
+            tags = requestHeaders.getIfNoneMatch();
+        } catch (IllegalArgumentException e) {
+            return false; // Malformed, so treated as absent
+        }
+        for (String tag : tags) {
+            String strong = tag.startsWith("W/") ? tag.substring(2) : tag;
+            if (tag.equals("*")
+                    || strong.equals(cache.etag(version, false))
+                    || strong.equals(cache.etag(version, true))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(HttpHeaders requestHeaders) {
+        for (String value : requestHeaders.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")
+                        && (parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package com.reliaquest.api.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller read that is answered entirely from the roster snapshot, so that its response is fully determined
+ * by the request and the snapshot's version. SerializedResponseAdvice caches the serialized form of such responses by
+ * snapshot version and answers conditional requests for them.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SnapshotRead {}
@@ -0,0 +1,65 @@
+package com.reliaquest.api.controller;
+
+import com.reliaquest.api.cache.EmployeeSnapshotStore;
+import com.reliaquest.api.cache.ServedSnapshot;
+import java.time.Duration;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marks employee reads answered from a roster snapshot past its ttl, which happens while a stale snapshot is served
+ * during a refresh and while the circuit to the mock server is open: the response gets an Age header with the
+ * snapshot's age in seconds and a Warning "110 - Response is Stale" header. Only responses the services noted as
+ * answered from a snapshot (see ServedSnapshot) are marked, so a read that went to the mock server is not.
+ *
+ * Applies to both EmployeeController and AsyncEmployeeController (response body advice also runs on the async
+ * dispatch), so neither controller nor IEmployeeController has to change.
+ */
+@ControllerAdvice
+@Order(0) // Ahead of SerializedResponseAdvice, which may write the response itself
+public class StaleSnapshotHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+    private static final String EMPLOYEE_PATH = "/api/v1/employee";
+
+    private final EmployeeSnapshotStore snapshotStore;
+
+    public StaleSnapshotHeaderAdvice(EmployeeSnapshotStore snapshotStore) {
+        this.snapshotStore = snapshotStore;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true; // Narrowed down by request in beforeBodyWrite
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (request.getMethod() != HttpMethod.GET
+                || !request.getURI().getPath().startsWith(EMPLOYEE_PATH)
+                || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body; // Writes always reach the mock server, and other endpoints do not use the snapshot
+        }
+        Duration staleAge = snapshotStore.staleAge(ServedSnapshot.of(servletRequest.getServletRequest()));
+        if (staleAge != null) {
+            response.getHeaders().set(HttpHeaders.AGE, String.valueOf(staleAge.toSeconds()));
+            response.getHeaders().set(HttpHeaders.WARNING, STALE_WARNING);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,23 @@
+package com.reliaquest.api.deadline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown instead of starting upstream work that cannot finish before the api request's RequestDeadline, and answered
+ * 504 since the caller has already given up waiting.
+ *
+ * It is not an HTTP status error, so the retries classify it as permanent and give up straight away.
+ */
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    // Keeps the failure of the last attempt made before the deadline ran out as the cause
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
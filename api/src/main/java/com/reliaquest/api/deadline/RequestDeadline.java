@@ -0,0 +1,131 @@
+package com.reliaquest.api.deadline;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * The time by which the api request being served has to be answered. Past it the caller has given up, so any further
+ * upstream work on its behalf is wasted.
+ *
+ * A deadline is opened per api request by RequestDeadlineFilter and bound to the request thread. Whatever can wait on
+ * the mock server reads it:
+ * - upstream calls are not started once less than minUpstreamTime is left, and their socket timeouts are shortened to
+ *   the time left (DeadlineAwareRequestFactory for the RestTemplate, AsyncEmployeeClient for the JDK HttpClient)
+ * - the rate limiter queues for a permit no longer than the time left
+ * - retries are not attempted, and backoffs not slept, when the wait would leave no time for the next attempt
+ *
+ * Work that hops threads on behalf of the request (asynchronous retries, hedged reads) carries the deadline along.
+ * Calls made outside an api request, such as a background snapshot refresh, have no deadline.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final Duration timeout;
+    private final long deadlineNanos;
+    private final long minUpstreamNanos;
+
+    private RequestDeadline(Duration timeout, Duration minUpstreamTime) {
+        this.timeout = timeout;
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+        this.minUpstreamNanos = minUpstreamTime.toNanos();
+    }
+
+    // A deadline the given timeout from now
+    public static RequestDeadline after(Duration timeout) {
+        return after(timeout, Duration.ZERO);
+    }
+
+    // A deadline the given timeout from now, past which no upstream call is started with less than minUpstreamTime left
+    public static RequestDeadline after(Duration timeout, Duration minUpstreamTime) {
+        return new RequestDeadline(timeout, minUpstreamTime);
+    }
+
+    // The deadline of the api request being served on this thread, or null when it has none
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    // Binds the given deadline (null for none) to this thread until the returned binding is closed
+    public static Binding bind(RequestDeadline deadline) {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    // Wraps the call so it runs under this thread's current deadline on whichever thread it is later called on
+    public static <T> Supplier<T> propagate(Supplier<T> call) {
+        RequestDeadline deadline = current();
+        if (deadline == null) {
+            return call;
+        }
+        return () -> {
+            try (Binding ignored = bind(deadline)) {
+                return call.get();
+            }
+        };
+    }
+
+    // Throws unless the current deadline, if any, leaves time for an upstream call
+    public static void checkCurrent(String operation) {
+        RequestDeadline deadline = current();
+        if (deadline != null) {
+            deadline.checkUpstreamCall(operation);
+        }
+    }
+
+    // The given timeout, shortened to the time left before the current deadline if there is one
+    public static Duration clampCurrent(Duration timeout) {
+        RequestDeadline deadline = current();
+        return deadline == null ? timeout : deadline.clamp(timeout);
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    // Time left before the deadline, zero once it has passed
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, remainingNanos()));
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    // Whether there is still time for an upstream call after waiting the given number of milliseconds
+    public boolean allowsWait(long millis) {
+        return remainingNanos() - Duration.ofMillis(millis).toNanos() > minUpstreamNanos;
+    }
+
+    // Throws DeadlineExceededException unless there is time left for an upstream call
+    public void checkUpstreamCall(String operation) {
+        long remaining = remainingNanos();
+        if (remaining <= 0 || remaining < minUpstreamNanos) {
+            throw new DeadlineExceededException("Deadline of " + timeout.toMillis() + " ms leaves no time for "
+                    + operation + " (" + Math.max(0, remaining / 1_000_000) + " ms left)");
+        }
+    }
+
+    // The given timeout, shortened to the time left
+    public Duration clamp(Duration timeout) {
+        Duration remaining = remaining();
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    private long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    // Restores the thread's previous deadline when closed
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
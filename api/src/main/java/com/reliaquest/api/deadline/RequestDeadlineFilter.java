@@ -0,0 +1,80 @@
+package com.reliaquest.api.deadline;
+
+import com.reliaquest.api.config.RequestDeadlineProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Opens a RequestDeadline for every api request that has one and binds it to the request thread while the request is
+ * handled. The timeout comes from the caller's header (app.rest.deadline.header) when it sends one, otherwise from the
+ * first matching app.rest.deadline.endpoints pattern, otherwise from app.rest.deadline.default-timeout. A header that
+ * is not a positive duration is answered 400.
+ */
+@Component
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final RequestDeadlineProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RequestDeadlineFilter(RequestDeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!properties.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Duration timeout;
+        try {
+            timeout = timeoutFor(request);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (timeout == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestDeadline deadline = RequestDeadline.after(timeout, properties.getMinUpstreamTime());
+        try (RequestDeadline.Binding ignored = RequestDeadline.bind(deadline)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    // The timeout the request is served within, or null when it has none
+    private Duration timeoutFor(HttpServletRequest request) {
+        String header = request.getHeader(properties.getHeader());
+        if (header != null && !header.isBlank()) {
+            Duration requested;
+            try {
+                requested = DurationStyle.detectAndParse(header.trim(), ChronoUnit.MILLIS);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid " + properties.getHeader() + " header: " + header);
+            }
+            if (requested.isNegative() || requested.isZero()) {
+                throw new IllegalArgumentException(properties.getHeader() + " must be positive: " + header);
+            }
+            return requested;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Map.Entry<String, Duration> endpoint : properties.getEndpoints().entrySet()) {
+            if (pathMatcher.match(endpoint.getKey(), path)) {
+                return endpoint.getValue();
+            }
+        }
+        return properties.getDefaultTimeout();
+    }
+}
@@ -0,0 +1,17 @@
+package com.reliaquest.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class BulkItemResult<T> {
+    private int index; // Position of the item in the request
+    private int status; // HTTP status the item would have been answered with on its own
+    private T data; // Result of the write, null when it failed
+    private String error; // Why the write failed, null when it succeeded
+}
@@ -0,0 +1,17 @@
+package com.reliaquest.api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class BulkWriteResponse<T> {
+    private int succeeded;
+    private int failed;
+    private List<BulkItemResult<T>> results; // One per item, in request order
+}
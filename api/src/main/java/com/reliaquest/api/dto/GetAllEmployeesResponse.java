@@ -1,5 +1,6 @@
 package com.reliaquest.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.reliaquest.api.model.Employee;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,7 +13,15 @@ public class GetAllEmployeesResponse {
         return data == null ? null : new ArrayList<>(data); // Return a new copy of the list
     }
 
+    // Kept as given rather than copied, as Jackson hands over the list it has just parsed the data array into and
+    // nothing else holds it
     public void setData(List<Employee> data) {
-        this.data = data == null ? null : new ArrayList<>(data); // Store a copy of the list
+        this.data = data;
+    }
+
+    // The list itself rather than a copy, for the roster fetch which hands it straight on to the snapshot
+    @JsonIgnore
+    public List<Employee> getParsedData() {
+        return data;
     }
 }
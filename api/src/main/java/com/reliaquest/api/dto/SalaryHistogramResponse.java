@@ -0,0 +1,26 @@
+package com.reliaquest.api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class SalaryHistogramResponse {
+    private String title; // Comma separated titles the histogram was merged over, null for all employees
+    private long count;
+    private List<Bin> bins;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bin {
+        private long from;
+        private long to; // Inclusive
+        private long count;
+    }
+}
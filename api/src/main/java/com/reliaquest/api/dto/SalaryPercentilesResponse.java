@@ -0,0 +1,17 @@
+package com.reliaquest.api.dto;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class SalaryPercentilesResponse {
+    private String title; // Comma separated titles the figures were merged over, null for all employees
+    private long count;
+    private Map<String, Integer> percentiles; // Keyed p50, p90, p99.9 etc, in the order asked for
+}
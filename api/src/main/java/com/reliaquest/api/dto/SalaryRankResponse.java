@@ -0,0 +1,19 @@
+package com.reliaquest.api.dto;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class SalaryRankResponse {
+    private UUID id;
+    private String name;
+    private Integer salary;
+    private int rank; // 1 based; employees on the same salary share a rank
+    private int outOf; // Number of employees in the roster with a salary
+}
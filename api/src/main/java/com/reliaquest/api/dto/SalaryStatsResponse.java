@@ -0,0 +1,20 @@
+package com.reliaquest.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class SalaryStatsResponse {
+    private String title; // Null for the statistics over all employees
+    private int count;
+    private int minSalary;
+    private int maxSalary;
+    private long totalSalary;
+    private double averageSalary;
+    private double averageAge;
+}
@@ -0,0 +1,192 @@
+package com.reliaquest.api.index;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open addressing hash index from employee id to the employee's row in a roster snapshot.
+ *
+ * Ids are stored as their two 64 bit halves in parallel primitive arrays rather than as UUID objects or strings, and
+ * lookups by the string form parse the id straight into those halves, so a lookup allocates nothing. Collisions are
+ * resolved by linear probing and removals use backward shift deletion so no tombstones build up.
+ *
+ * Not thread safe; the owning snapshot guards access.
+ */
+public class EmployeeIdIndex {
+
+    public static final int NOT_FOUND = -1;
+
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] mostSignificant;
+    private long[] leastSignificant;
+    private int[] rows;
+    private int mask;
+    private int size;
+
+    public EmployeeIdIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void put(UUID id, int row) {
+        put(id.getMostSignificantBits(), id.getLeastSignificantBits(), row);
+    }
+
+    public void put(long msb, long lsb, int row) {
+        if ((size + 1) * 2 > rows.length) {
+            resize(rows.length * 2); // Keep the load factor at or below one half
+        }
+        int slot = slotOf(msb, lsb);
+        while (rows[slot] != EMPTY) {
+            if (mostSignificant[slot] == msb && leastSignificant[slot] == lsb) {
+                rows[slot] = row; // Replace the row of an id we already hold
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        mostSignificant[slot] = msb;
+        leastSignificant[slot] = lsb;
+        rows[slot] = row;
+        size++;
+    }
+
+    // Returns the row held for the id, or NOT_FOUND
+    public int get(UUID id) {
+        return get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    // Returns the row held for the id in its canonical 36 character form, or NOT_FOUND if absent or malformed
+    public int get(String id) {
+        if (!isCanonical(id)) {
+            return NOT_FOUND;
+        }
+        long msb = (parseHex(id, 0, 8) << 32) | (parseHex(id, 9, 13) << 16) | parseHex(id, 14, 18);
+        long lsb = (parseHex(id, 19, 23) << 48) | parseHex(id, 24, 36);
+        return get(msb, lsb);
+    }
+
+    public int get(long msb, long lsb) {
+        int slot = slotOf(msb, lsb);
+        while (rows[slot] != EMPTY) {
+            if (mostSignificant[slot] == msb && leastSignificant[slot] == lsb) {
+                return rows[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    // Removes the id and returns the row it pointed at, or NOT_FOUND
+    public int remove(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int slot = slotOf(msb, lsb);
+        while (rows[slot] != EMPTY) {
+            if (mostSignificant[slot] == msb && leastSignificant[slot] == lsb) {
+                int row = rows[slot];
+                shiftBack(slot);
+                size--;
+                return row;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    // Fills the hole at the given slot with later entries of the same probe run so lookups never stop early
+    private void shiftBack(int hole) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (rows[slot] == EMPTY) {
+                break;
+            }
+            int home = slotOf(mostSignificant[slot], leastSignificant[slot]);
+            // Move the entry only if its home slot is not between the hole and its current slot (cyclically)
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                mostSignificant[hole] = mostSignificant[slot];
+                leastSignificant[hole] = leastSignificant[slot];
+                rows[hole] = rows[slot];
+                hole = slot;
+            }
+        }
+        rows[hole] = EMPTY;
+    }
+
+    private int slotOf(long msb, long lsb) {
+        long hash = msb ^ lsb;
+        hash ^= hash >>> 33; // Murmur3 finalizer to spread the bits before masking
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+
+    private void resize(int capacity) {
+        long[] oldMsb = mostSignificant;
+        long[] oldLsb = leastSignificant;
+        int[] oldRows = rows;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldRows.length; i++) {
+            if (oldRows[i] != EMPTY) {
+                put(oldMsb[i], oldLsb[i], oldRows[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mostSignificant = new long[capacity];
+        leastSignificant = new long[capacity];
+        rows = new int[capacity];
+        Arrays.fill(rows, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static boolean isCanonical(String id) {
+        if (id == null || id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : hexValue(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String id, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = (value << 4) | hexValue(id.charAt(i));
+        }
+        return value;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,253 @@
+package com.reliaquest.api.index;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Trigram inverted index over normalized (lower cased) employee names, used for case-insensitive substring search.
+ *
+ * Every three character window of a name maps to a posting list of the rows whose name contains it. A query of three
+ * or more characters is answered by intersecting the posting lists of its trigrams, smallest first, and verifying the
+ * few surviving candidates with a plain contains check, so the cost follows the size of the rarest trigram rather than
+ * the size of the roster. Shorter queries have no trigram to look up and fall back to checking every name.
+ *
+ * Rows are expected to be added in increasing order, which keeps each posting list sorted so that adding is an append
+ * and removing is a binary search. Not thread safe; the owning snapshot guards access.
+ */
+public class NameTrigramIndex {
+
+    private static final int GRAM = 3;
+    private static final int EMPTY = -1;
+    private static final int[] NO_ROWS = new int[0];
+
+    // Normalized name per row, null once the row is removed
+    private String[] names;
+    private int rowCount;
+
+    // Open addressing map from encoded trigram to its posting list
+    private long[] gramKeys;
+    private int[] gramSlots;
+    private int gramMask;
+    private int gramCount;
+
+    // Posting lists, indexed by the slot the map hands out
+    private int[][] postings;
+    private int[] postingSizes;
+
+    public NameTrigramIndex(int expectedRows) {
+        names = new String[Math.max(16, expectedRows)];
+        // The number of distinct trigrams levels off quickly as names repeat letter patterns, so start modestly and
+        // grow
+        allocateGrams(1024);
+        postings = new int[512][];
+        postingSizes = new int[512];
+    }
+
+    public static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    public void add(int row, String name) {
+        if (row >= names.length) {
+            names = Arrays.copyOf(names, Math.max(row + 1, names.length * 2));
+        }
+        String normalized = normalize(name);
+        names[row] = normalized;
+        rowCount = Math.max(rowCount, row + 1);
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            int posting = postingFor(encode(normalized, i), true);
+            appendRow(posting, row);
+        }
+    }
+
+    public void remove(int row) {
+        if (row >= rowCount || names[row] == null) {
+            return;
+        }
+        String normalized = names[row];
+        names[row] = null;
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            int posting = postingFor(encode(normalized, i), false);
+            if (posting != EMPTY) {
+                removeRow(posting, row);
+            }
+        }
+    }
+
+    /**
+     * Returns, in ascending order, the rows whose name contains the query ignoring case.
+     */
+    public int[] search(String query) {
+        String normalized = normalize(query);
+        if (normalized.length() < GRAM) {
+            return scan(normalized);
+        }
+
+        // Gather the posting list of every trigram in the query; a trigram nobody has means there can be no match
+        int gramsInQuery = normalized.length() - GRAM + 1;
+        int[] lists = new int[gramsInQuery];
+        int distinct = 0;
+        for (int i = 0; i < gramsInQuery; i++) {
+            int posting = postingFor(encode(normalized, i), false);
+            if (posting == EMPTY || postingSizes[posting] == 0) {
+                return NO_ROWS;
+            }
+            if (!contains(lists, distinct, posting)) {
+                lists[distinct++] = posting;
+            }
+        }
+        sortBySize(lists, distinct);
+
+        // Intersect starting from the rarest trigram, probing the larger lists by binary search
+        int smallest = lists[0];
+        int[] candidates = Arrays.copyOf(postings[smallest], postingSizes[smallest]);
+        int candidateCount = candidates.length;
+        for (int l = 1; l < distinct && candidateCount > 0; l++) {
+            int[] posting = postings[lists[l]];
+            int size = postingSizes[lists[l]];
+            int kept = 0;
+            for (int c = 0; c < candidateCount; c++) {
+                if (Arrays.binarySearch(posting, 0, size, candidates[c]) >= 0) {
+                    candidates[kept++] = candidates[c];
+                }
+            }
+            candidateCount = kept;
+        }
+
+        // Sharing every trigram does not guarantee the trigrams are adjacent, so verify each candidate
+        int matches = 0;
+        for (int c = 0; c < candidateCount; c++) {
+            if (names[candidates[c]].contains(normalized)) {
+                candidates[matches++] = candidates[c];
+            }
+        }
+        return Arrays.copyOf(candidates, matches);
+    }
+
+    private int[] scan(String normalized) {
+        int[] matches = new int[rowCount];
+        int count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (names[row] != null && names[row].contains(normalized)) {
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private void appendRow(int posting, int row) {
+        int size = postingSizes[posting];
+        int[] rows = postings[posting];
+        if (size > 0 && rows[size - 1] == row) {
+            return; // The same trigram appears more than once in this name
+        }
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size * 2);
+            postings[posting] = rows;
+        }
+        if (size > 0 && rows[size - 1] > row) {
+            // Out of order add; keep the list sorted
+            int at = -Arrays.binarySearch(rows, 0, size, row) - 1;
+            if (at < 0) {
+                return;
+            }
+            System.arraycopy(rows, at, rows, at + 1, size - at);
+            rows[at] = row;
+        } else {
+            rows[size] = row;
+        }
+        postingSizes[posting] = size + 1;
+    }
+
+    private void removeRow(int posting, int row) {
+        int size = postingSizes[posting];
+        int[] rows = postings[posting];
+        int at = Arrays.binarySearch(rows, 0, size, row);
+        if (at >= 0) {
+            System.arraycopy(rows, at + 1, rows, at, size - at - 1);
+            postingSizes[posting] = size - 1;
+        }
+    }
+
+    // Finds the posting list slot for a trigram, optionally creating it
+    private int postingFor(long gram, boolean create) {
+        int slot = slotOf(gram);
+        while (gramSlots[slot] != EMPTY) {
+            if (gramKeys[slot] == gram) {
+                return gramSlots[slot];
+            }
+            slot = (slot + 1) & gramMask;
+        }
+        if (!create) {
+            return EMPTY;
+        }
+        if ((gramCount + 1) * 2 > gramSlots.length) {
+            growGrams();
+            return postingFor(gram, true);
+        }
+        int posting = gramCount++;
+        gramKeys[slot] = gram;
+        gramSlots[slot] = posting;
+        if (posting == postings.length) {
+            postings = Arrays.copyOf(postings, posting * 2);
+            postingSizes = Arrays.copyOf(postingSizes, posting * 2);
+        }
+        postings[posting] = new int[4];
+        return posting;
+    }
+
+    private void growGrams() {
+        long[] oldKeys = gramKeys;
+        int[] oldSlots = gramSlots;
+        allocateGrams(oldSlots.length * 2);
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                while (gramSlots[slot] != EMPTY) {
+                    slot = (slot + 1) & gramMask;
+                }
+                gramKeys[slot] = oldKeys[i];
+                gramSlots[slot] = oldSlots[i];
+            }
+        }
+    }
+
+    private void allocateGrams(int capacity) {
+        gramKeys = new long[capacity];
+        gramSlots = new int[capacity];
+        Arrays.fill(gramSlots, EMPTY);
+        gramMask = capacity - 1;
+    }
+
+    private int slotOf(long gram) {
+        long hash = gram * 0x9e3779b97f4a7c15L;
+        return (int) (hash ^ (hash >>> 32)) & gramMask;
+    }
+
+    // Packs three UTF-16 chars into one long
+    private static long encode(String s, int at) {
+        return ((long) s.charAt(at) << 32) | ((long) s.charAt(at + 1) << 16) | s.charAt(at + 2);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Insertion sort of posting slots by list size; queries only have a handful of trigrams
+    private void sortBySize(int[] lists, int count) {
+        for (int i = 1; i < count; i++) {
+            int current = lists[i];
+            int j = i - 1;
+            while (j >= 0 && postingSizes[lists[j]] > postingSizes[current]) {
+                lists[j + 1] = lists[j];
+                j--;
+            }
+            lists[j + 1] = current;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.reliaquest.api.index;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Salary histograms over a roster snapshot: one for everybody and one per title, kept up to date as employees are
+ * added and removed. Employees without a salary are not counted, and those without a title only in the overall one.
+ *
+ * Readers get copies, merged across titles where asked, so percentiles and bins can be worked out after the owning
+ * snapshot's lock has been released. Not thread safe; the owning snapshot guards access.
+ */
+public class SalaryDistributionIndex {
+
+    private final SalaryHistogram overall = new SalaryHistogram();
+    private final Map<String, SalaryHistogram> byTitle = new HashMap<>();
+
+    public void add(String title, int salary) {
+        overall.record(salary);
+        if (title != null) {
+            byTitle.computeIfAbsent(title, t -> new SalaryHistogram()).record(salary);
+        }
+    }
+
+    public void remove(String title, int salary) {
+        overall.remove(salary);
+        SalaryHistogram histogram = title == null ? null : byTitle.get(title);
+        if (histogram != null) {
+            histogram.remove(salary);
+            if (histogram.getCount() == 0) {
+                byTitle.remove(title); // Keep memory tied to the titles still in the roster
+            }
+        }
+    }
+
+    // Copy of the histogram of the given titles merged together, or of everybody when no titles are given
+    public SalaryHistogram histogram(Collection<String> titles) {
+        if (titles == null || titles.isEmpty()) {
+            return overall.copy();
+        }
+        SalaryHistogram merged = new SalaryHistogram();
+        for (String title : titles) {
+            SalaryHistogram histogram = byTitle.get(title);
+            if (histogram != null) {
+                merged.merge(histogram);
+            }
+        }
+        return merged;
+    }
+
+    // Copies of the per title histograms, in title order
+    public Map<String, SalaryHistogram> histogramsByTitle() {
+        Map<String, SalaryHistogram> copies = new TreeMap<>();
+        byTitle.forEach((title, histogram) -> copies.put(title, histogram.copy()));
+        return copies;
+    }
+}
@@ -0,0 +1,185 @@
+package com.reliaquest.api.index;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear salary histogram in the style of HdrHistogram, used as a mergeable quantile sketch.
+ *
+ * Salaries below 256 get a bucket each. Above that every power of two range is split into 128 equal buckets, so a
+ * bucket is never wider than 1/128th of the values it holds and any quantile read from the histogram is within 0.8% of
+ * the exact one. The full int range needs 3,200 buckets; they are allocated 128 at a time only for the ranges salaries
+ * actually fall into, so a histogram costs a few KB however many employees it has counted.
+ *
+ * Counts are exact, so a salary can be removed again when an employee is deleted, and two histograms merge by adding
+ * their buckets. Not thread safe; the owning snapshot guards access.
+ */
+public class SalaryHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Chunk c holds buckets [c * 128, (c + 1) * 128); chunk 24 ends at the bucket of Integer.MAX_VALUE
+    private static final int CHUNKS = bucketOf(Integer.MAX_VALUE) / SUB_BUCKETS + 1;
+
+    private final int[][] chunks = new int[CHUNKS][];
+    private long count;
+
+    public long getCount() {
+        return count;
+    }
+
+    public void record(int salary) {
+        int bucket = bucketOf(salary);
+        int[] chunk = chunks[bucket >>> SUB_BUCKET_BITS];
+        if (chunk == null) {
+            chunk = new int[SUB_BUCKETS];
+            chunks[bucket >>> SUB_BUCKET_BITS] = chunk;
+        }
+        chunk[bucket & (SUB_BUCKETS - 1)]++;
+        count++;
+    }
+
+    // Takes back a salary recorded earlier; a salary that was never recorded is ignored
+    public void remove(int salary) {
+        int bucket = bucketOf(salary);
+        int[] chunk = chunks[bucket >>> SUB_BUCKET_BITS];
+        if (chunk != null && chunk[bucket & (SUB_BUCKETS - 1)] > 0) {
+            chunk[bucket & (SUB_BUCKETS - 1)]--;
+            count--;
+        }
+    }
+
+    // Adds the counts of another histogram into this one
+    public void merge(SalaryHistogram other) {
+        for (int c = 0; c < CHUNKS; c++) {
+            if (other.chunks[c] == null) {
+                continue;
+            }
+            if (chunks[c] == null) {
+                chunks[c] = new int[SUB_BUCKETS];
+            }
+            for (int i = 0; i < SUB_BUCKETS; i++) {
+                chunks[c][i] += other.chunks[c][i];
+            }
+        }
+        count += other.count;
+    }
+
+    public SalaryHistogram copy() {
+        SalaryHistogram copy = new SalaryHistogram();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Salary at the given percentile (0 to 100): the value of the bucket holding the employee at that rank, or 0 when
+     * nothing is recorded.
+     */
+    public int percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int c = 0; c < CHUNKS; c++) {
+            if (chunks[c] == null) {
+                continue;
+            }
+            for (int i = 0; i < SUB_BUCKETS; i++) {
+                seen += chunks[c][i];
+                if (seen >= rank) {
+                    return valueOf(c * SUB_BUCKETS + i);
+                }
+            }
+        }
+        return valueOf(highestBucket());
+    }
+
+    /**
+     * Folds the buckets into the given number of equal width bins spanning the recorded salaries.
+     *
+     * @return a row per bin of {from, to (inclusive), count}; empty when nothing is recorded
+     */
+    public long[][] bins(int binCount) {
+        if (count == 0) {
+            return new long[0][];
+        }
+        long from = lowestValueOf(lowestBucket());
+        long to = highestValueOf(highestBucket());
+        long width = Math.max(1, (to - from + binCount) / binCount); // Rounded up so the bins cover [from, to]
+
+        long[][] bins = new long[binCount][];
+        for (int b = 0; b < binCount; b++) {
+            long binFrom = from + b * width;
+            bins[b] = new long[] {binFrom, Math.min(to, binFrom + width - 1), 0};
+        }
+        for (int c = 0; c < CHUNKS; c++) {
+            if (chunks[c] == null) {
+                continue;
+            }
+            for (int i = 0; i < SUB_BUCKETS; i++) {
+                if (chunks[c][i] > 0) {
+                    int bin = (int) Math.min(binCount - 1, (valueOf(c * SUB_BUCKETS + i) - from) / width);
+                    bins[bin][2] += chunks[c][i];
+                }
+            }
+        }
+        // Drop trailing bins that start past the top value, which happens when the range is narrower than binCount
+        int used = binCount;
+        while (used > 1 && bins[used - 1][0] > to) {
+            used--;
+        }
+        return Arrays.copyOf(bins, used);
+    }
+
+    private int lowestBucket() {
+        for (int c = 0; c < CHUNKS; c++) {
+            if (chunks[c] != null) {
+                for (int i = 0; i < SUB_BUCKETS; i++) {
+                    if (chunks[c][i] > 0) {
+                        return c * SUB_BUCKETS + i;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    private int highestBucket() {
+        for (int c = CHUNKS - 1; c >= 0; c--) {
+            if (chunks[c] != null) {
+                for (int i = SUB_BUCKETS - 1; i >= 0; i--) {
+                    if (chunks[c][i] > 0) {
+                        return c * SUB_BUCKETS + i;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Values below 256 map to themselves; above that a value keeps its top 8 significant bits
+    private static int bucketOf(int salary) {
+        int value = Math.max(0, salary);
+        int shift = Math.max(0, 31 - Integer.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * SUB_BUCKETS + (value >>> shift);
+    }
+
+    private static int shiftOf(int bucket) {
+        return Math.max(0, (bucket >>> SUB_BUCKET_BITS) - 1);
+    }
+
+    private static long lowestValueOf(int bucket) {
+        int shift = shiftOf(bucket);
+        return (long) (bucket - shift * SUB_BUCKETS) << shift;
+    }
+
+    private static long highestValueOf(int bucket) {
+        int shift = shiftOf(bucket);
+        return ((long) (bucket - shift * SUB_BUCKETS + 1) << shift) - 1;
+    }
+
+    // Middle of the bucket's range, which halves the worst case error compared to either end
+    private static int valueOf(int bucket) {
+        return (int) ((lowestValueOf(bucket) + highestValueOf(bucket)) / 2);
+    }
+}
@@ -0,0 +1,91 @@
+package com.reliaquest.api.index;
+
+import java.util.Arrays;
+
+/**
+ * Salary order index over the rows of a roster snapshot, kept as a single sorted primitive array.
+ *
+ * Each entry packs the salary into the high 32 bits and the row into the low 32 bits, so one ascending long array
+ * orders employees by salary without any boxing. The row is stored inverted so that, walking from the top, employees
+ * with equal salaries come out in roster order, just like the stable sort this replaces. The highest salary is the last
+ * entry (O(1)), the top N are the last N entries (O(N)), and a salary's rank is a binary search. Adding or removing an
+ * employee is a binary search plus one array shift.
+ *
+ * Employees without a salary are not indexed. Not thread safe; the owning snapshot guards access.
+ */
+public class SalaryIndex {
+
+    private static final long ROW_MASK = 0xFFFFFFFFL;
+
+    private long[] entries;
+    private int size;
+
+    public SalaryIndex(int expectedSize) {
+        entries = new long[Math.max(16, expectedSize)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int row, int salary) {
+        long entry = encode(row, salary);
+        int at = Arrays.binarySearch(entries, 0, size, entry);
+        if (at >= 0) {
+            return; // Already indexed
+        }
+        at = -at - 1;
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        System.arraycopy(entries, at, entries, at + 1, size - at);
+        entries[at] = entry;
+        size++;
+    }
+
+    public void remove(int row, int salary) {
+        int at = Arrays.binarySearch(entries, 0, size, encode(row, salary));
+        if (at >= 0) {
+            System.arraycopy(entries, at + 1, entries, at, size - at - 1);
+            size--;
+        }
+    }
+
+    // Highest salary, or the given default when nothing is indexed
+    public int highest(int defaultValue) {
+        return size == 0 ? defaultValue : salaryOf(entries[size - 1]);
+    }
+
+    // Rows of the n highest salaries, highest first
+    public int[] topRows(int n) {
+        int count = Math.min(Math.max(n, 0), size);
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = rowOf(entries[size - 1 - i]);
+        }
+        return rows;
+    }
+
+    // 1 based competition rank of a salary: one more than the number of strictly higher salaries
+    public int rank(int salary) {
+        return size - upperBound(salary) + 1;
+    }
+
+    // Index of the first entry with a salary strictly greater than the given one
+    private int upperBound(int salary) {
+        int at = Arrays.binarySearch(entries, 0, size, ((long) salary << 32) | ROW_MASK);
+        return at >= 0 ? at + 1 : -at - 1;
+    }
+
+    private static long encode(int row, int salary) {
+        return ((long) salary << 32) | (ROW_MASK & ~row);
+    }
+
+    private static int salaryOf(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    private static int rowOf(long entry) {
+        return ~(int) entry;
+    }
+}
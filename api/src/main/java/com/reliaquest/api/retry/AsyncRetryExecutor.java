@@ -0,0 +1,144 @@
+package com.reliaquest.api.retry;
+
+import com.reliaquest.api.client.UpstreamBulkhead;
+import com.reliaquest.api.config.AppLoggerProperties;
+import com.reliaquest.api.config.RetryTemplateConfig;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.deadline.DeadlineExceededException;
+import com.reliaquest.api.deadline.RequestDeadline;
+import com.reliaquest.api.logger.AppLogger;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retries asynchronous operations without holding a thread between attempts.
+ *
+ * A failed attempt is parked on a scheduler for its backoff and the next attempt starts when the timer fires, so a long
+ * 429 lockout costs a queued timer rather than a sleeping thread. Whether to retry and how long to wait are decided by
+ * the same StatusAwareRetryPolicy and StatusAwareBackOffPolicy (and retry budget) the RetryTemplate uses, so attempts,
+ * timing and max attempts match the blocking retries, and count against the same per request UpstreamAttemptCap. A
+ * retry whose backoff would leave no time before the api request's RequestDeadline is not scheduled; the call fails
+ * with a DeadlineExceededException instead.
+ */
+@Component
+public class AsyncRetryExecutor {
+
+    private final AppLogger logger;
+    private final RetryTemplateConfig retryConfig;
+    private final ScheduledExecutorService scheduler; // Only fires timers; attempts run on attemptExecutor
+    private final Executor attemptExecutor;
+
+    @Autowired
+    public AsyncRetryExecutor(
+            RetryTemplateConfig retryConfig,
+            VirtualThreadSupport virtualThreads,
+            AppLoggerProperties loggerProperties) {
+        this.retryConfig = retryConfig;
+        ScheduledThreadPoolExecutor timers =
+                new ScheduledThreadPoolExecutor(1, virtualThreads.threadFactory("retry-scheduler"));
+        timers.setRemoveOnCancelPolicy(true);
+        this.scheduler = timers;
+        // Virtual threads in virtual thread mode, the common pool otherwise
+        Executor virtualExecutor = virtualThreads.virtualExecutorOrNull("retry-attempt");
+        this.attemptExecutor = virtualExecutor != null ? virtualExecutor : ForkJoinPool.commonPool();
+        this.logger = new AppLogger(AsyncRetryExecutor.class);
+        this.logger.setLogLevel(
+                AppLogger.LogLevel.valueOf(loggerProperties.getLogLevel().toUpperCase()));
+    }
+
+    /**
+     * Runs the operation, retrying it when it fails in a way the default retry policy allows.
+     *
+     * @param operation name used in log messages
+     * @param call starts one attempt; it may throw or return a future that fails
+     * @return completes with the first successful result, or with the last attempt's failure (unwrapped from any
+     *     CompletionException) once no more retries are allowed
+     */
+    public <T> CompletableFuture<T> execute(String operation, Supplier<? extends CompletableFuture<T>> call) {
+        return execute(operation, retryConfig.getRetryPolicy(), call);
+    }
+
+    /**
+     * Runs the operation, retrying it when it fails in a way the given retry policy allows. The UpstreamAttemptCap and
+     * RequestDeadline of the api request being served on the calling thread are captured here, so they still apply to
+     * retries started from the scheduler; so is whether the call belongs to a background refresh, which keeps the
+     * retries in the refresh UpstreamBulkhead compartment.
+     */
+    public <T> CompletableFuture<T> execute(
+            String operation, StatusAwareRetryPolicy policy, Supplier<? extends CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        policy.getRetryBudget().recordRequest();
+        Supplier<? extends CompletableFuture<T>> classified = UpstreamBulkhead.propagate(call);
+        attempt(operation, policy, UpstreamAttemptCap.current(), RequestDeadline.current(), classified, 1, result);
+        return result;
+    }
+
+    // Runs one attempt and, if it fails with a retry allowed, schedules the next one after the backoff
+    private <T> void attempt(
+            String operation,
+            StatusAwareRetryPolicy policy,
+            UpstreamAttemptCap cap,
+            RequestDeadline deadline,
+            Supplier<? extends CompletableFuture<T>> call,
+            int attempt,
+            CompletableFuture<T> result) {
+        if (cap != null) {
+            cap.recordAttempt();
+        }
+        CompletableFuture<T> pending;
+        try (UpstreamAttemptCap.Binding ignoredCap = UpstreamAttemptCap.bind(cap);
+                RequestDeadline.Binding ignoredDeadline = RequestDeadline.bind(deadline)) {
+            pending = call.get();
+        } catch (RuntimeException e) {
+            pending = CompletableFuture.failedFuture(e);
+        }
+        pending.whenComplete((value, failure) -> {
+            if (failure == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause =
+                    failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            if (!policy.allowsRetry(cause, attempt, cap)) {
+                logger.error("Giving up on " + operation + " after " + attempt + " attempts: " + cause.getMessage());
+                result.completeExceptionally(cause);
+                return;
+            }
+            long delay = retryConfig.getBackOffPolicy().backOffMillis(cause, attempt);
+            if (deadline != null && !deadline.allowsWait(delay)) {
+                logger.error("Giving up on " + operation + " after " + attempt + " attempts: a " + delay
+                        + " ms backoff leaves no time before the request deadline");
+                result.completeExceptionally(new DeadlineExceededException(
+                        "Deadline of " + deadline.getTimeout().toMillis() + " ms reached retrying " + operation,
+                        cause));
+                return;
+            }
+            logger.warn("Attempt " + attempt + " of " + operation + " failed (" + cause.getMessage() + "), retrying in "
+                    + delay + " ms");
+            try {
+                scheduler.schedule(
+                        () -> attemptExecutor.execute(
+                                () -> attempt(operation, policy, cap, deadline, call, attempt + 1, result)),
+                        delay,
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(cause); // Shutting down, so no further attempts
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
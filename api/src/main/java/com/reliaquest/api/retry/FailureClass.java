@@ -0,0 +1,50 @@
+package com.reliaquest.api.retry;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.reliaquest.api.client.BulkheadFullException;
+import com.reliaquest.api.client.UpstreamCircuitOpenException;
+import com.reliaquest.api.deadline.DeadlineExceededException;
+import java.io.IOException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * How a failed upstream call should be retried, decided from the exception it failed with.
+ */
+public enum FailureClass {
+    // 5xx, 408 and I/O failures such as connection resets and timeouts: likely to succeed on a quick retry
+    TRANSIENT,
+    // 429: the mock server is locking us out, so only a retry after the lockout can succeed
+    RATE_LIMITED,
+    // Any other 4xx, or a failure that is not about the upstream at all: retrying would fail the same way
+    PERMANENT;
+
+    public static FailureClass of(Throwable failure) {
+        // The cause is checked too so a wrapped HTTP failure is classified by its status
+        for (Throwable t = failure; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof DeadlineExceededException) {
+                return PERMANENT; // The caller has given up, whatever the last attempt failed with
+            }
+            if (t instanceof HttpStatusCodeException statusError) {
+                int status = statusError.getStatusCode().value();
+                if (status == 429) {
+                    return RATE_LIMITED;
+                }
+                return status == 408 || status >= 500 ? TRANSIENT : PERMANENT;
+            }
+            if (t instanceof UpstreamCircuitOpenException) {
+                return PERMANENT; // The circuit is open: fail fast and let reads fall back to the last snapshot
+            }
+            if (t instanceof BulkheadFullException) {
+                return PERMANENT; // Shed load: retrying would only add to the queue that is already full
+            }
+            if (t instanceof JacksonException) {
+                return PERMANENT; // A response we cannot parse will not parse any better the next time
+            }
+            if (t instanceof ResourceAccessException || t instanceof IOException) {
+                return TRANSIENT;
+            }
+        }
+        return PERMANENT;
+    }
+}
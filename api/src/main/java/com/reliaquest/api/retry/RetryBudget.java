@@ -0,0 +1,96 @@
+package com.reliaquest.api.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps retries at a percentage of the upstream calls made over a sliding window, so that when the mock server is
+ * failing the retries cannot multiply the load on it.
+ *
+ * Within the window the retries allowed are minRetriesPerSecond for every second of the window (so a quiet service can
+ * still retry) plus percent of the calls made. The window is kept as one bucket per second.
+ */
+public class RetryBudget {
+
+    private final int percent;
+    private final int minRetriesPerSecond;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] bucketSecond; // The epoch second each bucket currently counts
+    private final int[] requests;
+    private final int[] retries;
+    private Counter exhausted;
+
+    public RetryBudget(int percent, int minRetriesPerSecond, Duration window, Clock clock) {
+        this.percent = percent;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.clock = clock;
+        int seconds = (int) Math.max(1, window.toSeconds());
+        this.bucketSecond = new long[seconds];
+        this.requests = new int[seconds];
+        this.retries = new int[seconds];
+    }
+
+    // Publishes how often a retry was refused as employee.upstream.retry.budget.exhausted
+    public void bindTo(MeterRegistry meterRegistry) {
+        this.exhausted = Counter.builder("employee.upstream.retry.budget.exhausted")
+                .description("Retries refused because retries would exceed their share of upstream calls")
+                .register(meterRegistry);
+    }
+
+    // Records a first attempt at an upstream call
+    public void recordRequest() {
+        lock.lock();
+        try {
+            requests[bucket()]++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Takes a retry from the budget, returning false when the window's share of retries is used up
+    public boolean tryRetry() {
+        lock.lock();
+        try {
+            int current = bucket();
+            // Buckets last counted at or before this second are out of the window
+            long oldest = bucketSecond[current] - bucketSecond.length;
+            long requestCount = 0;
+            long retryCount = 0;
+            for (int i = 0; i < requests.length; i++) {
+                if (bucketSecond[i] > oldest) {
+                    requestCount += requests[i];
+                    retryCount += retries[i];
+                }
+            }
+            long allowed = (long) minRetriesPerSecond * requests.length + requestCount * percent / 100;
+            if (retryCount >= allowed) {
+                if (exhausted != null) {
+                    exhausted.increment();
+                }
+                return false;
+            }
+            retries[current]++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Index of the bucket for the current second, reset if it last counted an earlier lap of the window. Must be
+    // called with the lock held
+    private int bucket() {
+        long second = clock.millis() / 1000;
+        int index = (int) (second % bucketSecond.length);
+        if (bucketSecond[index] != second) {
+            bucketSecond[index] = second;
+            requests[index] = 0;
+            retries[index] = 0;
+        }
+        return index;
+    }
+}
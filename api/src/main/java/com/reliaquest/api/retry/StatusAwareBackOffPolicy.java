@@ -0,0 +1,119 @@
+package com.reliaquest.api.retry;
+
+import com.reliaquest.api.deadline.DeadlineExceededException;
+import com.reliaquest.api.deadline.RequestDeadline;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+import org.springframework.web.client.HttpStatusCodeException;
+
+/**
+ * Backoff policy that waits according to why the last attempt failed:
+ * - transient failures (5xx, 408, timeouts) are retried quickly, after a random wait of up to transientInitialInterval
+ *   doubling with every retry up to transientMaxInterval ("full jitter", so callers failing together spread out)
+ * - a 429 waits until the lockout is over: the Retry-After it carries plus a little jitter, or rateLimitedInterval when
+ *   it carries none. The rate limiter's own 429s always carry a Retry-After aligned with the learned lockout
+ *
+ * A wait that would leave no time for the next attempt before the api request's RequestDeadline is not slept; backOff
+ * fails the call with a DeadlineExceededException carrying the last failure instead.
+ */
+public class StatusAwareBackOffPolicy implements BackOffPolicy {
+
+    private final long transientInitialInterval;
+    private final long transientMaxInterval;
+    private final long rateLimitedInterval;
+    private Sleeper sleeper = new ThreadWaitSleeper();
+
+    public StatusAwareBackOffPolicy(
+            long transientInitialInterval, long transientMaxInterval, long rateLimitedInterval) {
+        this.transientInitialInterval = transientInitialInterval;
+        this.transientMaxInterval = transientMaxInterval;
+        this.rateLimitedInterval = rateLimitedInterval;
+    }
+
+    // Replaces the thread sleep, for tests
+    public void setSleeper(Sleeper sleeper) {
+        this.sleeper = sleeper;
+    }
+
+    public long getTransientInitialInterval() {
+        return transientInitialInterval;
+    }
+
+    public long getTransientMaxInterval() {
+        return transientMaxInterval;
+    }
+
+    public long getRateLimitedInterval() {
+        return rateLimitedInterval;
+    }
+
+    /**
+     * Milliseconds to wait before the next attempt of a call whose attempt number attempts failed with failure.
+     */
+    public long backOffMillis(Throwable failure, int attempts) {
+        if (FailureClass.of(failure) == FailureClass.RATE_LIMITED) {
+            long retryAfter = retryAfterMillis(failure);
+            return retryAfter < 0 ? rateLimitedInterval : retryAfter + jitter(transientInitialInterval);
+        }
+        int doublings = Math.min(30, Math.max(0, attempts - 1));
+        return jitter(Math.min(transientMaxInterval, transientInitialInterval << doublings));
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new StatusAwareBackOffContext(context);
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        RetryContext context = ((StatusAwareBackOffContext) backOffContext).retryContext;
+        long delay = backOffMillis(context.getLastThrowable(), context.getRetryCount());
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline != null && !deadline.allowsWait(delay)) {
+            throw new DeadlineExceededException(
+                    "Deadline of " + deadline.getTimeout().toMillis() + " ms reached before retrying after " + delay
+                            + " ms",
+                    context.getLastThrowable());
+        }
+        try {
+            sleeper.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while backing off", e);
+        }
+    }
+
+    // The Retry-After seconds of a 429 in milliseconds, or -1 when it has none
+    private static long retryAfterMillis(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof HttpStatusCodeException statusError && statusError.getResponseHeaders() != null) {
+                String retryAfter = statusError.getResponseHeaders().getFirst("Retry-After");
+                if (retryAfter != null) {
+                    try {
+                        return Long.parseLong(retryAfter.trim()) * 1000;
+                    } catch (NumberFormatException e) {
+                        return -1; // An HTTP date rather than seconds; fall back to the fixed wait
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static long jitter(long bound) {
+        return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    private static class StatusAwareBackOffContext implements BackOffContext {
+        private final RetryContext retryContext;
+
+        StatusAwareBackOffContext(RetryContext retryContext) {
+            this.retryContext = retryContext;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.reliaquest.api.retry;
+
+import java.util.EnumSet;
+import java.util.Set;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.context.RetryContextSupport;
+
+/**
+ * Retry policy that retries an upstream call only when its failure can be cured by waiting (see FailureClass) and is
+ * one the operation declared worth retrying, for up to maxAttempts attempts, and only while both the api request's
+ * UpstreamAttemptCap and the RetryBudget have retries to spare.
+ */
+public class StatusAwareRetryPolicy implements RetryPolicy {
+
+    private static final String RETRY_ALLOWED = "retry.allowed";
+
+    private final int maxAttempts;
+    private final RetryBudget retryBudget;
+    private final Set<FailureClass> retryOn;
+
+    public StatusAwareRetryPolicy(int maxAttempts, RetryBudget retryBudget) {
+        this(maxAttempts, retryBudget, EnumSet.of(FailureClass.TRANSIENT, FailureClass.RATE_LIMITED));
+    }
+
+    public StatusAwareRetryPolicy(int maxAttempts, RetryBudget retryBudget, Set<FailureClass> retryOn) {
+        this.maxAttempts = maxAttempts;
+        this.retryBudget = retryBudget;
+        this.retryOn = EnumSet.noneOf(FailureClass.class);
+        this.retryOn.addAll(retryOn);
+        this.retryOn.remove(FailureClass.PERMANENT); // Retrying would fail the same way
+    }
+
+    /**
+     * The policy for an operation declaring the given UpstreamRetry, sharing this policy's retry budget.
+     */
+    public StatusAwareRetryPolicy forOperation(UpstreamRetry upstreamRetry) {
+        int attempts = upstreamRetry.maxAttempts() > 0 ? upstreamRetry.maxAttempts() : maxAttempts;
+        Set<FailureClass> classes = EnumSet.noneOf(FailureClass.class);
+        classes.addAll(Set.of(upstreamRetry.retryOn()));
+        return new StatusAwareRetryPolicy(attempts, retryBudget, classes);
+    }
+
+    @Override
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    /**
+     * Whether a call that has failed attempts times, most recently with the given failure, should be tried again,
+     * within the attempt cap of the api request being served on this thread.
+     */
+    public boolean allowsRetry(Throwable failure, int attempts) {
+        return allowsRetry(failure, attempts, UpstreamAttemptCap.current());
+    }
+
+    /**
+     * Whether a call that has failed attempts times, most recently with the given failure, should be tried again.
+     * Takes a retry from the budget when it says yes.
+     *
+     * @param cap attempt cap of the api request the call is made for, null when there is none
+     */
+    public boolean allowsRetry(Throwable failure, int attempts, UpstreamAttemptCap cap) {
+        return attempts < maxAttempts
+                && retryOn.contains(FailureClass.of(failure))
+                && (cap == null || cap.allowsRetry())
+                && retryBudget.tryRetry();
+    }
+
+    @Override
+    public RetryContext open(RetryContext parent) {
+        retryBudget.recordRequest();
+        return new RetryContextSupport(parent);
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        // RetryTemplate asks before every attempt, including again after registerThrowable, so the decision (and the
+        // budget withdrawal) is made once per failure in registerThrowable
+        return context.getLastThrowable() == null || Boolean.TRUE.equals(context.getAttribute(RETRY_ALLOWED));
+    }
+
+    @Override
+    public void close(RetryContext context) {}
+
+    @Override
+    public void registerThrowable(RetryContext context, Throwable throwable) {
+        ((RetryContextSupport) context).registerThrowable(throwable);
+        context.setAttribute(RETRY_ALLOWED, allowsRetry(throwable, context.getRetryCount()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.reliaquest.api.retry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the upstream attempts, first attempts and retries of every call together, that serving one api request may
+ * make, so that a request making several upstream calls cannot multiply each call's retries into a retry storm.
+ *
+ * A cap is opened per api request by UpstreamAttemptCapFilter and bound to the request thread. Retries of calls made on
+ * that thread, blocking or asynchronous (the AsyncRetryExecutor captures the cap when a call starts), are refused once
+ * the cap has been used up; a first attempt is always allowed so a request is never failed without trying. Calls made
+ * outside an api request, such as a background snapshot refresh, have no cap and are limited only by their own
+ * maxAttempts and the RetryBudget.
+ */
+public final class UpstreamAttemptCap {
+
+    private static final ThreadLocal<UpstreamAttemptCap> CURRENT = new ThreadLocal<>();
+
+    private final int maxAttempts;
+    private final Runnable onCapped; // Called the first time a retry is refused
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicBoolean capped = new AtomicBoolean();
+
+    public UpstreamAttemptCap(int maxAttempts, Runnable onCapped) {
+        this.maxAttempts = maxAttempts;
+        this.onCapped = onCapped;
+    }
+
+    // The cap of the api request being served on this thread, or null outside one
+    public static UpstreamAttemptCap current() {
+        return CURRENT.get();
+    }
+
+    // Binds the given cap to this thread until the returned binding is closed
+    public static Binding bind(UpstreamAttemptCap cap) {
+        UpstreamAttemptCap previous = CURRENT.get();
+        CURRENT.set(cap);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    // Counts an attempt about to be sent
+    public void recordAttempt() {
+        attempts.incrementAndGet();
+    }
+
+    // Whether another attempt fits under the cap
+    public boolean allowsRetry() {
+        if (attempts.get() < maxAttempts) {
+            return true;
+        }
+        if (capped.compareAndSet(false, true)) {
+            onCapped.run();
+        }
+        return false;
+    }
+
+    public int getAttempts() {
+        return attempts.get();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    // Restores the thread's previous cap when closed
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
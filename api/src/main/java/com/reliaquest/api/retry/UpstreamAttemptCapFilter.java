@@ -0,0 +1,39 @@
+package com.reliaquest.api.retry;
+
+import com.reliaquest.api.config.RetryTemplateConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Opens an UpstreamAttemptCap of app.rest.retry.max-attempts-per-request for every api request and binds it to the
+ * request thread while the request is handled.
+ */
+@Component
+public class UpstreamAttemptCapFilter extends OncePerRequestFilter {
+
+    private final RetryTemplateConfig retryConfig;
+    private final Counter capped;
+
+    public UpstreamAttemptCapFilter(RetryTemplateConfig retryConfig, MeterRegistry meterRegistry) {
+        this.retryConfig = retryConfig;
+        this.capped = Counter.builder("employee.upstream.retry.request.capped")
+                .description("Api requests whose upstream retries were cut short by the per request attempt cap")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        UpstreamAttemptCap cap = new UpstreamAttemptCap(retryConfig.getMaxAttemptsPerRequest(), capped::increment);
+        try (UpstreamAttemptCap.Binding ignored = UpstreamAttemptCap.bind(cap)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
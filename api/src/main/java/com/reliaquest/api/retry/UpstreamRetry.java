@@ -0,0 +1,27 @@
+package com.reliaquest.api.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method that makes one call to the mock server, declaring how that call may be retried. The RetryAspect
+ * retries only methods carrying this annotation, so the in-memory work a service does around a call is never repeated.
+ *
+ * A method returning a CompletableFuture is retried by the AsyncRetryExecutor, anything else by a RetryTemplate; either
+ * way each retry calls the method again with the same arguments, so a write that is not idempotent must take its
+ * idempotency key as an argument rather than generate one itself.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface UpstreamRetry {
+
+    // Attempts, including the first, for this operation; 0 uses app.rest.retry.maxattempts
+    int maxAttempts() default 0;
+
+    // The failures worth retrying for this operation; PERMANENT failures are never retried
+    FailureClass[] retryOn() default {FailureClass.TRANSIENT, FailureClass.RATE_LIMITED};
+}
@@ -0,0 +1,200 @@
+package com.reliaquest.api.service;
+
+import com.reliaquest.api.cache.EmployeeSnapshot;
+import com.reliaquest.api.cache.EmployeeSnapshotStore;
+import com.reliaquest.api.cache.ServedSnapshot;
+import com.reliaquest.api.cache.SingleFlight;
+import com.reliaquest.api.client.AsyncEmployeeClient;
+import com.reliaquest.api.config.AppLoggerProperties;
+import com.reliaquest.api.dto.BulkWriteResponse;
+import com.reliaquest.api.dto.EmployeeDTO;
+import com.reliaquest.api.dto.SalaryHistogramResponse;
+import com.reliaquest.api.dto.SalaryPercentilesResponse;
+import com.reliaquest.api.dto.SalaryRankResponse;
+import com.reliaquest.api.dto.SalaryStatsResponse;
+import com.reliaquest.api.logger.AppLogger;
+import com.reliaquest.api.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+/**
+ * The EmployeeService operations for the async client mode (app.rest.client.mode=async). Every method returns a
+ * CompletableFuture that is already complete when the roster snapshot can answer, and otherwise completes when the
+ * AsyncEmployeeClient's upstream call does, so no request thread waits on the mock server. Only the client's calls are
+ * retried (by the RetryAspect through the AsyncRetryExecutor, which calls them again after a scheduled wait rather than
+ * sleeping), never the work done here around them.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.rest.client", name = "mode", havingValue = "async")
+public class AsyncEmployeeService {
+    private final AsyncEmployeeClient client;
+    protected final AppLogger logger; // Logger instance for logging messages
+    private final EmployeeSnapshotStore snapshotStore; // In-process roster snapshot that serves all reads
+    private final BulkWriter bulkWriter; // Pipelines the writes of bulk requests
+    // Coalesces concurrent lookups of the same employee id into one upstream call
+    private final SingleFlight<String, Employee> employeeFlight = new SingleFlight<>();
+
+    public AsyncEmployeeService(
+            AsyncEmployeeClient client,
+            AppLoggerProperties loggerProperties,
+            EmployeeSnapshotStore snapshotStore,
+            BulkWriter bulkWriter,
+            MeterRegistry meterRegistry) {
+        this.client = client;
+        this.snapshotStore = snapshotStore;
+        this.bulkWriter = bulkWriter;
+        this.employeeFlight.bindTo(meterRegistry, "employee.upstream.singleflight", "employee");
+        this.logger = new AppLogger(AsyncEmployeeService.class);
+        this.logger.setLogLevel(
+                AppLogger.LogLevel.valueOf(loggerProperties.getLogLevel().toUpperCase()));
+    }
+
+    public CompletableFuture<List<Employee>> getAllEmployees() {
+        logger.debug("Entering getAllEmployees method");
+        return currentSnapshot().thenApply(EmployeeSnapshot::getEmployees);
+    }
+
+    public CompletableFuture<List<Employee>> getEmployeesByNameSearch(String searchString) {
+        logger.debug("Entering getEmployeesByNameSearch method with searchString: " + searchString);
+        return currentSnapshot().thenApply(snapshot -> snapshot.searchByName(searchString));
+    }
+
+    public CompletableFuture<Employee> getEmployeeById(String id) {
+        logger.debug("Entering getEmployeeById method with id: " + id);
+        // As in EmployeeService, an employee missing from the snapshot may be newer than it, so ask the mock server
+        EmployeeSnapshot snapshot = snapshotStore.getSnapshotIfPresentAsync(client::getAllEmployees);
+        if (snapshot != null) {
+            Employee employee = snapshot.findById(id);
+            if (employee != null) {
+                ServedSnapshot.mark(snapshot);
+                return CompletableFuture.completedFuture(employee);
+            }
+        }
+        return employeeFlight.executeAsync(id, () -> client.getEmployeeById(id));
+    }
+
+    public CompletableFuture<Integer> getHighestSalaryOfEmployees() {
+        logger.debug("Entering getHighestSalaryOfEmployees method");
+        return currentSnapshot().thenApply(snapshot -> snapshot.highestSalary(0));
+    }
+
+    public CompletableFuture<List<String>> getTopTenHighestEarningEmployeeNames() {
+        logger.debug("Entering getTopTenHighestEarningEmployeeNames method");
+        return currentSnapshot().thenApply(snapshot -> snapshot.topEarnerNames(10));
+    }
+
+    public CompletableFuture<List<String>> getTopHighestEarningEmployeeNames(int n) {
+        logger.debug("Entering getTopHighestEarningEmployeeNames method with n: " + n);
+        return currentSnapshot().thenApply(snapshot -> snapshot.topEarnerNames(n));
+    }
+
+    public CompletableFuture<SalaryRankResponse> getSalaryRank(String id) {
+        logger.debug("Entering getSalaryRank method with id: " + id);
+        return currentSnapshot().thenApply(snapshot -> EmployeeAnalytics.salaryRank(snapshot, id));
+    }
+
+    public CompletableFuture<SalaryStatsResponse> getSalaryStats() {
+        logger.debug("Entering getSalaryStats method");
+        return currentSnapshot().thenApply(EmployeeAnalytics::salaryStats);
+    }
+
+    public CompletableFuture<List<SalaryStatsResponse>> getSalaryStatsByTitle() {
+        logger.debug("Entering getSalaryStatsByTitle method");
+        return currentSnapshot().thenApply(EmployeeAnalytics::salaryStatsByTitle);
+    }
+
+    public CompletableFuture<SalaryPercentilesResponse> getSalaryPercentiles(
+            List<String> titles, List<Double> percentiles) {
+        logger.debug("Entering getSalaryPercentiles method with titles: " + titles + " percentiles: " + percentiles);
+        return currentSnapshot()
+                .thenApply(snapshot -> EmployeeAnalytics.salaryPercentiles(snapshot, titles, percentiles));
+    }
+
+    public CompletableFuture<List<SalaryPercentilesResponse>> getSalaryPercentilesByTitle(List<Double> percentiles) {
+        logger.debug("Entering getSalaryPercentilesByTitle method with percentiles: " + percentiles);
+        return currentSnapshot()
+                .thenApply(snapshot -> EmployeeAnalytics.salaryPercentilesByTitle(snapshot, percentiles));
+    }
+
+    public CompletableFuture<SalaryHistogramResponse> getSalaryHistogram(List<String> titles, int binCount) {
+        logger.debug("Entering getSalaryHistogram method with titles: " + titles + " bins: " + binCount);
+        return currentSnapshot().thenApply(snapshot -> EmployeeAnalytics.salaryHistogram(snapshot, titles, binCount));
+    }
+
+    public CompletableFuture<Employee> createEmployee(EmployeeDTO employeeDTO) {
+        logger.debug("Entering createEmployee method with employeeDTO: " + employeeDTO);
+        // One key for this create, however many attempts the client needs, so the employee is only created once
+        String idempotencyKey = UUID.randomUUID().toString();
+        return client.createEmployee(employeeDTO, idempotencyKey).thenApply(createdEmployee -> {
+            if (createdEmployee != null) {
+                snapshotStore.applyCreated(createdEmployee); // Patch the new employee into the snapshot
+            }
+            logger.info("Exiting createEmployee method with created employee: " + createdEmployee);
+            return createdEmployee;
+        });
+    }
+
+    // Asynchronous form of EmployeeService.createEmployees
+    public CompletableFuture<BulkWriteResponse<Employee>> createEmployees(List<EmployeeDTO> employeeDTOs) {
+        logger.debug("Entering createEmployees method with " + employeeDTOs.size() + " employees");
+        return bulkWriter.writeAsync(employeeDTOs, this::createEmployee, HttpStatus.CREATED);
+    }
+
+    // Completes with false when the id is not found, as EmployeeService.deleteEmployeeById returns false
+    public CompletableFuture<Boolean> deleteEmployeeById(String id) {
+        logger.debug("Entering deleteEmployeeById method with id: " + id);
+        return currentSnapshot().thenCompose(snapshot -> find(snapshot, id)).thenCompose(employee -> {
+            if (employee == null) {
+                logger.error("Employee with ID " + id + " not found.");
+                return CompletableFuture.completedFuture(false);
+            }
+            return client.deleteEmployeeByName(
+                            employee.getName(), UUID.randomUUID().toString())
+                    .thenApply(deleted -> {
+                        snapshotStore.applyDeleted(employee.getId()); // Patch the employee out of the snapshot
+                        logger.debug("Exiting deleteEmployeeById method with success: true");
+                        return true;
+                    });
+        });
+    }
+
+    // Asynchronous form of EmployeeService.deleteEmployeesById
+    public CompletableFuture<BulkWriteResponse<Employee>> deleteEmployeesById(List<String> ids) {
+        logger.debug("Entering deleteEmployeesById method with " + ids.size() + " ids");
+        return currentSnapshot()
+                .thenCompose(snapshot -> bulkWriter.writeAsync(
+                        ids,
+                        id -> find(snapshot, id)
+                                .thenApply(found -> EmployeeService.resolve(id, found))
+                                .thenCompose(employee -> client.deleteEmployeeByName(
+                                                employee.getName(),
+                                                UUID.randomUUID().toString())
+                                        .thenApply(deleted -> {
+                                            snapshotStore.applyDeleted(employee.getId());
+                                            return employee;
+                                        })),
+                        HttpStatus.OK));
+    }
+
+    // As in EmployeeService, an id missing from the snapshot is looked up with a by-id call rather than a roster reload
+    private CompletableFuture<Employee> find(EmployeeSnapshot snapshot, String id) {
+        Employee employee = snapshot.findById(id);
+        return employee != null
+                ? CompletableFuture.completedFuture(employee)
+                : employeeFlight.executeAsync(id, () -> client.getEmployeeById(id));
+    }
+
+    public void evictEmployeeCache() {
+        snapshotStore.invalidate();
+    }
+
+    private CompletableFuture<EmployeeSnapshot> currentSnapshot() {
+        // The request is looked up on the calling thread, as the snapshot may arrive on another
+        return snapshotStore.getSnapshotAsync(client::getAllEmployees).thenApply(ServedSnapshot.marker());
+    }
+}
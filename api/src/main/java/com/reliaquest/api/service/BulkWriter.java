@@ -0,0 +1,240 @@
+package com.reliaquest.api.service;
+
+import com.reliaquest.api.client.RequestPriority;
+import com.reliaquest.api.client.UpstreamRateLimiter;
+import com.reliaquest.api.config.BulkWriteProperties;
+import com.reliaquest.api.config.RetryTemplateConfig;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.deadline.RequestDeadline;
+import com.reliaquest.api.dto.BulkItemResult;
+import com.reliaquest.api.dto.BulkWriteResponse;
+import com.reliaquest.api.retry.UpstreamAttemptCap;
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.client.HttpStatusCodeException;
+
+/**
+ * Runs the writes of a bulk request as a pipeline: up to app.rest.bulk.concurrency of them are in flight at once, and
+ * as each one finishes the next is started. Before a write is started it waits, without holding a thread, until the
+ * UpstreamRateLimiter could let a write through, so a batch runs at the pace of the mock server's budget instead of
+ * having its writes shed and retried. Once the request's RequestDeadline leaves no time to wait the remaining writes
+ * are started anyway and fail fast.
+ *
+ * Each item is a write of its own: it is retried under its own UpstreamAttemptCap rather than sharing the request's, a
+ * failure is recorded in its BulkItemResult with the status it would have been answered with on its own, and the other
+ * items carry on.
+ */
+@Component
+public class BulkWriter {
+
+    private final BulkWriteProperties properties;
+    private final UpstreamRateLimiter rateLimiter;
+    private final RetryTemplateConfig retryConfig;
+    private final ScheduledThreadPoolExecutor pacer; // Starts writes once the rate limiter has room for them
+    private final ExecutorService workers; // Runs blocking writes and hands completed writes on to the next
+
+    public BulkWriter(
+            BulkWriteProperties properties,
+            UpstreamRateLimiter rateLimiter,
+            RetryTemplateConfig retryConfig,
+            VirtualThreadSupport virtualThreads) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.retryConfig = retryConfig;
+        this.pacer = new ScheduledThreadPoolExecutor(1, virtualThreads.threadFactory("bulk-pacer"));
+        this.workers = Executors.newCachedThreadPool(virtualThreads.threadFactory("bulk-write"));
+    }
+
+    // Largest batch one bulk request may carry
+    public int getMaxItems() {
+        return properties.getMaxItems();
+    }
+
+    /**
+     * Writes every item with a blocking write, several at a time on worker threads, and waits for all of them.
+     *
+     * @param write makes one write; a failure it throws is recorded against its item
+     * @param success status recorded for an item whose write succeeded
+     * @return the outcome of every item, in the order given
+     */
+    public <I, O> BulkWriteResponse<O> write(List<I> items, Function<I, O> write, HttpStatus success) {
+        return writeAsync(
+                        items,
+                        item -> {
+                            // Carry the deadline and cap bound for this item over to the worker thread
+                            RequestDeadline deadline = RequestDeadline.current();
+                            UpstreamAttemptCap cap = UpstreamAttemptCap.current();
+                            return CompletableFuture.supplyAsync(
+                                    () -> {
+                                        try (RequestDeadline.Binding ignoredDeadline = RequestDeadline.bind(deadline);
+                                                UpstreamAttemptCap.Binding ignoredCap = UpstreamAttemptCap.bind(cap)) {
+                                            return write.apply(item);
+                                        }
+                                    },
+                                    workers);
+                        },
+                        success)
+                .join();
+    }
+
+    /**
+     * Writes every item with a non-blocking write, several at a time.
+     *
+     * @param write starts one write; a failure it throws or completes with is recorded against its item
+     * @param success status recorded for an item whose write succeeded
+     * @return completes with the outcome of every item, in the order given, once all of them are done
+     */
+    public <I, O> CompletableFuture<BulkWriteResponse<O>> writeAsync(
+            List<I> items, Function<I, CompletableFuture<O>> write, HttpStatus success) {
+        Batch<I, O> batch = new Batch<>(items, write, success, RequestDeadline.current());
+        if (items.isEmpty()) {
+            batch.done.complete(batch.response());
+            return batch.done;
+        }
+        for (int i = 0; i < Math.min(Math.max(1, properties.getConcurrency()), items.size()); i++) {
+            startNext(batch);
+        }
+        return batch.done;
+    }
+
+    private <I, O> void startNext(Batch<I, O> batch) {
+        int index = batch.next.getAndIncrement();
+        if (index < batch.items.size()) {
+            pace(batch, index);
+        }
+    }
+
+    // Starts the write once the rate limiter could let it through, or straight away when the deadline will not wait
+    private <I, O> void pace(Batch<I, O> batch, int index) {
+        long delay = rateLimiter.getDelay(RequestPriority.WRITE);
+        if (delay > 0 && (batch.deadline == null || batch.deadline.allowsWait(delay))) {
+            try {
+                pacer.schedule(() -> pace(batch, index), delay, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Shutting down, so send it now and let it fail or succeed
+            }
+        }
+        send(batch, index);
+    }
+
+    private <I, O> void send(Batch<I, O> batch, int index) {
+        CompletableFuture<O> written;
+        // Each item is one logical write, so it gets a cap of its own rather than sharing the request's
+        UpstreamAttemptCap cap = new UpstreamAttemptCap(retryConfig.getMaxAttemptsPerRequest(), () -> {});
+        try (RequestDeadline.Binding ignoredDeadline = RequestDeadline.bind(batch.deadline);
+                UpstreamAttemptCap.Binding ignoredCap = UpstreamAttemptCap.bind(cap)) {
+            written = batch.write.apply(batch.items.get(index));
+        } catch (RuntimeException e) {
+            written = CompletableFuture.failedFuture(e);
+        }
+        // Handed to a worker so a write that completes at once does not start the next one on this stack
+        written.whenCompleteAsync(
+                (value, failure) -> {
+                    batch.results[index] =
+                            failure == null ? succeeded(index, value, batch.success) : failed(index, failure);
+                    if (batch.remaining.decrementAndGet() == 0) {
+                        batch.done.complete(batch.response());
+                    } else {
+                        startNext(batch);
+                    }
+                },
+                workers);
+    }
+
+    private static <O> BulkItemResult<O> succeeded(int index, O value, HttpStatus status) {
+        return BulkItemResult.<O>builder()
+                .index(index)
+                .status(status.value())
+                .data(value)
+                .build();
+    }
+
+    private static <O> BulkItemResult<O> failed(int index, Throwable failure) {
+        Throwable cause =
+                failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return BulkItemResult.<O>builder()
+                .index(index)
+                .status(statusOf(cause))
+                .error(errorOf(cause))
+                .build();
+    }
+
+    // Why the write failed, falling back to the exception's name when it carries no message
+    private static String errorOf(Throwable failure) {
+        return failure.getMessage() != null
+                ? failure.getMessage()
+                : failure.getClass().getName();
+    }
+
+    // The status the failure would have answered a request for this item alone with
+    private static int statusOf(Throwable failure) {
+        if (failure instanceof HttpStatusCodeException statusError) {
+            return statusError.getStatusCode().value();
+        }
+        if (failure instanceof ErrorResponse errorResponse) {
+            return errorResponse.getStatusCode().value(); // Such as a ResponseStatusException for an unknown id
+        }
+        ResponseStatus responseStatus =
+                AnnotatedElementUtils.findMergedAnnotation(failure.getClass(), ResponseStatus.class);
+        return responseStatus != null ? responseStatus.code().value() : HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pacer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    // One bulk request's items and what has become of them so far
+    private static final class Batch<I, O> {
+
+        private final List<I> items;
+        private final Function<I, CompletableFuture<O>> write;
+        private final HttpStatus success;
+        private final RequestDeadline deadline; // Of the api request that sent the batch, or null
+        private final BulkItemResult<O>[] results;
+        private final AtomicInteger next = new AtomicInteger(); // Index of the next item to start
+        private final AtomicInteger remaining;
+        private final CompletableFuture<BulkWriteResponse<O>> done = new CompletableFuture<>();
+
+        @SuppressWarnings("unchecked")
+        Batch(List<I> items, Function<I, CompletableFuture<O>> write, HttpStatus success, RequestDeadline deadline) {
+            this.items = items;
+            this.write = write;
+            this.success = success;
+            this.deadline = deadline;
+            this.results = new BulkItemResult[items.size()];
+            this.remaining = new AtomicInteger(items.size());
+        }
+
+        BulkWriteResponse<O> response() {
+            List<BulkItemResult<O>> all = Arrays.asList(results);
+            // Counted from the recorded status, the same one each item would have been answered with on its own
+            int failed = (int) all.stream()
+                    .filter(result -> HttpStatusCode.valueOf(result.getStatus()).isError())
+                    .count();
+            return BulkWriteResponse.<O>builder()
+                    .succeeded(all.size() - failed)
+                    .failed(failed)
+                    .results(all)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.reliaquest.api.service;
+
+import com.reliaquest.api.cache.EmployeeColumns;
+import com.reliaquest.api.cache.EmployeeSnapshot;
+import com.reliaquest.api.dto.SalaryHistogramResponse;
+import com.reliaquest.api.dto.SalaryPercentilesResponse;
+import com.reliaquest.api.dto.SalaryRankResponse;
+import com.reliaquest.api.dto.SalaryStatsResponse;
+import com.reliaquest.api.index.SalaryHistogram;
+import com.reliaquest.api.model.Employee;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the analytics responses from a roster snapshot. Shared by EmployeeService and AsyncEmployeeService, which only
+ * differ in how they obtain the snapshot. Everything here is in memory, so it is kept out of reach of the aspects.
+ */
+final class EmployeeAnalytics {
+
+    private EmployeeAnalytics() {}
+
+    // Where an employee's salary ranks among all salaried employees, or null if the employee is not found
+    static SalaryRankResponse salaryRank(EmployeeSnapshot snapshot, String id) {
+        EmployeeSnapshot.SalaryRank salaryRank = snapshot.salaryRank(id);
+        if (salaryRank == null) {
+            return null;
+        }
+        Employee employee = salaryRank.getEmployee();
+        return SalaryRankResponse.builder()
+                .id(employee.getId())
+                .name(employee.getName())
+                .salary(employee.getSalary())
+                .rank(salaryRank.getRank())
+                .outOf(salaryRank.getOutOf())
+                .build();
+    }
+
+    static SalaryStatsResponse salaryStats(EmployeeSnapshot snapshot) {
+        return toSalaryStats(null, snapshot.salaryAggregate());
+    }
+
+    static List<SalaryStatsResponse> salaryStatsByTitle(EmployeeSnapshot snapshot) {
+        List<SalaryStatsResponse> stats = new ArrayList<>();
+        snapshot.salaryAggregateByTitle().forEach((title, aggregate) -> stats.add(toSalaryStats(title, aggregate)));
+        return stats;
+    }
+
+    static SalaryPercentilesResponse salaryPercentiles(
+            EmployeeSnapshot snapshot, List<String> titles, List<Double> percentiles) {
+        return toSalaryPercentiles(joinTitles(titles), snapshot.salaryHistogram(titles), percentiles);
+    }
+
+    static List<SalaryPercentilesResponse> salaryPercentilesByTitle(
+            EmployeeSnapshot snapshot, List<Double> percentiles) {
+        List<SalaryPercentilesResponse> responses = new ArrayList<>();
+        snapshot.salaryHistogramsByTitle()
+                .forEach((title, histogram) -> responses.add(toSalaryPercentiles(title, histogram, percentiles)));
+        return responses;
+    }
+
+    static SalaryHistogramResponse salaryHistogram(EmployeeSnapshot snapshot, List<String> titles, int binCount) {
+        SalaryHistogram histogram = snapshot.salaryHistogram(titles);
+        List<SalaryHistogramResponse.Bin> bins = new ArrayList<>();
+        for (long[] bin : histogram.bins(binCount)) {
+            bins.add(new SalaryHistogramResponse.Bin(bin[0], bin[1], bin[2]));
+        }
+        return SalaryHistogramResponse.builder()
+                .title(joinTitles(titles))
+                .count(histogram.getCount())
+                .bins(bins)
+                .build();
+    }
+
+    private static SalaryStatsResponse toSalaryStats(String title, EmployeeColumns.SalaryAggregate aggregate) {
+        return SalaryStatsResponse.builder()
+                .title(title)
+                .count(aggregate.getCount())
+                .minSalary(aggregate.getMinSalary())
+                .maxSalary(aggregate.getMaxSalary())
+                .totalSalary(aggregate.getTotalSalary())
+                .averageSalary(aggregate.getAverageSalary())
+                .averageAge(aggregate.getAverageAge())
+                .build();
+    }
+
+    private static SalaryPercentilesResponse toSalaryPercentiles(
+            String title, SalaryHistogram histogram, List<Double> percentiles) {
+        Map<String, Integer> values = new LinkedHashMap<>();
+        for (Double percentile : percentiles) {
+            // Label 50.0 as p50 but keep the fraction of 99.9
+            String label = percentile % 1 == 0 ? String.valueOf(percentile.intValue()) : String.valueOf(percentile);
+            values.put("p" + label, histogram.percentile(percentile));
+        }
+        return SalaryPercentilesResponse.builder()
+                .title(title)
+                .count(histogram.getCount())
+                .percentiles(values)
+                .build();
+    }
+
+    private static String joinTitles(List<String> titles) {
+        return titles == null || titles.isEmpty() ? null : String.join(",", titles);
+    }
+}
@@ -1,38 +1,48 @@
 package com.reliaquest.api.service;
 
+import com.reliaquest.api.cache.EmployeeSnapshot;
+import com.reliaquest.api.cache.EmployeeSnapshotStore;
+import com.reliaquest.api.cache.ServedSnapshot;
+import com.reliaquest.api.cache.SingleFlight;
+import com.reliaquest.api.client.EmployeeClient;
 import com.reliaquest.api.config.AppLoggerProperties;
-import com.reliaquest.api.dto.CreateEmployeeResponse;
-import com.reliaquest.api.dto.DeleteEmployeeResponse;
-import com.reliaquest.api.dto.DeleteMockEmployeeInput;
+import com.reliaquest.api.dto.BulkWriteResponse;
 import com.reliaquest.api.dto.EmployeeDTO;
-import com.reliaquest.api.dto.GetAllEmployeesResponse;
-import com.reliaquest.api.dto.GetEmployeeResponse;
+import com.reliaquest.api.dto.SalaryHistogramResponse;
+import com.reliaquest.api.dto.SalaryPercentilesResponse;
+import com.reliaquest.api.dto.SalaryRankResponse;
+import com.reliaquest.api.dto.SalaryStatsResponse;
 import com.reliaquest.api.logger.AppLogger;
 import com.reliaquest.api.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.List;
-import java.util.stream.Collectors;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 @Service
+@ConditionalOnProperty(prefix = "app.rest.client", name = "mode", havingValue = "blocking", matchIfMissing = true)
 public class EmployeeService {
-    private final String BASE_URL = "http://localhost:8112/api/v1/employee";
-    private final RestTemplate restTemplate;
+    private final EmployeeClient client; // Makes (and retries) the calls to the mock server
     protected final AppLogger logger; // Logger instance for logging messages
-    private final RetryTemplate retryTemplate; // Inject RetryTemplate
+    private final EmployeeSnapshotStore snapshotStore; // In-process roster snapshot that serves all reads
+    private final BulkWriter bulkWriter; // Pipelines the writes of bulk requests
+    // Coalesces concurrent lookups of the same employee id into one upstream call
+    private final SingleFlight<String, Employee> employeeFlight = new SingleFlight<>();
 
-    // Constructor injection of RestTemplate and AppLoggerProperties
+    // Constructor injection of EmployeeClient and AppLoggerProperties
     public EmployeeService(
-            RestTemplate restTemplate, AppLoggerProperties loggerProperties, RetryTemplate retryTemplate) {
-        this.restTemplate = restTemplate; // Use the configured RestTemplate
-        this.retryTemplate = retryTemplate; // Use the configured RestTemplate
+            EmployeeClient client,
+            AppLoggerProperties loggerProperties,
+            EmployeeSnapshotStore snapshotStore,
+            BulkWriter bulkWriter,
+            MeterRegistry meterRegistry) {
+        this.client = client;
+        this.snapshotStore = snapshotStore;
+        this.bulkWriter = bulkWriter;
+        this.employeeFlight.bindTo(meterRegistry, "employee.upstream.singleflight", "employee");
         this.logger = new AppLogger(EmployeeService.class); // Create a new logger for this service
         // Set the log level based on the configuration property
         this.logger.setLogLevel(
@@ -41,32 +51,22 @@ public class EmployeeService {
 
     public List<Employee> getAllEmployees() {
         logger.debug("Entering getAllEmployees method");
-        try {
-            ResponseEntity<GetAllEmployeesResponse> response =
-                    restTemplate.exchange(BASE_URL, HttpMethod.GET, null, GetAllEmployeesResponse.class);
-
-            if (response.getStatusCode() == HttpStatus.OK
-                    && response.getBody() != null
-                    && response.getBody().getData() != null) {
-                logger.info("Exiting getAllEmployees method with success");
-                return response.getBody().getData();
-            }
-        } catch (HttpClientErrorException e) {
-            logger.error("Error fetching employees: " + e.getMessage(), e);
-            throw e; // Rethrow the exception to trigger retry logic
-        }
-        logger.info("Exiting getAllEmployees method with no employees found");
-        return List.of(); // Return an empty list if the response is not OK or an error occurs
+        List<Employee> employees = currentSnapshot().getEmployees();
+        logger.info("Exiting getAllEmployees method with # of employees: " + employees.size());
+        return employees;
+    }
+
+    // Returns the roster snapshot to answer a read from, going to the mock server only when the snapshot store needs a
+    // synchronous load. The client retries the roster fetch itself; any exception it finally gives up with propagates.
+    private EmployeeSnapshot currentSnapshot() {
+        return ServedSnapshot.mark(snapshotStore.getSnapshot(client::getAllEmployees));
     }
 
     // Method to search employees by name
     public List<Employee> getEmployeesByNameSearch(String searchString) {
         logger.info("Entering getEmployeesByNameSearch method with searchString: " + searchString);
-        List<Employee> employees = getAllEmployees();
-
-        List<Employee> filteredEmployees = employees.stream()
-                .filter(employee -> employee.getName().toLowerCase().contains(searchString.toLowerCase()))
-                .collect(Collectors.toList());
+        // Answered by the trigram index of the roster snapshot rather than a scan of every name
+        List<Employee> filteredEmployees = currentSnapshot().searchByName(searchString);
 
         logger.info("Exiting getEmployeesByNameSearch method with results: " + filteredEmployees);
         return filteredEmployees;
@@ -75,28 +75,25 @@ public class EmployeeService {
     // Method to retrieve an employee by ID
     public Employee getEmployeeById(String id) {
         logger.debug("Entering getEmployeeById method with id: " + id);
-        try {
-            ResponseEntity<GetEmployeeResponse> response =
-                    restTemplate.getForEntity(BASE_URL + "/" + id, GetEmployeeResponse.class);
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                logger.info("Exiting getEmployeeById method with success");
-                return response.getBody().getData(); // Return the Employee object
+        // Answer from the id index of the roster snapshot when one can be served; an employee missing from it may
+        // simply be newer than the snapshot so that case still goes to the mock server
+        EmployeeSnapshot snapshot = snapshotStore.getSnapshotIfPresent(client::getAllEmployees);
+        if (snapshot != null) {
+            Employee employee = snapshot.findById(id);
+            if (employee != null) {
+                ServedSnapshot.mark(snapshot);
+                logger.info("Exiting getEmployeeById method with employee from snapshot");
+                return employee;
             }
-        } catch (HttpClientErrorException e) {
-            logger.error("Employee not found: {}" + e.getMessage(), e);
         }
-        logger.info("Exiting getEmployeeById method with no employee found");
-        return null; // Return null if the employee is not found or an error occurs
+        return employeeFlight.execute(id, () -> client.getEmployeeById(id));
     }
 
     // Method to get the highest salary among employees
     public Integer getHighestSalaryOfEmployees() {
         logger.debug("Entering getHighestSalaryOfEmployees method");
-        List<Employee> employees = getAllEmployees();
-        Integer highestSalary = employees.stream()
-                .map(Employee::getSalary)
-                .max(Integer::compare)
-                .orElse(0); // Return 0 if no employees found
+        // O(1) read of the top of the snapshot's salary index
+        Integer highestSalary = currentSnapshot().highestSalary(0); // Return 0 if no employees found
         logger.info("Exiting getHighestSalaryOfEmployees method with highest salary: " + highestSalary);
         return highestSalary;
     }
@@ -104,82 +101,159 @@ public class EmployeeService {
     // Method to get the top ten highest earning employee names
     public List<String> getTopTenHighestEarningEmployeeNames() {
         logger.debug("Entering getTopTenHighestEarningEmployeeNames method");
-        List<Employee> employees = getAllEmployees();
-        List<String> topTenNames = employees.stream()
-                .sorted((e1, e2) -> e2.getSalary().compareTo(e1.getSalary()))
-                .limit(10)
-                .map(Employee::getName)
-                .collect(Collectors.toList());
+        List<String> topTenNames = currentSnapshot().topEarnerNames(10);
         logger.info("Exiting getTopTenHighestEarningEmployeeNames method with # of names: " + topTenNames);
         return topTenNames;
     }
 
+    // Method to get the names of the n highest earning employees, highest first
+    public List<String> getTopHighestEarningEmployeeNames(int n) {
+        logger.debug("Entering getTopHighestEarningEmployeeNames method with n: " + n);
+        List<String> topNames = currentSnapshot().topEarnerNames(n);
+        logger.info("Exiting getTopHighestEarningEmployeeNames method with # of names: " + topNames.size());
+        return topNames;
+    }
+
+    // Method to get where an employee's salary ranks among all employees, or null if the employee is not found
+    public SalaryRankResponse getSalaryRank(String id) {
+        logger.debug("Entering getSalaryRank method with id: " + id);
+        SalaryRankResponse rank = EmployeeAnalytics.salaryRank(currentSnapshot(), id);
+        logger.info("Exiting getSalaryRank method with rank: " + rank);
+        return rank;
+    }
+
+    // Method to get salary and age statistics over all employees
+    public SalaryStatsResponse getSalaryStats() {
+        logger.debug("Entering getSalaryStats method");
+        SalaryStatsResponse stats = EmployeeAnalytics.salaryStats(currentSnapshot());
+        logger.info("Exiting getSalaryStats method with stats: " + stats);
+        return stats;
+    }
+
+    // Method to get salary and age statistics per title, ordered by title
+    public List<SalaryStatsResponse> getSalaryStatsByTitle() {
+        logger.debug("Entering getSalaryStatsByTitle method");
+        List<SalaryStatsResponse> stats = EmployeeAnalytics.salaryStatsByTitle(currentSnapshot());
+        logger.info("Exiting getSalaryStatsByTitle method with # of titles: " + stats.size());
+        return stats;
+    }
+
+    // Method to get salary percentiles of the given titles merged together, or of all employees when none are given
+    public SalaryPercentilesResponse getSalaryPercentiles(List<String> titles, List<Double> percentiles) {
+        logger.debug("Entering getSalaryPercentiles method with titles: " + titles + " percentiles: " + percentiles);
+        SalaryPercentilesResponse response =
+                EmployeeAnalytics.salaryPercentiles(currentSnapshot(), titles, percentiles);
+        logger.info("Exiting getSalaryPercentiles method with percentiles: " + response);
+        return response;
+    }
+
+    // Method to get salary percentiles per title, ordered by title
+    public List<SalaryPercentilesResponse> getSalaryPercentilesByTitle(List<Double> percentiles) {
+        logger.debug("Entering getSalaryPercentilesByTitle method with percentiles: " + percentiles);
+        List<SalaryPercentilesResponse> responses =
+                EmployeeAnalytics.salaryPercentilesByTitle(currentSnapshot(), percentiles);
+        logger.info("Exiting getSalaryPercentilesByTitle method with # of titles: " + responses.size());
+        return responses;
+    }
+
+    // Method to get a salary histogram of the given titles merged together, or of all employees when none are given
+    public SalaryHistogramResponse getSalaryHistogram(List<String> titles, int binCount) {
+        logger.debug("Entering getSalaryHistogram method with titles: " + titles + " bins: " + binCount);
+        SalaryHistogramResponse response = EmployeeAnalytics.salaryHistogram(currentSnapshot(), titles, binCount);
+        logger.info("Exiting getSalaryHistogram method with # of bins: "
+                + response.getBins().size());
+        return response;
+    }
+
     // Method to create a new employee
-    @CacheEvict(value = "employees", allEntries = true) // Invalidate the cache
     public Employee createEmployee(EmployeeDTO employeeDTO) {
         logger.debug("Entering createEmployee method with employeeDTO: " + employeeDTO);
-        HttpEntity<EmployeeDTO> requestEntity = new HttpEntity<>(employeeDTO);
-        logger.debug("CreateEmployee requestEntity: " + requestEntity);
-        ResponseEntity<CreateEmployeeResponse> response =
-                restTemplate.postForEntity(BASE_URL, requestEntity, CreateEmployeeResponse.class);
-
-        // We are getting an incorrect response code of OK instead of CREATED so while it is incorrect I have corrected
-        // for it on the api side
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            logger.info("Exiting createEmployee method with created employee: "
-                    + response.getBody().getData());
-            return response.getBody().getData(); // Return the created Employee object
+        // One key for this create, however many attempts the client needs, so the employee is only created once
+        String idempotencyKey = UUID.randomUUID().toString();
+        Employee createdEmployee = client.createEmployee(employeeDTO, idempotencyKey);
+        if (createdEmployee != null) {
+            snapshotStore.applyCreated(createdEmployee); // Patch the new employee into the snapshot
         }
-        logger.error(
-                "Failed to create employee. Status: " + response.getStatusCode() + ", Body: " + response.getBody());
-        throw new HttpClientErrorException(response.getStatusCode()); // Throw an exception for error handling
+        logger.info("Exiting createEmployee method with created employee: " + createdEmployee);
+        return createdEmployee; // Return the created Employee object
+    }
+
+    /**
+     * Creates a batch of employees, several at a time and paced to the mock server's budget. Each is created exactly as
+     * createEmployee would, with an idempotency key of its own, and a failed create does not stop the others.
+     *
+     * @return the outcome of every create, in the order given
+     */
+    public BulkWriteResponse<Employee> createEmployees(List<EmployeeDTO> employeeDTOs) {
+        logger.debug("Entering createEmployees method with " + employeeDTOs.size() + " employees");
+        BulkWriteResponse<Employee> response = bulkWriter.write(employeeDTOs, this::createEmployee, HttpStatus.CREATED);
+        logger.info("Exiting createEmployees method with " + response.getSucceeded() + " created and "
+                + response.getFailed() + " failed");
+        return response;
     }
 
     // Method to delete an employee by ID
     // Sent in the employee id in the request body to match the MockEmployeeController rather than as a request
     // paramater which is the standard way of doing this
-    @CacheEvict(value = "employees", allEntries = true) // Invalidate the cache
     public boolean deleteEmployeeById(String id) {
         logger.debug("Entering deleteEmployeeById method with id: " + id);
 
-        // Fetch all employees
-        List<Employee> employees = getAllEmployees();
-
-        // Find the employee by ID
-        Employee employeeToDelete = employees.stream()
-                .filter(employee -> employee.getId().toString().equals(id)) // Assuming ID is a UUID
-                .findFirst()
-                .orElse(null);
-
+        // Resolve the ID to the employee (and so the name the mock server needs) through the snapshot's id index
+        Employee employeeToDelete = find(currentSnapshot(), id);
         if (employeeToDelete == null) {
             logger.error("Employee with ID " + id + " not found.");
             return false; // Employee not found, handle as needed
         }
 
-        // Create the input DTO for deletion
-        DeleteMockEmployeeInput input = new DeleteMockEmployeeInput();
-        input.setName(employeeToDelete.getName()); // Set the name in the DTO
+        delete(employeeToDelete);
+        logger.debug("Exiting deleteEmployeeById method with success: true");
+        return true; // Return true if deletion was successful
+    }
+
+    /**
+     * Deletes a batch of employees by id. The ids are resolved to names against a single roster snapshot, and only an
+     * id missing from it is looked up with a by-id call; the deletes are sent several at a time and paced to the mock
+     * server's budget. An id that is not found is reported as a 404 and does not stop the other deletes.
+     *
+     * @return the outcome of every delete, with the deleted employee, in the order given
+     */
+    public BulkWriteResponse<Employee> deleteEmployeesById(List<String> ids) {
+        logger.debug("Entering deleteEmployeesById method with " + ids.size() + " ids");
+        EmployeeSnapshot snapshot = currentSnapshot();
+        BulkWriteResponse<Employee> response =
+                bulkWriter.write(ids, id -> delete(resolve(id, find(snapshot, id))), HttpStatus.OK);
+        logger.info("Exiting deleteEmployeesById method with " + response.getSucceeded() + " deleted and "
+                + response.getFailed() + " failed");
+        return response;
+    }
 
-        // Call the MockEmployeeController's delete endpoint
-        ResponseEntity<DeleteEmployeeResponse> response = restTemplate.exchange(
-                BASE_URL, HttpMethod.DELETE, new HttpEntity<>(input), DeleteEmployeeResponse.class);
+    // The employee with the given id in the snapshot, or if the snapshot does not have it, as it may simply predate the
+    // employee, from a by-id call to the mock server. A miss costs one small call rather than a roster reload, and the
+    // snapshot keeps serving other readers; deleting an employee it lacks marks it diverged, so it is then refreshed
+    // in the background
+    private Employee find(EmployeeSnapshot snapshot, String id) {
+        Employee employee = snapshot.findById(id);
+        return employee != null ? employee : employeeFlight.execute(id, () -> client.getEmployeeById(id));
+    }
 
-        if (response.getStatusCode() != HttpStatus.OK
-                || response.getBody() == null
-                || !response.getBody().isSuccess()) {
-            logger.error(
-                    "Failed to delete employee. Status: " + response.getStatusCode() + ", Body: " + response.getBody());
-            throw new HttpClientErrorException(response.getStatusCode()); // Throw an exception for error handling
+    // The employee found for the given id, failing the id with a 404 when none was found
+    static Employee resolve(String id, Employee employee) {
+        if (employee == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee with ID " + id + " not found");
         }
+        return employee;
+    }
 
-        logger.debug("Exiting deleteEmployeeById method with success: true");
-        return true; // Return true if deletion was successful
+    private Employee delete(Employee employee) {
+        // The mock server deletes by name; the key makes a retried delete answer with the original result
+        client.deleteEmployeeByName(employee.getName(), UUID.randomUUID().toString());
+        snapshotStore.applyDeleted(employee.getId()); // Patch the employee out of the snapshot
+        return employee;
     }
 
     // Method to manually enforce clearing of the cache....this is useful for tests but could be useful in other
     // scenarios as well
-    @CacheEvict(value = "employees", allEntries = true)
     public void evictEmployeeCache() {
-        // This method can be empty; its purpose is to trigger the cache eviction
+        snapshotStore.invalidate();
     }
 }
@@ -0,0 +1,86 @@
+package com.reliaquest.api.test.aspect;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import com.reliaquest.api.aspect.ErrorHandlingAspect;
+import com.reliaquest.api.aspect.RetryAspect;
+import com.reliaquest.api.config.AppLoggerProperties;
+import com.reliaquest.api.config.RetryTemplateConfig;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.error.CustomResponseErrorHandler;
+import com.reliaquest.api.retry.AsyncRetryExecutor;
+import com.reliaquest.api.retry.UpstreamRetry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpClientErrorException;
+
+class ErrorHandlingAspectTest {
+
+    private AsyncRetryExecutor asyncRetryExecutor;
+    private CustomResponseErrorHandler errorHandler;
+    private Upstream target;
+    private AnnotationConfigApplicationContext context;
+
+    // Stands in for a client whose one call to the mock server always fails
+    public static class Upstream {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @UpstreamRetry
+        public String read() {
+            calls.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.BAD_GATEWAY);
+        }
+    }
+
+    // Lets Spring proxy the beans, so it is the aspects' @Order that decides which one wraps the other
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    static class AutoProxy {}
+
+    @BeforeEach
+    void setUp() {
+        RetryTemplateConfig retryConfig = new RetryTemplateConfig();
+        retryConfig.setMaxAttempts(3);
+        retryConfig.setFixedInterval(10);
+        retryConfig.setTransientInitialInterval(1);
+        retryConfig.setTransientMaxInterval(2);
+        asyncRetryExecutor =
+                new AsyncRetryExecutor(retryConfig, new VirtualThreadSupport(false), new AppLoggerProperties());
+        errorHandler = mock(CustomResponseErrorHandler.class);
+        target = new Upstream();
+
+        context = new AnnotationConfigApplicationContext();
+        context.register(AutoProxy.class);
+        context.registerBean(RetryAspect.class, () -> new RetryAspect(retryConfig, asyncRetryExecutor));
+        context.registerBean(ErrorHandlingAspect.class, () -> new ErrorHandlingAspect(errorHandler));
+        context.registerBean(Upstream.class, () -> target);
+        context.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+        asyncRetryExecutor.shutdown();
+    }
+
+    @Test
+    void testErrorIsHandledOnceAfterTheRetriesGiveUp() throws Exception {
+        // Arrange
+        Upstream upstream = context.getBean(Upstream.class); // The target wrapped by both aspects
+
+        // Act & Assert
+        assertThrows(HttpClientErrorException.class, upstream::read);
+        assertEquals(3, target.calls.get());
+        verify(errorHandler, times(1)).handleError(anyString(), any(HttpStatusCode.class));
+    }
+}
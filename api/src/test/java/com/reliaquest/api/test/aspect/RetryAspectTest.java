@@ -0,0 +1,167 @@
+package com.reliaquest.api.test.aspect;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.aspect.RetryAspect;
+import com.reliaquest.api.config.AppLoggerProperties;
+import com.reliaquest.api.config.RetryTemplateConfig;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.retry.AsyncRetryExecutor;
+import com.reliaquest.api.retry.FailureClass;
+import com.reliaquest.api.retry.UpstreamAttemptCap;
+import com.reliaquest.api.retry.UpstreamRetry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+class RetryAspectTest {
+
+    private AsyncRetryExecutor asyncRetryExecutor;
+    private Upstream target;
+    private Upstream upstream; // The target wrapped by the RetryAspect
+
+    // Stands in for a client: each method is one call to the mock server that fails the first failures times
+    public static class Upstream {
+        final AtomicInteger calls = new AtomicInteger();
+        int failures;
+
+        private String call() {
+            if (calls.incrementAndGet() <= failures) {
+                throw new HttpClientErrorException(HttpStatus.BAD_GATEWAY);
+            }
+            return "ok";
+        }
+
+        @UpstreamRetry
+        public String read() {
+            return call();
+        }
+
+        @UpstreamRetry(retryOn = FailureClass.RATE_LIMITED)
+        public String writeRetriedOnlyWhenRateLimited() {
+            return call();
+        }
+
+        @UpstreamRetry(maxAttempts = 2)
+        public String readWithTwoAttempts() {
+            return call();
+        }
+
+        @UpstreamRetry
+        public CompletableFuture<String> readAsync() {
+            try {
+                return CompletableFuture.completedFuture(call());
+            } catch (HttpClientErrorException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        // Not an upstream call, so never retried
+        public String compute() {
+            return call();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        RetryTemplateConfig retryConfig = new RetryTemplateConfig();
+        retryConfig.setMaxAttempts(3);
+        retryConfig.setFixedInterval(10);
+        retryConfig.setTransientInitialInterval(1);
+        retryConfig.setTransientMaxInterval(2);
+        asyncRetryExecutor =
+                new AsyncRetryExecutor(retryConfig, new VirtualThreadSupport(false), new AppLoggerProperties());
+
+        target = new Upstream();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new RetryAspect(retryConfig, asyncRetryExecutor));
+        upstream = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncRetryExecutor.shutdown();
+    }
+
+    @Test
+    void testAnnotatedCallIsRetried() {
+        // Arrange
+        target.failures = 2;
+
+        // Act
+        String result = upstream.read();
+
+        // Assert
+        assertEquals("ok", result);
+        assertEquals(3, target.calls.get());
+    }
+
+    @Test
+    void testUnannotatedMethodIsNotRetried() {
+        // Arrange
+        target.failures = 1;
+
+        // Act & Assert
+        assertThrows(HttpClientErrorException.class, () -> upstream.compute());
+        assertEquals(1, target.calls.get());
+    }
+
+    @Test
+    void testOperationOnlyRetriesTheFailuresItDeclares() {
+        // Arrange
+        target.failures = 1;
+
+        // Act & Assert
+        assertThrows(HttpClientErrorException.class, () -> upstream.writeRetriedOnlyWhenRateLimited());
+        assertEquals(1, target.calls.get());
+    }
+
+    @Test
+    void testOperationMaxAttemptsOverridesDefault() {
+        // Arrange
+        target.failures = 5;
+
+        // Act & Assert
+        assertThrows(HttpClientErrorException.class, () -> upstream.readWithTwoAttempts());
+        assertEquals(2, target.calls.get());
+    }
+
+    @Test
+    void testAsynchronousCallIsRetried() {
+        // Arrange
+        target.failures = 1;
+
+        // Act
+        String result = upstream.readAsync().join();
+
+        // Assert
+        assertEquals("ok", result);
+        assertEquals(2, target.calls.get());
+    }
+
+    @Test
+    void testRequestAttemptCapLimitsRetriesAcrossCalls() {
+        // Arrange - a request allowed four attempts in total makes two calls that keep failing
+        target.failures = 10;
+        AtomicInteger capped = new AtomicInteger();
+        UpstreamAttemptCap cap = new UpstreamAttemptCap(4, capped::incrementAndGet);
+
+        // Act
+        try (UpstreamAttemptCap.Binding ignored = UpstreamAttemptCap.bind(cap)) {
+            assertThrows(HttpClientErrorException.class, () -> upstream.read()); // All three of its attempts
+            assertThrows(HttpClientErrorException.class, () -> upstream.read()); // Only its first attempt
+        }
+
+        // Assert
+        assertEquals(4, target.calls.get());
+        assertEquals(4, cap.getAttempts());
+        assertEquals(1, capped.get());
+        assertNull(UpstreamAttemptCap.current());
+    }
+}
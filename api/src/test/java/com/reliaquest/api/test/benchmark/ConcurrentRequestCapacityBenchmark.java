@@ -0,0 +1,155 @@
+package com.reliaquest.api.test.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.reliaquest.api.ApiApplication;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.dto.GetEmployeeResponse;
+import com.reliaquest.api.model.Employee;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Measures how many concurrent getEmployeeById requests the api can hold open while the upstream is slow, with request
+ * handling on platform threads versus virtual threads (spring.threads.virtual.enabled).
+ *
+ * The upstream is a RestTemplate stub that takes UPSTREAM_LATENCY_MS to answer every call, standing in for a slow or
+ * rate limited mock server, and the roster snapshot is disabled so every request makes its own upstream call. On
+ * platform threads Tomcat can only work on max-threads (200) requests at once and the rest queue behind them; on
+ * virtual threads a request waiting on the upstream does not hold a thread. Virtual threads need a Java 21+ runtime:
+ * run ./gradlew :api:benchmark -PbenchmarkJavaVersion=21. On an older runtime the virtual thread run is skipped, as it
+ * would only repeat the platform thread one.
+ */
+@Tag("benchmark")
+class ConcurrentRequestCapacityBenchmark {
+
+    private static final int CONCURRENT_REQUESTS = 1000;
+    private static final long UPSTREAM_LATENCY_MS = 500;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void measureConcurrentRequestCapacity(boolean virtualThreadsEnabled) throws Exception {
+        // Arrange
+        assumeTrue(
+                !virtualThreadsEnabled || Runtime.version().feature() >= 21,
+                "Virtual threads need a Java 21+ runtime; run with -PbenchmarkJavaVersion=21");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ApiApplication.class, SlowUpstream.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreadsEnabled,
+                        "app.cache.employees.enabled=false",
+                        "app.logger.log-level=ERROR",
+                        "logging.level.root=WARN")
+                .run();
+        try {
+            WebServer webServer = ((ServletWebServerApplicationContext) context).getWebServer();
+            String baseUrl = "http://localhost:" + webServer.getPort() + "/api/v1/employee/";
+            boolean virtual = context.getBean(VirtualThreadSupport.class).isVirtual();
+            HttpClient client =
+                    HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            // Warm up the JIT and the connection pool so both runs are measured the same way
+            fire(client, baseUrl, 200);
+
+            // Act
+            long start = System.nanoTime();
+            List<CompletableFuture<Long>> requests = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                long sent = System.nanoTime();
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + UUID.randomUUID()))
+                        .build();
+                requests.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .thenApply(response -> {
+                            assertEquals(200, response.statusCode());
+                            return System.nanoTime() - sent;
+                        }));
+            }
+            long[] latencies =
+                    requests.stream().mapToLong(CompletableFuture::join).toArray();
+            long wallNanos = System.nanoTime() - start;
+
+            // Assert
+            Arrays.sort(latencies);
+            assertEquals(CONCURRENT_REQUESTS, latencies.length);
+            System.out.printf(
+                    "java=%s virtual.enabled=%s virtual.active=%s requests=%d upstream=%d ms wall=%d ms"
+                            + " throughput=%.0f req/s p50=%d ms p99=%d ms%n",
+                    Runtime.version().feature(),
+                    virtualThreadsEnabled,
+                    virtual,
+                    CONCURRENT_REQUESTS,
+                    UPSTREAM_LATENCY_MS,
+                    wallNanos / 1_000_000,
+                    CONCURRENT_REQUESTS / (wallNanos / 1e9),
+                    latencies[latencies.length / 2] / 1_000_000,
+                    latencies[(int) (latencies.length * 0.99)] / 1_000_000);
+        } finally {
+            context.close();
+        }
+    }
+
+    // Sends the given number of concurrent lookups, each for a distinct id so the single flight cannot coalesce them,
+    // and returns every request's latency in nanoseconds
+    private static long[] fire(HttpClient client, String baseUrl, int count) {
+        List<CompletableFuture<Long>> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long sent = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + UUID.randomUUID()))
+                    .build();
+            requests.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> {
+                        assertEquals(200, response.statusCode());
+                        return System.nanoTime() - sent;
+                    }));
+        }
+        return requests.stream().mapToLong(CompletableFuture::join).toArray();
+    }
+
+    // Registered as an extra source rather than a @Configuration so component scanning never picks it up in other tests
+    static class SlowUpstream {
+
+        @Bean
+        @Primary
+        RestTemplate slowRestTemplate() {
+            return new RestTemplate() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <T> ResponseEntity<T> getForEntity(String url, Class<T> responseType, Object... uriVariables) {
+                    try {
+                        Thread.sleep(UPSTREAM_LATENCY_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    GetEmployeeResponse response = new GetEmployeeResponse();
+                    response.setData(new Employee(
+                            UUID.fromString(url.substring(url.lastIndexOf('/') + 1)),
+                            "John Doe",
+                            50000,
+                            30,
+                            "Developer",
+                            "john@example.com"));
+                    return (ResponseEntity<T>) ResponseEntity.ok(response);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.reliaquest.api.test.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.cache.EmployeeColumns;
+import com.reliaquest.api.model.Employee;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Compares the heap held by the roster as a List of Employee objects against the same roster in EmployeeColumns, and
+ * the time a per-title salary aggregate takes over each. Run with ./gradlew :api:benchmark; the results are printed to
+ * standard out.
+ */
+@Tag("benchmark")
+class EmployeeColumnsBenchmark {
+
+    private static final String[] TITLES = {
+        "Developer",
+        "Designer",
+        "Manager",
+        "Analyst",
+        "Architect",
+        "Consultant",
+        "Director",
+        "Engineer",
+        "Specialist",
+        "Coordinator",
+        "Administrator",
+        "Strategist",
+        "Executive",
+        "Technician",
+        "Producer",
+        "Representative"
+    };
+    private static final String[] FIRST_NAMES = {
+        "John", "Jane", "Alex", "Maria", "Chen", "Fatima", "Liam", "Olivia", "Noah", "Emma", "Ivan", "Aisha"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Garcia", "Nguyen", "Okafor", "Kowalski", "Brown", "Tanaka", "Silva", "Muller", "Haddad"
+    };
+    private static final int ITERATIONS = 50;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000})
+    void compareMemoryAndAggregateTime(int rosterSize) {
+        // Arrange
+        long baseline = usedHeap();
+        List<Employee> employees = roster(rosterSize);
+        long listBytes = usedHeap() - baseline;
+
+        long beforeColumns = usedHeap();
+        EmployeeColumns columns = new EmployeeColumns(employees.size());
+        employees.forEach(columns::append);
+        long columnBytes = usedHeap() - beforeColumns;
+
+        // Act
+        long listNanos = time(() -> employees.stream()
+                .collect(Collectors.groupingBy(Employee::getTitle, Collectors.summarizingInt(Employee::getSalary)))
+                .size());
+        long columnNanos = time(() -> columns.aggregateByTitle().size());
+
+        // Assert
+        Map<String, IntSummaryStatistics> expected = employees.stream()
+                .collect(Collectors.groupingBy(Employee::getTitle, Collectors.summarizingInt(Employee::getSalary)));
+        Map<String, EmployeeColumns.SalaryAggregate> actual = columns.aggregateByTitle();
+        expected.forEach(
+                (title, stats) -> assertEquals(stats.getSum(), actual.get(title).getTotalSalary()));
+
+        System.out.printf(
+                "employees=%d list=%.1f MB (%d B/employee) columns=%.1f MB (%d B/employee)"
+                        + " byTitle list=%.2f ms columns=%.2f ms%n",
+                rosterSize,
+                listBytes / 1e6,
+                listBytes / rosterSize,
+                columnBytes / 1e6,
+                columnBytes / rosterSize,
+                listNanos / 1e6,
+                columnNanos / 1e6);
+    }
+
+    // Builds a roster whose strings are all distinct instances, the way Jackson hands them over
+    private static List<Employee> roster(int size) {
+        Random random = new Random(size);
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            employees.add(new Employee(
+                    UUID.randomUUID(),
+                    name,
+                    30000 + random.nextInt(470000),
+                    16 + random.nextInt(55),
+                    new String(TITLES[random.nextInt(TITLES.length)]),
+                    name.replace(' ', '.').toLowerCase() + i + "@company.com"));
+        }
+        return employees;
+    }
+
+    // Average wall time of the aggregate after a warm up of the same number of runs
+    private static long time(IntSupplier aggregate) {
+        int sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += aggregate.getAsInt();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += aggregate.getAsInt();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(sink > 0);
+        return elapsed / ITERATIONS;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,144 @@
+package com.reliaquest.api.test.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.reliaquest.api.dto.GetAllEmployeesResponse;
+import com.reliaquest.api.model.Employee;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares the mock server's roster response in JSON and in Smile, configured as the api and the mock server configure
+ * them (see SmileConfig): the size of the body, as sent and gzip compressed, and the time to encode the roster and to
+ * decode it into a GetAllEmployeesResponse. Run with ./gradlew :api:benchmark; the results are printed to standard
+ * out.
+ */
+@Tag("benchmark")
+class EmployeeEncodingBenchmark {
+
+    private static final String[] TITLES = {
+        "Developer",
+        "Designer",
+        "Manager",
+        "Analyst",
+        "Architect",
+        "Consultant",
+        "Director",
+        "Engineer",
+        "Specialist",
+        "Coordinator",
+        "Administrator",
+        "Strategist",
+        "Executive",
+        "Technician",
+        "Producer",
+        "Representative"
+    };
+    private static final String[] FIRST_NAMES = {
+        "John", "Jane", "Alex", "Maria", "Chen", "Fatima", "Liam", "Olivia", "Noah", "Emma", "Ivan", "Aisha"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Garcia", "Nguyen", "Okafor", "Kowalski", "Brown", "Tanaka", "Silva", "Muller", "Haddad"
+    };
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile()
+            .factory(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build())
+            .build();
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 1_000_000})
+    void compareSizeAndCodecTime(int rosterSize) throws IOException {
+        // Arrange - shaped like the mock server's Response
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("data", roster(rosterSize));
+        response.put("status", "Successfully processed request.");
+        int iterations = rosterSize >= 1_000_000 ? 3 : 50;
+
+        // Act & Assert
+        for (ObjectMapper mapper : List.of(jsonMapper, smileMapper)) {
+            byte[] body = mapper.writeValueAsBytes(response);
+            long encodeNanos = time(iterations, () -> mapper.writeValueAsBytes(response).length);
+            long decodeNanos = time(iterations, () -> mapper.readValue(body, GetAllEmployeesResponse.class)
+                    .getParsedData()
+                    .size());
+            assertEquals(
+                    rosterSize,
+                    mapper.readValue(body, GetAllEmployeesResponse.class)
+                            .getParsedData()
+                            .size());
+
+            System.out.printf(
+                    "employees=%d format=%s body=%.2f MB (%d B/employee) gzip=%.2f MB encode=%.2f ms decode=%.2f ms%n",
+                    rosterSize,
+                    mapper.getFactory().getFormatName(),
+                    body.length / 1e6,
+                    body.length / rosterSize,
+                    gzip(body).length / 1e6,
+                    encodeNanos / 1e6,
+                    decodeNanos / 1e6);
+        }
+    }
+
+    // Builds a roster with the mock server's mix of repeated titles and distinct names and emails
+    private static List<Employee> roster(int size) {
+        Random random = new Random(size);
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            employees.add(new Employee(
+                    UUID.randomUUID(),
+                    name,
+                    30000 + random.nextInt(470000),
+                    16 + random.nextInt(55),
+                    TITLES[random.nextInt(TITLES.length)],
+                    name.replace(' ', '.').toLowerCase() + i + "@company.com"));
+        }
+        return employees;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Codec {
+        int run() throws IOException;
+    }
+
+    // Average wall time of the codec after a warm up of the same number of runs
+    private static long time(int iterations, Codec codec) throws IOException {
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += codec.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += codec.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(sink > 0);
+        return elapsed / iterations;
+    }
+}
@@ -0,0 +1,96 @@
+package com.reliaquest.api.test.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.cache.EmployeeColumns;
+import com.reliaquest.api.model.Employee;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EmployeeColumnsTest {
+
+    private EmployeeColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        columns = new EmployeeColumns(2);
+        columns.append(new Employee(UUID.randomUUID(), "John Doe", 50000, 30, "Developer", "john@example.com"));
+        columns.append(new Employee(UUID.randomUUID(), "Jane Smith", 60000, 28, "Designer", "jane@example.com"));
+        columns.append(new Employee(UUID.randomUUID(), "Jim Beam", 70000, 40, "Developer", "jim@example.com"));
+    }
+
+    @Test
+    void testAggregateByTitleGroupsRowsByTitle() {
+        // Act
+        Map<String, EmployeeColumns.SalaryAggregate> byTitle = columns.aggregateByTitle();
+
+        // Assert - Developer is one dictionary entry shared by two rows
+        assertEquals(List.of("Designer", "Developer"), List.copyOf(byTitle.keySet()));
+        assertEquals(2, byTitle.get("Developer").getCount());
+        assertEquals(120000, byTitle.get("Developer").getTotalSalary());
+        assertEquals(35.0, byTitle.get("Developer").getAverageAge());
+        assertEquals(60000, byTitle.get("Designer").getTotalSalary());
+    }
+
+    @Test
+    void testAggregate() {
+        // Act
+        EmployeeColumns.SalaryAggregate aggregate = columns.aggregate();
+
+        // Assert
+        assertEquals(3, aggregate.getCount());
+        assertEquals(50000, aggregate.getMinSalary());
+        assertEquals(70000, aggregate.getMaxSalary());
+        assertEquals(180000, aggregate.getTotalSalary());
+        assertEquals(60000.0, aggregate.getAverageSalary());
+        assertEquals(98 / 3.0, aggregate.getAverageAge(), 1e-9);
+    }
+
+    @Test
+    void testAggregateByTitleSkipsRemovedRows() {
+        // Arrange
+        columns.remove(2);
+
+        // Act
+        Map<String, EmployeeColumns.SalaryAggregate> byTitle = columns.aggregateByTitle();
+
+        // Assert
+        assertEquals(2, columns.aggregate().getCount());
+        assertEquals(2, byTitle.size());
+        assertEquals(1, byTitle.get("Developer").getCount());
+        assertEquals(50000, byTitle.get("Developer").getMaxSalary());
+        assertEquals(60000, byTitle.get("Designer").getMinSalary());
+    }
+
+    @Test
+    void testMissingValuesAreLeftOut() {
+        // Arrange
+        EmployeeColumns sparse = new EmployeeColumns(1);
+        sparse.append(Employee.builder().name(null).build());
+        sparse.append(Employee.builder().name("Ann").salary(100).build());
+
+        // Act
+        EmployeeColumns.SalaryAggregate aggregate = sparse.aggregate();
+
+        // Assert
+        assertEquals(1, aggregate.getCount());
+        assertEquals(100, aggregate.getMinSalary());
+        assertEquals(0, aggregate.getAverageAge());
+        assertTrue(sparse.aggregateByTitle().isEmpty());
+    }
+
+    @Test
+    void testEmptyAggregate() {
+        // Act
+        EmployeeColumns.SalaryAggregate aggregate = new EmployeeColumns(0).aggregate();
+
+        // Assert
+        assertEquals(0, aggregate.getCount());
+        assertEquals(0, aggregate.getMinSalary());
+        assertEquals(0, aggregate.getMaxSalary());
+        assertEquals(0, aggregate.getAverageSalary());
+    }
+}
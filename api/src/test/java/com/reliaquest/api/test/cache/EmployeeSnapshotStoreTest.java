@@ -0,0 +1,339 @@
+package com.reliaquest.api.test.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.cache.EmployeeSnapshot;
+import com.reliaquest.api.cache.EmployeeSnapshotStore;
+import com.reliaquest.api.client.UpstreamCircuitOpenException;
+import com.reliaquest.api.config.EmployeeCacheProperties;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.test.MutableClock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EmployeeSnapshotStoreTest {
+
+    private MutableClock clock;
+    private EmployeeCacheProperties properties;
+    private EmployeeSnapshotStore store;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        properties = new EmployeeCacheProperties();
+        properties.setTtl(Duration.ofSeconds(30));
+        properties.setRefreshAhead(Duration.ofSeconds(20));
+        properties.setMaxStale(Duration.ofSeconds(60));
+        store = new EmployeeSnapshotStore(properties, clock);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void testFirstReadLoadsSynchronously() {
+        // Act
+        EmployeeSnapshot snapshot = store.getSnapshot(loader());
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(1, snapshot.getEmployees().size());
+        assertSame(snapshot, store.peek());
+    }
+
+    @Test
+    void testFreshSnapshotIsServedWithoutLoading() {
+        // Arrange
+        EmployeeSnapshot first = store.getSnapshot(loader());
+        clock.advance(Duration.ofSeconds(10));
+
+        // Act
+        EmployeeSnapshot second = store.getSnapshot(loader());
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testRefreshAheadServesCurrentAndRefreshesInBackground() throws Exception {
+        // Arrange
+        EmployeeSnapshot first = store.getSnapshot(loader());
+        clock.advance(Duration.ofSeconds(25));
+
+        // Act
+        EmployeeSnapshot served = store.getSnapshot(loader());
+
+        // Assert
+        assertSame(first, served); // The caller never waits on the refresh
+        awaitVersionAfter(first.getVersion());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testStaleWhileRevalidateServesExpiredSnapshot() throws Exception {
+        // Arrange
+        EmployeeSnapshot first = store.getSnapshot(loader());
+        clock.advance(Duration.ofSeconds(45));
+
+        // Act
+        EmployeeSnapshot served = store.getSnapshot(loader());
+
+        // Assert
+        assertSame(first, served);
+        awaitVersionAfter(first.getVersion());
+    }
+
+    @Test
+    void testSnapshotPastMaxStaleIsLoadedSynchronously() {
+        // Arrange
+        EmployeeSnapshot first = store.getSnapshot(loader());
+        clock.advance(Duration.ofSeconds(120));
+
+        // Act
+        EmployeeSnapshot served = store.getSnapshot(loader());
+
+        // Assert
+        assertNotSame(first, served);
+        assertTrue(served.getVersion() > first.getVersion());
+    }
+
+    @Test
+    void testExpiredSnapshotIsLoadedSynchronouslyWithoutStaleWhileRevalidate() {
+        // Arrange
+        properties.setStaleWhileRevalidate(false);
+        EmployeeSnapshot first = store.getSnapshot(loader());
+        clock.advance(Duration.ofSeconds(31));
+
+        // Act
+        EmployeeSnapshot served = store.getSnapshot(loader());
+
+        // Assert
+        assertNotSame(first, served);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidateForcesReload() {
+        // Arrange
+        store.getSnapshot(loader());
+
+        // Act
+        store.invalidate();
+        store.getSnapshot(loader());
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testWritesPatchSnapshotInPlaceAndBumpVersion() {
+        // Arrange
+        EmployeeSnapshot first = store.getSnapshot(loader());
+        long loadedVersion = first.getVersion();
+        Employee jane = new Employee(UUID.randomUUID(), "Jane Smith", 60000, 28, "Designer", "jane@example.com");
+
+        // Act
+        store.applyCreated(jane);
+        long createdVersion = first.getVersion();
+        store.applyDeleted(jane.getId());
+        EmployeeSnapshot served = store.getSnapshot(loader());
+
+        // Assert
+        assertSame(first, served);
+        assertTrue(createdVersion > loadedVersion);
+        assertTrue(served.getVersion() > createdVersion);
+        assertEquals(1, served.size());
+        assertFalse(store.isDiverged());
+        assertEquals(1, loads.get()); // No write threw the roster away
+    }
+
+    @Test
+    void testDivergentPatchRefreshesFreshSnapshotInBackground() throws Exception {
+        // Arrange
+        EmployeeSnapshot first = store.getSnapshot(loader());
+
+        // Act - the deleted employee was never in the snapshot, so it no longer matches the mock server
+        store.applyDeleted(UUID.randomUUID());
+        EmployeeSnapshot served = store.getSnapshot(loader());
+
+        // Assert
+        assertSame(first, served); // Still served while the refresh runs
+        awaitSnapshotOtherThan(first);
+        assertEquals(2, loads.get());
+        assertFalse(store.isDiverged());
+    }
+
+    @Test
+    void testDisabledCacheAlwaysLoads() {
+        // Arrange
+        properties.setEnabled(false);
+
+        // Act
+        store.getSnapshot(loader());
+        store.getSnapshot(loader());
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertNull(store.peek());
+    }
+
+    @Test
+    void testSynchronousLoadFailurePropagates() {
+        // Arrange
+        Supplier<List<Employee>> failing = () -> {
+            throw new IllegalStateException("upstream down");
+        };
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> store.getSnapshot(failing));
+        assertNull(store.peek());
+    }
+
+    @Test
+    void testFailedBackgroundRefreshKeepsCurrentSnapshot() throws Exception {
+        // Arrange
+        EmployeeSnapshot first = store.getSnapshot(loader());
+        clock.advance(Duration.ofSeconds(25));
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        store.getSnapshot(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("upstream down");
+        });
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (attempts.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals(1, attempts.get());
+        assertSame(first, store.peek());
+    }
+
+    @Test
+    void testOpenCircuitServesLastGoodSnapshotPastMaxStale() {
+        // Arrange
+        EmployeeSnapshot first = store.getSnapshot(loader());
+        clock.advance(Duration.ofSeconds(200));
+
+        // Act
+        EmployeeSnapshot served = store.getSnapshot(openCircuit());
+
+        // Assert
+        assertSame(first, served);
+        assertEquals(Duration.ofSeconds(200), store.staleAge(served));
+    }
+
+    @Test
+    void testOpenCircuitServesLastGoodSnapshotAfterInvalidate() {
+        // Arrange
+        EmployeeSnapshot first = store.getSnapshot(loader());
+        store.invalidate();
+
+        // Act
+        EmployeeSnapshot served = store.getSnapshot(openCircuit());
+
+        // Assert
+        assertSame(first, served);
+    }
+
+    @Test
+    void testOpenCircuitWithoutSnapshotPropagates() {
+        // Act & Assert
+        assertThrows(UpstreamCircuitOpenException.class, () -> store.getSnapshot(openCircuit()));
+    }
+
+    @Test
+    void testSnapshotIfPresentFallsBackWhileCircuitIsOpen() {
+        // Arrange
+        EmployeeSnapshot first = store.getSnapshot(loader());
+        clock.advance(Duration.ofSeconds(200));
+        assertNull(store.getSnapshotIfPresent(loader())); // Circuit closed: the caller makes a targeted call
+        store.getSnapshot(openCircuit());
+
+        // Act
+        EmployeeSnapshot served = store.getSnapshotIfPresent(openCircuit());
+
+        // Assert
+        assertSame(first, served);
+    }
+
+    @Test
+    void testAsyncReadFallsBackWhileCircuitIsOpen() {
+        // Arrange
+        EmployeeSnapshot first = store.getSnapshot(loader());
+        clock.advance(Duration.ofSeconds(200));
+
+        // Act
+        EmployeeSnapshot served = store.getSnapshotAsync(
+                        () -> CompletableFuture.failedFuture(new UpstreamCircuitOpenException(1000)))
+                .join();
+
+        // Assert
+        assertSame(first, served);
+    }
+
+    @Test
+    void testStaleAgeIsOnlyReportedPastTtl() {
+        // Arrange
+        EmployeeSnapshot served = store.getSnapshot(loader());
+
+        // Act & Assert
+        clock.advance(Duration.ofSeconds(29));
+        assertNull(store.staleAge(served));
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals(Duration.ofSeconds(30), store.staleAge(served));
+    }
+
+    // A loader refused by the open circuit, as the RestTemplate or AsyncEmployeeClient call would be
+    private Supplier<List<Employee>> openCircuit() {
+        return () -> {
+            throw new UpstreamCircuitOpenException(1000);
+        };
+    }
+
+    private Supplier<List<Employee>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(new Employee(UUID.randomUUID(), "John Doe", 50000, 30, "Developer", "john@example.com"));
+        };
+    }
+
+    private void awaitVersionAfter(long version) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            EmployeeSnapshot current = store.peek();
+            if (current != null && current.getVersion() > version) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Background refresh did not publish a new snapshot");
+    }
+
+    private void awaitSnapshotOtherThan(EmployeeSnapshot previous) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            EmployeeSnapshot current = store.peek();
+            if (current != null && current != previous) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Background refresh did not publish a new snapshot");
+    }
+}
@@ -0,0 +1,146 @@
+package com.reliaquest.api.test.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.cache.EmployeeSnapshot;
+import com.reliaquest.api.model.Employee;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EmployeeSnapshotTest {
+
+    private Employee john;
+    private Employee jane;
+    private EmployeeSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        john = new Employee(UUID.randomUUID(), "John Doe", 50000, 30, "Developer", "john@example.com");
+        jane = new Employee(UUID.randomUUID(), "Jane Smith", 60000, 28, "Designer", "jane@example.com");
+        snapshot = new EmployeeSnapshot(List.of(john, jane), 1, Instant.now());
+    }
+
+    @Test
+    void testLookupsOnLoadedRoster() {
+        // Act & Assert
+        assertEquals(List.of(john, jane), snapshot.getEmployees());
+        assertSame(jane, snapshot.findById(jane.getId().toString()));
+        assertEquals(List.of(john), snapshot.searchByName("doe"));
+        assertEquals(2, snapshot.size());
+    }
+
+    @Test
+    void testApplyCreatedPatchesRowsAndIndexes() {
+        // Arrange
+        Employee johnny = new Employee(UUID.randomUUID(), "Johnny Cash", 70000, 40, "Singer", "johnny@example.com");
+
+        // Act
+        boolean added = snapshot.applyCreated(johnny, 2);
+
+        // Assert
+        assertTrue(added);
+        assertEquals(2, snapshot.getVersion());
+        assertEquals(List.of(john, jane, johnny), snapshot.getEmployees());
+        assertSame(johnny, snapshot.findById(johnny.getId()));
+        assertEquals(List.of(john, johnny), snapshot.searchByName("john"));
+        assertEquals(3, snapshot.size());
+    }
+
+    @Test
+    void testApplyCreatedWithKnownIdReplacesRow() {
+        // Arrange
+        Employee renamed = john.toBuilder().name("Jonathan Doe").build();
+
+        // Act
+        boolean added = snapshot.applyCreated(renamed, 2);
+
+        // Assert
+        assertFalse(added);
+        assertEquals(List.of(jane, renamed), snapshot.getEmployees());
+        assertEquals(List.of(renamed), snapshot.searchByName("jonathan"));
+        assertEquals(2, snapshot.size());
+    }
+
+    @Test
+    void testApplyDeletedPatchesRowsAndIndexes() {
+        // Act
+        boolean deleted = snapshot.applyDeleted(john.getId(), 2);
+
+        // Assert
+        assertTrue(deleted);
+        assertEquals(2, snapshot.getVersion());
+        assertEquals(List.of(jane), snapshot.getEmployees());
+        assertNull(snapshot.findById(john.getId()));
+        assertTrue(snapshot.searchByName("john").isEmpty());
+        assertFalse(snapshot.applyDeleted(john.getId(), 3));
+        assertEquals(2, snapshot.getVersion()); // A delete that did not apply leaves the version alone
+    }
+
+    @Test
+    void testAggregatesFollowPatches() {
+        // Arrange
+        Employee johnny = new Employee(UUID.randomUUID(), "Johnny Cash", 70000, 40, "Developer", "johnny@example.com");
+
+        // Act
+        snapshot.applyCreated(johnny, 2);
+        snapshot.applyDeleted(jane.getId(), 3);
+
+        // Assert
+        assertEquals(120000, snapshot.salaryAggregate().getTotalSalary());
+        assertEquals(
+                List.of("Developer"),
+                List.copyOf(snapshot.salaryAggregateByTitle().keySet()));
+        assertEquals(2, snapshot.salaryAggregateByTitle().get("Developer").getCount());
+    }
+
+    @Test
+    void testSalaryRankCountsOnlySalariedEmployees() {
+        // Arrange
+        Employee intern = new Employee(UUID.randomUUID(), "Intern", null, 20, "Intern", "intern@example.com");
+        snapshot.applyCreated(intern, 2);
+
+        // Act
+        EmployeeSnapshot.SalaryRank rank = snapshot.salaryRank(john.getId().toString());
+
+        // Assert
+        assertSame(john, rank.getEmployee());
+        assertEquals(2, rank.getRank());
+        assertEquals(2, rank.getOutOf());
+        assertNull(snapshot.salaryRank(intern.getId().toString()));
+        assertNull(snapshot.salaryRank(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void testUnindexedSnapshotAnswersLikeAnIndexedOne() {
+        // Arrange
+        EmployeeSnapshot unindexed = EmployeeSnapshot.unindexed(List.of(john, jane), 1, Instant.now());
+
+        // Act & Assert
+        assertSame(jane, unindexed.findById(jane.getId()));
+        assertEquals(List.of(john), unindexed.searchByName("doe"));
+        assertEquals(60000, unindexed.highestSalary(0));
+        assertEquals(List.of("Jane Smith", "John Doe"), unindexed.topEarnerNames(2));
+        assertEquals(110000, unindexed.salaryAggregate().getTotalSalary());
+        assertEquals(2, unindexed.salaryRank(john.getId().toString()).getRank());
+    }
+
+    @Test
+    void testUnindexedSnapshotCanBePatched() {
+        // Arrange
+        EmployeeSnapshot unindexed = EmployeeSnapshot.unindexed(List.of(john, jane), 1, Instant.now());
+        Employee johnny = new Employee(UUID.randomUUID(), "Johnny Cash", 70000, 40, "Singer", "johnny@example.com");
+
+        // Act
+        unindexed.applyCreated(johnny, 2);
+        unindexed.applyDeleted(jane.getId(), 3);
+
+        // Assert
+        assertEquals(List.of(john, johnny), unindexed.getEmployees());
+        assertEquals(List.of(john, johnny), unindexed.searchByName("john"));
+        assertEquals(70000, unindexed.highestSalary(0));
+        assertEquals(120000, unindexed.salaryAggregate().getTotalSalary());
+    }
+}
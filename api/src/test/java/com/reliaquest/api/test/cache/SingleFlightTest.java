@@ -0,0 +1,197 @@
+package com.reliaquest.api.test.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.cache.SingleFlight;
+import com.reliaquest.api.deadline.DeadlineExceededException;
+import com.reliaquest.api.deadline.RequestDeadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        singleFlight = new SingleFlight<>();
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentCallersShareOneCall() throws Exception {
+        // Arrange
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Act
+        List<Future<String>> results = submitCallers(() -> {
+            invocations.incrementAndGet();
+            await(release);
+            return "roster";
+        });
+        awaitCallersAttached(CALLERS - 1);
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertEquals("roster", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, invocations.get());
+        assertEquals(1, singleFlight.getIssuedCount());
+        assertEquals(CALLERS - 1, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    void testConcurrentCallersShareFailure() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("429 Too Many Requests");
+
+        // Act
+        List<Future<String>> results = submitCallers(() -> {
+            await(release);
+            throw failure;
+        });
+        awaitCallersAttached(CALLERS - 1);
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            Exception thrown = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, thrown.getCause()); // Every caller sees the same exception
+        }
+    }
+
+    @Test
+    void testWaiterStopsWaitingAtItsDeadline() throws Exception {
+        // Arrange - a call already in flight that takes longer than the waiter's deadline
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> issuer = executor.submit(() -> singleFlight.execute("roster", () -> {
+            await(release);
+            return "roster";
+        }));
+        while (singleFlight.getIssuedCount() == 0) {
+            Thread.sleep(5);
+        }
+
+        // Act
+        try (RequestDeadline.Binding ignored = RequestDeadline.bind(RequestDeadline.after(Duration.ofMillis(50)))) {
+            assertThrows(DeadlineExceededException.class, () -> singleFlight.execute("roster", () -> "second"));
+        }
+        release.countDown();
+
+        // Assert - the call itself carried on for its issuer
+        assertEquals("roster", issuer.get(5, TimeUnit.SECONDS));
+        assertEquals(1, singleFlight.getIssuedCount());
+    }
+
+    @Test
+    void testKeyIsReleasedAfterCompletion() {
+        // Act
+        singleFlight.execute("roster", () -> "first");
+        String second = singleFlight.execute("roster", () -> "second");
+
+        // Assert
+        assertEquals("second", second);
+        assertEquals(2, singleFlight.getIssuedCount());
+        assertEquals(0, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    void testKeyIsReleasedAfterFailure() {
+        // Act
+        assertThrows(
+                IllegalStateException.class,
+                () -> singleFlight.execute("roster", () -> {
+                    throw new IllegalStateException("boom");
+                }));
+        String result = singleFlight.execute("roster", () -> "recovered");
+
+        // Assert
+        assertEquals("recovered", result);
+    }
+
+    @Test
+    void testDifferentKeysAreNotCoalesced() {
+        // Act
+        singleFlight.execute("a", () -> "a");
+        singleFlight.execute("b", () -> "b");
+
+        // Assert
+        assertEquals(2, singleFlight.getIssuedCount());
+    }
+
+    @Test
+    void testCountersArePublished() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        singleFlight.bindTo(registry, "employee.upstream.singleflight", "roster");
+
+        // Act
+        singleFlight.execute("roster", () -> "roster");
+
+        // Assert
+        assertEquals(
+                1.0,
+                registry.get("employee.upstream.singleflight")
+                        .tag("outcome", "issued")
+                        .functionCounter()
+                        .count());
+        assertEquals(
+                0.0,
+                registry.get("employee.upstream.singleflight")
+                        .tag("outcome", "coalesced")
+                        .functionCounter()
+                        .count());
+    }
+
+    private List<Future<String>> submitCallers(Supplier<String> supplier) throws Exception {
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("roster", supplier)));
+        // Make sure the first caller owns the call before the rest arrive
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getIssuedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("roster", supplier)));
+        }
+        return results;
+    }
+
+    private void awaitCallersAttached(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getCoalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
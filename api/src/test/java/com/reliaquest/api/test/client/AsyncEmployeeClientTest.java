@@ -0,0 +1,275 @@
+package com.reliaquest.api.test.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.client.AsyncEmployeeClient;
+import com.reliaquest.api.client.RequestPriority;
+import com.reliaquest.api.client.UpstreamBulkhead;
+import com.reliaquest.api.client.UpstreamCircuitBreaker;
+import com.reliaquest.api.client.UpstreamCircuitOpenException;
+import com.reliaquest.api.client.UpstreamCompression;
+import com.reliaquest.api.client.UpstreamEncoding;
+import com.reliaquest.api.client.UpstreamHedger;
+import com.reliaquest.api.client.UpstreamRateLimiter;
+import com.reliaquest.api.config.AppLoggerProperties;
+import com.reliaquest.api.config.UpstreamBulkheadProperties;
+import com.reliaquest.api.config.UpstreamCircuitBreakerProperties;
+import com.reliaquest.api.config.UpstreamCompressionProperties;
+import com.reliaquest.api.config.UpstreamEncodingProperties;
+import com.reliaquest.api.config.UpstreamHedgeProperties;
+import com.reliaquest.api.config.UpstreamRateLimitProperties;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.deadline.DeadlineExceededException;
+import com.reliaquest.api.deadline.RequestDeadline;
+import com.reliaquest.api.model.Employee;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.client.HttpClientErrorException;
+
+class AsyncEmployeeClientTest {
+
+    private static final String ROSTER = "{\"data\":[{\"id\":\"4a3a170b-22cd-4ac2-aad1-9bb5b34a1507\","
+            + "\"employee_name\":\"John Doe\",\"employee_salary\":50000,\"employee_age\":30,"
+            + "\"employee_title\":\"Developer\",\"employee_email\":\"john@example.com\"}],\"status\":\"ok\"}";
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int lockedOutRequests; // Number of requests answered with a 429 before the roster is returned
+    private UpstreamCircuitBreaker circuitBreaker;
+    private volatile String acceptEncoding; // Accept-Encoding of the last request
+    private volatile String accept; // Accept of the last request
+    private UpstreamHedger hedger;
+    private final UpstreamCompressionProperties compressionProperties = new UpstreamCompressionProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpstreamEncodingProperties encodingProperties = new UpstreamEncodingProperties();
+    private final MappingJackson2SmileHttpMessageConverter smileConverter =
+            new MappingJackson2SmileHttpMessageConverter();
+    private AsyncEmployeeClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/employee", exchange -> {
+            int request = requests.incrementAndGet();
+            acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            accept = exchange.getRequestHeaders().getFirst("Accept");
+            byte[] body;
+            if (request <= lockedOutRequests) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                exchange.sendResponseHeaders(429, -1);
+            } else if (exchange.getRequestURI().getPath().endsWith("/employee")) {
+                body = ROSTER.getBytes(StandardCharsets.UTF_8);
+                if (accept.startsWith(UpstreamEncoding.SMILE_VALUE)) { // Negotiated like the mock server does
+                    body = smileConverter.getObjectMapper().writeValueAsBytes(new ObjectMapper().readTree(ROSTER));
+                    exchange.getResponseHeaders().add("Content-Type", UpstreamEncoding.SMILE_VALUE);
+                } else {
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                }
+                if ("gzip".equals(acceptEncoding)) { // Compressed like the mock server's Tomcat does
+                    exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                    exchange.sendResponseHeaders(200, 0);
+                    try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+                        out.write(body);
+                    }
+                } else {
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                }
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+            exchange.close();
+        });
+        server.start();
+
+        UpstreamRateLimitProperties rateLimit = new UpstreamRateLimitProperties();
+        rateLimit.setEnabled(false); // Only the test that exercises the limiter has it enabled
+        UpstreamCircuitBreakerProperties circuit = new UpstreamCircuitBreakerProperties();
+        circuit.setFailureThreshold(2);
+        circuitBreaker = new UpstreamCircuitBreaker(circuit, Clock.systemUTC());
+        hedger = new UpstreamHedger(new UpstreamHedgeProperties(), null, new VirtualThreadSupport(false)); // Disabled
+        client = newClient(new UpstreamRateLimiter(rateLimit, Clock.systemUTC()));
+    }
+
+    private AsyncEmployeeClient newClient(UpstreamRateLimiter rateLimiter) {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build(); // Configured like Spring Boot's
+        return new AsyncEmployeeClient(
+                objectMapper,
+                new AppLoggerProperties(),
+                new VirtualThreadSupport(false),
+                rateLimiter,
+                circuitBreaker,
+                hedger,
+                new UpstreamBulkhead(new UpstreamBulkheadProperties()),
+                new UpstreamCompression(compressionProperties, meterRegistry),
+                new UpstreamEncoding(encodingProperties, objectMapper, smileConverter),
+                "http://localhost:" + server.getAddress().getPort() + "/api/v1/employee",
+                5,
+                5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        hedger.shutdown();
+    }
+
+    @Test
+    void testGetAllEmployeesParsesRoster() {
+        // Act
+        List<Employee> employees = client.getAllEmployees().join();
+
+        // Assert
+        assertEquals(1, employees.size());
+        assertEquals("John Doe", employees.get(0).getName());
+        assertEquals(50000, employees.get(0).getSalary());
+    }
+
+    @Test
+    void testGzipRosterIsDecompressedAsItArrives() {
+        // Act
+        List<Employee> employees = client.getAllEmployees().join();
+
+        // Assert
+        assertEquals("gzip", acceptEncoding);
+        assertEquals(1, employees.size());
+        assertEquals("John Doe", employees.get(0).getName());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("employee.upstream.compression.ratio")
+                        .summary()
+                        .count());
+    }
+
+    @Test
+    void testUncompressedRosterIsAskedForWhenCompressionIsDisabled() {
+        // Arrange
+        compressionProperties.setEnabled(false);
+
+        // Act
+        List<Employee> employees = client.getAllEmployees().join();
+
+        // Assert
+        assertNull(acceptEncoding);
+        assertEquals(1, employees.size());
+        assertEquals(
+                0,
+                meterRegistry
+                        .get("employee.upstream.compression.ratio")
+                        .summary()
+                        .count());
+    }
+
+    @Test
+    void testSmileRosterIsParsedWhenAskedFor() {
+        // Arrange
+        encodingProperties.setFormat(UpstreamEncodingProperties.Format.SMILE);
+
+        // Act
+        List<Employee> employees = client.getAllEmployees().join();
+
+        // Assert
+        assertEquals("application/x-jackson-smile, application/json;q=0.9", accept);
+        assertEquals(1, employees.size());
+        assertEquals("John Doe", employees.get(0).getName());
+        assertEquals("john@example.com", employees.get(0).getEmail());
+    }
+
+    @Test
+    void testCallIsNotSentPastRequestDeadline() throws InterruptedException {
+        // Arrange
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofMillis(1));
+        Thread.sleep(5);
+
+        // Act
+        CompletionException exception;
+        try (RequestDeadline.Binding ignored = RequestDeadline.bind(deadline)) {
+            exception = assertThrows(
+                    CompletionException.class, () -> client.getAllEmployees().join());
+        }
+
+        // Assert
+        assertInstanceOf(DeadlineExceededException.class, exception.getCause());
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    void testTooManyRequestsFailsWithRetryAfter() {
+        // Arrange - retrying is left to the RetryAspect, so the client makes a single attempt
+        lockedOutRequests = 1;
+
+        // Act
+        CompletionException exception = assertThrows(
+                CompletionException.class, () -> client.getAllEmployees().join());
+
+        // Assert
+        HttpClientErrorException cause = assertInstanceOf(HttpClientErrorException.class, exception.getCause());
+        assertEquals(429, cause.getStatusCode().value());
+        assertEquals("0", cause.getResponseHeaders().getFirst("Retry-After"));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testOpenCircuitFailsFastWithoutReachingServer() {
+        // Arrange - two consecutive 429s open the circuit
+        lockedOutRequests = 2;
+        assertThrows(CompletionException.class, () -> client.getAllEmployees().join());
+        assertThrows(CompletionException.class, () -> client.getAllEmployees().join());
+
+        // Act
+        CompletionException exception = assertThrows(
+                CompletionException.class, () -> client.getAllEmployees().join());
+
+        // Assert
+        assertInstanceOf(UpstreamCircuitOpenException.class, exception.getCause());
+        assertEquals(UpstreamCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testUnknownIdCompletesWithNull() {
+        // Act & Assert
+        assertNull(
+                client.getEmployeeById("4a3a170b-22cd-4ac2-aad1-000000000000").join());
+        assertEquals(1, requests.get()); // A 404 is not retried
+    }
+
+    @Test
+    void testRateLimitedCallIsShedWithoutReachingServer() {
+        // Arrange - teach the limiter a budget of one request, which has already been spent
+        UpstreamRateLimiter rateLimiter = new UpstreamRateLimiter(new UpstreamRateLimitProperties(), Clock.systemUTC());
+        rateLimiter.tryAcquire(RequestPriority.BY_ID);
+        rateLimiter.onResponse(200);
+        rateLimiter.tryAcquire(RequestPriority.BY_ID);
+        rateLimiter.onResponse(429);
+        AsyncEmployeeClient limitedClient = newClient(rateLimiter);
+
+        // Act
+        CompletionException thrown = assertThrows(CompletionException.class, () -> limitedClient
+                .getEmployeeById("4a3a170b-22cd-4ac2-aad1-9bb5b34a1507")
+                .join());
+
+        // Assert
+        HttpClientErrorException cause = assertInstanceOf(HttpClientErrorException.class, thrown.getCause());
+        assertEquals(429, cause.getStatusCode().value());
+        assertNotNull(cause.getResponseHeaders().getFirst("Retry-After"));
+        assertEquals(0, requests.get());
+    }
+}
@@ -0,0 +1,74 @@
+package com.reliaquest.api.test.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.client.DeadlineAwareRequestFactory;
+import com.reliaquest.api.deadline.RequestDeadline;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+class DeadlineAwareRequestFactoryTest {
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Answers after a second
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "done".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/slow";
+
+        httpClient = HttpClients.createDefault();
+        restTemplate = new RestTemplate(new DeadlineAwareRequestFactory(httpClient, Duration.ofSeconds(5)));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testReadTimeoutShrinksToDeadline() {
+        // Arrange
+        long start = System.nanoTime();
+
+        // Act
+        try (RequestDeadline.Binding ignored = RequestDeadline.bind(RequestDeadline.after(Duration.ofMillis(200)))) {
+            assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(url, String.class));
+        }
+
+        // Assert - gave up at the deadline rather than the five second read timeout
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 900);
+    }
+
+    @Test
+    void testCallWithoutDeadlineKeepsReadTimeout() {
+        // Act & Assert
+        assertEquals("done", restTemplate.getForObject(url, String.class));
+    }
+}
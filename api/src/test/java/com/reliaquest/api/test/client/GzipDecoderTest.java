@@ -0,0 +1,101 @@
+package com.reliaquest.api.test.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.client.GzipDecoder;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import org.junit.jupiter.api.Test;
+
+class GzipDecoderTest {
+
+    private static final byte[] BODY =
+            "{\"data\":[{\"employee_name\":\"John Doe\"}]}".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    // Feeds the compressed body in chunks of the given size, as the HttpClient hands it over
+    private static byte[] decode(GzipDecoder decoder, byte[] compressed, int chunkSize) throws IOException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        for (int offset = 0; offset < compressed.length; offset += chunkSize) {
+            ByteBuffer chunk = ByteBuffer.wrap(
+                    Arrays.copyOfRange(compressed, offset, Math.min(compressed.length, offset + chunkSize)));
+            decoder.decode(chunk, out -> {
+                byte[] bytes = new byte[out.remaining()];
+                out.get(bytes);
+                decoded.write(bytes);
+            });
+        }
+        decoder.finish();
+        return decoded.toByteArray();
+    }
+
+    @Test
+    void testBodyIsDecodedWhateverTheChunkSize() throws IOException {
+        // Arrange
+        byte[] compressed = gzip(BODY);
+
+        // Act & Assert
+        for (int chunkSize : new int[] {1, 3, 11, 512, compressed.length}) {
+            GzipDecoder decoder = new GzipDecoder();
+            assertArrayEquals(BODY, decode(decoder, compressed, chunkSize), "chunk size " + chunkSize);
+            assertEquals(compressed.length, decoder.getCompressedBytes());
+            assertEquals(BODY.length, decoder.getDecompressedBytes());
+        }
+    }
+
+    @Test
+    void testOptionalHeaderFieldsAreSkipped() throws IOException {
+        // Arrange - a header with FEXTRA, FNAME and FCOMMENT set ahead of GZIPOutputStream's deflate data and trailer
+        byte[] plain = gzip(BODY);
+        ByteArrayOutputStream withFields = new ByteArrayOutputStream();
+        withFields.write(new byte[] {0x1f, (byte) 0x8b, 8, 4 | 8 | 16, 0, 0, 0, 0, 0, (byte) 0xff});
+        withFields.write(new byte[] {3, 0, 'x', 'y', 'z'});
+        withFields.write("roster.json\0".getBytes(StandardCharsets.ISO_8859_1));
+        withFields.write("comment\0".getBytes(StandardCharsets.ISO_8859_1));
+        withFields.write(plain, 10, plain.length - 10);
+
+        // Act & Assert
+        assertArrayEquals(BODY, decode(new GzipDecoder(), withFields.toByteArray(), 2));
+    }
+
+    @Test
+    void testTruncatedBodyFails() throws IOException {
+        // Arrange
+        byte[] compressed = gzip(BODY);
+
+        // Act & Assert
+        assertThrows(
+                EOFException.class,
+                () -> decode(new GzipDecoder(), Arrays.copyOf(compressed, compressed.length - 4), 64));
+    }
+
+    @Test
+    void testCorruptBodyFails() throws IOException {
+        // Arrange - flip a bit of the CRC in the trailer
+        byte[] compressed = gzip(BODY);
+        compressed[compressed.length - 8] ^= 1;
+
+        // Act & Assert
+        assertThrows(ZipException.class, () -> decode(new GzipDecoder(), compressed, 64));
+        assertThrows(ZipException.class, () -> decode(new GzipDecoder(), BODY, 64)); // Not gzip at all
+    }
+
+    @Test
+    void testEmptyBodyIsEmpty() throws IOException {
+        // Act & Assert
+        assertEquals(0, decode(new GzipDecoder(), new byte[0], 1).length);
+    }
+}
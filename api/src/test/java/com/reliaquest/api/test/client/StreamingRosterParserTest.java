@@ -0,0 +1,87 @@
+package com.reliaquest.api.test.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.client.StreamingRosterParser;
+import com.reliaquest.api.model.Employee;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+class StreamingRosterParserTest {
+
+    private static final String ROSTER = "{\"status\":\"Successfully processed request.\","
+            + "\"meta\":{\"data\":[{\"id\":\"not an employee\"}]},"
+            + "\"data\":[{\"id\":\"5255f1a5-f9f7-4be5-829a-134bde088d17\",\"employee_name\":\"John Doe\","
+            + "\"employee_salary\":50000,\"employee_age\":30,\"employee_title\":\"Developer\","
+            + "\"employee_email\":\"john@example.com\",\"tags\":[{\"kind\":\"unknown\"}]},"
+            + "null,"
+            + "{\"id\":\"a2c5e1f4-0d1b-4a0e-9c89-7a5c1a6f2b3e\",\"employee_name\":\"Jane Smith\","
+            + "\"employee_salary\":60000,\"employee_age\":28,\"employee_title\":\"Designer\","
+            + "\"employee_email\":\"jane@example.com\"}]}";
+
+    // Configured like the application's, which ignores fields it does not know
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    // Feeds the body in chunks of the given size, as the HttpClient hands it over
+    private List<Employee> parse(String body, int chunkSize) throws IOException {
+        return parse(objectMapper, body.getBytes(StandardCharsets.UTF_8), chunkSize);
+    }
+
+    private static List<Employee> parse(ObjectMapper mapper, byte[] bytes, int chunkSize) throws IOException {
+        StreamingRosterParser parser = new StreamingRosterParser(mapper);
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            parser.feed(ByteBuffer.wrap(Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + chunkSize))));
+        }
+        return parser.finish();
+    }
+
+    @Test
+    void testRosterIsParsedWhateverTheChunkSize() throws IOException {
+        // Act & Assert
+        for (int chunkSize : new int[] {1, 7, 64, ROSTER.length()}) {
+            List<Employee> employees = parse(ROSTER, chunkSize);
+            assertEquals(2, employees.size(), "chunk size " + chunkSize);
+            assertEquals("John Doe", employees.get(0).getName());
+            assertEquals(50000, employees.get(0).getSalary());
+            assertEquals("Jane Smith", employees.get(1).getName());
+            assertEquals("jane@example.com", employees.get(1).getEmail());
+        }
+    }
+
+    @Test
+    void testSmileRosterIsParsedWhateverTheChunkSize() throws IOException {
+        // Arrange
+        ObjectMapper smileMapper = new MappingJackson2SmileHttpMessageConverter().getObjectMapper();
+        byte[] smile = smileMapper.writeValueAsBytes(objectMapper.readTree(ROSTER));
+
+        // Act & Assert
+        for (int chunkSize : new int[] {1, 7, 64, smile.length}) {
+            List<Employee> employees = parse(smileMapper, smile, chunkSize);
+            assertEquals(2, employees.size(), "chunk size " + chunkSize);
+            assertEquals("John Doe", employees.get(0).getName());
+            assertEquals("jane@example.com", employees.get(1).getEmail());
+        }
+    }
+
+    @Test
+    void testBodyWithoutDataArrayYieldsNull() throws IOException {
+        // Act & Assert
+        assertNull(parse("{\"status\":\"ok\",\"data\":null}", 5));
+        assertNull(parse("{\"status\":\"ok\"}", 5));
+        assertTrue(parse("{\"data\":[]}", 5).isEmpty());
+    }
+
+    @Test
+    void testTruncatedBodyFails() {
+        // Act & Assert
+        assertThrows(JsonProcessingException.class, () -> parse(ROSTER.substring(0, ROSTER.length() / 2), 16));
+    }
+}
@@ -0,0 +1,164 @@
+package com.reliaquest.api.test.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.client.BulkheadFullException;
+import com.reliaquest.api.client.UpstreamBulkhead;
+import com.reliaquest.api.client.UpstreamBulkhead.Compartment;
+import com.reliaquest.api.config.UpstreamBulkheadProperties;
+import com.reliaquest.api.deadline.RequestDeadline;
+import com.reliaquest.api.retry.FailureClass;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UpstreamBulkheadTest {
+
+    private UpstreamBulkheadProperties properties;
+    private UpstreamBulkhead bulkhead;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new UpstreamBulkheadProperties();
+        properties.setRead(new UpstreamBulkheadProperties.Compartment(2, 1, Duration.ofSeconds(5)));
+        properties.setWrite(new UpstreamBulkheadProperties.Compartment(1, 0, Duration.ZERO));
+        properties.setRefresh(new UpstreamBulkheadProperties.Compartment(1, 0, Duration.ZERO));
+        bulkhead = new UpstreamBulkhead(properties);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testFullReadCompartmentDoesNotStarveWrites() throws Exception {
+        // Arrange - a burst of reads takes every read place
+        bulkhead.acquire(Compartment.READ);
+        bulkhead.acquire(Compartment.READ);
+
+        // Act
+        UpstreamBulkhead.Permit write = bulkhead.acquire(Compartment.WRITE);
+
+        // Assert
+        assertNotNull(write);
+        assertEquals(2, bulkhead.getActive(Compartment.READ));
+        assertEquals(1, bulkhead.getActive(Compartment.WRITE));
+    }
+
+    @Test
+    void testCallWaitsForPlaceWhileQueueHasRoom() throws Exception {
+        // Arrange
+        UpstreamBulkhead.Permit first = bulkhead.acquire(Compartment.READ);
+        bulkhead.acquire(Compartment.READ);
+
+        // Act
+        Future<UpstreamBulkhead.Permit> waiting = executor.submit(() -> bulkhead.acquire(Compartment.READ));
+        while (bulkhead.getWaiting(Compartment.READ) == 0) {
+            Thread.sleep(5);
+        }
+        first.close();
+
+        // Assert
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.getWaiting(Compartment.READ));
+        assertEquals(2, bulkhead.getActive(Compartment.READ));
+    }
+
+    @Test
+    void testCallIsRejectedWhenQueueIsFull() throws Exception {
+        // Arrange - both read places taken and the one queue place filled
+        bulkhead.acquire(Compartment.READ);
+        bulkhead.acquire(Compartment.READ);
+        executor.submit(() -> bulkhead.acquire(Compartment.READ));
+        while (bulkhead.getWaiting(Compartment.READ) == 0) {
+            Thread.sleep(5);
+        }
+
+        // Act
+        BulkheadFullException thrown =
+                assertThrows(BulkheadFullException.class, () -> bulkhead.acquire(Compartment.READ));
+
+        // Assert
+        assertEquals(Compartment.READ, thrown.getCompartment());
+        assertEquals(FailureClass.PERMANENT, FailureClass.of(thrown)); // Not retried into the full queue
+    }
+
+    @Test
+    void testWaitIsCutShortByRequestDeadline() throws Exception {
+        // Arrange
+        bulkhead.acquire(Compartment.READ);
+        bulkhead.acquire(Compartment.READ);
+        long start = System.nanoTime();
+
+        // Act
+        try (RequestDeadline.Binding ignored = RequestDeadline.bind(RequestDeadline.after(Duration.ofMillis(100)))) {
+            assertThrows(BulkheadFullException.class, () -> bulkhead.acquire(Compartment.READ));
+        }
+
+        // Assert - gave up at the deadline rather than the five second max wait
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+    }
+
+    @Test
+    void testNonBlockingAcquireNeverWaits() throws Exception {
+        // Arrange
+        bulkhead.acquire(Compartment.READ);
+        bulkhead.acquire(Compartment.READ);
+
+        // Act & Assert
+        assertThrows(BulkheadFullException.class, () -> bulkhead.tryAcquire(Compartment.READ));
+        assertEquals(0, bulkhead.getWaiting(Compartment.READ));
+    }
+
+    @Test
+    void testPermitIsGivenBackOnce() throws Exception {
+        // Arrange
+        UpstreamBulkhead.Permit permit = bulkhead.acquire(Compartment.WRITE);
+
+        // Act
+        permit.close();
+        permit.close();
+
+        // Assert
+        assertEquals(0, bulkhead.getActive(Compartment.WRITE));
+        bulkhead.acquire(Compartment.WRITE);
+        assertThrows(BulkheadFullException.class, () -> bulkhead.acquire(Compartment.WRITE));
+    }
+
+    @Test
+    void testCallsAreClassifiedByMethodAndRefresh() throws Exception {
+        // Act & Assert
+        assertEquals(Compartment.READ, UpstreamBulkhead.compartmentOf("GET"));
+        assertEquals(Compartment.WRITE, UpstreamBulkhead.compartmentOf("POST"));
+        assertEquals(Compartment.WRITE, UpstreamBulkhead.compartmentOf("DELETE"));
+        Supplier<Compartment> classify;
+        try (UpstreamBulkhead.Binding ignored = UpstreamBulkhead.bindRefresh()) {
+            assertEquals(Compartment.REFRESH, UpstreamBulkhead.compartmentOf("GET"));
+            assertEquals(Compartment.WRITE, UpstreamBulkhead.compartmentOf("DELETE"));
+            classify = UpstreamBulkhead.propagate(() -> UpstreamBulkhead.compartmentOf("GET"));
+        }
+        assertEquals(Compartment.READ, UpstreamBulkhead.compartmentOf("GET"));
+        assertEquals(Compartment.REFRESH, executor.submit(classify::get).get()); // Still a refresh on another thread
+    }
+
+    @Test
+    void testDisabledBulkheadNeverRejects() throws Exception {
+        // Arrange
+        properties.setEnabled(false);
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertDoesNotThrow(() -> bulkhead.acquire(Compartment.WRITE));
+            assertDoesNotThrow(() -> bulkhead.tryAcquire(Compartment.REFRESH));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.reliaquest.api.test.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.client.UpstreamCircuitBreaker;
+import com.reliaquest.api.client.UpstreamCircuitOpenException;
+import com.reliaquest.api.config.UpstreamCircuitBreakerProperties;
+import com.reliaquest.api.retry.FailureClass;
+import com.reliaquest.api.test.MutableClock;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UpstreamCircuitBreakerTest {
+
+    private MutableClock clock;
+    private UpstreamCircuitBreakerProperties properties;
+    private UpstreamCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        properties = new UpstreamCircuitBreakerProperties();
+        properties.setFailureThreshold(3);
+        properties.setOpenDuration(Duration.ofSeconds(5));
+        circuitBreaker = new UpstreamCircuitBreaker(properties, clock);
+    }
+
+    // Sends one permitted call that the server answers with the given status
+    private void send(int status) {
+        assertEquals(0, circuitBreaker.tryAcquire());
+        circuitBreaker.onResponse(status);
+    }
+
+    private void open() {
+        send(429);
+        send(503);
+        send(429);
+    }
+
+    @Test
+    void testConsecutiveFailuresOpenTheCircuit() {
+        // Act
+        open();
+
+        // Assert
+        assertEquals(UpstreamCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(5000, circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void testSuccessResetsTheFailureCount() {
+        // Act
+        send(429);
+        send(500);
+        send(200);
+        send(429);
+        send(500);
+
+        // Assert
+        assertEquals(UpstreamCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void testClientErrorsOtherThanTooManyRequestsDoNotCount() {
+        // Act
+        for (int i = 0; i < 5; i++) {
+            send(404);
+        }
+
+        // Assert
+        assertEquals(UpstreamCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void testSingleProbeIsLetThroughAfterOpenDuration() {
+        // Arrange
+        open();
+        clock.advance(Duration.ofSeconds(5));
+
+        // Act
+        long probe = circuitBreaker.tryAcquire();
+
+        // Assert
+        assertEquals(0, probe);
+        assertEquals(UpstreamCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire() > 0); // Only one probe at a time
+    }
+
+    @Test
+    void testSuccessfulProbeClosesTheCircuit() {
+        // Arrange
+        open();
+        clock.advance(Duration.ofSeconds(5));
+
+        // Act
+        send(200);
+
+        // Assert
+        assertEquals(UpstreamCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void testFailedProbeReopensTheCircuit() {
+        // Arrange
+        open();
+        clock.advance(Duration.ofSeconds(5));
+
+        // Act
+        send(429);
+
+        // Assert
+        assertEquals(UpstreamCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(5000, circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void testReleasedProbeLetsTheNextCallProbe() {
+        // Arrange - the probe was shed on the client side and never reached the server
+        open();
+        clock.advance(Duration.ofSeconds(5));
+        assertEquals(0, circuitBreaker.tryAcquire());
+
+        // Act
+        circuitBreaker.release();
+
+        // Assert
+        assertEquals(0, circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void testResponseToCallSentBeforeOpeningDoesNotCloseTheCircuit() {
+        // Arrange
+        assertEquals(0, circuitBreaker.tryAcquire()); // In flight while the circuit opens
+        open();
+
+        // Act
+        circuitBreaker.onResponse(200);
+
+        // Assert
+        assertEquals(UpstreamCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void testDisabledCircuitNeverOpens() {
+        // Arrange
+        properties.setEnabled(false);
+
+        // Act
+        open();
+
+        // Assert
+        assertEquals(UpstreamCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void testRejectionIsNotRetried() {
+        // Act
+        UpstreamCircuitOpenException rejection = UpstreamCircuitBreaker.rejection(1500);
+
+        // Assert
+        assertEquals(1500, rejection.getRetryAfterMillis());
+        assertEquals(FailureClass.PERMANENT, FailureClass.of(rejection));
+    }
+}
@@ -0,0 +1,119 @@
+package com.reliaquest.api.test.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.reliaquest.api.client.UpstreamCompression;
+import com.reliaquest.api.client.UpstreamCompressionInterceptor;
+import com.reliaquest.api.config.UpstreamCompressionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+class UpstreamCompressionInterceptorTest {
+
+    private static final String ROSTER = "{\"data\":[" + "{\"employee_name\":\"John Doe\"},".repeat(100) + "{}]}";
+
+    private final UpstreamCompressionProperties properties = new UpstreamCompressionProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpstreamCompressionInterceptor interceptor =
+            new UpstreamCompressionInterceptor(new UpstreamCompression(properties, meterRegistry));
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+
+    private static ClientHttpResponse gzipResponse() throws IOException {
+        MockClientHttpResponse response = new MockClientHttpResponse(gzip(ROSTER), HttpStatus.OK);
+        response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.getHeaders().setContentLength(123);
+        return response;
+    }
+
+    @Test
+    void testGzipIsAskedForAndResponseDecompressed() throws IOException {
+        // Arrange
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/x"));
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        ClientHttpResponse compressed = gzipResponse();
+        when(execution.execute(request, new byte[0])).thenReturn(compressed);
+
+        // Act
+        String body;
+        try (ClientHttpResponse response = interceptor.intercept(request, new byte[0], execution)) {
+            body = new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+
+            // Assert
+            assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            assertEquals(-1, response.getHeaders().getContentLength());
+        }
+        assertEquals("gzip", request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals(ROSTER, body);
+        assertTrue(meterRegistry
+                        .get("employee.upstream.compression.ratio")
+                        .summary()
+                        .mean()
+                > 1);
+    }
+
+    @Test
+    void testBodyLeftUnreadIsMeasuredOnClose() throws IOException {
+        // Arrange - a parser stops at the closing bracket, ahead of the gzip trailer
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/x"));
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        when(execution.execute(request, new byte[0])).thenReturn(gzipResponse());
+
+        // Act
+        try (ClientHttpResponse response = interceptor.intercept(request, new byte[0], execution)) {
+            InputStream body = response.getBody();
+            assertEquals('{', body.read());
+        }
+
+        // Assert
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("employee.upstream.compression.ratio")
+                        .summary()
+                        .count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("employee.upstream.compression.inflate")
+                        .timer()
+                        .count());
+    }
+
+    @Test
+    void testNothingIsAskedForWhenDisabled() throws IOException {
+        // Arrange
+        properties.setEnabled(false);
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/x"));
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        ClientHttpResponse plain = new MockClientHttpResponse(ROSTER.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+        when(execution.execute(request, new byte[0])).thenReturn(plain);
+
+        // Act
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0], execution);
+
+        // Assert
+        assertSame(plain, response);
+        assertNull(request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+    }
+}
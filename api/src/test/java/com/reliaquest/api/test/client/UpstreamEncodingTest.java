@@ -0,0 +1,59 @@
+package com.reliaquest.api.test.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.client.UpstreamEncoding;
+import com.reliaquest.api.client.UpstreamEncodingInterceptor;
+import com.reliaquest.api.config.UpstreamEncodingProperties;
+import java.io.IOException;
+import java.net.URI;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+
+class UpstreamEncodingTest {
+
+    private final UpstreamEncodingProperties properties = new UpstreamEncodingProperties();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final MappingJackson2SmileHttpMessageConverter smileConverter =
+            new MappingJackson2SmileHttpMessageConverter();
+    private final UpstreamEncoding encoding = new UpstreamEncoding(properties, objectMapper, smileConverter);
+
+    @Test
+    void testJsonIsAskedForByDefault() throws IOException {
+        // Arrange - the RestTemplate's own Accept lists every encoding its converters read
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/x"));
+        request.getHeaders().set(HttpHeaders.ACCEPT, "application/json, application/x-jackson-smile");
+
+        // Act
+        new UpstreamEncodingInterceptor(encoding)
+                .intercept(request, new byte[0], mock(ClientHttpRequestExecution.class));
+
+        // Assert
+        assertEquals("application/json", request.getHeaders().getFirst(HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void testSmileIsAskedForWithJsonAsFallback() {
+        // Arrange
+        properties.setFormat(UpstreamEncodingProperties.Format.SMILE);
+
+        // Act & Assert
+        assertEquals("application/x-jackson-smile, application/json;q=0.9", encoding.accept());
+    }
+
+    @Test
+    void testResponseIsReadInTheEncodingOfItsContentType() {
+        // Act & Assert
+        assertSame(smileConverter.getObjectMapper(), encoding.mapperFor("application/x-jackson-smile"));
+        assertSame(objectMapper, encoding.mapperFor("application/json;charset=UTF-8"));
+        assertSame(objectMapper, encoding.mapperFor(null));
+        assertSame(objectMapper, encoding.mapperFor("not a media type"));
+    }
+}
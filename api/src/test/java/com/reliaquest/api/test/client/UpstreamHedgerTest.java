@@ -0,0 +1,229 @@
+package com.reliaquest.api.test.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.client.RequestPriority;
+import com.reliaquest.api.client.UpstreamHedger;
+import com.reliaquest.api.client.UpstreamRateLimiter;
+import com.reliaquest.api.config.UpstreamHedgeProperties;
+import com.reliaquest.api.config.UpstreamRateLimitProperties;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.test.MutableClock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+class UpstreamHedgerTest {
+
+    private MutableClock clock;
+    private UpstreamRateLimiter rateLimiter;
+    private UpstreamHedgeProperties properties;
+    private UpstreamHedger hedger;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        rateLimiter = new UpstreamRateLimiter(new UpstreamRateLimitProperties(), clock);
+        properties = new UpstreamHedgeProperties();
+        properties.setEnabled(true);
+        properties.setDelay(Duration.ofMillis(50));
+        hedger = new UpstreamHedger(properties, rateLimiter, new VirtualThreadSupport(false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedger.shutdown();
+    }
+
+    // Teaches the limiter a budget of ten requests and starts a new window with one of them used
+    private void learnBudget() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(RequestPriority.BY_ID));
+            rateLimiter.onResponse(200);
+        }
+        assertEquals(0, rateLimiter.tryAcquire(RequestPriority.BY_ID));
+        rateLimiter.onResponse(429);
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(0, rateLimiter.tryAcquire(RequestPriority.BY_ID));
+        rateLimiter.onResponse(200);
+    }
+
+    // First call never completes, later ones complete right away
+    private CompletableFuture<String> firstCallHangs() {
+        return calls.incrementAndGet() == 1
+                ? new CompletableFuture<>()
+                : CompletableFuture.completedFuture("hedge " + calls.get());
+    }
+
+    @Test
+    void testSlowReadIsHedgedAndHedgeWins() {
+        // Arrange
+        learnBudget();
+
+        // Act
+        String result =
+                hedger.hedgeAsync(RequestPriority.BY_ID, this::firstCallHangs).join();
+
+        // Assert
+        assertEquals("hedge 2", result);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testHedgeIsNotSentWithoutSpareBudget() {
+        // Arrange - the budget has not been learned, so an extra request might be the one that trips the lockout
+        CompletableFuture<String> primary = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<String> result = hedger.hedgeAsync(RequestPriority.BY_ID, () -> {
+            calls.incrementAndGet();
+            return primary;
+        });
+        primary.completeOnTimeout("primary", 200, TimeUnit.MILLISECONDS);
+
+        // Assert
+        assertEquals("primary", result.join());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testFastReadIsNotHedged() throws InterruptedException {
+        // Arrange
+        learnBudget();
+
+        // Act
+        String result = hedger.hedgeAsync(RequestPriority.BULK, () -> {
+                    calls.incrementAndGet();
+                    return CompletableFuture.completedFuture("primary");
+                })
+                .join();
+        Thread.sleep(100); // Past the hedge delay
+
+        // Assert
+        assertEquals("primary", result);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testFailedReadWaitsForHedge() {
+        // Arrange
+        learnBudget();
+        CompletableFuture<String> primary = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<String> result = hedger.hedgeAsync(RequestPriority.BY_ID, () -> {
+            if (calls.incrementAndGet() == 1) {
+                return primary;
+            }
+            // The first read fails while the hedge is outstanding
+            primary.completeExceptionally(new HttpClientErrorException(HttpStatus.BAD_GATEWAY));
+            return CompletableFuture.supplyAsync(() -> "hedge");
+        });
+
+        // Assert
+        assertEquals("hedge", result.join());
+    }
+
+    @Test
+    void testBothReadsFailingFailsWithFirstReadsFailure() {
+        // Arrange
+        learnBudget();
+        CompletableFuture<String> primary = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<String> result = hedger.hedgeAsync(RequestPriority.BY_ID, () -> {
+            if (calls.incrementAndGet() == 1) {
+                return primary;
+            }
+            primary.completeExceptionally(new HttpClientErrorException(HttpStatus.BAD_GATEWAY));
+            return CompletableFuture.failedFuture(new HttpClientErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+        });
+
+        // Assert
+        CompletionException thrown = assertThrows(CompletionException.class, result::join);
+        HttpClientErrorException cause = assertInstanceOf(HttpClientErrorException.class, thrown.getCause());
+        assertEquals(502, cause.getStatusCode().value());
+    }
+
+    @Test
+    void testBlockingReadIsHedged() {
+        // Arrange
+        learnBudget();
+
+        // Act
+        long start = System.nanoTime();
+        String result = hedger.hedge(RequestPriority.BULK, () -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(2000);
+                return "primary";
+            }
+            return "hedge";
+        });
+
+        // Assert
+        assertEquals("hedge", result);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+    }
+
+    @Test
+    void testBlockingReadFailureIsRethrownUnwrapped() {
+        // Act & Assert
+        HttpClientErrorException thrown = assertThrows(
+                HttpClientErrorException.class,
+                () -> hedger.hedge(RequestPriority.BY_ID, () -> {
+                    throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+                }));
+        assertEquals(404, thrown.getStatusCode().value());
+    }
+
+    @Test
+    void testObservedPercentileIsUsedOnceEnoughReadsAreSeen() {
+        // Arrange
+        properties.setDelay(null);
+        properties.setMinSamples(5);
+        properties.setMinDelay(Duration.ofMillis(25));
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(-1, hedger.getHedgeDelayMillis(RequestPriority.BY_ID));
+            hedger.hedge(RequestPriority.BY_ID, () -> "fast");
+        }
+        assertEquals(25, hedger.getHedgeDelayMillis(RequestPriority.BY_ID)); // Quick reads are floored at min delay
+        assertEquals(-1, hedger.getHedgeDelayMillis(RequestPriority.BULK)); // Each kind of read has its own latencies
+    }
+
+    @Test
+    void testDisabledHedgerMakesASingleCall() {
+        // Arrange
+        learnBudget();
+        properties.setEnabled(false);
+        CompletableFuture<String> primary = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<String> result = hedger.hedgeAsync(RequestPriority.BY_ID, () -> {
+            calls.incrementAndGet();
+            return primary;
+        });
+
+        // Assert
+        assertSame(primary, result);
+        assertEquals(-1, hedger.getHedgeDelayMillis(RequestPriority.BY_ID));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.reliaquest.api.test.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.client.RequestPriority;
+import com.reliaquest.api.client.UpstreamRateLimiter;
+import com.reliaquest.api.config.UpstreamRateLimitProperties;
+import com.reliaquest.api.test.MutableClock;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.HttpClientErrorException;
+
+class UpstreamRateLimiterTest {
+
+    private MutableClock clock;
+    private UpstreamRateLimitProperties properties;
+    private UpstreamRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        properties = new UpstreamRateLimitProperties();
+        properties.setMaxQueueWait(Duration.ofMillis(20));
+        rateLimiter = new UpstreamRateLimiter(properties, clock);
+    }
+
+    // Sends one permitted request that the server answers with the given status
+    private void send(RequestPriority priority, int status) {
+        assertEquals(0, rateLimiter.tryAcquire(priority));
+        rateLimiter.onResponse(status);
+    }
+
+    // Uses a budget of three and a lockout of 40s, then returns at the start of the next window
+    private void learnBudgetAndLockout() {
+        for (int i = 0; i < 3; i++) {
+            send(RequestPriority.BY_ID, 200);
+        }
+        clock.advance(Duration.ofSeconds(1));
+        send(RequestPriority.BY_ID, 429);
+        clock.advance(Duration.ofSeconds(39));
+        send(RequestPriority.BY_ID, 200); // Ends the lockout and opens a new window
+    }
+
+    @Test
+    void testCallsAreNotHeldBackUntilBudgetIsLearned() {
+        // Act & Assert
+        for (int i = 0; i < 20; i++) {
+            send(RequestPriority.BULK, 200);
+        }
+        assertEquals(-1, rateLimiter.getBudget());
+        assertNull(rateLimiter.getLockout());
+    }
+
+    @Test
+    void testBudgetIsLearnedFromTooManyRequests() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            send(RequestPriority.BY_ID, 200);
+        }
+
+        // Act
+        send(RequestPriority.BY_ID, 429);
+
+        // Assert - locked out, with a probe allowed one probe interval after the last accepted request
+        assertEquals(3, rateLimiter.getBudget());
+        assertEquals(5000, rateLimiter.tryAcquire(RequestPriority.WRITE));
+        clock.advance(Duration.ofSeconds(5));
+        assertEquals(0, rateLimiter.tryAcquire(RequestPriority.WRITE));
+        assertTrue(rateLimiter.tryAcquire(RequestPriority.WRITE) > 0); // Only one probe at a time
+    }
+
+    @Test
+    void testLockoutIsLearnedFromFirstAcceptedRequest() {
+        // Act
+        learnBudgetAndLockout();
+
+        // Assert
+        assertEquals(Duration.ofSeconds(40), rateLimiter.getLockout());
+    }
+
+    @Test
+    void testSpentBudgetHoldsCallsForLearnedLockoutWithoutAsking() {
+        // Arrange - the request that ended the lockout was the first of the new window
+        learnBudgetAndLockout();
+        send(RequestPriority.WRITE, 200);
+        send(RequestPriority.WRITE, 200);
+
+        // Act
+        long delay = rateLimiter.tryAcquire(RequestPriority.WRITE);
+
+        // Assert
+        assertEquals(Duration.ofSeconds(40).toMillis(), delay);
+        clock.advance(Duration.ofSeconds(40));
+        assertEquals(0, rateLimiter.tryAcquire(RequestPriority.WRITE));
+    }
+
+    @Test
+    void testEndOfBudgetIsReservedForWritesAndLookups() {
+        // Arrange - a budget of five has two left after the request that opened the new window and two bulk loads
+        properties.setBulkReserve(2);
+        for (int i = 0; i < 5; i++) {
+            send(RequestPriority.BULK, 200);
+        }
+        send(RequestPriority.BULK, 429);
+        clock.advance(Duration.ofSeconds(30));
+        send(RequestPriority.BY_ID, 200);
+        send(RequestPriority.BULK, 200);
+        send(RequestPriority.BULK, 200);
+
+        // Act
+        long bulkDelay = rateLimiter.tryAcquire(RequestPriority.BULK);
+
+        // Assert
+        assertEquals(properties.getReserveHold().toMillis(), bulkDelay);
+        send(RequestPriority.WRITE, 200);
+        clock.advance(properties.getReserveHold());
+        assertEquals(0, rateLimiter.tryAcquire(RequestPriority.BULK)); // Released once the upstream sat idle
+    }
+
+    @Test
+    void testQueuedCallIsShedAfterMaxQueueWait() throws InterruptedException {
+        // Arrange
+        learnBudgetAndLockout();
+        send(RequestPriority.WRITE, 200);
+        send(RequestPriority.WRITE, 200);
+
+        // Act
+        long delay = rateLimiter.acquire(RequestPriority.WRITE);
+
+        // Assert
+        assertTrue(delay > 0);
+    }
+
+    @Test
+    void testSpareCapacityOnlyWithRoomBeyondReserve() {
+        // Arrange - nothing is known about the budget yet
+        assertFalse(rateLimiter.hasSpareCapacity());
+        learnBudgetAndLockout(); // One of the three requests of the new window is used, so two remain
+
+        // Act & Assert
+        assertFalse(rateLimiter.hasSpareCapacity()); // The two left are the reserve
+        properties.setBulkReserve(1);
+        assertTrue(rateLimiter.hasSpareCapacity());
+        assertEquals(0, rateLimiter.tryAcquire(RequestPriority.BY_ID));
+        assertFalse(rateLimiter.hasSpareCapacity()); // Requests in flight count
+    }
+
+    @Test
+    void testDisabledLimiterLetsEverythingThrough() {
+        // Arrange
+        properties.setEnabled(false);
+
+        // Act & Assert
+        send(RequestPriority.BULK, 429);
+        send(RequestPriority.BULK, 429);
+        assertEquals(-1, rateLimiter.getBudget());
+    }
+
+    @Test
+    void testRejectionCarriesRetryAfterInSeconds() {
+        // Act
+        HttpClientErrorException rejection = UpstreamRateLimiter.rejection(4200);
+
+        // Assert
+        assertEquals(429, rejection.getStatusCode().value());
+        assertEquals("5", rejection.getResponseHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    void testRequestPriorityClassification() {
+        // Act & Assert
+        String base = "/api/v1/employee";
+        assertEquals(RequestPriority.BULK, RequestPriority.of(HttpMethod.GET, "/api/v1/employee", base));
+        assertEquals(RequestPriority.BY_ID, RequestPriority.of(HttpMethod.GET, "/api/v1/employee/42", base));
+        assertEquals(RequestPriority.WRITE, RequestPriority.of(HttpMethod.POST, "/api/v1/employee", base));
+        assertEquals(RequestPriority.WRITE, RequestPriority.of(HttpMethod.DELETE, "/api/v1/employee", base));
+    }
+}
@@ -3,17 +3,32 @@ package com.reliaquest.api.test.config;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.reliaquest.api.client.DeadlineAwareRequestFactory;
+import com.reliaquest.api.client.UpstreamBulkheadInterceptor;
+import com.reliaquest.api.client.UpstreamCircuitBreakerInterceptor;
+import com.reliaquest.api.client.UpstreamCompressionInterceptor;
+import com.reliaquest.api.client.UpstreamDeadlineInterceptor;
+import com.reliaquest.api.client.UpstreamEncodingInterceptor;
+import com.reliaquest.api.client.UpstreamRateLimitInterceptor;
 import com.reliaquest.api.config.RestTemplateConfig;
+import com.reliaquest.api.config.UpstreamPoolProperties;
 import com.reliaquest.api.error.CustomResponseErrorHandler;
 import com.reliaquest.api.logger.LoggingInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.lang.reflect.Field;
 import java.time.Duration;
+import java.util.function.Function;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 class RestTemplateConfigTest {
@@ -30,16 +45,50 @@ class RestTemplateConfigTest {
     @Mock
     private LoggingInterceptor loggingInterceptor; // Mock for LoggingInterceptor
 
+    @Mock
+    private UpstreamDeadlineInterceptor deadlineInterceptor; // Mock for the request deadline interceptor
+
+    @Mock
+    private UpstreamBulkheadInterceptor bulkheadInterceptor; // Mock for the bulkhead interceptor
+
+    @Mock
+    private UpstreamCircuitBreakerInterceptor circuitBreakerInterceptor; // Mock for the circuit breaker interceptor
+
+    @Mock
+    private UpstreamRateLimitInterceptor rateLimitInterceptor; // Mock for the client side rate limiting interceptor
+
+    @Mock
+    private UpstreamEncodingInterceptor encodingInterceptor; // Mock for the JSON or Smile negotiating interceptor
+
+    @Mock
+    private UpstreamCompressionInterceptor compressionInterceptor; // Mock for the gzip negotiating interceptor
+
+    @Mock
+    private CloseableHttpClient upstreamHttpClient; // Mock for the pooled HttpClient
+
     @Mock
     private RestTemplate restTemplate;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(restTemplateBuilder.requestFactory(any(Function.class))).thenReturn(restTemplateBuilder);
         when(restTemplateBuilder.setConnectTimeout(any(Duration.class))).thenReturn(restTemplateBuilder);
         when(restTemplateBuilder.setReadTimeout(any(Duration.class))).thenReturn(restTemplateBuilder);
         when(restTemplateBuilder.additionalInterceptors(any(LoggingInterceptor.class)))
                 .thenReturn(restTemplateBuilder);
+        when(restTemplateBuilder.additionalInterceptors(any(UpstreamDeadlineInterceptor.class)))
+                .thenReturn(restTemplateBuilder);
+        when(restTemplateBuilder.additionalInterceptors(any(UpstreamBulkheadInterceptor.class)))
+                .thenReturn(restTemplateBuilder);
+        when(restTemplateBuilder.additionalInterceptors(any(UpstreamCircuitBreakerInterceptor.class)))
+                .thenReturn(restTemplateBuilder);
+        when(restTemplateBuilder.additionalInterceptors(any(UpstreamRateLimitInterceptor.class)))
+                .thenReturn(restTemplateBuilder);
+        when(restTemplateBuilder.additionalInterceptors(any(UpstreamEncodingInterceptor.class)))
+                .thenReturn(restTemplateBuilder);
+        when(restTemplateBuilder.additionalInterceptors(any(UpstreamCompressionInterceptor.class)))
+                .thenReturn(restTemplateBuilder);
         when(restTemplateBuilder.errorHandler(any(CustomResponseErrorHandler.class)))
                 .thenReturn(restTemplateBuilder);
         when(restTemplateBuilder.build()).thenReturn(restTemplate);
@@ -51,10 +100,18 @@ class RestTemplateConfigTest {
         RestTemplate result = restTemplateConfig.restTemplate(
                 restTemplateBuilder,
                 errorHandler,
-                loggingInterceptor); // Pass the error handler and logging interceptor
+                loggingInterceptor,
+                upstreamHttpClient,
+                deadlineInterceptor,
+                bulkheadInterceptor,
+                circuitBreakerInterceptor,
+                rateLimitInterceptor,
+                encodingInterceptor,
+                compressionInterceptor); // Pass the error handler, interceptors and pooled client
 
         // Assert
         assertNotNull(result);
+        verify(restTemplateBuilder).requestFactory(any(Function.class));
         verify(restTemplateBuilder).setConnectTimeout(any(Duration.class));
         verify(restTemplateBuilder).setReadTimeout(any(Duration.class));
         verify(restTemplateBuilder)
@@ -73,7 +130,14 @@ class RestTemplateConfigTest {
         restTemplateConfig.restTemplate(
                 restTemplateBuilder,
                 errorHandler,
-                loggingInterceptor); // Pass the error handler and logging interceptor
+                loggingInterceptor,
+                upstreamHttpClient,
+                deadlineInterceptor,
+                bulkheadInterceptor,
+                circuitBreakerInterceptor,
+                rateLimitInterceptor,
+                encodingInterceptor,
+                compressionInterceptor); // Pass the error handler, interceptors and pooled client
 
         // Assert
         verify(restTemplateBuilder).setConnectTimeout(Duration.ofSeconds(expectedConnectTimeout));
@@ -89,7 +153,14 @@ class RestTemplateConfigTest {
         restTemplateConfig.restTemplate(
                 restTemplateBuilder,
                 errorHandler,
-                loggingInterceptor); // Pass the error handler and logging interceptor
+                loggingInterceptor,
+                upstreamHttpClient,
+                deadlineInterceptor,
+                bulkheadInterceptor,
+                circuitBreakerInterceptor,
+                rateLimitInterceptor,
+                encodingInterceptor,
+                compressionInterceptor); // Pass the error handler, interceptors and pooled client
 
         // Assert
         verify(restTemplateBuilder).setReadTimeout(Duration.ofSeconds(expectedReadTimeout));
@@ -101,20 +172,98 @@ class RestTemplateConfigTest {
         restTemplateConfig.restTemplate(
                 restTemplateBuilder,
                 errorHandler,
-                loggingInterceptor); // Pass the error handler and logging interceptor
+                loggingInterceptor,
+                upstreamHttpClient,
+                deadlineInterceptor,
+                bulkheadInterceptor,
+                circuitBreakerInterceptor,
+                rateLimitInterceptor,
+                encodingInterceptor,
+                compressionInterceptor); // Pass the error handler, interceptors and pooled client
 
         // Assert
         verify(restTemplateBuilder)
                 .additionalInterceptors(loggingInterceptor); // Verify the specific logging interceptor
     }
 
+    @Test
+    void testRateLimitInterceptorAdded() {
+        // Act
+        restTemplateConfig.restTemplate(
+                restTemplateBuilder,
+                errorHandler,
+                loggingInterceptor,
+                upstreamHttpClient,
+                deadlineInterceptor,
+                bulkheadInterceptor,
+                circuitBreakerInterceptor,
+                rateLimitInterceptor,
+                encodingInterceptor,
+                compressionInterceptor);
+
+        // Assert
+        verify(restTemplateBuilder).additionalInterceptors(rateLimitInterceptor);
+    }
+
+    @Test
+    void testDeadlineBulkheadAndCircuitBreakerInterceptorsAddedAheadOfRateLimiter() {
+        // Act
+        restTemplateConfig.restTemplate(
+                restTemplateBuilder,
+                errorHandler,
+                loggingInterceptor,
+                upstreamHttpClient,
+                deadlineInterceptor,
+                bulkheadInterceptor,
+                circuitBreakerInterceptor,
+                rateLimitInterceptor,
+                encodingInterceptor,
+                compressionInterceptor);
+
+        // Assert - interceptors run in the order they are added
+        InOrder inOrder = inOrder(restTemplateBuilder);
+        inOrder.verify(restTemplateBuilder).additionalInterceptors(deadlineInterceptor);
+        inOrder.verify(restTemplateBuilder).additionalInterceptors(bulkheadInterceptor);
+        inOrder.verify(restTemplateBuilder).additionalInterceptors(circuitBreakerInterceptor);
+        inOrder.verify(restTemplateBuilder).additionalInterceptors(rateLimitInterceptor);
+    }
+
+    @Test
+    void testCompressionInterceptorAddedLast() {
+        // Act
+        restTemplateConfig.restTemplate(
+                restTemplateBuilder,
+                errorHandler,
+                loggingInterceptor,
+                upstreamHttpClient,
+                deadlineInterceptor,
+                bulkheadInterceptor,
+                circuitBreakerInterceptor,
+                rateLimitInterceptor,
+                encodingInterceptor,
+                compressionInterceptor);
+
+        // Assert - innermost, so every other interceptor sees the decompressed response
+        InOrder inOrder = inOrder(restTemplateBuilder);
+        inOrder.verify(restTemplateBuilder).additionalInterceptors(rateLimitInterceptor);
+        inOrder.verify(restTemplateBuilder).additionalInterceptors(encodingInterceptor);
+        inOrder.verify(restTemplateBuilder).additionalInterceptors(compressionInterceptor);
+    }
+
     @Test
     void testCustomErrorHandlerAdded() {
         // Act
         restTemplateConfig.restTemplate(
                 restTemplateBuilder,
                 errorHandler,
-                loggingInterceptor); // Pass the error handler and logging interceptor
+                loggingInterceptor,
+                upstreamHttpClient,
+                deadlineInterceptor,
+                bulkheadInterceptor,
+                circuitBreakerInterceptor,
+                rateLimitInterceptor,
+                encodingInterceptor,
+                compressionInterceptor); // Pass the error handler, interceptors and pooled client
 
         // Assert
         verify(restTemplateBuilder).errorHandler(errorHandler); // Verify the specific error handler
@@ -126,7 +275,14 @@ class RestTemplateConfigTest {
         RestTemplate result = restTemplateConfig.restTemplate(
                 restTemplateBuilder,
                 errorHandler,
-                loggingInterceptor); // Pass the error handler and logging interceptor
+                loggingInterceptor,
+                upstreamHttpClient,
+                deadlineInterceptor,
+                bulkheadInterceptor,
+                circuitBreakerInterceptor,
+                rateLimitInterceptor,
+                encodingInterceptor,
+                compressionInterceptor); // Pass the error handler, interceptors and pooled client
 
         // Assert
         assertNotNull(result);
@@ -142,7 +298,14 @@ class RestTemplateConfigTest {
         RestTemplate result = restTemplateConfig.restTemplate(
                 restTemplateBuilder,
                 errorHandler,
-                loggingInterceptor); // Pass the error handler and logging interceptor
+                loggingInterceptor,
+                upstreamHttpClient,
+                deadlineInterceptor,
+                bulkheadInterceptor,
+                circuitBreakerInterceptor,
+                rateLimitInterceptor,
+                encodingInterceptor,
+                compressionInterceptor); // Pass the error handler, interceptors and pooled client
 
         // Assert
         assertNotNull(result);
@@ -150,6 +313,61 @@ class RestTemplateConfigTest {
         verify(restTemplateBuilder).setReadTimeout(Duration.ofSeconds(30));
     }
 
+    @Test
+    void testPooledRequestFactoryUsed() {
+        // Act
+        restTemplateConfig.restTemplate(
+                restTemplateBuilder,
+                errorHandler,
+                loggingInterceptor,
+                upstreamHttpClient,
+                deadlineInterceptor,
+                bulkheadInterceptor,
+                circuitBreakerInterceptor,
+                rateLimitInterceptor,
+                encodingInterceptor,
+                compressionInterceptor);
+
+        // Assert
+        verify(restTemplateBuilder)
+                .requestFactory(
+                        argThat((Function<ClientHttpRequestFactorySettings, ClientHttpRequestFactory> factory) ->
+                                factory.apply(ClientHttpRequestFactorySettings.DEFAULTS)
+                                        instanceof DeadlineAwareRequestFactory));
+    }
+
+    @Test
+    void testConnectionManagerUsesPoolProperties() {
+        // Arrange
+        UpstreamPoolProperties poolProperties = new UpstreamPoolProperties();
+        poolProperties.setMaxTotal(12);
+        poolProperties.setMaxPerRoute(7);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        // Act
+        try (PoolingHttpClientConnectionManager connectionManager =
+                restTemplateConfig.upstreamConnectionManager(poolProperties, meterRegistry)) {
+
+            // Assert
+            assertEquals(12, connectionManager.getMaxTotal());
+            assertEquals(7, connectionManager.getDefaultMaxPerRoute());
+            assertEquals(
+                    12.0,
+                    meterRegistry
+                            .get("httpcomponents.httpclient.pool.total.max")
+                            .tag("httpclient", "employee-upstream")
+                            .gauge()
+                            .value());
+            assertEquals(
+                    0.0,
+                    meterRegistry
+                            .get("httpcomponents.httpclient.pool.total.connections")
+                            .tag("state", "leased")
+                            .gauge()
+                            .value());
+        }
+    }
+
     private void setPrivateField(String fieldName, long value) throws Exception {
         Field field = RestTemplateConfig.class.getDeclaredField(fieldName);
         field.setAccessible(true);
@@ -52,7 +52,7 @@ class RetryTemplateConfigTest {
         retryTemplateConfig.retryTemplate();
 
         // Assert
-        assertEquals(5000, retryTemplateConfig.getBackOffPolicy().getBackOffPeriod());
+        assertEquals(5000, retryTemplateConfig.getBackOffPolicy().getRateLimitedInterval());
     }
 
     @Test
@@ -76,7 +76,7 @@ class RetryTemplateConfigTest {
         retryTemplateConfig.retryTemplate();
 
         // Assert
-        assertEquals(2000, retryTemplateConfig.getBackOffPolicy().getBackOffPeriod());
+        assertEquals(2000, retryTemplateConfig.getBackOffPolicy().getRateLimitedInterval());
     }
 
     private void setPrivateField(String fieldName, Object value) throws Exception {
@@ -84,4 +84,14 @@ class RetryTemplateConfigTest {
         field.setAccessible(true);
         field.set(retryTemplateConfig, value);
     }
+
+    @Test
+    void testTransientBackOffDefaults() {
+        // Act
+        retryTemplateConfig.retryTemplate();
+
+        // Assert
+        assertEquals(100, retryTemplateConfig.getBackOffPolicy().getTransientInitialInterval());
+        assertEquals(2000, retryTemplateConfig.getBackOffPolicy().getTransientMaxInterval());
+    }
 }
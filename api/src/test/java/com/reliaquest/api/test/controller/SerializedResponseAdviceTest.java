@@ -0,0 +1,155 @@
+package com.reliaquest.api.test.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.reliaquest.api.cache.EmployeeSnapshotStore;
+import com.reliaquest.api.dto.GetAllEmployeesResponse;
+import com.reliaquest.api.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SerializedResponseAdviceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeSnapshotStore snapshotStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            employees.add(new Employee(
+                    UUID.randomUUID(), "Employee " + i, 50000 + i, 30, "Developer", "employee" + i + "@example.com"));
+        }
+        GetAllEmployeesResponse response = new GetAllEmployeesResponse();
+        response.setData(employees);
+        when(restTemplate.exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class)))
+                .thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+    }
+
+    private MockHttpServletResponse roster(HttpHeaders headers) throws Exception {
+        return mockMvc.perform(get("/api/v1/employee").headers(headers))
+                .andReturn()
+                .getResponse();
+    }
+
+    @Test
+    void testMatchingIfNoneMatchIsAnsweredNotModified() throws Exception {
+        // Arrange - the first read loads the snapshot, so it is the second that can be tagged
+        roster(new HttpHeaders());
+        MockHttpServletResponse tagged = roster(new HttpHeaders());
+        String etag = tagged.getHeader(HttpHeaders.ETAG);
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(etag);
+
+        // Act
+        MockHttpServletResponse notModified = roster(conditional);
+
+        // Assert
+        assertEquals(200, tagged.getStatus());
+        assertNotNull(etag);
+        assertFalse(etag.startsWith("W/")); // Strong
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+        assertEquals(etag, notModified.getHeader(HttpHeaders.ETAG));
+        verify(restTemplate, times(1)).exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class));
+    }
+
+    @Test
+    void testPatchedSnapshotGetsNewEtag() throws Exception {
+        // Arrange
+        roster(new HttpHeaders());
+        String etag = roster(new HttpHeaders()).getHeader(HttpHeaders.ETAG);
+        snapshotStore.applyCreated(
+                new Employee(UUID.randomUUID(), "Jane Smith", 60000, 28, "Designer", "jane@example.com"));
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(etag);
+
+        // Act
+        MockHttpServletResponse changed = roster(conditional);
+
+        // Assert
+        assertEquals(200, changed.getStatus());
+        assertNotEquals(etag, changed.getHeader(HttpHeaders.ETAG));
+        assertTrue(changed.getContentAsString().contains("Jane Smith"));
+    }
+
+    @Test
+    void testGzipIsServedToClientsThatAcceptIt() throws Exception {
+        // Arrange
+        roster(new HttpHeaders());
+        HttpHeaders acceptsGzip = new HttpHeaders();
+        acceptsGzip.set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        // Act
+        MockHttpServletResponse plain = roster(new HttpHeaders());
+        MockHttpServletResponse compressed = roster(acceptsGzip);
+
+        // Assert
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", compressed.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(plain.getHeader(HttpHeaders.ETAG), compressed.getHeader(HttpHeaders.ETAG));
+        assertTrue(compressed.getContentAsByteArray().length < plain.getContentAsByteArray().length);
+        assertArrayEquals(plain.getContentAsByteArray(), gunzip(compressed.getContentAsByteArray()));
+        assertTrue(meterRegistry
+                        .get("employee.response.compression.ratio")
+                        .summary()
+                        .mean()
+                > 1);
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("employee.response.compression.deflate")
+                        .timer()
+                        .count());
+    }
+
+    @Test
+    void testReadThatLoadsTheSnapshotIsNotTagged() throws Exception {
+        // Act - the snapshot version changes while the read runs, so its body cannot be tied to one version
+        MockHttpServletResponse loading = roster(new HttpHeaders());
+
+        // Assert
+        assertEquals(200, loading.getStatus());
+        assertNull(loading.getHeader(HttpHeaders.ETAG));
+        assertTrue(loading.getContentAsString().contains("Employee 39"));
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
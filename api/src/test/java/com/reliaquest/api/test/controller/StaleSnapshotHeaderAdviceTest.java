@@ -0,0 +1,89 @@
+package com.reliaquest.api.test.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.cache.EmployeeSnapshot;
+import com.reliaquest.api.cache.EmployeeSnapshotStore;
+import com.reliaquest.api.cache.ServedSnapshot;
+import com.reliaquest.api.config.EmployeeCacheProperties;
+import com.reliaquest.api.controller.StaleSnapshotHeaderAdvice;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.test.MutableClock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class StaleSnapshotHeaderAdviceTest {
+
+    private MutableClock clock;
+    private EmployeeSnapshotStore store;
+    private StaleSnapshotHeaderAdvice advice;
+    private MockHttpServletRequest request;
+    private EmployeeSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        EmployeeCacheProperties properties = new EmployeeCacheProperties();
+        properties.setTtl(Duration.ofSeconds(30));
+        properties.setRefreshAhead(Duration.ofSeconds(20));
+        properties.setMaxStale(Duration.ofSeconds(60));
+        store = new EmployeeSnapshotStore(properties, clock);
+        advice = new StaleSnapshotHeaderAdvice(store);
+        request = new MockHttpServletRequest("GET", "/api/v1/employee/" + UUID.randomUUID());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Employee john = new Employee(UUID.randomUUID(), "John Doe", 50000, 30, "Developer", "john@example.com");
+        snapshot = store.getSnapshot(() -> List.of(john));
+        clock.advance(Duration.ofSeconds(45)); // Past the ttl, so the snapshot would be served stale
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        store.shutdown();
+    }
+
+    private HttpHeaders write() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+        advice.beforeBodyWrite(
+                "body", null, MediaType.APPLICATION_JSON, null, new ServletServerHttpRequest(request), serverResponse);
+        return serverResponse.getHeaders();
+    }
+
+    @Test
+    void testResponseServedFromStaleSnapshotIsMarked() {
+        // Arrange
+        ServedSnapshot.mark(snapshot);
+
+        // Act
+        HttpHeaders headers = write();
+
+        // Assert
+        assertEquals("45", headers.getFirst(HttpHeaders.AGE));
+        assertNotNull(headers.getFirst(HttpHeaders.WARNING));
+    }
+
+    @Test
+    void testResponseFromTheMockServerIsNotMarked() {
+        // Act - nothing noted the request as answered from the snapshot, as for a by-id read that missed it
+        HttpHeaders headers = write();
+
+        // Assert
+        assertNull(headers.getFirst(HttpHeaders.AGE));
+        assertNull(headers.getFirst(HttpHeaders.WARNING));
+    }
+}
@@ -0,0 +1,120 @@
+package com.reliaquest.api.test.deadline;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.config.RequestDeadlineProperties;
+import com.reliaquest.api.deadline.RequestDeadline;
+import com.reliaquest.api.deadline.RequestDeadlineFilter;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RequestDeadlineFilterTest {
+
+    private RequestDeadlineProperties properties;
+    private RequestDeadlineFilter filter;
+    private final AtomicReference<RequestDeadline> seen = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new RequestDeadlineProperties();
+        properties.getEndpoints().put("/api/v1/employee/*", Duration.ofSeconds(5));
+        filter = new RequestDeadlineFilter(properties);
+    }
+
+    // Runs a GET of the given path through the filter, recording the deadline the handler saw
+    private MockHttpServletResponse get(String path, String timeoutHeader) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (timeoutHeader != null) {
+            request.addHeader("X-Request-Timeout", timeoutHeader);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> seen.set(RequestDeadline.current()));
+        return response;
+    }
+
+    @Test
+    void testHeaderSetsDeadline() throws Exception {
+        // Act
+        get("/api/v1/employee/42", "2s");
+
+        // Assert
+        assertEquals(Duration.ofSeconds(2), seen.get().getTimeout());
+        assertNull(RequestDeadline.current()); // Unbound once the request is done
+    }
+
+    @Test
+    void testPlainNumberIsMilliseconds() throws Exception {
+        // Act
+        get("/api/v1/employee", "1500");
+
+        // Assert
+        assertEquals(Duration.ofMillis(1500), seen.get().getTimeout());
+    }
+
+    @Test
+    void testEndpointDefaultAppliesWithoutHeader() throws Exception {
+        // Act
+        get("/api/v1/employee/42", null);
+
+        // Assert
+        assertEquals(Duration.ofSeconds(5), seen.get().getTimeout());
+    }
+
+    @Test
+    void testNoDeadlineWithoutHeaderOrMatchingEndpoint() throws Exception {
+        // Act
+        get("/api/v1/employee", null);
+
+        // Assert
+        assertNull(seen.get());
+    }
+
+    @Test
+    void testDefaultTimeoutAppliesToOtherEndpoints() throws Exception {
+        // Arrange
+        properties.setDefaultTimeout(Duration.ofSeconds(30));
+
+        // Act
+        get("/api/v1/employee", null);
+
+        // Assert
+        assertEquals(Duration.ofSeconds(30), seen.get().getTimeout());
+    }
+
+    @Test
+    void testInvalidHeaderIsBadRequest() throws Exception {
+        // Act
+        MockHttpServletResponse response = get("/api/v1/employee/42", "soon");
+
+        // Assert
+        assertEquals(400, response.getStatus());
+        assertNull(seen.get()); // The request was not handled
+    }
+
+    @Test
+    void testNonPositiveHeaderIsBadRequest() throws Exception {
+        // Act
+        MockHttpServletResponse response = get("/api/v1/employee/42", "0");
+
+        // Assert
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    void testDisabledFilterSetsNoDeadline() throws Exception {
+        // Arrange
+        properties.setEnabled(false);
+
+        // Act
+        get("/api/v1/employee/42", "2s");
+
+        // Assert
+        assertNull(seen.get());
+    }
+}
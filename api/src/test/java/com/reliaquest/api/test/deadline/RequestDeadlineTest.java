@@ -0,0 +1,121 @@
+package com.reliaquest.api.test.deadline;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.deadline.DeadlineExceededException;
+import com.reliaquest.api.deadline.RequestDeadline;
+import com.reliaquest.api.retry.FailureClass;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+class RequestDeadlineTest {
+
+    @Test
+    void testRemainingTimeCountsDown() {
+        // Act
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(10));
+
+        // Assert
+        assertFalse(deadline.isExpired());
+        assertTrue(deadline.remaining().compareTo(Duration.ofSeconds(10)) <= 0);
+        assertTrue(deadline.remaining().compareTo(Duration.ofSeconds(9)) > 0);
+    }
+
+    @Test
+    void testTimeoutsAreClampedToRemainingTime() {
+        // Arrange
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(2));
+
+        // Act & Assert
+        assertTrue(deadline.clamp(Duration.ofSeconds(120)).compareTo(Duration.ofSeconds(2)) <= 0);
+        assertEquals(Duration.ofMillis(500), deadline.clamp(Duration.ofMillis(500)));
+    }
+
+    @Test
+    void testWaitMustLeaveTimeForUpstreamCall() {
+        // Arrange
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(2), Duration.ofMillis(500));
+
+        // Act & Assert
+        assertTrue(deadline.allowsWait(1000));
+        assertFalse(deadline.allowsWait(1600)); // Would leave less than the 500 ms an upstream call needs
+        assertFalse(deadline.allowsWait(5000));
+    }
+
+    @Test
+    void testUpstreamCallIsRefusedWithoutTimeLeft() throws InterruptedException {
+        // Arrange
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofMillis(1));
+        Thread.sleep(5);
+
+        // Act & Assert
+        assertTrue(deadline.isExpired());
+        DeadlineExceededException thrown =
+                assertThrows(DeadlineExceededException.class, () -> deadline.checkUpstreamCall("GET /employee"));
+        assertTrue(thrown.getMessage().contains("GET /employee"));
+    }
+
+    @Test
+    void testUpstreamCallIsRefusedWithLessThanMinimumLeft() {
+        // Arrange
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofMillis(100), Duration.ofSeconds(1));
+
+        // Act & Assert
+        assertThrows(DeadlineExceededException.class, () -> deadline.checkUpstreamCall("GET /employee"));
+    }
+
+    @Test
+    void testBindingRestoresPreviousDeadline() {
+        // Arrange
+        RequestDeadline outer = RequestDeadline.after(Duration.ofSeconds(10));
+        RequestDeadline inner = RequestDeadline.after(Duration.ofSeconds(1));
+
+        // Act & Assert
+        try (RequestDeadline.Binding ignoredOuter = RequestDeadline.bind(outer)) {
+            try (RequestDeadline.Binding ignoredInner = RequestDeadline.bind(inner)) {
+                assertSame(inner, RequestDeadline.current());
+            }
+            assertSame(outer, RequestDeadline.current());
+        }
+        assertNull(RequestDeadline.current());
+    }
+
+    @Test
+    void testPropagatedCallRunsUnderCallersDeadline() throws Exception {
+        // Arrange
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(10));
+        Supplier<RequestDeadline> call;
+        try (RequestDeadline.Binding ignored = RequestDeadline.bind(deadline)) {
+            call = RequestDeadline.propagate(RequestDeadline::current);
+        }
+        RequestDeadline[] seen = new RequestDeadline[1];
+
+        // Act
+        Thread thread = new Thread(() -> seen[0] = call.get());
+        thread.start();
+        thread.join();
+
+        // Assert
+        assertSame(deadline, seen[0]);
+    }
+
+    @Test
+    void testNoDeadlineLeavesTimeoutsAlone() {
+        // Act & Assert
+        assertEquals(Duration.ofSeconds(120), RequestDeadline.clampCurrent(Duration.ofSeconds(120)));
+        assertDoesNotThrow(() -> RequestDeadline.checkCurrent("GET /employee"));
+    }
+
+    @Test
+    void testDeadlineExceededIsNotRetried() {
+        // Act
+        DeadlineExceededException exceeded = new DeadlineExceededException(
+                "Deadline reached", new HttpClientErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        // Assert - even though the last attempt failed in a way that would otherwise be retried
+        assertEquals(FailureClass.PERMANENT, FailureClass.of(exceeded));
+    }
+}
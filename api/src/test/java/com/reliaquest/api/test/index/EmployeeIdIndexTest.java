@@ -0,0 +1,112 @@
+package com.reliaquest.api.test.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.index.EmployeeIdIndex;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class EmployeeIdIndexTest {
+
+    @Test
+    void testPutAndGet() {
+        // Arrange
+        EmployeeIdIndex index = new EmployeeIdIndex(4);
+        UUID id = UUID.randomUUID();
+
+        // Act
+        index.put(id, 7);
+
+        // Assert
+        assertEquals(7, index.get(id));
+        assertEquals(7, index.get(id.toString()));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testGetByUpperCaseString() {
+        // Arrange
+        EmployeeIdIndex index = new EmployeeIdIndex(4);
+        UUID id = UUID.randomUUID();
+        index.put(id, 3);
+
+        // Act & Assert
+        assertEquals(3, index.get(id.toString().toUpperCase()));
+    }
+
+    @Test
+    void testMissingAndMalformedIds() {
+        // Arrange
+        EmployeeIdIndex index = new EmployeeIdIndex(4);
+        index.put(UUID.randomUUID(), 0);
+
+        // Act & Assert
+        assertEquals(EmployeeIdIndex.NOT_FOUND, index.get(UUID.randomUUID()));
+        assertEquals(EmployeeIdIndex.NOT_FOUND, index.get("not-a-uuid"));
+        assertEquals(EmployeeIdIndex.NOT_FOUND, index.get("zzzzzzzz-zzzz-zzzz-zzzz-zzzzzzzzzzzz"));
+        assertEquals(EmployeeIdIndex.NOT_FOUND, index.get((String) null));
+    }
+
+    @Test
+    void testPutReplacesExistingRow() {
+        // Arrange
+        EmployeeIdIndex index = new EmployeeIdIndex(4);
+        UUID id = UUID.randomUUID();
+        index.put(id, 1);
+
+        // Act
+        index.put(id, 2);
+
+        // Assert
+        assertEquals(2, index.get(id));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testRemove() {
+        // Arrange
+        EmployeeIdIndex index = new EmployeeIdIndex(4);
+        UUID id = UUID.randomUUID();
+        index.put(id, 5);
+
+        // Act
+        int removed = index.remove(id);
+
+        // Assert
+        assertEquals(5, removed);
+        assertEquals(EmployeeIdIndex.NOT_FOUND, index.get(id));
+        assertEquals(EmployeeIdIndex.NOT_FOUND, index.remove(id));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomPutsAndRemoves() {
+        // Arrange
+        EmployeeIdIndex index = new EmployeeIdIndex(1); // Start small so the index has to grow
+        Map<UUID, Integer> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 20_000; i++) {
+            if (!ids.isEmpty() && random.nextInt(3) == 0) {
+                UUID id = ids.remove(random.nextInt(ids.size()));
+                assertEquals(expected.remove(id).intValue(), index.remove(id));
+            } else {
+                UUID id = new UUID(random.nextLong(), random.nextLong());
+                ids.add(id);
+                expected.put(id, i);
+                index.put(id, i);
+            }
+        }
+
+        // Assert
+        assertEquals(expected.size(), index.size());
+        expected.forEach((id, row) -> assertEquals(row.intValue(), index.get(id.toString())));
+    }
+}
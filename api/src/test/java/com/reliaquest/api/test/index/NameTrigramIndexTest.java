@@ -0,0 +1,101 @@
+package com.reliaquest.api.test.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.index.NameTrigramIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class NameTrigramIndexTest {
+
+    @Test
+    void testSubstringSearchIgnoresCase() {
+        // Arrange
+        NameTrigramIndex index = new NameTrigramIndex(3);
+        index.add(0, "John Doe");
+        index.add(1, "Jane Smith");
+        index.add(2, "Johnny Appleseed");
+
+        // Act & Assert
+        assertArrayEquals(new int[] {0, 2}, index.search("JOHN"));
+        assertArrayEquals(new int[] {1}, index.search("e sm"));
+        assertArrayEquals(new int[0], index.search("xyz"));
+    }
+
+    @Test
+    void testShortQueriesFallBackToScan() {
+        // Arrange
+        NameTrigramIndex index = new NameTrigramIndex(2);
+        index.add(0, "John Doe");
+        index.add(1, "Jane Smith");
+
+        // Act & Assert
+        assertArrayEquals(new int[] {0, 1}, index.search("j"));
+        assertArrayEquals(new int[] {1}, index.search("sm"));
+        assertArrayEquals(new int[] {0, 1}, index.search(""));
+    }
+
+    @Test
+    void testTrigramsPresentButNotAdjacentAreRejected() {
+        // Arrange
+        NameTrigramIndex index = new NameTrigramIndex(1);
+        index.add(0, "abcx bcd"); // Has both "abc" and "bcd" but not "abcd"
+
+        // Act & Assert
+        assertArrayEquals(new int[0], index.search("abcd"));
+    }
+
+    @Test
+    void testRemoveAndAdd() {
+        // Arrange
+        NameTrigramIndex index = new NameTrigramIndex(2);
+        index.add(0, "John Doe");
+        index.add(1, "Johnny Appleseed");
+
+        // Act
+        index.remove(0);
+        index.add(2, "Big John");
+
+        // Assert
+        assertArrayEquals(new int[] {1, 2}, index.search("john"));
+        assertArrayEquals(new int[] {1, 2}, index.search("jo"));
+    }
+
+    @Test
+    void testMatchesContainsUnderRandomNames() {
+        // Arrange
+        Random random = new Random(7);
+        List<String> names = new ArrayList<>();
+        NameTrigramIndex index = new NameTrigramIndex(0);
+        for (int row = 0; row < 5_000; row++) {
+            String name = randomName(random);
+            names.add(name);
+            index.add(row, name);
+        }
+        for (int row = 0; row < names.size(); row += 7) {
+            index.remove(row);
+            names.set(row, null);
+        }
+
+        // Act & Assert
+        for (String query : List.of("an", "ana", "ela", "bo", "oan", "arl", "e e", "xyz", "MAR")) {
+            List<Integer> expected = new ArrayList<>();
+            for (int row = 0; row < names.size(); row++) {
+                String name = names.get(row);
+                if (name != null && name.toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT))) {
+                    expected.add(row);
+                }
+            }
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), index.search(query), query);
+        }
+    }
+
+    private static String randomName(Random random) {
+        String[] first = {"Ana", "Bob", "Carla", "Daniela", "Eli", "Mara", "Oana", "Marco"};
+        String[] last = {"Smith", "Angela", "Bobbins", "Carlson", "Deere", "Mare"};
+        return first[random.nextInt(first.length)] + " " + last[random.nextInt(last.length)];
+    }
+}
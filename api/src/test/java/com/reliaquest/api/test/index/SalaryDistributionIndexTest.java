@@ -0,0 +1,68 @@
+package com.reliaquest.api.test.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.index.SalaryDistributionIndex;
+import com.reliaquest.api.index.SalaryHistogram;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SalaryDistributionIndexTest {
+
+    private SalaryDistributionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SalaryDistributionIndex();
+        index.add("Developer", 100000);
+        index.add("Developer", 120000);
+        index.add("Designer", 80000);
+        index.add(null, 60000);
+    }
+
+    @Test
+    void testOverallAndPerTitle() {
+        // Act
+        SalaryHistogram overall = index.histogram(null);
+        Map<String, SalaryHistogram> byTitle = index.histogramsByTitle();
+
+        // Assert
+        assertEquals(4, overall.getCount());
+        assertEquals(List.of("Designer", "Developer"), List.copyOf(byTitle.keySet()));
+        assertEquals(2, byTitle.get("Developer").getCount());
+    }
+
+    @Test
+    void testMergedTitles() {
+        // Act
+        SalaryHistogram merged = index.histogram(List.of("Developer", "Designer", "Unknown"));
+
+        // Assert
+        assertEquals(3, merged.getCount());
+        assertEquals(80000, merged.percentile(0), 80000 / 128.0);
+    }
+
+    @Test
+    void testRemoveDropsEmptyTitle() {
+        // Act
+        index.remove("Designer", 80000);
+
+        // Assert
+        assertFalse(index.histogramsByTitle().containsKey("Designer"));
+        assertEquals(3, index.histogram(List.of()).getCount());
+    }
+
+    @Test
+    void testCopiesAreIndependent() {
+        // Arrange
+        SalaryHistogram copy = index.histogram(null);
+
+        // Act
+        index.add("Developer", 140000);
+
+        // Assert
+        assertEquals(4, copy.getCount());
+    }
+}
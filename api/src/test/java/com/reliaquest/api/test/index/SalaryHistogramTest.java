@@ -0,0 +1,110 @@
+package com.reliaquest.api.test.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.index.SalaryHistogram;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SalaryHistogramTest {
+
+    @Test
+    void testPercentilesWithinRelativeError() {
+        // Arrange
+        Random random = new Random(7);
+        SalaryHistogram histogram = new SalaryHistogram();
+        int[] salaries = new int[10_000];
+        for (int i = 0; i < salaries.length; i++) {
+            salaries[i] = 30000 + random.nextInt(470000);
+            histogram.record(salaries[i]);
+        }
+        Arrays.sort(salaries);
+
+        // Act & Assert
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9, 100}) {
+            int exact = salaries[(int) Math.ceil(percentile / 100 * salaries.length) - 1];
+            assertEquals(exact, histogram.percentile(percentile), exact / 128.0, "p" + percentile);
+        }
+        assertEquals(10_000, histogram.getCount());
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        // Arrange
+        SalaryHistogram histogram = new SalaryHistogram();
+        histogram.record(10);
+        histogram.record(20);
+        histogram.record(200);
+
+        // Act & Assert
+        assertEquals(10, histogram.percentile(0));
+        assertEquals(20, histogram.percentile(50));
+        assertEquals(200, histogram.percentile(100));
+    }
+
+    @Test
+    void testRemoveUndoesRecord() {
+        // Arrange
+        SalaryHistogram histogram = new SalaryHistogram();
+        histogram.record(50000);
+        histogram.record(400000);
+
+        // Act
+        histogram.remove(400000);
+        histogram.remove(123456); // Never recorded, ignored
+
+        // Assert
+        assertEquals(1, histogram.getCount());
+        assertEquals(50000, histogram.percentile(100), 50000 / 128.0);
+    }
+
+    @Test
+    void testMergeAddsCounts() {
+        // Arrange
+        SalaryHistogram low = new SalaryHistogram();
+        SalaryHistogram high = new SalaryHistogram();
+        for (int i = 0; i < 100; i++) {
+            low.record(40000);
+            high.record(90000);
+        }
+
+        // Act
+        low.merge(high);
+
+        // Assert
+        assertEquals(200, low.getCount());
+        assertEquals(40000, low.percentile(50), 40000 / 128.0);
+        assertEquals(90000, low.percentile(51), 90000 / 128.0);
+        assertEquals(100, high.getCount()); // The merged in histogram is left alone
+    }
+
+    @Test
+    void testBinsCoverRecordedRange() {
+        // Arrange
+        SalaryHistogram histogram = new SalaryHistogram();
+        for (int salary = 30000; salary < 130000; salary += 1000) {
+            histogram.record(salary);
+        }
+
+        // Act
+        long[][] bins = histogram.bins(4);
+
+        // Assert
+        assertEquals(4, bins.length);
+        assertTrue(bins[0][0] <= 30000);
+        assertTrue(bins[3][1] >= 129000);
+        assertEquals(100, Arrays.stream(bins).mapToLong(bin -> bin[2]).sum());
+        for (int b = 1; b < bins.length; b++) {
+            assertEquals(bins[b - 1][1] + 1, bins[b][0]);
+        }
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        // Act & Assert
+        SalaryHistogram histogram = new SalaryHistogram();
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(0, histogram.bins(10).length);
+    }
+}
@@ -0,0 +1,110 @@
+package com.reliaquest.api.test.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.index.SalaryIndex;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class SalaryIndexTest {
+
+    @Test
+    void testHighestAndDefault() {
+        // Arrange
+        SalaryIndex index = new SalaryIndex(4);
+
+        // Act & Assert
+        assertEquals(0, index.highest(0));
+        index.add(0, 500);
+        index.add(1, 900);
+        index.add(2, 100);
+        assertEquals(900, index.highest(0));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testTopRowsHighestFirstWithTiesInRosterOrder() {
+        // Arrange
+        SalaryIndex index = new SalaryIndex(4);
+        index.add(0, 100);
+        index.add(1, 300);
+        index.add(2, 200);
+        index.add(3, 300);
+
+        // Act
+        int[] top = index.topRows(3);
+
+        // Assert
+        assertArrayEquals(new int[] {1, 3, 2}, top);
+        assertEquals(4, index.topRows(10).length);
+        assertEquals(0, index.topRows(0).length);
+    }
+
+    @Test
+    void testRankSharedBySalaryTies() {
+        // Arrange
+        SalaryIndex index = new SalaryIndex(4);
+        index.add(0, 100);
+        index.add(1, 300);
+        index.add(2, 200);
+        index.add(3, 300);
+
+        // Act & Assert
+        assertEquals(1, index.rank(300));
+        assertEquals(3, index.rank(200));
+        assertEquals(4, index.rank(100));
+        assertEquals(1, index.rank(1000)); // Nobody earns more
+    }
+
+    @Test
+    void testRemove() {
+        // Arrange
+        SalaryIndex index = new SalaryIndex(4);
+        index.add(0, 100);
+        index.add(1, 300);
+
+        // Act
+        index.remove(1, 300);
+        index.remove(5, 700); // Not indexed, ignored
+
+        // Assert
+        assertEquals(100, index.highest(0));
+        assertEquals(1, index.size());
+        assertArrayEquals(new int[] {0}, index.topRows(10));
+    }
+
+    @Test
+    void testMatchesStableSortAfterRandomAddsAndRemoves() {
+        // Arrange
+        Random random = new Random(42);
+        SalaryIndex index = new SalaryIndex(16);
+        List<int[]> live = new ArrayList<>(); // {row, salary}
+        for (int row = 0; row < 2000; row++) {
+            int salary = random.nextInt(50) * 1000;
+            index.add(row, salary);
+            live.add(new int[] {row, salary});
+        }
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            int[] removed = live.remove(random.nextInt(live.size()));
+            index.remove(removed[0], removed[1]);
+        }
+
+        // Assert
+        List<Integer> expected = live.stream()
+                .sorted(Comparator.comparingInt((int[] e) -> e[1]).reversed())
+                .limit(25)
+                .map(e -> e[0])
+                .collect(Collectors.toList());
+        int[] top = index.topRows(25);
+        for (int i = 0; i < top.length; i++) {
+            assertEquals(expected.get(i), top[i]);
+        }
+        assertEquals(live.size(), index.size());
+    }
+}
@@ -0,0 +1,157 @@
+package com.reliaquest.api.test.retry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.config.AppLoggerProperties;
+import com.reliaquest.api.config.RetryTemplateConfig;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.deadline.DeadlineExceededException;
+import com.reliaquest.api.deadline.RequestDeadline;
+import com.reliaquest.api.retry.AsyncRetryExecutor;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+class AsyncRetryExecutorTest {
+
+    private AsyncRetryExecutor executor;
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        RetryTemplateConfig retryConfig = new RetryTemplateConfig();
+        retryConfig.setMaxAttempts(3);
+        retryConfig.setFixedInterval(10);
+        retryConfig.setTransientInitialInterval(10);
+        executor = new AsyncRetryExecutor(retryConfig, new VirtualThreadSupport(false), new AppLoggerProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    // Fails the first failures attempts with the given status, then succeeds
+    private CompletableFuture<String> flaky(int failures, HttpStatus status) {
+        if (attempts.incrementAndGet() <= failures) {
+            return CompletableFuture.failedFuture(new HttpClientErrorException(status));
+        }
+        return CompletableFuture.completedFuture("ok");
+    }
+
+    @Test
+    void testRetriesUntilSuccess() {
+        // Act
+        String result = executor.execute("flaky", () -> flaky(2, HttpStatus.TOO_MANY_REQUESTS))
+                .join();
+
+        // Assert
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        // Act
+        CompletionException exception = assertThrows(CompletionException.class, () -> executor.execute(
+                        "flaky", () -> flaky(10, HttpStatus.SERVICE_UNAVAILABLE))
+                .join());
+
+        // Assert
+        HttpClientErrorException cause = assertInstanceOf(HttpClientErrorException.class, exception.getCause());
+        assertEquals(503, cause.getStatusCode().value());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testClientErrorIsNotRetried() {
+        // Act
+        assertThrows(CompletionException.class, () -> executor.execute("flaky", () -> flaky(10, HttpStatus.BAD_REQUEST))
+                .join());
+
+        // Assert
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testRetryPastRequestDeadlineIsNotScheduled() {
+        // Arrange - a 429 with a Retry-After of 5 seconds, for a request that has 1 second
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Retry-After", "5");
+        HttpClientErrorException lockedOut = HttpClientErrorException.create(
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, new byte[0], null);
+
+        // Act
+        CompletableFuture<String> result;
+        try (RequestDeadline.Binding ignored = RequestDeadline.bind(RequestDeadline.after(Duration.ofSeconds(1)))) {
+            result = executor.execute("lockedOut", () -> {
+                attempts.incrementAndGet();
+                return CompletableFuture.failedFuture(lockedOut);
+            });
+        }
+
+        // Assert - failed straight away rather than after the wait
+        assertTrue(result.isCompletedExceptionally());
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        DeadlineExceededException cause = assertInstanceOf(DeadlineExceededException.class, exception.getCause());
+        assertSame(lockedOut, cause.getCause());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testRequestDeadlineIsCarriedToRetries() {
+        // Arrange
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(10));
+        AtomicInteger retriesWithDeadline = new AtomicInteger();
+
+        // Act
+        CompletableFuture<String> result;
+        try (RequestDeadline.Binding ignored = RequestDeadline.bind(deadline)) {
+            result = executor.execute("flaky", () -> {
+                if (attempts.get() > 0 && RequestDeadline.current() == deadline) {
+                    retriesWithDeadline.incrementAndGet();
+                }
+                return flaky(2, HttpStatus.BAD_GATEWAY);
+            });
+        }
+
+        // Assert
+        assertEquals("ok", result.join());
+        assertEquals(2, retriesWithDeadline.get());
+    }
+
+    @Test
+    void testCallerThreadIsNotHeldDuringBackOff() throws InterruptedException {
+        // Arrange - the first attempt fails with a 429 whose Retry-After is 1 second
+        CountDownLatch retried = new CountDownLatch(1);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Retry-After", "1");
+
+        // Act
+        long start = System.nanoTime();
+        CompletableFuture<String> result = executor.execute("lockedOut", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                return CompletableFuture.failedFuture(HttpClientErrorException.create(
+                        HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, new byte[0], null));
+            }
+            retried.countDown();
+            return CompletableFuture.completedFuture("ok");
+        });
+        long returnedAfterMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert - execute returned straight away and the retry happened on the scheduler after the wait
+        assertTrue(returnedAfterMillis < 500);
+        assertFalse(result.isDone());
+        assertEquals("ok", result.join());
+        assertEquals(0, retried.getCount());
+        assertEquals(2, attempts.get());
+    }
+}
@@ -0,0 +1,68 @@
+package com.reliaquest.api.test.retry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.retry.RetryBudget;
+import com.reliaquest.api.test.MutableClock;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RetryBudgetTest {
+
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void testRetriesCappedAtPercentageOfRequests() {
+        // Arrange - no floor, 20% of 50 requests
+        RetryBudget budget = new RetryBudget(20, 0, Duration.ofSeconds(10), clock);
+        for (int i = 0; i < 50; i++) {
+            budget.recordRequest();
+        }
+
+        // Act
+        int granted = 0;
+        while (budget.tryRetry()) {
+            granted++;
+        }
+
+        // Assert
+        assertEquals(10, granted);
+    }
+
+    @Test
+    void testMinimumRetriesAllowedWithoutTraffic() {
+        // Arrange - a floor of 1 retry per second over a 5 second window
+        RetryBudget budget = new RetryBudget(20, 1, Duration.ofSeconds(5), clock);
+
+        // Act
+        int granted = 0;
+        while (budget.tryRetry()) {
+            granted++;
+        }
+
+        // Assert
+        assertEquals(5, granted);
+    }
+
+    @Test
+    void testBudgetRecoversOnceRetriesLeaveWindow() {
+        // Arrange
+        RetryBudget budget = new RetryBudget(0, 1, Duration.ofSeconds(5), clock);
+        while (budget.tryRetry()) {
+            // Spend the whole budget
+        }
+
+        // Act
+        clock.advance(Duration.ofSeconds(5));
+
+        // Assert
+        assertTrue(budget.tryRetry());
+    }
+}
@@ -0,0 +1,97 @@
+package com.reliaquest.api.test.retry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.deadline.DeadlineExceededException;
+import com.reliaquest.api.deadline.RequestDeadline;
+import com.reliaquest.api.retry.StatusAwareBackOffPolicy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.web.client.HttpClientErrorException;
+
+class StatusAwareBackOffPolicyTest {
+
+    private final StatusAwareBackOffPolicy policy = new StatusAwareBackOffPolicy(100, 2000, 5000);
+
+    private static HttpClientErrorException tooManyRequests(String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return new HttpClientErrorException(
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, new byte[0], StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testTransientFailureBacksOffWithCappedJitter() {
+        // Arrange
+        HttpClientErrorException failure = new HttpClientErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        // Act & Assert - the bound doubles from 100 ms and stops at 2000 ms
+        for (int i = 0; i < 100; i++) {
+            assertTrue(policy.backOffMillis(failure, 1) <= 100);
+            assertTrue(policy.backOffMillis(failure, 3) <= 400);
+            assertTrue(policy.backOffMillis(failure, 15) <= 2000);
+        }
+    }
+
+    @Test
+    void testTooManyRequestsWaitsForRetryAfter() {
+        // Act
+        long delay = policy.backOffMillis(tooManyRequests("30"), 1);
+
+        // Assert
+        assertTrue(delay >= 30_000 && delay <= 30_100);
+    }
+
+    @Test
+    void testTooManyRequestsWithoutRetryAfterUsesFixedInterval() {
+        // Act & Assert
+        assertEquals(5000, policy.backOffMillis(tooManyRequests(null), 1));
+    }
+
+    @Test
+    void testBackOffSleepsForLastFailure() throws Exception {
+        // Arrange
+        List<Long> sleeps = new ArrayList<>();
+        policy.setSleeper(sleeps::add);
+        RetryContextSupport context = new RetryContextSupport(null);
+        context.registerThrowable(tooManyRequests(null));
+        BackOffContext backOffContext = policy.start((RetryContext) context);
+
+        // Act
+        policy.backOff(backOffContext);
+
+        // Assert
+        assertEquals(List.of(5000L), sleeps);
+    }
+
+    @Test
+    void testBackOffPastRequestDeadlineFailsWithoutSleeping() {
+        // Arrange - the 5s wait for a 429 would outlast the request's 1s deadline
+        List<Long> sleeps = new ArrayList<>();
+        policy.setSleeper(sleeps::add);
+        RetryContextSupport context = new RetryContextSupport(null);
+        HttpClientErrorException lastFailure = tooManyRequests(null);
+        context.registerThrowable(lastFailure);
+        BackOffContext backOffContext = policy.start((RetryContext) context);
+
+        // Act
+        DeadlineExceededException thrown;
+        try (RequestDeadline.Binding ignored = RequestDeadline.bind(RequestDeadline.after(Duration.ofSeconds(1)))) {
+            thrown = assertThrows(DeadlineExceededException.class, () -> policy.backOff(backOffContext));
+        }
+
+        // Assert
+        assertSame(lastFailure, thrown.getCause());
+        assertTrue(sleeps.isEmpty());
+    }
+}
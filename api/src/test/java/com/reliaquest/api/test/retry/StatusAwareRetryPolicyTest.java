@@ -0,0 +1,72 @@
+package com.reliaquest.api.test.retry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.retry.FailureClass;
+import com.reliaquest.api.retry.RetryBudget;
+import com.reliaquest.api.retry.StatusAwareRetryPolicy;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.retry.RetryContext;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+class StatusAwareRetryPolicyTest {
+
+    private final StatusAwareRetryPolicy policy =
+            new StatusAwareRetryPolicy(3, new RetryBudget(20, 10, Duration.ofSeconds(10), Clock.systemUTC()));
+
+    @Test
+    void testFailuresAreClassifiedByStatus() {
+        // Act & Assert
+        assertEquals(FailureClass.TRANSIENT, FailureClass.of(new HttpClientErrorException(HttpStatus.BAD_GATEWAY)));
+        assertEquals(FailureClass.TRANSIENT, FailureClass.of(new HttpClientErrorException(HttpStatus.REQUEST_TIMEOUT)));
+        assertEquals(FailureClass.TRANSIENT, FailureClass.of(new ResourceAccessException("Read timed out")));
+        assertEquals(FailureClass.TRANSIENT, FailureClass.of(new IOException("Connection reset")));
+        assertEquals(
+                FailureClass.RATE_LIMITED, FailureClass.of(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS)));
+        assertEquals(FailureClass.PERMANENT, FailureClass.of(new HttpClientErrorException(HttpStatus.BAD_REQUEST)));
+        assertEquals(FailureClass.PERMANENT, FailureClass.of(new IllegalStateException("bug")));
+    }
+
+    @Test
+    void testServerErrorIsRetriedUpToMaxAttempts() {
+        // Arrange
+        RetryContext context = policy.open(null);
+        HttpClientErrorException failure = new HttpClientErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        // Act & Assert
+        assertTrue(policy.canRetry(context)); // First attempt
+        policy.registerThrowable(context, failure);
+        assertTrue(policy.canRetry(context));
+        policy.registerThrowable(context, failure);
+        assertTrue(policy.canRetry(context));
+        policy.registerThrowable(context, failure);
+        assertFalse(policy.canRetry(context));
+    }
+
+    @Test
+    void testClientErrorIsNotRetried() {
+        // Arrange
+        RetryContext context = policy.open(null);
+
+        // Act
+        policy.registerThrowable(context, new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        // Assert
+        assertFalse(policy.canRetry(context));
+    }
+
+    @Test
+    void testRetryRefusedWhenBudgetIsSpent() {
+        // Arrange - a budget with no floor and no requests recorded allows no retries
+        StatusAwareRetryPolicy stingy =
+                new StatusAwareRetryPolicy(3, new RetryBudget(20, 0, Duration.ofSeconds(10), Clock.systemUTC()));
+
+        // Act & Assert
+        assertFalse(stingy.allowsRetry(new HttpClientErrorException(HttpStatus.SERVICE_UNAVAILABLE), 1));
+    }
+}
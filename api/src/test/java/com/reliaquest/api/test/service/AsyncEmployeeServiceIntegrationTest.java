@@ -0,0 +1,199 @@
+package com.reliaquest.api.test.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.reliaquest.api.cache.EmployeeSnapshotStore;
+import com.reliaquest.api.client.AsyncEmployeeClient;
+import com.reliaquest.api.dto.BulkWriteResponse;
+import com.reliaquest.api.dto.EmployeeDTO;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.service.AsyncEmployeeService;
+import com.reliaquest.api.service.EmployeeService;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.client.HttpClientErrorException;
+
+@SpringBootTest(properties = "app.rest.client.mode=async")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class AsyncEmployeeServiceIntegrationTest {
+
+    @Autowired
+    private AsyncEmployeeService employeeService;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private EmployeeSnapshotStore snapshotStore;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AsyncEmployeeClient client;
+
+    private Employee john;
+    private Employee jane;
+
+    @BeforeEach
+    public void setUp() {
+        john = new Employee(UUID.randomUUID(), "John Doe", 50000, 30, "Developer", "john@example.com");
+        jane = new Employee(UUID.randomUUID(), "Jane Smith", 60000, 28, "Designer", "jane@example.com");
+        when(client.getAllEmployees()).thenReturn(CompletableFuture.completedFuture(List.of(john, jane)));
+    }
+
+    @Test
+    public void testBlockingBeansAreReplaced() {
+        // Assert
+        assertTrue(context.getBeansOfType(EmployeeService.class).isEmpty());
+    }
+
+    @Test
+    public void testServiceIsNotRetriedAroundClient() {
+        // Arrange - retries belong to the client's @UpstreamRetry methods, which the mock client does not have
+        EmployeeDTO input = new EmployeeDTO("Jim Beam", 70000, 40, "Developer");
+        when(client.createEmployee(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new HttpClientErrorException(HttpStatus.BAD_GATEWAY)));
+
+        // Act
+        CompletionException thrown = assertThrows(
+                CompletionException.class,
+                () -> employeeService.createEmployee(input).join());
+
+        // Assert
+        assertInstanceOf(HttpClientErrorException.class, thrown.getCause());
+        verify(client, times(1)).createEmployee(any(), any());
+    }
+
+    @Test
+    public void testReadsAreServedFromOneRosterFetch() {
+        // Act
+        List<Employee> employees = employeeService.getAllEmployees().join();
+        Integer highestSalary = employeeService.getHighestSalaryOfEmployees().join();
+        Employee found =
+                employeeService.getEmployeeById(jane.getId().toString()).join();
+
+        // Assert
+        assertEquals(List.of(john, jane), employees);
+        assertEquals(60000, highestSalary);
+        assertEquals(jane, found);
+        verify(client, times(1)).getAllEmployees();
+        verify(client, never()).getEmployeeById(any());
+    }
+
+    @Test
+    public void testCreateEmployeePatchesSnapshot() {
+        // Arrange
+        Employee created = new Employee(UUID.randomUUID(), "Jim Beam", 70000, 40, "Developer", "jim@example.com");
+        when(client.createEmployee(any(), any())).thenReturn(CompletableFuture.completedFuture(created));
+        employeeService.getAllEmployees().join();
+
+        // Act
+        employeeService
+                .createEmployee(new EmployeeDTO("Jim Beam", 70000, 40, "Developer"))
+                .join();
+
+        // Assert
+        assertEquals(70000, employeeService.getHighestSalaryOfEmployees().join());
+        verify(client, times(1)).getAllEmployees();
+    }
+
+    @Test
+    public void testDeleteEmployeeByIdResolvesNameFromSnapshot() {
+        // Arrange
+        when(client.deleteEmployeeByName(eq("John Doe"), any())).thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        boolean deleted =
+                employeeService.deleteEmployeeById(john.getId().toString()).join();
+
+        // Assert
+        assertTrue(deleted);
+        assertEquals(List.of(jane), employeeService.getAllEmployees().join());
+    }
+
+    @Test
+    public void testDeleteEmployeeByIdMissingFromSnapshotIsLookedUpById() {
+        // Arrange - newer than the snapshot, so only the mock server knows it
+        Employee johnny = new Employee(UUID.randomUUID(), "Johnny Cash", 70000, 40, "Singer", "johnny@example.com");
+        String unknownId = UUID.randomUUID().toString();
+        when(client.getEmployeeById(johnny.getId().toString())).thenReturn(CompletableFuture.completedFuture(johnny));
+        when(client.getEmployeeById(unknownId)).thenReturn(CompletableFuture.completedFuture(null));
+        when(client.deleteEmployeeByName(eq("Johnny Cash"), any())).thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        boolean unknownDeleted = employeeService.deleteEmployeeById(unknownId).join();
+        boolean deleted =
+                employeeService.deleteEmployeeById(johnny.getId().toString()).join();
+
+        // Assert - neither miss reloads the roster; the one the mock server knew marks the snapshot for a refresh
+        assertFalse(unknownDeleted);
+        assertTrue(deleted);
+        verify(client, times(1)).getAllEmployees();
+        verify(client, times(1)).deleteEmployeeByName(any(), any());
+        assertTrue(snapshotStore.isDiverged());
+    }
+
+    @Test
+    public void testDeleteEmployeesByIdResolvesIdsAgainstOneRoster() {
+        // Arrange
+        when(client.deleteEmployeeByName(any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        String unknownId = UUID.randomUUID().toString();
+        when(client.getEmployeeById(unknownId)).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        BulkWriteResponse<Employee> response = employeeService
+                .deleteEmployeesById(
+                        List.of(john.getId().toString(), unknownId, jane.getId().toString()))
+                .join();
+
+        // Assert
+        assertEquals(2, response.getSucceeded());
+        assertEquals(john, response.getResults().get(0).getData());
+        assertEquals(404, response.getResults().get(1).getStatus());
+        assertEquals(jane, response.getResults().get(2).getData());
+        verify(client, times(1)).getAllEmployees(); // The id it did not have is looked up alone, not by a reload
+        verify(client, times(1)).getEmployeeById(unknownId);
+        verify(client, times(2)).deleteEmployeeByName(any(), any());
+        assertEquals(List.of(), employeeService.getAllEmployees().join());
+    }
+
+    @Test
+    public void testControllerCompletesAsynchronously() throws Exception {
+        // Arrange
+        CompletableFuture<List<Employee>> pending = new CompletableFuture<>();
+        when(client.getAllEmployees()).thenReturn(pending);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/employee/highestSalary"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        pending.complete(List.of(john, jane)); // The upstream answers after the request thread was released
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("60000"));
+    }
+}
@@ -0,0 +1,178 @@
+package com.reliaquest.api.test.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.reliaquest.api.client.RequestPriority;
+import com.reliaquest.api.client.UpstreamRateLimiter;
+import com.reliaquest.api.config.BulkWriteProperties;
+import com.reliaquest.api.config.RetryTemplateConfig;
+import com.reliaquest.api.config.UpstreamRateLimitProperties;
+import com.reliaquest.api.config.VirtualThreadSupport;
+import com.reliaquest.api.deadline.DeadlineExceededException;
+import com.reliaquest.api.dto.BulkWriteResponse;
+import com.reliaquest.api.service.BulkWriter;
+import com.reliaquest.api.test.MutableClock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+class BulkWriterTest {
+
+    private MutableClock clock;
+    private UpstreamRateLimitProperties rateLimitProperties;
+    private UpstreamRateLimiter rateLimiter;
+    private BulkWriteProperties properties;
+    private BulkWriter bulkWriter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        rateLimitProperties = new UpstreamRateLimitProperties();
+        rateLimitProperties.setProbeInterval(Duration.ofMillis(100));
+        rateLimiter = new UpstreamRateLimiter(rateLimitProperties, clock);
+        properties = new BulkWriteProperties();
+        properties.setConcurrency(3);
+        bulkWriter =
+                new BulkWriter(properties, rateLimiter, new RetryTemplateConfig(), new VirtualThreadSupport(false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkWriter.shutdown();
+    }
+
+    @Test
+    void testWritesRunConcurrentlyUpToTheLimit() {
+        // Arrange
+        List<Integer> items = IntStream.range(0, 20).boxed().toList();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        // Act
+        BulkWriteResponse<Integer> response = bulkWriter.write(
+                items,
+                item -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    sleep(10);
+                    inFlight.decrementAndGet();
+                    return item * 2;
+                },
+                HttpStatus.CREATED);
+
+        // Assert
+        assertEquals(20, response.getSucceeded());
+        assertEquals(0, response.getFailed());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, response.getResults().get(i).getIndex()); // In request order
+            assertEquals(i * 2, response.getResults().get(i).getData());
+            assertEquals(201, response.getResults().get(i).getStatus());
+        }
+        assertTrue(maxInFlight.get() > 1);
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    void testFailuresAreRecordedWithTheirStatus() {
+        // Arrange
+        List<String> items = List.of("ok", "rejected", "late", "broken");
+
+        // Act
+        BulkWriteResponse<String> response = bulkWriter.write(
+                items,
+                item -> switch (item) {
+                    case "rejected" -> throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+                    case "late" -> throw new DeadlineExceededException("Deadline reached");
+                    case "broken" -> throw new IllegalStateException("Broken");
+                    default -> item;
+                },
+                HttpStatus.OK);
+
+        // Assert
+        assertEquals(1, response.getSucceeded());
+        assertEquals(3, response.getFailed());
+        assertEquals(200, response.getResults().get(0).getStatus());
+        assertNull(response.getResults().get(0).getError());
+        assertEquals(400, response.getResults().get(1).getStatus());
+        assertEquals(504, response.getResults().get(2).getStatus()); // From its @ResponseStatus
+        assertEquals(500, response.getResults().get(3).getStatus());
+        assertEquals("Broken", response.getResults().get(3).getError());
+    }
+
+    @Test
+    void testFailureWithoutMessageIsStillCountedAndNamed() {
+        // Act
+        BulkWriteResponse<String> response = bulkWriter.write(
+                List.of("ok", "npe"),
+                item -> {
+                    if (item.equals("npe")) {
+                        throw new NullPointerException();
+                    }
+                    return item;
+                },
+                HttpStatus.CREATED);
+
+        // Assert
+        assertEquals(1, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals(500, response.getResults().get(1).getStatus());
+        assertEquals(
+                NullPointerException.class.getName(),
+                response.getResults().get(1).getError());
+    }
+
+    @Test
+    void testAsyncWriteFailureIsRecorded() {
+        // Act
+        BulkWriteResponse<String> response = bulkWriter
+                .writeAsync(
+                        List.of("ok", "down"),
+                        item -> item.equals("down")
+                                ? CompletableFuture.failedFuture(
+                                        new HttpClientErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+                                : CompletableFuture.completedFuture(item),
+                        HttpStatus.CREATED)
+                .join();
+
+        // Assert
+        assertEquals(201, response.getResults().get(0).getStatus());
+        assertEquals(503, response.getResults().get(1).getStatus());
+    }
+
+    @Test
+    void testWritesWaitForTheRateLimiter() throws Exception {
+        // Arrange - the mock server has just locked us out, so no write can go through until the next probe
+        assertEquals(0, rateLimiter.tryAcquire(RequestPriority.BY_ID));
+        rateLimiter.onResponse(200);
+        assertEquals(0, rateLimiter.tryAcquire(RequestPriority.BY_ID));
+        rateLimiter.onResponse(429);
+        AtomicInteger writes = new AtomicInteger();
+
+        // Act
+        CompletableFuture<BulkWriteResponse<Integer>> response = bulkWriter.writeAsync(
+                List.of(1, 2), item -> CompletableFuture.completedFuture(writes.incrementAndGet()), HttpStatus.CREATED);
+        Thread.sleep(300);
+        int writesDuringLockout = writes.get();
+        clock.advance(Duration.ofSeconds(1)); // Past the probe
+
+        // Assert
+        assertEquals(0, writesDuringLockout);
+        assertEquals(2, response.get(5, TimeUnit.SECONDS).getSucceeded());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
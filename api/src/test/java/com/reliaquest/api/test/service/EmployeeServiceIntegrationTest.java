@@ -4,7 +4,12 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import com.reliaquest.api.client.EmployeeClient;
+import com.reliaquest.api.client.UpstreamCircuitOpenException;
+import com.reliaquest.api.dto.BulkWriteResponse;
 import com.reliaquest.api.dto.CreateEmployeeResponse;
+import com.reliaquest.api.dto.DeleteEmployeeResponse;
+import com.reliaquest.api.dto.DeleteMockEmployeeInput;
 import com.reliaquest.api.dto.EmployeeDTO;
 import com.reliaquest.api.dto.GetAllEmployeesResponse;
 import com.reliaquest.api.dto.GetEmployeeResponse;
@@ -15,11 +20,13 @@ import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
@@ -81,6 +88,53 @@ public class EmployeeServiceIntegrationTest {
         assertEquals("John Doe", foundEmployee.getName());
     }
 
+    @Test
+    public void testGetEmployeeByIdServedFromSnapshot() {
+        // Arrange
+        UUID employeeId = UUID.randomUUID();
+        Employee employee = new Employee(employeeId, "John Doe", 50000, 30, "Developer", "john@example.com");
+        GetAllEmployeesResponse response = new GetAllEmployeesResponse();
+        response.setData(List.of(employee));
+
+        when(restTemplate.exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class)))
+                .thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+        employeeService.getAllEmployees(); // Load the roster snapshot
+
+        // Act
+        Employee foundEmployee = employeeService.getEmployeeById(employeeId.toString());
+
+        // Assert
+        assertNotNull(foundEmployee);
+        assertEquals("John Doe", foundEmployee.getName());
+        verify(restTemplate, never()).getForEntity(any(String.class), eq(GetEmployeeResponse.class));
+    }
+
+    @Test
+    public void testDeleteEmployeeByIdResolvesNameFromSnapshot() {
+        // Arrange
+        UUID employeeId = UUID.randomUUID();
+        Employee employee = new Employee(employeeId, "John Doe", 50000, 30, "Developer", "john@example.com");
+        GetAllEmployeesResponse rosterResponse = new GetAllEmployeesResponse();
+        rosterResponse.setData(List.of(employee));
+        DeleteEmployeeResponse deleteResponse = new DeleteEmployeeResponse();
+        deleteResponse.setSuccess(true);
+
+        when(restTemplate.exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class)))
+                .thenReturn(new ResponseEntity<>(rosterResponse, HttpStatus.OK));
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.DELETE), any(), eq(DeleteEmployeeResponse.class)))
+                .thenReturn(new ResponseEntity<>(deleteResponse, HttpStatus.OK));
+
+        // Act
+        boolean result = employeeService.deleteEmployeeById(employeeId.toString());
+
+        // Assert
+        assertTrue(result);
+        ArgumentCaptor<HttpEntity<DeleteMockEmployeeInput>> captor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate)
+                .exchange(any(String.class), eq(HttpMethod.DELETE), captor.capture(), eq(DeleteEmployeeResponse.class));
+        assertEquals("John Doe", captor.getValue().getBody().getName());
+    }
+
     @Test
     public void testGetHighestSalaryOfEmployees() {
         // Arrange
@@ -143,6 +197,170 @@ public class EmployeeServiceIntegrationTest {
         assertEquals("John Doe", result.getName());
     }
 
+    @Test
+    public void testCreateEmployeeRetriesWithSameIdempotencyKey() {
+        // Arrange
+        EmployeeDTO employeeDTO = new EmployeeDTO("John Doe", 50000, 30, "Developer");
+        CreateEmployeeResponse response = new CreateEmployeeResponse();
+        response.setData(new Employee(UUID.randomUUID(), "John Doe", 50000, 30, "Developer", "john@example.com"));
+
+        when(restTemplate.postForEntity(any(String.class), any(HttpEntity.class), eq(CreateEmployeeResponse.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.BAD_GATEWAY))
+                .thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+        // Act
+        Employee result = employeeService.createEmployee(employeeDTO);
+
+        // Assert - the retry resends the same key so the mock server creates the employee only once
+        assertEquals("John Doe", result.getName());
+        ArgumentCaptor<HttpEntity<EmployeeDTO>> captor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(2))
+                .postForEntity(any(String.class), captor.capture(), eq(CreateEmployeeResponse.class));
+        String firstKey = captor.getAllValues().get(0).getHeaders().getFirst(EmployeeClient.IDEMPOTENCY_KEY);
+        assertNotNull(firstKey);
+        assertEquals(firstKey, captor.getAllValues().get(1).getHeaders().getFirst(EmployeeClient.IDEMPOTENCY_KEY));
+    }
+
+    @Test
+    public void testSeparateCreatesUseDifferentIdempotencyKeys() {
+        // Arrange
+        CreateEmployeeResponse response = new CreateEmployeeResponse();
+        response.setData(new Employee(UUID.randomUUID(), "John Doe", 50000, 30, "Developer", "john@example.com"));
+        when(restTemplate.postForEntity(any(String.class), any(HttpEntity.class), eq(CreateEmployeeResponse.class)))
+                .thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+        // Act
+        employeeService.createEmployee(new EmployeeDTO("John Doe", 50000, 30, "Developer"));
+        employeeService.createEmployee(new EmployeeDTO("John Doe", 50000, 30, "Developer"));
+
+        // Assert
+        ArgumentCaptor<HttpEntity<EmployeeDTO>> captor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(2))
+                .postForEntity(any(String.class), captor.capture(), eq(CreateEmployeeResponse.class));
+        assertNotEquals(
+                captor.getAllValues().get(0).getHeaders().getFirst(EmployeeClient.IDEMPOTENCY_KEY),
+                captor.getAllValues().get(1).getHeaders().getFirst(EmployeeClient.IDEMPOTENCY_KEY));
+    }
+
+    @Test
+    public void testCreateEmployeesReportsEachItem() {
+        // Arrange - the mock server refuses the second employee
+        when(restTemplate.postForEntity(any(String.class), any(HttpEntity.class), eq(CreateEmployeeResponse.class)))
+                .thenAnswer(invocation -> {
+                    HttpEntity<EmployeeDTO> request = invocation.getArgument(1);
+                    String name = request.getBody().getName();
+                    if (name.equals("Bad Input")) {
+                        throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+                    }
+                    CreateEmployeeResponse response = new CreateEmployeeResponse();
+                    response.setData(new Employee(UUID.randomUUID(), name, 50000, 30, "Developer", "x@example.com"));
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                });
+        List<EmployeeDTO> employeeDTOs = List.of(
+                new EmployeeDTO("John Doe", 50000, 30, "Developer"),
+                new EmployeeDTO("Bad Input", 50000, 30, "Developer"),
+                new EmployeeDTO("Jane Smith", 60000, 28, "Designer"));
+
+        // Act
+        BulkWriteResponse<Employee> result = employeeService.createEmployees(employeeDTOs);
+
+        // Assert - results come back in request order, and the failure did not stop the other creates
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(201, result.getResults().get(0).getStatus());
+        assertEquals("John Doe", result.getResults().get(0).getData().getName());
+        assertEquals(400, result.getResults().get(1).getStatus());
+        assertNotNull(result.getResults().get(1).getError());
+        assertEquals("Jane Smith", result.getResults().get(2).getData().getName());
+        verify(restTemplate, times(3))
+                .postForEntity(any(String.class), any(HttpEntity.class), eq(CreateEmployeeResponse.class));
+    }
+
+    @Test
+    public void testDeleteEmployeeByIdMissingFromSnapshotIsLookedUpById() {
+        // Arrange - the roster predates the employee, so the snapshot does not have it
+        Employee john = new Employee(UUID.randomUUID(), "John Doe", 50000, 30, "Developer", "john@example.com");
+        GetAllEmployeesResponse rosterResponse = new GetAllEmployeesResponse();
+        rosterResponse.setData(List.of());
+        GetEmployeeResponse byIdResponse = new GetEmployeeResponse();
+        byIdResponse.setData(john);
+        DeleteEmployeeResponse deleteResponse = new DeleteEmployeeResponse();
+        deleteResponse.setSuccess(true);
+
+        when(restTemplate.exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class)))
+                .thenReturn(new ResponseEntity<>(rosterResponse, HttpStatus.OK));
+        when(restTemplate.getForEntity(any(String.class), eq(GetEmployeeResponse.class)))
+                .thenReturn(new ResponseEntity<>(byIdResponse, HttpStatus.OK));
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.DELETE), any(), eq(DeleteEmployeeResponse.class)))
+                .thenReturn(new ResponseEntity<>(deleteResponse, HttpStatus.OK));
+
+        // Act
+        boolean result = employeeService.deleteEmployeeById(john.getId().toString());
+
+        // Assert - one by-id call instead of a second roster fetch
+        assertTrue(result);
+        verify(restTemplate, times(1)).exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class));
+        verify(restTemplate, times(1)).getForEntity(any(String.class), eq(GetEmployeeResponse.class));
+        verify(restTemplate, times(1))
+                .exchange(any(String.class), eq(HttpMethod.DELETE), any(), eq(DeleteEmployeeResponse.class));
+    }
+
+    @Test
+    public void testDeleteEmployeeByUnknownIdDoesNotReloadRoster() {
+        // Arrange
+        GetAllEmployeesResponse rosterResponse = new GetAllEmployeesResponse();
+        rosterResponse.setData(List.of());
+
+        when(restTemplate.exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class)))
+                .thenReturn(new ResponseEntity<>(rosterResponse, HttpStatus.OK));
+        when(restTemplate.getForEntity(any(String.class), eq(GetEmployeeResponse.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        // Act
+        boolean result = employeeService.deleteEmployeeById(UUID.randomUUID().toString());
+
+        // Assert
+        assertFalse(result);
+        verify(restTemplate, times(1)).exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class));
+        verify(restTemplate, never())
+                .exchange(any(String.class), eq(HttpMethod.DELETE), any(), eq(DeleteEmployeeResponse.class));
+    }
+
+    @Test
+    public void testDeleteEmployeesByIdFetchesRosterOnce() {
+        // Arrange
+        Employee john = new Employee(UUID.randomUUID(), "John Doe", 50000, 30, "Developer", "john@example.com");
+        Employee jane = new Employee(UUID.randomUUID(), "Jane Smith", 60000, 28, "Designer", "jane@example.com");
+        GetAllEmployeesResponse rosterResponse = new GetAllEmployeesResponse();
+        rosterResponse.setData(List.of(john, jane));
+        DeleteEmployeeResponse deleteResponse = new DeleteEmployeeResponse();
+        deleteResponse.setSuccess(true);
+
+        when(restTemplate.exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class)))
+                .thenReturn(new ResponseEntity<>(rosterResponse, HttpStatus.OK));
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.DELETE), any(), eq(DeleteEmployeeResponse.class)))
+                .thenReturn(new ResponseEntity<>(deleteResponse, HttpStatus.OK));
+        when(restTemplate.getForEntity(any(String.class), eq(GetEmployeeResponse.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        // Act
+        BulkWriteResponse<Employee> result = employeeService.deleteEmployeesById(List.of(
+                john.getId().toString(),
+                UUID.randomUUID().toString(),
+                jane.getId().toString()));
+
+        // Assert - one roster fetch resolves the known ids and a by-id call the unknown one, then one delete per
+        // employee found
+        assertEquals(2, result.getSucceeded());
+        assertEquals("John Doe", result.getResults().get(0).getData().getName());
+        assertEquals(404, result.getResults().get(1).getStatus());
+        assertEquals("Jane Smith", result.getResults().get(2).getData().getName());
+        verify(restTemplate, times(1)).exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class));
+        verify(restTemplate, times(1)).getForEntity(any(String.class), eq(GetEmployeeResponse.class));
+        verify(restTemplate, times(2))
+                .exchange(any(String.class), eq(HttpMethod.DELETE), any(), eq(DeleteEmployeeResponse.class));
+    }
+
     //    @Test
     //    public void testDeleteEmployeeById() {
     //        // Arrange
@@ -200,6 +418,37 @@ public class EmployeeServiceIntegrationTest {
         verify(restTemplate, times(20)).exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class));
     }
 
+    @Test
+    public void testOpenCircuitServesLastSnapshotWithoutRetrying() {
+        // Arrange
+        Employee employee = new Employee(UUID.randomUUID(), "John Doe", 50000, 30, "Developer", "john@example.com");
+        GetAllEmployeesResponse response = new GetAllEmployeesResponse();
+        response.setData(List.of(employee));
+        when(restTemplate.exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class)))
+                .thenReturn(new ResponseEntity<>(response, HttpStatus.OK))
+                .thenThrow(new UpstreamCircuitOpenException(5000));
+        employeeService.getAllEmployees(); // Load the roster snapshot
+        employeeService.evictEmployeeCache();
+
+        // Act
+        List<Employee> employees = employeeService.getAllEmployees();
+
+        // Assert
+        assertEquals(List.of(employee), employees);
+        verify(restTemplate, times(2)).exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class));
+    }
+
+    @Test
+    public void testOpenCircuitWithoutSnapshotFailsFast() {
+        // Arrange
+        when(restTemplate.exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class)))
+                .thenThrow(new UpstreamCircuitOpenException(5000));
+
+        // Act & Assert
+        assertThrows(UpstreamCircuitOpenException.class, () -> employeeService.getAllEmployees());
+        verify(restTemplate, times(1)).exchange(any(String.class), any(), any(), eq(GetAllEmployeesResponse.class));
+    }
+
     // Commented these 3 tests out as they add a lot of time to the test runs with the current retry policies but don't
     // add much more coverage then we get from testDefaultTwentyRetries above
     //    @Test
@@ -1,11 +1,13 @@
 package com.reliaquest.server.config;
 
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import com.reliaquest.server.model.MockEmployee;
 import com.reliaquest.server.web.RandomRequestLimitInterceptor;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +18,8 @@ import net.datafaker.transformations.Schema;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -31,7 +35,9 @@ public class ServerConfiguration implements WebMvcConfigurer {
     }
 
     /*
-     * This list is modifiable by design for CRUD operations.
+     * This list is modifiable by design for CRUD operations. Requests read and modify it concurrently (all the more so
+     * on virtual threads), so it is copy-on-write: reads, by far the most common, never lock, and writes swap in a new
+     * copy.
      */
     @Bean
     public List<MockEmployee> mockEmployees(Faker faker, @Value("${mock.employees.max:20}") int maxEmployees) {
@@ -49,7 +55,22 @@ public class ServerConfiguration implements WebMvcConfigurer {
         return IntStream.rangeClosed(1, maxEmployees)
                 .mapToObj(ignored -> (MockEmployee) transformer.apply(MockEmployee.class, schema))
                 .peek(mockEmployee -> log.debug("Created employee: {}", mockEmployee))
-                .collect(Collectors.toCollection(ArrayList::new));
+                .collect(Collectors.toCollection(CopyOnWriteArrayList::new));
+    }
+
+    /*
+     * Lets clients ask for the employee endpoints in Smile, Jackson's binary encoding, with Accept:
+     * application/x-jackson-smile; JSON stays the answer to any other Accept. Takes the place of the Smile converter
+     * Spring MVC adds by default so that it is configured like the JSON one, and shares repeated values such as titles
+     * as well as field names.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(
+                builder.factory(smileFactory).build());
     }
 
     @Override
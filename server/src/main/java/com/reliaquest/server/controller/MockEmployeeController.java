@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -24,6 +25,8 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class MockEmployeeController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final MockEmployeeService mockEmployeeService;
 
     @GetMapping()
@@ -39,13 +42,18 @@ public class MockEmployeeController {
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Response.handled()));
     }
 
+    // A retried create or delete sends the same Idempotency-Key as the first attempt and gets its result back
     @PostMapping()
-    public Response<MockEmployee> createEmployee(@Valid @RequestBody CreateMockEmployeeInput input) {
-        return Response.handledWith(mockEmployeeService.create(input));
+    public Response<MockEmployee> createEmployee(
+            @Valid @RequestBody CreateMockEmployeeInput input,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return Response.handledWith(mockEmployeeService.create(input, idempotencyKey));
     }
 
     @DeleteMapping()
-    public Response<Boolean> deleteEmployee(@Valid @RequestBody DeleteMockEmployeeInput input) {
-        return Response.handledWith(mockEmployeeService.delete(input));
+    public Response<Boolean> deleteEmployee(
+            @Valid @RequestBody DeleteMockEmployeeInput input,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return Response.handledWith(mockEmployeeService.delete(input, idempotencyKey));
     }
 }
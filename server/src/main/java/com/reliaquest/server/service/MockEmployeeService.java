@@ -4,10 +4,14 @@ import com.reliaquest.server.config.ServerConfiguration;
 import com.reliaquest.server.model.CreateMockEmployeeInput;
 import com.reliaquest.server.model.DeleteMockEmployeeInput;
 import com.reliaquest.server.model.MockEmployee;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -25,6 +29,17 @@ public class MockEmployeeService {
     @Getter
     private final List<MockEmployee> mockEmployees;
 
+    // Results of the most recent writes by Idempotency-Key, so a retried write is answered with its first result
+    // instead of being applied again. Bounded so clients that never reuse keys cannot grow it without limit.
+    private static final int MAX_IDEMPOTENCY_KEYS = 1000;
+
+    private final Map<String, Object> idempotentResults = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > MAX_IDEMPOTENCY_KEYS;
+        }
+    });
+
     public Optional<MockEmployee> findById(@NonNull UUID uuid) {
         return mockEmployees.stream()
                 .filter(mockEmployee -> Objects.nonNull(mockEmployee.getId())
@@ -42,6 +57,23 @@ public class MockEmployeeService {
         return mockEmployee;
     }
 
+    public MockEmployee create(@NonNull CreateMockEmployeeInput input, String idempotencyKey) {
+        return idempotent(idempotencyKey, () -> create(input));
+    }
+
+    public boolean delete(@NonNull DeleteMockEmployeeInput input, String idempotencyKey) {
+        return idempotent(idempotencyKey, () -> delete(input));
+    }
+
+    // Applies the write once per key; requests without a key are applied every time
+    @SuppressWarnings("unchecked")
+    private <T> T idempotent(String idempotencyKey, Supplier<T> write) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return write.get();
+        }
+        return (T) idempotentResults.computeIfAbsent(idempotencyKey, key -> write.get());
+    }
+
     public boolean delete(@NonNull DeleteMockEmployeeInput input) {
         final var mockEmployee = mockEmployees.stream()
                 .filter(employee -> Objects.nonNull(employee.getName())